@@ -18,10 +18,21 @@
  */
 package fr.ritaly.dungeonmaster;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang.Validate;
 import org.apache.commons.logging.Log;
@@ -30,7 +41,21 @@ import org.apache.commons.logging.LogFactory;
 /**
  * The clock is the source of time ticks and broadcasts ticks to listening
  * objects inside the game. The clock runs in a separate thread and can be
- * paused / resumed.
+ * paused / resumed.<br>
+ * <br>
+ * Listeners can either be registered (see {@link #register(ClockListener)}) to
+ * be notified of every tick or be scheduled on the clock's timing wheel (see
+ * {@link #schedule(ClockListener, int)} and
+ * {@link #scheduleEvery(ClockListener, int)}) to only be notified when due. The
+ * registered instances of {@link PeriodicClockListener} are automatically
+ * scheduled on the timing wheel.<br>
+ * <br>
+ * The listeners are notified phase by phase (see {@link Phase}) in the order
+ * of registration. Within a phase, the listeners are notified level by level
+ * (see {@link HasLevel}), the levels being possibly ticked in parallel (see
+ * {@link #setExecutor(ExecutorService)}).
+ * The ticks are paced by a {@link TimeSource}. Use a {@link VirtualTimeSource}
+ * to run the game headless as fast as possible (see {@link #run(int)}).
  *
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
  */
@@ -58,12 +83,79 @@ public class Clock {
 	 */
 	private static final int DEFAULT_PERIOD = 166;
 
+	/**
+	 * The maximum number of late ticks executed back to back when the clock
+	 * falls behind its time source. Beyond this limit, the late ticks are
+	 * skipped.
+	 */
+	private static final int MAX_CATCH_UP = 30;
+
 	/**
 	 * Sequence representing the number of ticks since the clock started or was
 	 * reset.
 	 */
 	private int tickCount = 1;
 
+	/**
+	 * Paces the clock's ticks with the time source. The ticks are due at fixed
+	 * steps of {@link #period} ms. When the clock falls behind, the late ticks
+	 * are executed back to back to catch up (unless too late in which case the
+	 * clock resynchronizes with the time source).
+	 */
+	private final class Pacer {
+
+		/**
+		 * The time when the next tick is due.
+		 */
+		private long nextTick;
+
+		private Pacer() {
+			reset();
+		}
+
+		/**
+		 * Resynchronizes the pacer with the time source. The next tick is due
+		 * right now.
+		 */
+		private void reset() {
+			nextTick = timeSource.currentTimeMillis();
+		}
+
+		/**
+		 * Waits until the next tick is due.
+		 *
+		 * @throws InterruptedException
+		 *             if the current thread was interrupted while waiting.
+		 */
+		private void await() throws InterruptedException {
+			nextTick += period;
+
+			// How long should we wait before the next tick ?
+			final long now = timeSource.currentTimeMillis();
+			final long duration = nextTick - now;
+
+			if (duration > 0) {
+				if (log.isDebugEnabled()) {
+					log.debug("Waiting for " + duration + " ms");
+				}
+
+				timeSource.sleep(duration);
+			} else if (-duration >= MAX_CATCH_UP * period) {
+				log.warn("Missed " + (-duration / period) + " tick(s), resynchronizing");
+
+				profiler.ticksSkipped(-duration / period);
+
+				nextTick = now;
+			} else {
+				if (log.isDebugEnabled()) {
+					log.debug("Catching up " + (-duration) + " ms");
+				}
+
+				profiler.tickLate();
+			}
+		}
+	}
+
 	private final class Task implements Runnable {
 
 		/**
@@ -73,66 +165,57 @@ public class Clock {
 
 		@Override
 		public void run() {
-			while (!Thread.interrupted()) {
-				// When should the next tick occur ?
-				final long nextTick = System.currentTimeMillis() + period;
+			final Pacer pacer = new Pacer();
 
+			while (!Thread.interrupted()) {
 				_tick();
 
-				while (paused) {
-					// The clock has been paused, wait for the 'resume' signal
-					synchronized (this) {
-						try {
-							if (log.isDebugEnabled()) {
-								log.debug("Pausing clock ...");
-							}
-
-							wait();
-
-							if (log.isDebugEnabled()) {
-								log.debug("Pause interrupted");
-							}
-						} catch (InterruptedException e) {
-						}
-					}
+				if (awaitResume()) {
+					// Don't try to catch up the time spent paused
+					pacer.reset();
 				}
 
 				try {
-					// How long should we wait before the next tick ?
-					final long duration = nextTick - System.currentTimeMillis();
-
-					if (duration > 0) {
-						if (log.isDebugEnabled()) {
-							log.debug("Waiting for " + duration + " ms");
-						}
-
-						Thread.sleep(duration);
-					} else {
-						log.warn("Missed tick by " + duration + " ms");
-					}
+					pacer.await();
 				} catch (InterruptedException e) {
 					// Stop requested
 					break;
 				}
 
-				while (paused) {
-					// The clock has been paused, wait for the 'resume' signal
-					synchronized (this) {
-						try {
-							if (log.isDebugEnabled()) {
-								log.debug("Pausing clock ...");
-							}
+				if (awaitResume()) {
+					pacer.reset();
+				}
+			}
+		}
+
+		/**
+		 * Waits for the 'resume' signal if the clock has been paused and returns
+		 * whether the clock was paused.
+		 */
+		private boolean awaitResume() {
+			boolean waited = false;
+
+			while (paused) {
+				// The clock has been paused, wait for the 'resume' signal
+				synchronized (this) {
+					try {
+						if (log.isDebugEnabled()) {
+							log.debug("Pausing clock ...");
+						}
 
-							wait();
+						wait();
 
-							if (log.isDebugEnabled()) {
-								log.debug("Pause interrupted");
-							}
-						} catch (InterruptedException e) {
+						if (log.isDebugEnabled()) {
+							log.debug("Pause interrupted");
 						}
+					} catch (InterruptedException e) {
 					}
 				}
+
+				waited = true;
 			}
+
+			return waited;
 		}
 
 		/**
@@ -162,6 +245,189 @@ public class Clock {
 		}
 	}
 
+	/**
+	 * The listeners bound to the same level (see {@link HasLevel}) due at the
+	 * current tick.
+	 */
+	private final class Partition implements Callable<Object> {
+
+		/**
+		 * The indices of the listeners in {@link Clock#dueListeners}.
+		 */
+		private int[] indices = new int[16];
+
+		private int size;
+
+		/**
+		 * The commands deferred while notifying the listeners.
+		 */
+		private final List<Runnable> deferred = new ArrayList<Runnable>();
+
+		/**
+		 * The number of the partition's level or {@link HasLevel#NO_LEVEL}.
+		 */
+		private final int level;
+
+		/**
+		 * The random stream of the partition's level.
+		 */
+		private final RandomSource random;
+
+		private Partition(int level) {
+			this.level = level;
+			this.random = context.getLevelRandom(level);
+		}
+
+		private void add(int index) {
+			if (size == indices.length) {
+				indices = Arrays.copyOf(indices, 2 * size);
+			}
+
+			indices[size++] = index;
+		}
+
+		private void clear() {
+			size = 0;
+			deferred.clear();
+		}
+
+		private Clock getClock() {
+			return Clock.this;
+		}
+
+		@Override
+		public Object call() {
+			// The listeners run within the clock's context
+			final SimulationContext previous = context.bind();
+			final RandomSource previousRandom = context.bindRandom(random);
+			final Partition outer = PARTITION.get();
+
+			PARTITION.set(this);
+
+			try {
+				for (int i = 0; i < size; i++) {
+					Clock.this.notify(indices[i]);
+				}
+			} finally {
+				if (outer == null) {
+					PARTITION.remove();
+				} else {
+					PARTITION.set(outer);
+				}
+
+				context.bindRandom(previousRandom);
+				SimulationContext.restore(previous);
+			}
+
+			return null;
+		}
+
+		private void runDeferred() {
+			for (Runnable command : deferred) {
+				command.run();
+			}
+
+			deferred.clear();
+		}
+	}
+
+	/**
+	 * The partition whose listeners are being notified by the current thread.
+	 */
+	private static final ThreadLocal<Partition> PARTITION = new ThreadLocal<Partition>();
+
+	/**
+	 * Enumerates the phases of a clock tick in the order they're run. The
+	 * listeners are notified during the phase returned by
+	 * {@link PhasedClockListener#getPhase()} (or {@link #WORLD} by default).
+	 *
+	 * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+	 */
+	public static enum Phase {
+		/**
+		 * The party's moves.
+		 */
+		INPUT,
+		/**
+		 * The triggers, actuators and the other elements of the dungeon.
+		 */
+		WORLD,
+		/**
+		 * The creatures.
+		 */
+		AI,
+		/**
+		 * The projectiles.
+		 */
+		PROJECTILES,
+		/**
+		 * The champions, their stats and spells.
+		 */
+		CHAMPIONS,
+		/**
+		 * The listeners which must run once everything else has reacted to
+		 * the tick.
+		 */
+		CLEANUP;
+
+		private static final Phase[] VALUES = values();
+	}
+
+	/**
+	 * Array-backed list of the listeners registered for a phase. The
+	 * listeners are stored in the order of registration.
+	 */
+	private static final class ListenerList {
+
+		private ClockListener[] elements = new ClockListener[16];
+
+		private int size;
+
+		private void add(ClockListener listener) {
+			if (size == elements.length) {
+				elements = Arrays.copyOf(elements, 2 * size);
+			}
+
+			elements[size++] = listener;
+		}
+
+		private void remove(ClockListener listener) {
+			for (int i = 0; i < size; i++) {
+				if (elements[i] == listener) {
+					System.arraycopy(elements, i + 1, elements, i, size - i - 1);
+
+					elements[--size] = null;
+
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Removes the listeners whose flag is false. The flags are indexed
+		 * like the listeners.
+		 */
+		private void retain(boolean[] flags) {
+			int count = 0;
+
+			for (int i = 0; i < size; i++) {
+				if (flags[i]) {
+					elements[count++] = elements[i];
+				}
+			}
+
+			Arrays.fill(elements, count, size, null);
+
+			size = count;
+		}
+
+		private void clear() {
+			Arrays.fill(elements, 0, size, null);
+
+			size = 0;
+		}
+	}
+
 	/**
 	 * Enumerates the possible states of the clock.
 	 *
@@ -176,21 +442,72 @@ public class Clock {
 	private final Log log = LogFactory.getLog(Clock.class);
 
 	/**
-	 * There's only one instance of clock allowed in the game.
+	 * The context owning this clock.
 	 */
-	private static final Clock INSTANCE = new Clock();
+	private final SimulationContext context;
 
 	/**
 	 * Set containing the listeners to be notified of clock ticks.
 	 */
 	private final Set<ClockListener> listeners = new HashSet<ClockListener>();
 
+	/**
+	 * The listeners to be notified of clock ticks indexed by phase. The
+	 * listeners of a phase are notified in the order of registration.
+	 */
+	private final ListenerList[] phases = new ListenerList[Phase.VALUES.length];
+
+	/**
+	 * The tasks due at the current tick indexed by phase.
+	 */
+	private final List<List<ScheduledTask>> phaseTasks = new ArrayList<List<ScheduledTask>>(Phase.VALUES.length);
+
+	/**
+	 * The listeners due at the current tick. Only accessed by the thread
+	 * ticking the clock (the partitions only read it).
+	 */
+	private final List<ClockListener> dueListeners = new ArrayList<ClockListener>();
+
+	/**
+	 * The tasks due at the current tick (null for the registered listeners)
+	 * indexed like {@link #dueListeners}.
+	 */
+	private final List<ScheduledTask> dueTasks = new ArrayList<ScheduledTask>();
+
+	/**
+	 * The values returned by the listeners notified at the current tick
+	 * indexed like {@link #dueListeners}.
+	 */
+	private boolean[] results = new boolean[64];
+
+	/**
+	 * The partitions of the listeners due at the current tick sorted by level
+	 * number (the listeners bound to no level first).
+	 */
+	private final SortedMap<Integer, Partition> partitions = new TreeMap<Integer, Partition>();
+
+	/**
+	 * The partitions submitted to the executor at the current tick.
+	 */
+	private final List<Future<Object>> futures = new ArrayList<Future<Object>>();
+
+	/**
+	 * The executor notifying the listeners of different levels in parallel or
+	 * null to notify them on the clock's thread.
+	 */
+	private volatile ExecutorService executor;
+
+	/**
+	 * The profiler collecting statistics about the ticks.
+	 */
+	private final ClockProfiler profiler = new ClockProfiler();
+
 	/**
 	 * Buffer set used for storing the clock listeners to be registered at the
 	 * next clock tick. Necessary to avoid concurrent modification exceptions
 	 * when notifying listeners.
 	 */
-	private final Set<ClockListener> buffer = Collections.synchronizedSet(new HashSet<ClockListener>());
+	private final Set<ClockListener> buffer = Collections.synchronizedSet(new LinkedHashSet<ClockListener>());
 
 	/**
 	 * Buffer set used for storing the clock listeners to be unregistered at the
@@ -199,6 +516,18 @@ public class Clock {
 	 */
 	private final Set<ClockListener> trash = Collections.synchronizedSet(new HashSet<ClockListener>());
 
+	/**
+	 * The timing wheel storing the scheduled tasks. Also used as a lock when
+	 * accessing the wheel and {@link #periodicListeners}.
+	 */
+	private final TimingWheel wheel = new TimingWheel();
+
+	/**
+	 * The tasks scheduled for the registered {@link PeriodicClockListener}s
+	 * stored by listener.
+	 */
+	private final Map<ClockListener, ScheduledTask> periodicListeners = new HashMap<ClockListener, ScheduledTask>();
+
 	/**
 	 * The clock's thread.
 	 */
@@ -217,18 +546,56 @@ public class Clock {
 	/**
 	 * Period (in milliseconds) between 2 clock ticks.
 	 */
-	private long period = DEFAULT_PERIOD;
+	private volatile long period = DEFAULT_PERIOD;
+
+	/**
+	 * The source of time pacing the clock's ticks. Should never be null.
+	 */
+	private volatile TimeSource timeSource = TimeSource.SYSTEM;
+
+	Clock(SimulationContext context) {
+		Validate.notNull(context, "The given context is null");
 
-	private Clock() {
+		this.context = context;
+
+		for (int i = 0; i < phases.length; i++) {
+			phases[i] = new ListenerList();
+			phaseTasks.add(new ArrayList<ScheduledTask>());
+		}
 	}
 
 	/**
-	 * Returns the unique instance of {@link Clock}.
+	 * Returns the phase during which the given listener must be notified.
+	 */
+	private static Phase getPhase(ClockListener listener) {
+		if (listener instanceof PhasedClockListener) {
+			final Phase phase = ((PhasedClockListener) listener).getPhase();
+
+			Validate.notNull(phase, "The phase of " + listener + " is null");
+
+			return phase;
+		}
+
+		return Phase.WORLD;
+	}
+
+	/**
+	 * Returns the clock of the current {@link SimulationContext}.
 	 *
-	 * @return the unique instance of {@link Clock}.
+	 * @return the clock of the current context. Never returns null.
+	 * @see SimulationContext#getCurrent()
 	 */
 	public static Clock getInstance() {
-		return INSTANCE;
+		return SimulationContext.getCurrent().getClock();
+	}
+
+	/**
+	 * Returns the context owning this clock.
+	 *
+	 * @return a context. Never returns null.
+	 */
+	public SimulationContext getContext() {
+		return context;
 	}
 
 	/**
@@ -242,6 +609,19 @@ public class Clock {
 	public void register(ClockListener listener) {
 		Validate.notNull(listener, "The given clock listener is null");
 
+		if (listener instanceof PeriodicClockListener) {
+			synchronized (wheel) {
+				final ScheduledTask task = periodicListeners.get(listener);
+
+				if ((task == null) || !task.isScheduled()) {
+					periodicListeners.put(listener,
+							scheduleEvery(listener, ((PeriodicClockListener) listener).getPeriod()));
+				}
+			}
+
+			return;
+		}
+
 		buffer.add(listener);
 
 		if (log.isDebugEnabled()) {
@@ -260,6 +640,18 @@ public class Clock {
 	public void unregister(ClockListener listener) {
 		Validate.notNull(listener, "The given clock listener is null");
 
+		if (listener instanceof PeriodicClockListener) {
+			synchronized (wheel) {
+				final ScheduledTask task = periodicListeners.remove(listener);
+
+				if (task != null) {
+					task.cancel();
+				}
+			}
+
+			return;
+		}
+
 		trash.add(listener);
 
 		if (log.isDebugEnabled()) {
@@ -267,6 +659,159 @@ public class Clock {
 		}
 	}
 
+	/**
+	 * Tells whether the given clock listener is registered, that is, whether
+	 * it will be notified at the next ticks. A listener stops being registered
+	 * when it's unregistered, when it asks not to be notified anymore or when
+	 * the clock is reset.
+	 *
+	 * @param listener
+	 *            an instance of {@link ClockListener}. Can't be null.
+	 * @return whether the given clock listener is registered.
+	 */
+	public boolean isRegistered(ClockListener listener) {
+		Validate.notNull(listener, "The given clock listener is null");
+
+		if (listener instanceof PeriodicClockListener) {
+			synchronized (wheel) {
+				final ScheduledTask task = periodicListeners.get(listener);
+
+				return (task != null) && task.isScheduled();
+			}
+		}
+
+		if (trash.contains(listener)) {
+			return false;
+		}
+
+		return buffer.contains(listener) || listeners.contains(listener);
+	}
+
+	/**
+	 * Schedules the given listener so that it's notified once after the given
+	 * number of clock ticks. A delay of 1 means the listener will be notified
+	 * at the next clock tick. The value returned by the listener is ignored.
+	 *
+	 * @param listener
+	 *            the listener to notify. Can't be null.
+	 * @param delay
+	 *            a number of clock ticks. Must be positive.
+	 * @return the scheduled task. Never returns null.
+	 */
+	public ScheduledTask schedule(ClockListener listener, int delay) {
+		Validate.isTrue(delay > 0, String.format("The given delay %d must be positive", delay));
+
+		synchronized (wheel) {
+			return scheduleAt(listener, wheel.getCurrentTick() + delay);
+		}
+	}
+
+	/**
+	 * Returns the id of the clock tick at which a listener scheduled now with
+	 * the given delay would be notified.
+	 *
+	 * @param delay
+	 *            a number of clock ticks. Must be positive.
+	 * @return the id of a future clock tick.
+	 * @see #scheduleAt(ClockListener, int)
+	 */
+	public int getDueTick(int delay) {
+		Validate.isTrue(delay > 0, String.format("The given delay %d must be positive", delay));
+
+		synchronized (wheel) {
+			return wheel.getCurrentTick() + delay;
+		}
+	}
+
+	/**
+	 * Schedules the given listener so that it's notified once at the clock
+	 * tick with given id. The value returned by the listener is ignored.
+	 *
+	 * @param listener
+	 *            the listener to notify. Can't be null.
+	 * @param tickId
+	 *            the id of the tick when the listener must be notified. Must
+	 *            identify a future tick.
+	 * @return the scheduled task. Never returns null.
+	 * @see #getTickId()
+	 */
+	public ScheduledTask scheduleAt(ClockListener listener, int tickId) {
+		Validate.notNull(listener, "The given clock listener is null");
+
+		synchronized (wheel) {
+			final ScheduledTask task = new ScheduledTask(wheel, listener, tickId, 0);
+
+			wheel.add(task);
+
+			if (log.isDebugEnabled()) {
+				log.debug("Scheduled " + task);
+			}
+
+			return task;
+		}
+	}
+
+	/**
+	 * Schedules the given listener so that it's notified every n clock ticks,
+	 * the first notification occurring n ticks from now. The listener is
+	 * notified as long as it returns true or until the returned task is
+	 * cancelled.
+	 *
+	 * @param listener
+	 *            the listener to notify. Can't be null.
+	 * @param period
+	 *            the number of clock ticks between 2 notifications. Must be
+	 *            positive.
+	 * @return the scheduled task. Never returns null.
+	 */
+	public ScheduledTask scheduleEvery(ClockListener listener, int period) {
+		return scheduleEvery(listener, period, period);
+	}
+
+	/**
+	 * Schedules the given listener so that it's notified after the given delay
+	 * and then every n clock ticks. The listener is notified as long as it
+	 * returns true or until the returned task is cancelled.
+	 *
+	 * @param listener
+	 *            the listener to notify. Can't be null.
+	 * @param delay
+	 *            the number of clock ticks before the first notification. Must
+	 *            be positive.
+	 * @param period
+	 *            the number of clock ticks between 2 notifications. Must be
+	 *            positive.
+	 * @return the scheduled task. Never returns null.
+	 */
+	public ScheduledTask scheduleEvery(ClockListener listener, int delay, int period) {
+		Validate.notNull(listener, "The given clock listener is null");
+		Validate.isTrue(delay > 0, String.format("The given delay %d must be positive", delay));
+		Validate.isTrue(period > 0, String.format("The given period %d must be positive", period));
+
+		synchronized (wheel) {
+			final ScheduledTask task = new ScheduledTask(wheel, listener, wheel.getCurrentTick() + delay, period);
+
+			wheel.add(task);
+
+			if (log.isDebugEnabled()) {
+				log.debug("Scheduled " + task);
+			}
+
+			return task;
+		}
+	}
+
+	/**
+	 * Returns the number of tasks currently scheduled on the timing wheel.
+	 *
+	 * @return a positive or zero integer.
+	 */
+	public int getScheduledTaskCount() {
+		synchronized (wheel) {
+			return wheel.size();
+		}
+	}
+
 	/**
 	 * Pauses the clock.
 	 */
@@ -369,43 +914,414 @@ public class Clock {
 	}
 
 	private void _tick() {
+		// The listeners run within the clock's context
+		final SimulationContext previous = context.bind();
+		final boolean profiled = profiler.isEnabled();
+		final long start = profiled ? System.nanoTime() : 0L;
+
+		try {
+			doTick();
+		} finally {
+			SimulationContext.restore(previous);
+
+			if (profiled) {
+				profiler.tickRan(System.nanoTime() - start);
+			}
+		}
+	}
+
+	private void doTick() {
 		if (log.isDebugEnabled()) {
 			log.debug(String.format("[----------- Tick #%d -----------]", tickCount));
 		}
 
+		// Advance the wheel first so that the tasks scheduled while notifying
+		// the listeners are due at the next ticks at the earliest
+		synchronized (wheel) {
+			wheel.advance(tickCount);
+		}
+
 		// Careful with the order when adding / removing listeners
 		if (!buffer.isEmpty()) {
 			// There are listeners pending for registration, add them to the live set
-			listeners.addAll(buffer);
-			buffer.clear();
+			synchronized (buffer) {
+				for (ClockListener listener : buffer) {
+					if (listeners.add(listener)) {
+						phases[getPhase(listener).ordinal()].add(listener);
+					}
+				}
+
+				buffer.clear();
+			}
 		}
 		if (!trash.isEmpty()) {
 			// There are listeners pending for unregistration, remove them from the live set
-			listeners.removeAll(trash);
-			trash.clear();
+			synchronized (trash) {
+				for (ClockListener listener : trash) {
+					if (listeners.remove(listener)) {
+						phases[getPhase(listener).ordinal()].remove(listener);
+					}
+				}
+
+				trash.clear();
+			}
 		}
 
-		if (!listeners.isEmpty()) {
-			if (log.isDebugEnabled()) {
-				log.debug(String.format("Clock is notifying %d listener(s) ...", listeners.size()));
+		// Sort the tasks due at this tick by phase
+		while (true) {
+			final ScheduledTask task;
+
+			synchronized (wheel) {
+				task = wheel.poll();
+			}
+
+			if (task == null) {
+				break;
 			}
 
-			for (final Iterator<ClockListener> it = listeners.iterator(); it.hasNext();) {
-				final ClockListener listener = it.next();
+			phaseTasks.get(getPhase(task.getListener()).ordinal()).add(task);
+		}
+
+		try {
+			for (Phase phase : Phase.VALUES) {
+				final ListenerList registered = phases[phase.ordinal()];
+				final List<ScheduledTask> tasks = phaseTasks.get(phase.ordinal());
+
+				if ((registered.size == 0) && tasks.isEmpty()) {
+					continue;
+				}
 
-				if (!listener.clockTicked()) {
+				// The registered listeners first then the tasks
+				for (int i = 0; i < registered.size; i++) {
+					dueListeners.add(registered.elements[i]);
+					dueTasks.add(null);
+				}
+				for (ScheduledTask task : tasks) {
+					dueListeners.add(task.getListener());
+					dueTasks.add(task);
+				}
+
+				if (log.isDebugEnabled()) {
+					log.debug(String.format("Clock is notifying %d listener(s) during phase %s ...",
+							dueListeners.size(), phase));
+				}
+
+				final boolean profiled = profiler.isEnabled();
+				final long start = profiled ? System.nanoTime() : 0L;
+
+				try {
+					notifyListeners();
+
+					// Remove the listeners which returned false
+					registered.retain(results);
+				} finally {
+					if (profiled) {
+						profiler.phaseRan(phase, System.nanoTime() - start);
+					}
+
+					dueListeners.clear();
+					dueTasks.clear();
+				}
+			}
+		} finally {
+			for (List<ScheduledTask> tasks : phaseTasks) {
+				tasks.clear();
+			}
+		}
+
+		tickCount++;
+	}
+
+	/**
+	 * Notifies the listeners due at the current tick partitioned by level: the
+	 * listeners bound to no level first, then the listeners bound to each
+	 * level (in parallel if an executor is set). The commands deferred by the
+	 * partitions are run last in the partitions' order.
+	 */
+	private void notifyListeners() {
+		final int count = dueListeners.size();
+
+		if (results.length < count) {
+			results = new boolean[Math.max(count, 2 * results.length)];
+		}
+
+		for (Partition partition : partitions.values()) {
+			partition.clear();
+		}
+
+		for (int i = 0; i < count; i++) {
+			final ClockListener listener = dueListeners.get(i);
+			final int level = (listener instanceof HasLevel) ? ((HasLevel) listener).getLevelNumber()
+					: HasLevel.NO_LEVEL;
+
+			Partition partition = partitions.get(level);
+
+			if (partition == null) {
+				partitions.put(level, partition = new Partition(level));
+			}
+
+			partition.add(i);
+		}
+
+		// The listeners bound to no level can interact with any level
+		final Partition global = partitions.get(HasLevel.NO_LEVEL);
+
+		if (global != null) {
+			global.call();
+		}
+
+		final ExecutorService executor = this.executor;
+
+		int levelCount = 0;
+
+		for (Partition partition : partitions.values()) {
+			if ((partition != global) && (partition.size > 0)) {
+				levelCount++;
+			}
+		}
+
+		if ((executor == null) || (levelCount < 2)) {
+			for (Partition partition : partitions.values()) {
+				if ((partition != global) && (partition.size > 0)) {
+					partition.call();
+				}
+			}
+		} else {
+			for (Partition partition : partitions.values()) {
+				if ((partition != global) && (partition.size > 0)) {
+					futures.add(executor.submit(partition));
+				}
+			}
+
+			try {
+				awaitPartitions();
+			} finally {
+				futures.clear();
+			}
+		}
+
+		// Merge the partitions in a deterministic order
+		if (global != null) {
+			global.runDeferred();
+		}
+		for (Partition partition : partitions.values()) {
+			if (partition != global) {
+				partition.runDeferred();
+			}
+		}
+
+		for (int i = 0; i < count; i++) {
+			final ScheduledTask task = dueTasks.get(i);
+
+			if (task == null) {
+				if (!results[i]) {
 					// The listener is not interested any more in tick events,
 					// unregister it right away
-					it.remove();
+					final ClockListener listener = dueListeners.get(i);
+
+					listeners.remove(listener);
 
 					if (log.isDebugEnabled()) {
 						log.debug("Unregistered " + listener);
 					}
 				}
+			} else {
+				completed(task, results[i]);
 			}
 		}
+	}
 
-		tickCount++;
+	/**
+	 * Waits for the partitions submitted to the executor to complete and
+	 * rethrows the first exception raised.
+	 */
+	private void awaitPartitions() {
+		boolean interrupted = false;
+
+		try {
+			for (Future<Object> future : futures) {
+				while (true) {
+					try {
+						future.get();
+
+						break;
+					} catch (InterruptedException e) {
+						// The listeners must all be notified before leaving
+						interrupted = true;
+					} catch (ExecutionException e) {
+						final Throwable cause = e.getCause();
+
+						if (cause instanceof RuntimeException) {
+							throw (RuntimeException) cause;
+						}
+						if (cause instanceof Error) {
+							throw (Error) cause;
+						}
+
+						throw new RuntimeException(cause);
+					}
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Notifies the listener with the given index in {@link #dueListeners} and
+	 * stores the returned value in {@link #results}.
+	 */
+	private void notify(int index) {
+		final ScheduledTask task = dueTasks.get(index);
+
+		if (task != null) {
+			synchronized (wheel) {
+				if (!task.isScheduled()) {
+					// The task has been cancelled in the mean time
+					results[index] = false;
+
+					return;
+				}
+			}
+		}
+
+		final ClockListener listener = dueListeners.get(index);
+
+		if (profiler.isEnabled()) {
+			final long start = System.nanoTime();
+
+			results[index] = listener.clockTicked();
+
+			profiler.listenerNotified(listener, System.nanoTime() - start);
+		} else {
+			results[index] = listener.clockTicked();
+		}
+	}
+
+	/**
+	 * Reschedules the given task or marks it as completed once its listener
+	 * has been notified.
+	 *
+	 * @param task
+	 *            the task whose listener was notified.
+	 * @param again
+	 *            the value returned by the listener.
+	 */
+	private void completed(ScheduledTask task, boolean again) {
+		final ClockListener listener = task.getListener();
+
+		synchronized (wheel) {
+			if (!task.isScheduled()) {
+				// The task has been cancelled in the mean time
+				return;
+			}
+
+			if (again && task.isPeriodic()) {
+				if (periodicListeners.get(listener) == task) {
+					// The period of a registered listener can vary
+					final int period = ((PeriodicClockListener) listener).getPeriod();
+
+					Validate.isTrue(period > 0, String.format("The period %d of %s must be positive", period,
+							listener));
+
+					task.setPeriod(period);
+				}
+
+				task.setDueTick(tickCount + task.getPeriod());
+
+				wheel.add(task);
+			} else {
+				task.completed();
+
+				if (periodicListeners.get(listener) == task) {
+					periodicListeners.remove(listener);
+				}
+
+				if (log.isDebugEnabled()) {
+					log.debug("Completed " + task);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Defers the given command to the end of the current tick if called from a
+	 * listener bound to a level (see {@link HasLevel}), otherwise runs it right
+	 * away. The listeners bound to a level must defer the actions affecting
+	 * another level (for instance a creature falling into a pit) as the other
+	 * level may be ticked concurrently. The deferred commands are run once all
+	 * the listeners have been notified in the order of the levels they were
+	 * deferred from.
+	 *
+	 * @param command
+	 *            the command to run. Can't be null.
+	 */
+	public void defer(Runnable command) {
+		Validate.notNull(command, "The given command is null");
+
+		final Partition partition = PARTITION.get();
+
+		if ((partition != null) && (partition.getClock() == this)) {
+			partition.deferred.add(command);
+		} else {
+			command.run();
+		}
+	}
+
+	/**
+	 * Tells whether the current thread is notifying the listeners bound to a
+	 * level (see {@link HasLevel}). Those listeners may run concurrently with
+	 * the listeners bound to the other levels and mustn't read the state of
+	 * the other levels.
+	 *
+	 * @return whether the current thread is notifying the listeners bound to
+	 *         a level of this clock.
+	 */
+	public boolean isNotifyingLevel() {
+		final Partition partition = PARTITION.get();
+
+		return (partition != null) && (partition.getClock() == this) && (partition.level != HasLevel.NO_LEVEL);
+	}
+
+	/**
+	 * Returns the profiler collecting statistics about the ticks of this
+	 * clock. The profiler is disabled by default.
+	 *
+	 * @return a profiler. Never returns null.
+	 */
+	public ClockProfiler getProfiler() {
+		return profiler;
+	}
+
+	/**
+	 * Returns the executor notifying the listeners bound to different levels
+	 * in parallel.
+	 *
+	 * @return an executor or null if the listeners are notified on the clock's
+	 *         thread.
+	 */
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Sets the executor used for notifying the listeners bound to different
+	 * levels in parallel. The listeners bound to the same level are always
+	 * notified in sequence and the result of a tick is the same whether the
+	 * executor is set or not.
+	 *
+	 * @param executor
+	 *            an executor or null to notify all the listeners on the
+	 *            clock's thread.
+	 */
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+
+		if (log.isInfoEnabled()) {
+			log.info((executor != null) ? "Clock now ticking levels in parallel" : "Clock now ticking levels in sequence");
+		}
 	}
 
 	public synchronized long getPeriod() {
@@ -418,6 +1334,86 @@ public class Clock {
 		this.period = period;
 	}
 
+	/**
+	 * Returns the source of time pacing the clock's ticks.
+	 *
+	 * @return a time source. Never returns null.
+	 */
+	public TimeSource getTimeSource() {
+		return timeSource;
+	}
+
+	/**
+	 * Sets the source of time pacing the clock's ticks. Set a
+	 * {@link VirtualTimeSource} to execute the ticks back to back as fast as
+	 * possible. The clock must be stopped.
+	 *
+	 * @param timeSource
+	 *            the time source to set. Can't be null.
+	 */
+	public synchronized void setTimeSource(TimeSource timeSource) {
+		Validate.notNull(timeSource, "The given time source is null");
+
+		if (!isStopped()) {
+			throw new IllegalStateException("The clock isn't stopped");
+		}
+
+		this.timeSource = timeSource;
+
+		if (log.isInfoEnabled()) {
+			log.info("Clock now paced by " + timeSource);
+		}
+	}
+
+	/**
+	 * Runs the clock on the current thread for n ticks paced by the time
+	 * source (see {@link #setTimeSource(TimeSource)}). With a
+	 * {@link VirtualTimeSource}, the ticks are executed back to back and the
+	 * virtual time advances by {@link #getPeriod()} ms per tick. The clock must
+	 * be stopped. If the current thread is interrupted, the method returns
+	 * early and the thread's interrupted status is set.
+	 *
+	 * @param n
+	 *            the number of times the clock must tick. Must be positive.
+	 * @return the number of times the clock actually ticked.
+	 */
+	public int run(final int n) {
+		Validate.isTrue(n > 0, String.format("The given tick count %d must be positive", n));
+
+		if (!isStopped()) {
+			throw new IllegalStateException("The clock isn't stopped");
+		}
+
+		if (log.isDebugEnabled()) {
+			log.debug(String.format("Running %d tick(s) ...", n));
+		}
+
+		final Pacer pacer = new Pacer();
+
+		int count = 0;
+
+		while (count < n) {
+			_tick();
+
+			count++;
+
+			try {
+				pacer.await();
+			} catch (InterruptedException e) {
+				// Restore the interrupted status for the caller
+				Thread.currentThread().interrupt();
+
+				break;
+			}
+		}
+
+		if (log.isDebugEnabled()) {
+			log.debug(String.format("Ran %d tick(s)", count));
+		}
+
+		return count;
+	}
+
 	/**
 	 * Make the clock tick. Useful for manually controlling the clock (typically
 	 * for tests).
@@ -467,10 +1463,26 @@ public class Clock {
 	 */
 	public synchronized void reset() {
 		listeners.clear();
+
+		for (ListenerList list : phases) {
+			list.clear();
+		}
+
 		buffer.clear();
 		trash.clear();
 
+		synchronized (wheel) {
+			wheel.clear(0);
+			periodicListeners.clear();
+		}
+
 		tickCount = 1;
+		period = DEFAULT_PERIOD;
+		timeSource = TimeSource.SYSTEM;
+		executor = null;
+
+		profiler.setEnabled(false);
+		profiler.reset();
 
 		if (log.isInfoEnabled()) {
 			log.info("Clock reset");
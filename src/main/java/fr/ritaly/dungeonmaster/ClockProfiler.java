@@ -0,0 +1,490 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.commons.lang.Validate;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Collects statistics about the ticks of a {@link Clock}: the invocation count
+ * and durations of the listeners per class, the durations of the ticks and of
+ * their phases and the number of ticks which ran late or were skipped. The
+ * profiler is disabled by default and then only counts the late and skipped
+ * ticks. The statistics can be queried over JMX (see {@link #registerMBean()})
+ * and dumped to a file (see {@link #dump(File)}).
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ * @see Clock#getProfiler()
+ */
+public class ClockProfiler implements ClockProfilerMBean {
+
+	/**
+	 * The statistics collected for a class of listeners.
+	 */
+	public static final class ListenerProfile {
+
+		private final Class<?> listenerClass;
+
+		private final AtomicLong count = new AtomicLong();
+
+		private final AtomicLong totalNanos = new AtomicLong();
+
+		private final AtomicLong maxNanos = new AtomicLong();
+
+		private ListenerProfile(Class<?> listenerClass) {
+			this.listenerClass = listenerClass;
+		}
+
+		private void record(long nanos) {
+			count.incrementAndGet();
+			totalNanos.addAndGet(nanos);
+
+			long max;
+
+			while (nanos > (max = maxNanos.get())) {
+				if (maxNanos.compareAndSet(max, nanos)) {
+					break;
+				}
+			}
+		}
+
+		public Class<?> getListenerClass() {
+			return listenerClass;
+		}
+
+		/**
+		 * Returns the number of times the listeners of this class were
+		 * notified.
+		 */
+		public long getCount() {
+			return count.get();
+		}
+
+		/**
+		 * Returns the cumulated duration (in nanoseconds) of the
+		 * notifications.
+		 */
+		public long getTotalNanos() {
+			return totalNanos.get();
+		}
+
+		/**
+		 * Returns the maximum duration (in nanoseconds) of a notification.
+		 */
+		public long getMaxNanos() {
+			return maxNanos.get();
+		}
+
+		@Override
+		public String toString() {
+			final long count = getCount();
+
+			return String.format("%s [count=%d, total=%d ns, average=%d ns, max=%d ns]",
+					listenerClass.getName(), count, getTotalNanos(), (count > 0) ? getTotalNanos() / count : 0,
+					getMaxNanos());
+		}
+	}
+
+	/**
+	 * Sorts the profiles by decreasing total duration.
+	 */
+	private static final Comparator<ListenerProfile> SLOWEST_FIRST = new Comparator<ListenerProfile>() {
+		@Override
+		public int compare(ListenerProfile o1, ListenerProfile o2) {
+			final long nanos1 = o1.getTotalNanos(), nanos2 = o2.getTotalNanos();
+
+			return (nanos1 > nanos2) ? -1 : ((nanos1 == nanos2) ? 0 : 1);
+		}
+	};
+
+	/**
+	 * The upper bounds (in milliseconds, exclusive) of the buckets of the tick
+	 * duration histogram. The last bucket counts the longer ticks.
+	 */
+	private static final long[] HISTOGRAM_BOUNDS = { 1, 2, 4, 8, 16, 32, 64, 128, 256 };
+
+	private final Log log = LogFactory.getLog(ClockProfiler.class);
+
+	private volatile boolean enabled;
+
+	private final ConcurrentMap<Class<?>, ListenerProfile> profiles = new ConcurrentHashMap<Class<?>, ListenerProfile>();
+
+	private final AtomicLong tickCount = new AtomicLong();
+
+	private final AtomicLong maxTickNanos = new AtomicLong();
+
+	private final AtomicLong lateTickCount = new AtomicLong();
+
+	private final AtomicLong skippedTickCount = new AtomicLong();
+
+	private final AtomicLongArray histogram = new AtomicLongArray(HISTOGRAM_BOUNDS.length + 1);
+
+	private final AtomicLongArray phaseNanos = new AtomicLongArray(Clock.Phase.values().length);
+
+	/**
+	 * The name under which this profiler is registered on the platform MBean
+	 * server or null if not registered.
+	 */
+	private ObjectName objectName;
+
+	ClockProfiler() {
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@Override
+	public void setEnabled(boolean enabled) {
+		if (this.enabled == enabled) {
+			return;
+		}
+
+		this.enabled = enabled;
+
+		if (log.isInfoEnabled()) {
+			log.info("Clock profiler " + (enabled ? "enabled" : "disabled"));
+		}
+	}
+
+	/**
+	 * Records the notification of the given listener.
+	 *
+	 * @param listener
+	 *            the listener notified.
+	 * @param nanos
+	 *            the duration (in nanoseconds) of the notification.
+	 */
+	void listenerNotified(ClockListener listener, long nanos) {
+		final Class<?> listenerClass = listener.getClass();
+
+		ListenerProfile profile = profiles.get(listenerClass);
+
+		if (profile == null) {
+			final ListenerProfile existing = profiles.putIfAbsent(listenerClass,
+					profile = new ListenerProfile(listenerClass));
+
+			if (existing != null) {
+				profile = existing;
+			}
+		}
+
+		profile.record(nanos);
+	}
+
+	/**
+	 * Records the duration (in nanoseconds) of a tick phase.
+	 */
+	void phaseRan(Clock.Phase phase, long nanos) {
+		phaseNanos.addAndGet(phase.ordinal(), nanos);
+	}
+
+	/**
+	 * Records the duration (in nanoseconds) of a tick.
+	 */
+	void tickRan(long nanos) {
+		tickCount.incrementAndGet();
+
+		long max;
+
+		while (nanos > (max = maxTickNanos.get())) {
+			if (maxTickNanos.compareAndSet(max, nanos)) {
+				break;
+			}
+		}
+
+		final long millis = nanos / 1000000L;
+
+		int bucket = 0;
+
+		while ((bucket < HISTOGRAM_BOUNDS.length) && (millis >= HISTOGRAM_BOUNDS[bucket])) {
+			bucket++;
+		}
+
+		histogram.incrementAndGet(bucket);
+	}
+
+	/**
+	 * Records a tick which ran late. Always recorded.
+	 */
+	void tickLate() {
+		lateTickCount.incrementAndGet();
+	}
+
+	/**
+	 * Records the given number of skipped ticks. Always recorded.
+	 */
+	void ticksSkipped(long count) {
+		skippedTickCount.addAndGet(count);
+	}
+
+	@Override
+	public long getTickCount() {
+		return tickCount.get();
+	}
+
+	@Override
+	public long getLateTickCount() {
+		return lateTickCount.get();
+	}
+
+	@Override
+	public long getSkippedTickCount() {
+		return skippedTickCount.get();
+	}
+
+	@Override
+	public long getMaxTickNanos() {
+		return maxTickNanos.get();
+	}
+
+	/**
+	 * Returns the upper bounds (in milliseconds, exclusive) of the buckets of
+	 * the tick duration histogram. The histogram has one more bucket counting
+	 * the longer ticks.
+	 *
+	 * @return a new array. Never returns null.
+	 */
+	public long[] getHistogramBounds() {
+		return HISTOGRAM_BOUNDS.clone();
+	}
+
+	@Override
+	public long[] getTickDurationHistogram() {
+		final long[] result = new long[histogram.length()];
+
+		for (int i = 0; i < result.length; i++) {
+			result[i] = histogram.get(i);
+		}
+
+		return result;
+	}
+
+	@Override
+	public long[] getPhaseNanos() {
+		final long[] result = new long[phaseNanos.length()];
+
+		for (int i = 0; i < result.length; i++) {
+			result[i] = phaseNanos.get(i);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the profile of the given listener class.
+	 *
+	 * @param listenerClass
+	 *            a class of listener. Can't be null.
+	 * @return a profile or null if no listener of this class was profiled.
+	 */
+	public ListenerProfile getProfile(Class<?> listenerClass) {
+		Validate.notNull(listenerClass, "The given listener class is null");
+
+		return profiles.get(listenerClass);
+	}
+
+	/**
+	 * Returns the profiles of the n listener classes which took the most time.
+	 *
+	 * @param n
+	 *            the maximum number of profiles to return. Must be positive.
+	 * @return a new list sorted by decreasing total duration. Never returns
+	 *         null.
+	 */
+	public List<ListenerProfile> getSlowestProfiles(int n) {
+		Validate.isTrue(n > 0, String.format("The given count %d must be positive", n));
+
+		final List<ListenerProfile> list = new ArrayList<ListenerProfile>(profiles.values());
+
+		Collections.sort(list, SLOWEST_FIRST);
+
+		return (list.size() > n) ? new ArrayList<ListenerProfile>(list.subList(0, n)) : list;
+	}
+
+	@Override
+	public String[] getSlowestListeners(int n) {
+		final List<ListenerProfile> list = getSlowestProfiles(n);
+		final String[] result = new String[list.size()];
+
+		for (int i = 0; i < result.length; i++) {
+			result[i] = list.get(i).toString();
+		}
+
+		return result;
+	}
+
+	@Override
+	public void reset() {
+		profiles.clear();
+		tickCount.set(0);
+		maxTickNanos.set(0);
+		lateTickCount.set(0);
+		skippedTickCount.set(0);
+
+		for (int i = 0; i < histogram.length(); i++) {
+			histogram.set(i, 0);
+		}
+		for (int i = 0; i < phaseNanos.length(); i++) {
+			phaseNanos.set(i, 0);
+		}
+	}
+
+	/**
+	 * Writes a report of the statistics collected so far to the given writer.
+	 *
+	 * @param writer
+	 *            the writer to dump to. Can't be null.
+	 */
+	public void dump(Writer writer) {
+		Validate.notNull(writer, "The given writer is null");
+
+		final PrintWriter out = new PrintWriter(writer);
+
+		out.println("Ticks: " + getTickCount());
+		out.println("Late ticks: " + getLateTickCount());
+		out.println("Skipped ticks: " + getSkippedTickCount());
+		out.println("Max tick: " + getMaxTickNanos() + " ns");
+		out.println();
+		out.println("Tick durations:");
+
+		final long[] counts = getTickDurationHistogram();
+
+		for (int i = 0; i < counts.length; i++) {
+			if (i < HISTOGRAM_BOUNDS.length) {
+				out.println(String.format("  < %d ms: %d", HISTOGRAM_BOUNDS[i], counts[i]));
+			} else {
+				out.println(String.format(" >= %d ms: %d", HISTOGRAM_BOUNDS[i - 1], counts[i]));
+			}
+		}
+
+		out.println();
+		out.println("Phases:");
+
+		final long[] nanos = getPhaseNanos();
+
+		for (Clock.Phase phase : Clock.Phase.values()) {
+			out.println(String.format("  %s: %d ns", phase, nanos[phase.ordinal()]));
+		}
+
+		out.println();
+		out.println("Listeners:");
+
+		if (!profiles.isEmpty()) {
+			for (ListenerProfile profile : getSlowestProfiles(profiles.size())) {
+				out.println("  " + profile);
+			}
+		}
+
+		out.flush();
+	}
+
+	/**
+	 * Dumps the statistics collected so far to the given file.
+	 *
+	 * @param file
+	 *            the file to dump to. Can't be null.
+	 * @throws IOException
+	 *             if the file can't be written.
+	 */
+	public void dump(File file) throws IOException {
+		Validate.notNull(file, "The given file is null");
+
+		final FileWriter writer = new FileWriter(file);
+
+		try {
+			dump(writer);
+		} finally {
+			writer.close();
+		}
+	}
+
+	@Override
+	public void dump(String path) {
+		Validate.notNull(path, "The given path is null");
+
+		try {
+			dump(new File(path));
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to dump the clock profile to <" + path + ">", e);
+		}
+	}
+
+	/**
+	 * Registers this profiler on the platform MBean server.
+	 *
+	 * @return the name under which the profiler has been registered. Never
+	 *         returns null.
+	 */
+	public synchronized ObjectName registerMBean() {
+		if (objectName != null) {
+			throw new IllegalStateException("The clock profiler is already registered");
+		}
+
+		try {
+			final ObjectName name = new ObjectName("fr.ritaly.dungeonmaster:type=ClockProfiler,id="
+					+ Integer.toHexString(System.identityHashCode(this)));
+
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+
+			this.objectName = name;
+		} catch (JMException e) {
+			throw new IllegalStateException("Unable to register the clock profiler", e);
+		}
+
+		return objectName;
+	}
+
+	/**
+	 * Unregisters this profiler from the platform MBean server.
+	 */
+	public synchronized void unregisterMBean() {
+		if (objectName == null) {
+			throw new IllegalStateException("The clock profiler isn't registered");
+		}
+
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		} catch (JMException e) {
+			throw new IllegalStateException("Unable to unregister the clock profiler", e);
+		} finally {
+			objectName = null;
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster;
+
+/**
+ * JMX interface of the {@link ClockProfiler}.
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ */
+public interface ClockProfilerMBean {
+
+	public boolean isEnabled();
+
+	public void setEnabled(boolean enabled);
+
+	/**
+	 * Returns the number of ticks profiled.
+	 */
+	public long getTickCount();
+
+	/**
+	 * Returns the number of ticks which ran late (executed back to back to
+	 * catch up with the time source).
+	 */
+	public long getLateTickCount();
+
+	/**
+	 * Returns the number of ticks skipped because the clock fell too far
+	 * behind its time source.
+	 */
+	public long getSkippedTickCount();
+
+	/**
+	 * Returns the maximum duration (in nanoseconds) of a tick.
+	 */
+	public long getMaxTickNanos();
+
+	/**
+	 * Returns the histogram of the tick durations. See
+	 * {@link ClockProfiler#getHistogramBounds()} for the bounds of the buckets.
+	 */
+	public long[] getTickDurationHistogram();
+
+	/**
+	 * Returns the cumulated durations (in nanoseconds) of the tick phases
+	 * indexed by phase ordinal.
+	 */
+	public long[] getPhaseNanos();
+
+	/**
+	 * Returns a description of the n listener classes which took the most
+	 * time.
+	 */
+	public String[] getSlowestListeners(int n);
+
+	/**
+	 * Resets the statistics collected so far.
+	 */
+	public void reset();
+
+	/**
+	 * Dumps the statistics collected so far to the file with the given path.
+	 */
+	public void dump(String path);
+}
@@ -20,7 +20,10 @@ package fr.ritaly.dungeonmaster;
 
 /**
  * Custom implementation of {@link ClockListener} used for running a given
- * command after a defined wait time.
+ * command after a defined wait time. The command can either be registered on
+ * the {@link Clock} (it then counts down the clock ticks itself) or be
+ * scheduled on the clock's timing wheel via {@link #schedule()} (it's then only
+ * notified when the wait time elapsed).
  *
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
  */
@@ -31,8 +34,38 @@ public abstract class DeferredCommand implements ClockListener {
 	 */
 	private final Temporizer temporizer;
 
+	/**
+	 * The wait time as a number of clock ticks.
+	 */
+	private final int delay;
+
 	public DeferredCommand(String label, int max) {
 		this.temporizer = new Temporizer(label, max);
+		this.delay = max;
+	}
+
+	/**
+	 * Schedules this command on the clock so that it runs once the wait time
+	 * elapsed. Contrary to {@link Clock#register(ClockListener)}, the command
+	 * isn't notified of the intermediate clock ticks.
+	 *
+	 * @return the scheduled task which can be used to cancel the command.
+	 *         Never returns null.
+	 */
+	public final ScheduledTask schedule() {
+		return Clock.getInstance().schedule(new ClockListener() {
+			@Override
+			public boolean clockTicked() {
+				run();
+
+				return false;
+			}
+
+			@Override
+			public String toString() {
+				return DeferredCommand.this.toString();
+			}
+		}, delay);
 	}
 
 	/**
@@ -19,7 +19,6 @@
 package fr.ritaly.dungeonmaster;
 
 import org.apache.commons.lang.Validate;
-import org.apache.commons.lang.math.RandomUtils;
 
 /**
  * Enumerates the possible move directions.
@@ -34,11 +33,6 @@ public enum Direction implements Place {
 	UP,
 	DOWN;
 
-	/**
-	 * The total number of directions.
-	 */
-	private static final int COUNT = values().length;
-
 	/**
 	 * Returns the direction opposed to this one. Example: if this is NORTH then
 	 * returns SOUTH.
@@ -130,17 +124,17 @@ public enum Direction implements Place {
 
 		switch (this) {
 		case NORTH:
-			return new Position(position.x, position.y - 1, position.z);
+			return Position.valueOf(position.x, position.y - 1, position.z);
 		case DOWN:
-			return new Position(position.x, position.y, position.z + 1);
+			return Position.valueOf(position.x, position.y, position.z + 1);
 		case EAST:
-			return new Position(position.x + 1, position.y, position.z);
+			return Position.valueOf(position.x + 1, position.y, position.z);
 		case SOUTH:
-			return new Position(position.x, position.y + 1, position.z);
+			return Position.valueOf(position.x, position.y + 1, position.z);
 		case UP:
-			return new Position(position.x, position.y, position.z - 1);
+			return Position.valueOf(position.x, position.y, position.z - 1);
 		case WEST:
-			return new Position(position.x - 1, position.y, position.z);
+			return Position.valueOf(position.x - 1, position.y, position.z);
 		default:
 			throw new UnsupportedOperationException();
 		}
@@ -197,7 +191,7 @@ public enum Direction implements Place {
 	 * @return a direction. Never returns null.
 	 */
 	public static Direction random() {
-		return values()[RandomUtils.nextInt(COUNT)];
+		return Utils.random().nextDirection();
 	}
 
 	/**
@@ -0,0 +1,41 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster;
+
+/**
+ * An object bound to a level of the dungeon. The {@link Clock} notifies the
+ * listeners bound to different levels independently (possibly in parallel, see
+ * {@link Clock#setExecutor(java.util.concurrent.ExecutorService)}).
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ */
+public interface HasLevel {
+
+	/**
+	 * The level number returned when the object isn't bound to any level.
+	 */
+	public static final int NO_LEVEL = -1;
+
+	/**
+	 * Returns the number of the level the object is bound to.
+	 *
+	 * @return a positive or zero integer or {@link #NO_LEVEL}.
+	 */
+	public int getLevelNumber();
+}
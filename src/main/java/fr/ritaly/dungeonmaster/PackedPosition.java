@@ -0,0 +1,195 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster;
+
+/**
+ * Encodes a position [x,y,z] into a single integer to manipulate positions
+ * without allocating any {@link Position}. The x and y coordinates are stored
+ * on 12 bits each and the z coordinate on 8 bits (all signed). The static
+ * methods of this class mirror the ones of {@link Position}.
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ * @see Position#pack()
+ * @see Position#valueOf(int)
+ */
+public final class PackedPosition {
+
+	/**
+	 * The minimum value of the x and y coordinates.
+	 */
+	public static final int MIN_XY = -2048;
+
+	/**
+	 * The maximum value of the x and y coordinates.
+	 */
+	public static final int MAX_XY = 2047;
+
+	/**
+	 * The minimum value of the z coordinate.
+	 */
+	public static final int MIN_Z = -128;
+
+	/**
+	 * The maximum value of the z coordinate.
+	 */
+	public static final int MAX_Z = 127;
+
+	private PackedPosition() {
+	}
+
+	/**
+	 * Encodes the given coordinates into an integer.
+	 *
+	 * @param x
+	 *            the x coordinate. Must be within [{@link #MIN_XY},
+	 *            {@link #MAX_XY}].
+	 * @param y
+	 *            the y coordinate. Must be within [{@link #MIN_XY},
+	 *            {@link #MAX_XY}].
+	 * @param z
+	 *            the z coordinate. Must be within [{@link #MIN_Z},
+	 *            {@link #MAX_Z}].
+	 * @return an integer encoding the position.
+	 */
+	public static int pack(int x, int y, int z) {
+		if ((x < MIN_XY) || (x > MAX_XY) || (y < MIN_XY) || (y > MAX_XY) || (z < MIN_Z) || (z > MAX_Z)) {
+			throw new IllegalArgumentException("The given coordinates [" + z + ":" + x + "," + y
+					+ "] can't be packed");
+		}
+
+		return (z << 24) | ((y & 0xFFF) << 12) | (x & 0xFFF);
+	}
+
+	/**
+	 * Returns the x coordinate of the given packed position.
+	 *
+	 * @param packed
+	 *            an integer encoding a position.
+	 * @return the x coordinate of the position.
+	 */
+	public static int getX(int packed) {
+		// Shift left then right to restore the sign
+		return (packed << 20) >> 20;
+	}
+
+	/**
+	 * Returns the y coordinate of the given packed position.
+	 *
+	 * @param packed
+	 *            an integer encoding a position.
+	 * @return the y coordinate of the position.
+	 */
+	public static int getY(int packed) {
+		return (packed << 8) >> 20;
+	}
+
+	/**
+	 * Returns the z coordinate of the given packed position.
+	 *
+	 * @param packed
+	 *            an integer encoding a position.
+	 * @return the z coordinate of the position.
+	 */
+	public static int getZ(int packed) {
+		return packed >> 24;
+	}
+
+	/**
+	 * Returns the position reached when moving from the given position towards
+	 * the given direction.
+	 *
+	 * @param packed
+	 *            an integer encoding a position.
+	 * @param direction
+	 *            the direction to move towards. Can't be null.
+	 * @return an integer encoding the position reached.
+	 * @see Position#towards(Direction)
+	 */
+	public static int towards(int packed, Direction direction) {
+		final int x = getX(packed), y = getY(packed), z = getZ(packed);
+
+		switch (direction) {
+		case NORTH:
+			return pack(x, y - 1, z);
+		case DOWN:
+			return pack(x, y, z + 1);
+		case EAST:
+			return pack(x + 1, y, z);
+		case SOUTH:
+			return pack(x, y + 1, z);
+		case UP:
+			return pack(x, y, z - 1);
+		case WEST:
+			return pack(x - 1, y, z);
+		default:
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * Returns whether the 2 given positions have the same x and z coordinates.
+	 *
+	 * @see Position#isAlignedX(Position)
+	 */
+	public static boolean isAlignedX(int packed1, int packed2) {
+		return (getZ(packed1) == getZ(packed2)) && (getX(packed1) == getX(packed2));
+	}
+
+	/**
+	 * Returns whether the 2 given positions have the same y and z coordinates.
+	 *
+	 * @see Position#isAlignedY(Position)
+	 */
+	public static boolean isAlignedY(int packed1, int packed2) {
+		return (getZ(packed1) == getZ(packed2)) && (getY(packed1) == getY(packed2));
+	}
+
+	/**
+	 * Returns whether the 2 given positions have the same z and (x or y)
+	 * coordinates.
+	 *
+	 * @see Position#isAligned(Position)
+	 */
+	public static boolean isAligned(int packed1, int packed2) {
+		return isAlignedX(packed1, packed2) || isAlignedY(packed1, packed2);
+	}
+
+	/**
+	 * Returns the (interned) {@link Position} encoded by the given integer.
+	 *
+	 * @param packed
+	 *            an integer encoding a position.
+	 * @return a position. Never returns null.
+	 */
+	public static Position toPosition(int packed) {
+		return Position.valueOf(packed);
+	}
+
+	/**
+	 * Returns a string representation of the given packed position with the
+	 * same format as {@link Position#toString()}.
+	 *
+	 * @param packed
+	 *            an integer encoding a position.
+	 * @return a string. Never returns null.
+	 */
+	public static String toString(int packed) {
+		return String.format("[%d:%d,%d]", getZ(packed), getX(packed), getY(packed));
+	}
+}
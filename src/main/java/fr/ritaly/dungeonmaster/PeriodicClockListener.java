@@ -0,0 +1,40 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster;
+
+/**
+ * A {@link ClockListener} only interested in one clock tick out of n. When
+ * registered on the {@link Clock}, such a listener isn't notified of every
+ * clock tick but is scheduled on the clock's timing wheel and only notified
+ * every {@link #getPeriod()} ticks. This saves the cost of notifying listeners
+ * which would otherwise count down ticks with a {@link Temporizer}.
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ */
+public interface PeriodicClockListener extends ClockListener {
+
+	/**
+	 * Returns the number of clock ticks between 2 notifications of this
+	 * listener. The period is queried each time the listener is (re)scheduled
+	 * and can therefore vary over time.
+	 *
+	 * @return a positive integer representing a number of clock ticks.
+	 */
+	public int getPeriod();
+}
@@ -0,0 +1,38 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster;
+
+/**
+ * A {@link ClockListener} notified during a given phase of the clock ticks.
+ * The listeners which don't implement this interface are notified during the
+ * {@link Clock.Phase#WORLD} phase.
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ */
+public interface PhasedClockListener extends ClockListener {
+
+	/**
+	 * Returns the phase of the clock ticks during which this listener must be
+	 * notified. The phase is queried each time the listener is registered or
+	 * (re)scheduled.
+	 *
+	 * @return a phase. Never returns null.
+	 */
+	public Clock.Phase getPhase();
+}
@@ -27,7 +27,7 @@ import fr.ritaly.dungeonmaster.magic.PowerRune;
  *
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
  */
-public class Poison implements ClockListener {
+public class Poison implements PhasedClockListener {
 
 	/**
 	 * The current strength of poison. The value decreases over time. When the
@@ -86,6 +86,11 @@ public class Poison implements ClockListener {
 		}
 	}
 
+	@Override
+	public Clock.Phase getPhase() {
+		return Clock.Phase.CHAMPIONS;
+	}
+
 	@Override
 	public boolean clockTicked() {
 		if (temporizer.trigger()) {
@@ -19,11 +19,11 @@
 package fr.ritaly.dungeonmaster;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.Validate;
-import org.apache.commons.lang.math.RandomUtils;
 
 /**
  * A position is a triplet of integers [x,y,z] representing a location inside
@@ -48,9 +48,19 @@ public final class Position implements Place {
 
 	private final int hash;
 
-	private final String toString;
+	/**
+	 * The string representation of this position. Lazily computed.
+	 */
+	private String toString;
+
+	/**
+	 * The tables interning the positions of each level indexed by z. A table
+	 * is owned by its level and sized from the level's width and height (see
+	 * {@link #register(PositionTable)}). The array is replaced (never
+	 * modified) when a table is registered.
+	 */
+	private static volatile PositionTable[] tables = new PositionTable[0];
 
-	// FIXME Create a factory method valueOf(x,y,z) to reuse instances ?
 	public Position(int x, int y, int z) {
 		this.x = x;
 		this.y = y;
@@ -63,11 +73,85 @@ public final class Position implements Place {
 		hashCode = (hashCode * 31) + z;
 
 		this.hash = hashCode;
-		this.toString = String.format("[%d:%d,%d]", z, x, y);
+	}
+
+	/**
+	 * Returns the position with the given coordinates. The positions located
+	 * inside a level are interned (see {@link PositionTable}) so that calling
+	 * this method twice with the same coordinates returns the same instance.
+	 *
+	 * @param x
+	 *            the x coordinate of the position.
+	 * @param y
+	 *            the y coordinate of the position.
+	 * @param z
+	 *            the z coordinate of the position.
+	 * @return a position. Never returns null.
+	 */
+	public static Position valueOf(int x, int y, int z) {
+		final PositionTable[] tables = Position.tables;
+
+		if ((z >= 0) && (z < tables.length)) {
+			final PositionTable table = tables[z];
+
+			if ((table != null) && table.contains(x, y)) {
+				return table.get(x, y);
+			}
+		}
+
+		// Position outside a level (when looking beyond the level's limits
+		// typically), don't intern it
+		return new Position(x, y, z);
+	}
+
+	/**
+	 * Registers the given table so that {@link #valueOf(int, int, int)}
+	 * returns its positions for the table's z coordinate. The table replaces
+	 * the one previously registered for the same z coordinate (if any).
+	 *
+	 * @param table
+	 *            the table to register. Can't be null.
+	 */
+	public static void register(PositionTable table) {
+		Validate.notNull(table, "The given table is null");
+
+		synchronized (Position.class) {
+			final PositionTable[] copy = Arrays.copyOf(tables, Math.max(tables.length, table.getZ() + 1));
+
+			copy[table.getZ()] = table;
+
+			tables = copy;
+		}
+	}
+
+	/**
+	 * Returns the position encoded by the given integer.
+	 *
+	 * @param packed
+	 *            an integer encoding a position.
+	 * @return a position. Never returns null.
+	 * @see PackedPosition
+	 */
+	public static Position valueOf(int packed) {
+		return valueOf(PackedPosition.getX(packed), PackedPosition.getY(packed), PackedPosition.getZ(packed));
+	}
+
+	/**
+	 * Returns this position encoded as an integer.
+	 *
+	 * @return an integer encoding this position.
+	 * @see PackedPosition
+	 */
+	public int pack() {
+		return PackedPosition.pack(x, y, z);
 	}
 
 	@Override
 	public final String toString() {
+		if (toString == null) {
+			toString = String.format("[%d:%d,%d]", z, x, y);
+		}
+
 		return toString;
 	}
 
@@ -303,17 +387,17 @@ public final class Position implements Place {
 				}
 
 				if (inside) {
-					positions.add(new Position(this.x + x, this.y + y, this.z));
+					positions.add(valueOf(this.x + x, this.y + y, this.z));
 
 					if (y != 0) {
-						positions.add(new Position(this.x + x, this.y - y, this.z));
+						positions.add(valueOf(this.x + x, this.y - y, this.z));
 					}
 
 					if (x != 0) {
-						positions.add(new Position(this.x - x, this.y + y, this.z));
+						positions.add(valueOf(this.x - x, this.y + y, this.z));
 
 						if (y != 0) {
-							positions.add(new Position(this.x - x, this.y - y, this.z));
+							positions.add(valueOf(this.x - x, this.y - y, this.z));
 						}
 					}
 				}
@@ -406,64 +490,64 @@ public final class Position implements Place {
 
 		switch (lookDirection) {
 		case NORTH:
-			positions.add(new Position(x - 1, y - 1, z));
-			positions.add(new Position(x, y - 1, z));
-			positions.add(new Position(x + 1, y - 1, z));
-
-			positions.add(new Position(x - 1, y - 2, z));
-			positions.add(new Position(x, y - 2, z));
-			positions.add(new Position(x + 1, y - 2, z));
-
-			positions.add(new Position(x - 2, y - 3, z));
-			positions.add(new Position(x - 1, y - 3, z));
-			positions.add(new Position(x, y - 3, z));
-			positions.add(new Position(x + 1, y - 3, z));
-			positions.add(new Position(x + 2, y - 3, z));
+			positions.add(valueOf(x - 1, y - 1, z));
+			positions.add(valueOf(x, y - 1, z));
+			positions.add(valueOf(x + 1, y - 1, z));
+
+			positions.add(valueOf(x - 1, y - 2, z));
+			positions.add(valueOf(x, y - 2, z));
+			positions.add(valueOf(x + 1, y - 2, z));
+
+			positions.add(valueOf(x - 2, y - 3, z));
+			positions.add(valueOf(x - 1, y - 3, z));
+			positions.add(valueOf(x, y - 3, z));
+			positions.add(valueOf(x + 1, y - 3, z));
+			positions.add(valueOf(x + 2, y - 3, z));
 			break;
 		case SOUTH:
-			positions.add(new Position(x - 1, y + 1, z));
-			positions.add(new Position(x, y + 1, z));
-			positions.add(new Position(x + 1, y + 1, z));
-
-			positions.add(new Position(x - 1, y + 2, z));
-			positions.add(new Position(x, y + 2, z));
-			positions.add(new Position(x + 1, y + 2, z));
-
-			positions.add(new Position(x - 2, y + 3, z));
-			positions.add(new Position(x - 1, y + 3, z));
-			positions.add(new Position(x, y + 3, z));
-			positions.add(new Position(x + 1, y + 3, z));
-			positions.add(new Position(x + 2, y + 3, z));
+			positions.add(valueOf(x - 1, y + 1, z));
+			positions.add(valueOf(x, y + 1, z));
+			positions.add(valueOf(x + 1, y + 1, z));
+
+			positions.add(valueOf(x - 1, y + 2, z));
+			positions.add(valueOf(x, y + 2, z));
+			positions.add(valueOf(x + 1, y + 2, z));
+
+			positions.add(valueOf(x - 2, y + 3, z));
+			positions.add(valueOf(x - 1, y + 3, z));
+			positions.add(valueOf(x, y + 3, z));
+			positions.add(valueOf(x + 1, y + 3, z));
+			positions.add(valueOf(x + 2, y + 3, z));
 			break;
 		case WEST:
-			positions.add(new Position(x - 1, y - 1, z));
-			positions.add(new Position(x - 1, y, z));
-			positions.add(new Position(x - 1, y + 1, z));
-
-			positions.add(new Position(x - 2, y - 1, z));
-			positions.add(new Position(x - 2, y, z));
-			positions.add(new Position(x - 2, y + 1, z));
-
-			positions.add(new Position(x - 3, y - 2, z));
-			positions.add(new Position(x - 3, y - 1, z));
-			positions.add(new Position(x - 3, y, z));
-			positions.add(new Position(x - 3, y + 1, z));
-			positions.add(new Position(x - 3, y + 2, z));
+			positions.add(valueOf(x - 1, y - 1, z));
+			positions.add(valueOf(x - 1, y, z));
+			positions.add(valueOf(x - 1, y + 1, z));
+
+			positions.add(valueOf(x - 2, y - 1, z));
+			positions.add(valueOf(x - 2, y, z));
+			positions.add(valueOf(x - 2, y + 1, z));
+
+			positions.add(valueOf(x - 3, y - 2, z));
+			positions.add(valueOf(x - 3, y - 1, z));
+			positions.add(valueOf(x - 3, y, z));
+			positions.add(valueOf(x - 3, y + 1, z));
+			positions.add(valueOf(x - 3, y + 2, z));
 			break;
 		case EAST:
-			positions.add(new Position(x + 1, y - 1, z));
-			positions.add(new Position(x + 1, y, z));
-			positions.add(new Position(x + 1, y + 1, z));
-
-			positions.add(new Position(x + 2, y - 1, z));
-			positions.add(new Position(x + 2, y, z));
-			positions.add(new Position(x + 2, y + 1, z));
-
-			positions.add(new Position(x + 3, y - 2, z));
-			positions.add(new Position(x + 3, y - 1, z));
-			positions.add(new Position(x + 3, y, z));
-			positions.add(new Position(x + 3, y + 1, z));
-			positions.add(new Position(x + 3, y + 2, z));
+			positions.add(valueOf(x + 1, y - 1, z));
+			positions.add(valueOf(x + 1, y, z));
+			positions.add(valueOf(x + 1, y + 1, z));
+
+			positions.add(valueOf(x + 2, y - 1, z));
+			positions.add(valueOf(x + 2, y, z));
+			positions.add(valueOf(x + 2, y + 1, z));
+
+			positions.add(valueOf(x + 3, y - 2, z));
+			positions.add(valueOf(x + 3, y - 1, z));
+			positions.add(valueOf(x + 3, y, z));
+			positions.add(valueOf(x + 3, y + 1, z));
+			positions.add(valueOf(x + 3, y + 2, z));
 			break;
 		default:
 			throw new UnsupportedOperationException("Unsupported direction " + lookDirection);
@@ -623,10 +707,10 @@ public final class Position implements Place {
 		final List<Position> positions = new ArrayList<Position>(4 * range);
 
 		for (int i = 1; i <= range; i++) {
-			positions.add(new Position(x-i, y, z));
-			positions.add(new Position(x+i, y, z));
-			positions.add(new Position(x, y-i, z));
-			positions.add(new Position(x, y+i, z));
+			positions.add(valueOf(x-i, y, z));
+			positions.add(valueOf(x+i, y, z));
+			positions.add(valueOf(x, y-i, z));
+			positions.add(valueOf(x, y+i, z));
 		}
 
 		return positions;
@@ -694,7 +778,7 @@ public final class Position implements Place {
 				directions[1] = (deltaY > 0) ? Direction.SOUTH: Direction.NORTH;
 
 				// Toss one direction
-				return directions[RandomUtils.nextInt(2)];
+				return directions[Utils.random().nextInt(2)];
 			}
 
 			if (Math.abs(deltaX) > Math.abs(deltaY)) {
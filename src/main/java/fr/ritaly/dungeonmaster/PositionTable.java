@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * The interned {@link Position}s of a level. A table is sized from the level's
+ * width and height and holds one position per cell so that the positions of
+ * the level are never re-allocated. Once registered (see
+ * {@link Position#register(PositionTable)}), the table backs
+ * {@link Position#valueOf(int, int, int)} for the level's z coordinate.
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ */
+public final class PositionTable {
+
+	/**
+	 * The z coordinate of the positions in this table.
+	 */
+	private final int z;
+
+	private final int width;
+
+	private final int height;
+
+	/**
+	 * The positions indexed by x + y * width. The table is filled upon
+	 * creation and never modified afterwards.
+	 */
+	private final Position[] positions;
+
+	public PositionTable(int z, int width, int height) {
+		Validate.isTrue(z >= 0, String.format("The given z coordinate %d must be positive or zero", z));
+		Validate.isTrue(width > 0, String.format("The given width %d must be positive", width));
+		Validate.isTrue(height > 0, String.format("The given height %d must be positive", height));
+
+		this.z = z;
+		this.width = width;
+		this.height = height;
+		this.positions = new Position[width * height];
+
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				positions[x + y * width] = new Position(x, y, z);
+			}
+		}
+	}
+
+	public int getZ() {
+		return z;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Tells whether the given coordinates are inside this table.
+	 *
+	 * @param x
+	 *            the x coordinate.
+	 * @param y
+	 *            the y coordinate.
+	 * @return whether the given coordinates are inside this table.
+	 */
+	public boolean contains(int x, int y) {
+		return (x >= 0) && (x < width) && (y >= 0) && (y < height);
+	}
+
+	/**
+	 * Returns the interned position with the given coordinates.
+	 *
+	 * @param x
+	 *            the x coordinate. Must be inside the table (see
+	 *            {@link #contains(int, int)}).
+	 * @param y
+	 *            the y coordinate. Must be inside the table.
+	 * @return a position. Never returns null.
+	 */
+	public Position get(int x, int y) {
+		if (!contains(x, y)) {
+			throw new IllegalArgumentException("The given coordinates [" + z + ":" + x + "," + y
+					+ "] are outside the table");
+		}
+
+		return positions[x + y * width];
+	}
+}
@@ -0,0 +1,294 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster;
+
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * A fast, seedable and splittable generator of pseudo-random numbers (based on
+ * the SplitMix64 algorithm). A generator isn't thread-safe: each thread (and
+ * each level ticked by the clock) uses its own stream obtained with
+ * {@link #split()} or {@link #stream(long, long)}. Use
+ * {@link SimulationContext#getRandom()} to get the stream of the current
+ * thread.
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ */
+public final class RandomSource {
+
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private static final Sector[] SECTORS = Sector.values();
+
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	/**
+	 * The 4 directions a creature or the party can move towards.
+	 */
+	private static final Direction[] CARDINAL_DIRECTIONS = { Direction.NORTH, Direction.EAST, Direction.SOUTH,
+			Direction.WEST };
+
+	private long seed;
+
+	/**
+	 * The increment added to the seed at each step. Always odd.
+	 */
+	private final long gamma;
+
+	/**
+	 * Creates a new generator from the given seed. Two generators created with
+	 * the same seed generate the same sequence.
+	 *
+	 * @param seed
+	 *            the seed of the generator.
+	 */
+	public RandomSource(long seed) {
+		this(seed, GOLDEN_GAMMA);
+	}
+
+	private RandomSource(long seed, long gamma) {
+		this.seed = seed;
+		this.gamma = gamma;
+	}
+
+	/**
+	 * Returns a new generator for the stream with the given id derived from
+	 * the given seed. The generators returned for the same seed and id
+	 * generate the same sequence and the streams with different ids are
+	 * independent.
+	 *
+	 * @param seed
+	 *            the seed of the generator.
+	 * @param id
+	 *            the id of the stream.
+	 * @return a new generator. Never returns null.
+	 */
+	public static RandomSource stream(long seed, long id) {
+		return new RandomSource(mix64(seed + (id + 1) * GOLDEN_GAMMA), mixGamma(mix64(seed ^ id) + GOLDEN_GAMMA));
+	}
+
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+
+		return z ^ (z >>> 31);
+	}
+
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+		z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		z = (z ^ (z >>> 33)) | 1L;
+
+		// Avoid the gammas with too few bit transitions
+		return (Long.bitCount(z ^ (z >>> 1)) < 24) ? z ^ 0xAAAAAAAAAAAAAAAAL : z;
+	}
+
+	/**
+	 * Returns a new generator independent from this one. This generator
+	 * advances so that successive splits return different generators.
+	 *
+	 * @return a new generator. Never returns null.
+	 */
+	public RandomSource split() {
+		return new RandomSource(nextLong(), mixGamma(nextSeed()));
+	}
+
+	private long nextSeed() {
+		return (seed += gamma);
+	}
+
+	public long nextLong() {
+		return mix64(nextSeed());
+	}
+
+	public int nextInt() {
+		return (int) (nextLong() >>> 32);
+	}
+
+	/**
+	 * Returns a random integer within [0, bound[.
+	 *
+	 * @param bound
+	 *            the exclusive upper bound. Must be positive.
+	 * @return a random integer.
+	 */
+	public int nextInt(int bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("The given bound " + bound + " must be positive");
+		}
+
+		// Lemire's multiply-shift reduction (the bias is negligible)
+		return (int) (((nextLong() >>> 32) * bound) >>> 32);
+	}
+
+	/**
+	 * Returns a random integer within [min, max].
+	 *
+	 * @param min
+	 *            the inclusive lower bound.
+	 * @param max
+	 *            the inclusive upper bound. Must be greater than or equal to
+	 *            min.
+	 * @return a random integer.
+	 */
+	public int nextInt(int min, int max) {
+		if (max < min) {
+			throw new IllegalArgumentException("The given min " + min + " must be lesser than the max " + max);
+		}
+
+		return min + nextInt(max - min + 1);
+	}
+
+	public boolean nextBoolean() {
+		return nextLong() < 0;
+	}
+
+	/**
+	 * Returns a random float within [0, 1[.
+	 */
+	public float nextFloat() {
+		return (nextLong() >>> 40) * 0x1.0p-24f;
+	}
+
+	/**
+	 * Returns a random double within [0, 1[.
+	 */
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	public Sector nextSector() {
+		return SECTORS[nextInt(SECTORS.length)];
+	}
+
+	/**
+	 * Returns a random direction (including {@link Direction#UP} and
+	 * {@link Direction#DOWN}).
+	 */
+	public Direction nextDirection() {
+		return DIRECTIONS[nextInt(DIRECTIONS.length)];
+	}
+
+	/**
+	 * Returns a random direction among NORTH, EAST, SOUTH and WEST.
+	 */
+	public Direction nextCardinalDirection() {
+		return CARDINAL_DIRECTIONS[nextInt(CARDINAL_DIRECTIONS.length)];
+	}
+
+	/**
+	 * Returns a random element of the given array.
+	 *
+	 * @param array
+	 *            an array. Can't be null or empty.
+	 * @return an element of the array.
+	 */
+	public <T> T pick(T[] array) {
+		Validate.notNull(array, "The given array is null");
+
+		return array[nextInt(array.length)];
+	}
+
+	/**
+	 * Returns a random element of the given list.
+	 *
+	 * @param list
+	 *            a list. Can't be null or empty.
+	 * @return an element of the list.
+	 */
+	public <T> T pick(List<T> list) {
+		Validate.notNull(list, "The given list is null");
+
+		return list.get(nextInt(list.size()));
+	}
+
+	/**
+	 * Shuffles the given array in place.
+	 *
+	 * @param array
+	 *            the array to shuffle. Can't be null.
+	 */
+	public void shuffle(int[] array) {
+		Validate.notNull(array, "The given array is null");
+
+		for (int i = array.length - 1; i > 0; i--) {
+			final int j = nextInt(i + 1);
+			final int tmp = array[i];
+
+			array[i] = array[j];
+			array[j] = tmp;
+		}
+	}
+
+	/**
+	 * Shuffles the given array in place.
+	 *
+	 * @param array
+	 *            the array to shuffle. Can't be null.
+	 */
+	public void shuffle(Object[] array) {
+		Validate.notNull(array, "The given array is null");
+
+		for (int i = array.length - 1; i > 0; i--) {
+			final int j = nextInt(i + 1);
+			final Object tmp = array[i];
+
+			array[i] = array[j];
+			array[j] = tmp;
+		}
+	}
+
+	/**
+	 * Shuffles the given list in place. Doesn't allocate any memory when the
+	 * list supports random access.
+	 *
+	 * @param list
+	 *            the list to shuffle. Can't be null.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public void shuffle(List<?> list) {
+		Validate.notNull(list, "The given list is null");
+
+		if (!(list instanceof RandomAccess)) {
+			// Shuffle a copy of the list then write it back
+			final Object[] array = list.toArray();
+
+			shuffle(array);
+
+			final ListIterator it = list.listIterator();
+
+			for (Object element : array) {
+				it.next();
+				it.set(element);
+			}
+
+			return;
+		}
+
+		final List raw = list;
+
+		for (int i = list.size() - 1; i > 0; i--) {
+			raw.set(i, raw.set(nextInt(i + 1), raw.get(i)));
+		}
+	}
+}
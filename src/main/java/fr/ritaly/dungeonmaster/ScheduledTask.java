@@ -0,0 +1,209 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster;
+
+/**
+ * Handle returned by the {@link Clock} when scheduling a {@link ClockListener}
+ * on its timing wheel. A scheduled task can be either a one-shot task (the
+ * listener is notified once when the task is due) or a periodic task (the
+ * listener is notified every n clock ticks as long as it returns true from
+ * {@link ClockListener#clockTicked()}). The handle can be used to cancel the
+ * task before it's due.
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ */
+public final class ScheduledTask {
+
+	/**
+	 * The listener to notify when the task is due. Null for the sentinel nodes
+	 * used internally by the timing wheel.
+	 */
+	private final ClockListener listener;
+
+	/**
+	 * The wheel this task is scheduled on. Also used as a lock.
+	 */
+	private final TimingWheel wheel;
+
+	/**
+	 * The number of clock ticks between 2 notifications. Zero for a one-shot
+	 * task.
+	 */
+	private int period;
+
+	/**
+	 * The id of the clock tick when the task is due.
+	 */
+	private int dueTick;
+
+	/**
+	 * Whether the task is still scheduled, that is, neither completed nor
+	 * cancelled.
+	 */
+	private boolean scheduled;
+
+	/**
+	 * Whether the task has been cancelled.
+	 */
+	private boolean cancelled;
+
+	/**
+	 * The previous task in the (circular) list of the wheel slot. Null when
+	 * the task isn't linked to any slot.
+	 */
+	ScheduledTask previous;
+
+	/**
+	 * The next task in the (circular) list of the wheel slot. Null when the
+	 * task isn't linked to any slot.
+	 */
+	ScheduledTask next;
+
+	/**
+	 * Creates a sentinel node for the given wheel.
+	 */
+	ScheduledTask(TimingWheel wheel) {
+		this.wheel = wheel;
+		this.listener = null;
+		this.previous = this;
+		this.next = this;
+	}
+
+	ScheduledTask(TimingWheel wheel, ClockListener listener, int dueTick, int period) {
+		this.wheel = wheel;
+		this.listener = listener;
+		this.dueTick = dueTick;
+		this.period = period;
+		this.scheduled = true;
+	}
+
+	/**
+	 * Returns the listener notified by this task.
+	 *
+	 * @return a {@link ClockListener}. Never returns null.
+	 */
+	public ClockListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * Returns the id of the clock tick when this task is (or was last) due.
+	 *
+	 * @return an integer identifying a clock tick.
+	 */
+	public int getDueTick() {
+		synchronized (wheel) {
+			return dueTick;
+		}
+	}
+
+	/**
+	 * Returns the number of clock ticks between 2 notifications of the
+	 * listener.
+	 *
+	 * @return a positive integer or zero if the task is a one-shot task.
+	 */
+	public int getPeriod() {
+		synchronized (wheel) {
+			return period;
+		}
+	}
+
+	/**
+	 * Tells whether this task is periodic.
+	 *
+	 * @return whether this task is periodic.
+	 */
+	public boolean isPeriodic() {
+		return getPeriod() > 0;
+	}
+
+	/**
+	 * Tells whether this task is still scheduled, that is, neither completed
+	 * nor cancelled.
+	 *
+	 * @return whether this task is still scheduled.
+	 */
+	public boolean isScheduled() {
+		synchronized (wheel) {
+			return scheduled;
+		}
+	}
+
+	/**
+	 * Tells whether this task has been cancelled.
+	 *
+	 * @return whether this task has been cancelled.
+	 */
+	public boolean isCancelled() {
+		synchronized (wheel) {
+			return cancelled;
+		}
+	}
+
+	/**
+	 * Cancels this task. The listener won't be notified any more. Does nothing
+	 * if the task already completed or has already been cancelled.
+	 *
+	 * @return whether the task was cancelled by this call.
+	 */
+	public boolean cancel() {
+		synchronized (wheel) {
+			if (!scheduled) {
+				return false;
+			}
+
+			scheduled = false;
+			cancelled = true;
+
+			wheel.remove(this);
+
+			return true;
+		}
+	}
+
+	// Methods below are only meant to be called by the wheel (under lock)
+
+	void setDueTick(int dueTick) {
+		this.dueTick = dueTick;
+	}
+
+	void setPeriod(int period) {
+		this.period = period;
+	}
+
+	void completed() {
+		this.scheduled = false;
+	}
+
+	void cancelled() {
+		this.scheduled = false;
+		this.cancelled = true;
+	}
+
+	boolean isLinked() {
+		return (next != null);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[listener=%s, dueTick=%d, period=%d]", ScheduledTask.class.getSimpleName(), listener,
+				dueTick, period);
+	}
+}
@@ -22,7 +22,6 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.lang.Validate;
-import org.apache.commons.lang.math.RandomUtils;
 
 import fr.ritaly.dungeonmaster.champion.Party;
 import fr.ritaly.dungeonmaster.map.Element;
@@ -39,18 +38,13 @@ public enum Sector implements Place {
 	SOUTH_WEST,
 	SOUTH_EAST;
 
-	/**
-	 * The total number of existing sectors.
-	 */
-	private static final int COUNT = values().length;
-
 	/**
 	 * Returns a random sector.
 	 *
 	 * @return a sector. Never returns null.
 	 */
 	public static Sector random() {
-		return Sector.values()[RandomUtils.nextInt(COUNT)];
+		return Utils.random().nextSector();
 	}
 
 	/**
@@ -65,7 +59,7 @@ public enum Sector implements Place {
 	public static Sector randomVisible(Direction direction) {
 		Validate.notNull(direction, "The given direction is null");
 
-		return getVisibleSectors(direction).get(RandomUtils.nextInt(2));
+		return getVisibleSectors(direction).get(Utils.random().nextInt(2));
 	}
 
 	/**
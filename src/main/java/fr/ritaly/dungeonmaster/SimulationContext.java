@@ -0,0 +1,297 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang.Validate;
+
+import fr.ritaly.dungeonmaster.audio.SoundSystem;
+
+/**
+ * The context of a game session: its clock, sound system, random number
+ * generator and the sequences used for assigning ids to items, creatures and
+ * projectiles. Several contexts can coexist in the same JVM so that several
+ * independent dungeons can be simulated side by side.<br>
+ * <br>
+ * The context is bound to the current thread (see {@link #getCurrent()}) and
+ * resolved by {@link Clock#getInstance()} and {@link SoundSystem#getInstance()}
+ * so that the objects of a game session don't need a reference to it. A clock
+ * binds its context while ticking hence the tick listeners always run within
+ * their context. When no context is bound, the default one is used.<br>
+ * <br>
+ * The random numbers are drawn from streams derived from the context's seed
+ * (see {@link #getRandom()}) so that a game session replays identically when
+ * created with the same seed, even when the levels are ticked in parallel.
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ */
+public class SimulationContext {
+
+	/**
+	 * The context used when none is bound to the current thread.
+	 */
+	private static final SimulationContext DEFAULT = new SimulationContext();
+
+	/**
+	 * The context bound to each thread.
+	 */
+	private static final ThreadLocal<SimulationContext> CURRENT = new ThreadLocal<SimulationContext>();
+
+	private final Clock clock;
+
+	private final SoundSystem soundSystem;
+
+	/**
+	 * The seed all the random streams of this context derive from.
+	 */
+	private final long seed;
+
+	/**
+	 * The stream the per-thread streams are split from.
+	 */
+	private final RandomSource root;
+
+	/**
+	 * The stream of each thread used when no stream is bound to the thread.
+	 */
+	private final ThreadLocal<RandomSource> threadRandom = new ThreadLocal<RandomSource>() {
+		@Override
+		protected RandomSource initialValue() {
+			synchronized (root) {
+				return root.split();
+			}
+		}
+	};
+
+	/**
+	 * The stream bound to each thread (see {@link #bindRandom(RandomSource)}).
+	 */
+	private final ThreadLocal<RandomSource> boundRandom = new ThreadLocal<RandomSource>();
+
+	/**
+	 * The streams dedicated to each level indexed by level number.
+	 */
+	private final Map<Integer, RandomSource> levelRandoms = new HashMap<Integer, RandomSource>();
+
+	/**
+	 * Sequence used for assigning unique ids to items upon creation.
+	 */
+	private final AtomicInteger itemSequence = new AtomicInteger();
+
+	/**
+	 * Sequence used for assigning unique ids to creatures upon creation.
+	 */
+	private final AtomicInteger creatureSequence = new AtomicInteger();
+
+	/**
+	 * Sequence used for assigning unique ids to projectiles upon creation.
+	 */
+	private final AtomicInteger projectileSequence = new AtomicInteger();
+
+	/**
+	 * Creates a new context with a randomly seeded random number generator.
+	 */
+	public SimulationContext() {
+		this(new Random().nextLong());
+	}
+
+	/**
+	 * Creates a new context whose random number generator is seeded with the
+	 * given value.
+	 *
+	 * @param seed
+	 *            the seed of the random number generator.
+	 */
+	public SimulationContext(long seed) {
+		this.seed = seed;
+		this.root = new RandomSource(seed);
+		this.clock = new Clock(this);
+		this.soundSystem = new SoundSystem();
+	}
+
+	/**
+	 * Returns the context bound to the current thread or the default context
+	 * if none is bound.
+	 *
+	 * @return a context. Never returns null.
+	 */
+	public static SimulationContext getCurrent() {
+		final SimulationContext context = CURRENT.get();
+
+		return (context != null) ? context : DEFAULT;
+	}
+
+	/**
+	 * Returns the context used when none is bound to the current thread.
+	 *
+	 * @return the default context. Never returns null.
+	 */
+	public static SimulationContext getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Binds this context to the current thread and returns the context
+	 * previously bound. The previous context must be restored afterwards with
+	 * {@link #restore(SimulationContext)}.
+	 *
+	 * @return the context previously bound to the current thread or null if
+	 *         none was bound.
+	 */
+	public SimulationContext bind() {
+		final SimulationContext previous = CURRENT.get();
+
+		CURRENT.set(this);
+
+		return previous;
+	}
+
+	/**
+	 * Restores the given context (as returned by {@link #bind()}) on the
+	 * current thread.
+	 *
+	 * @param context
+	 *            the context to restore. Can be null.
+	 */
+	public static void restore(SimulationContext context) {
+		if (context == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(context);
+		}
+	}
+
+	/**
+	 * Runs the given task on the current thread within this context.
+	 *
+	 * @param runnable
+	 *            the task to run. Can't be null.
+	 */
+	public void run(Runnable runnable) {
+		Validate.notNull(runnable, "The given runnable is null");
+
+		final SimulationContext previous = bind();
+
+		try {
+			runnable.run();
+		} finally {
+			restore(previous);
+		}
+	}
+
+	public Clock getClock() {
+		return clock;
+	}
+
+	public SoundSystem getSoundSystem() {
+		return soundSystem;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Returns the random stream to use on the current thread: the stream bound
+	 * to the thread (the clock binds the stream of the level being ticked) or
+	 * the thread's own stream (split from the context's root stream) if none
+	 * is bound. The returned stream mustn't be shared with other threads.
+	 *
+	 * @return a random stream. Never returns null.
+	 */
+	public RandomSource getRandom() {
+		final RandomSource random = boundRandom.get();
+
+		return (random != null) ? random : threadRandom.get();
+	}
+
+	/**
+	 * Returns the random stream dedicated to the level with the given number.
+	 * This stream only depends on the context's seed and on the level number,
+	 * hence the random numbers drawn while ticking a level don't depend on
+	 * the other levels nor on the thread ticking it.
+	 *
+	 * @param level
+	 *            the number of a level (or {@link HasLevel#NO_LEVEL}).
+	 * @return a random stream. Never returns null.
+	 */
+	public synchronized RandomSource getLevelRandom(int level) {
+		RandomSource random = levelRandoms.get(level);
+
+		if (random == null) {
+			levelRandoms.put(level, random = RandomSource.stream(seed, level));
+		}
+
+		return random;
+	}
+
+	/**
+	 * Binds the given random stream to the current thread and returns the
+	 * stream previously bound. The previous stream must be restored afterwards
+	 * with another call to this method.
+	 *
+	 * @param random
+	 *            the random stream to bind. Can be null to unbind the current
+	 *            stream.
+	 * @return the random stream previously bound to the current thread or
+	 *         null if none was bound.
+	 */
+	public RandomSource bindRandom(RandomSource random) {
+		final RandomSource previous = boundRandom.get();
+
+		if (random == null) {
+			boundRandom.remove();
+		} else {
+			boundRandom.set(random);
+		}
+
+		return previous;
+	}
+
+	/**
+	 * Returns the next unique item id.
+	 *
+	 * @return a positive integer.
+	 */
+	public int nextItemId() {
+		return itemSequence.incrementAndGet();
+	}
+
+	/**
+	 * Returns the next unique creature id.
+	 *
+	 * @return a positive integer.
+	 */
+	public int nextCreatureId() {
+		return creatureSequence.incrementAndGet();
+	}
+
+	/**
+	 * Returns the next unique projectile id.
+	 *
+	 * @return a positive integer.
+	 */
+	public int nextProjectileId() {
+		return projectileSequence.incrementAndGet();
+	}
+}
@@ -0,0 +1,65 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster;
+
+/**
+ * The source of time used by the {@link Clock} to pace its ticks.
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ * @see Clock#setTimeSource(TimeSource)
+ */
+public interface TimeSource {
+
+	/**
+	 * The time source backed by the system's clock.
+	 */
+	public static final TimeSource SYSTEM = new TimeSource() {
+		@Override
+		public long currentTimeMillis() {
+			return System.currentTimeMillis();
+		}
+
+		@Override
+		public void sleep(long duration) throws InterruptedException {
+			Thread.sleep(duration);
+		}
+
+		@Override
+		public String toString() {
+			return "TimeSource[SYSTEM]";
+		}
+	};
+
+	/**
+	 * Returns the current time (in milliseconds).
+	 *
+	 * @return the current time.
+	 */
+	public long currentTimeMillis();
+
+	/**
+	 * Waits for the given duration (in milliseconds) to elapse.
+	 *
+	 * @param duration
+	 *            the duration to wait for. Must be positive.
+	 * @throws InterruptedException
+	 *             if the current thread was interrupted while waiting.
+	 */
+	public void sleep(long duration) throws InterruptedException;
+}
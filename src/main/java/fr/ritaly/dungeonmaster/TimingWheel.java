@@ -0,0 +1,274 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * A hierarchical timing wheel storing the tasks scheduled on the
+ * {@link Clock}. The wheel is made of 4 levels of 64 slots each. The first
+ * level stores the tasks due within the next 64 ticks (one slot per tick), the
+ * second level the tasks due within the next 64^2 ticks (one slot per 64 ticks)
+ * and so on. When the wheel advances, the tasks stored in a slot of an upper
+ * level are cascaded to the lower levels. Scheduling, cancelling and
+ * advancing are all done in constant time so that the cost of a clock tick
+ * only depends on the number of tasks actually due.<br>
+ * <br>
+ * The tasks due are moved to a list of expired tasks which the clock polls to
+ * notify the listeners. This class isn't thread-safe: the callers must
+ * synchronize on the wheel instance.
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ */
+final class TimingWheel {
+
+	/**
+	 * The number of bits used to index the slots of a level.
+	 */
+	private static final int SLOT_BITS = 6;
+
+	/**
+	 * The number of slots per level.
+	 */
+	private static final int SLOT_COUNT = 1 << SLOT_BITS;
+
+	private static final int SLOT_MASK = SLOT_COUNT - 1;
+
+	/**
+	 * The number of levels of the wheel.
+	 */
+	private static final int LEVEL_COUNT = 4;
+
+	/**
+	 * The maximal delay (in clock ticks) the wheel can store as is. Tasks
+	 * scheduled beyond this delay are stored in the last level and cascaded as
+	 * many times as necessary.
+	 */
+	private static final int MAX_DELAY = (1 << (SLOT_BITS * LEVEL_COUNT)) - 1;
+
+	/**
+	 * The slots of the wheel per level. Each slot is the sentinel node of a
+	 * circular list of tasks.
+	 */
+	private final ScheduledTask[][] slots = new ScheduledTask[LEVEL_COUNT][SLOT_COUNT];
+
+	/**
+	 * Sentinel node of the list of tasks due and not polled yet.
+	 */
+	private final ScheduledTask expired = new ScheduledTask(this);
+
+	/**
+	 * The id of the last tick the wheel advanced to.
+	 */
+	private int currentTick;
+
+	/**
+	 * The number of tasks stored in the wheel (expired tasks included).
+	 */
+	private int size;
+
+	TimingWheel() {
+		for (int level = 0; level < LEVEL_COUNT; level++) {
+			for (int slot = 0; slot < SLOT_COUNT; slot++) {
+				slots[level][slot] = new ScheduledTask(this);
+			}
+		}
+	}
+
+	/**
+	 * Returns the id of the last tick the wheel advanced to.
+	 *
+	 * @return an integer identifying a clock tick.
+	 */
+	int getCurrentTick() {
+		return currentTick;
+	}
+
+	/**
+	 * Returns the number of tasks currently stored in the wheel.
+	 *
+	 * @return a positive or zero integer.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Schedules the given task. The task's due tick must be after the current
+	 * tick.
+	 *
+	 * @param task
+	 *            the task to schedule. Can't be null.
+	 */
+	void add(ScheduledTask task) {
+		Validate.isTrue(!task.isLinked(), "The given task is already scheduled");
+
+		final int dueTick = task.getDueTick();
+		final int delay = dueTick - currentTick;
+
+		Validate.isTrue(delay > 0, String.format("The given task is due at tick %d (current tick: %d)", dueTick,
+				currentTick));
+
+		insert(task);
+
+		size++;
+	}
+
+	private void insert(ScheduledTask task) {
+		final int dueTick = task.getDueTick();
+		final int delay = dueTick - currentTick;
+
+		if (delay < SLOT_COUNT) {
+			link(slots[0][dueTick & SLOT_MASK], task);
+		} else {
+			int level = 1;
+
+			while ((level < LEVEL_COUNT - 1) && (delay >= (1 << (SLOT_BITS * (level + 1))))) {
+				level++;
+			}
+
+			// The tasks scheduled too far in the future are temporarily stored
+			// at the wheel's horizon and cascaded again later
+			final int tick = (delay > MAX_DELAY) ? currentTick + MAX_DELAY : dueTick;
+
+			link(slots[level][(tick >>> (SLOT_BITS * level)) & SLOT_MASK], task);
+		}
+	}
+
+	/**
+	 * Removes the given task from the wheel. Does nothing if the task isn't
+	 * stored in the wheel.
+	 *
+	 * @param task
+	 *            the task to remove. Can't be null.
+	 */
+	void remove(ScheduledTask task) {
+		if (task.isLinked()) {
+			unlink(task);
+
+			size--;
+		}
+	}
+
+	/**
+	 * Advances the wheel up to the given tick. The tasks due during the
+	 * elapsed ticks are moved to the list of expired tasks.
+	 *
+	 * @param tick
+	 *            the id of the tick to advance to.
+	 */
+	void advance(int tick) {
+		while (currentTick - tick < 0) {
+			currentTick++;
+
+			// Cascade the upper levels when the lower level wraps around
+			for (int level = 1; level < LEVEL_COUNT; level++) {
+				if ((currentTick & ((1 << (SLOT_BITS * level)) - 1)) != 0) {
+					break;
+				}
+
+				cascade(slots[level][(currentTick >>> (SLOT_BITS * level)) & SLOT_MASK]);
+			}
+
+			// All the tasks in the current slot are due
+			final ScheduledTask slot = slots[0][currentTick & SLOT_MASK];
+
+			while (slot.next != slot) {
+				final ScheduledTask task = slot.next;
+
+				unlink(task);
+				link(expired, task);
+			}
+		}
+	}
+
+	/**
+	 * Returns and removes the next expired task (if any).
+	 *
+	 * @return an expired task or null if there are none.
+	 */
+	ScheduledTask poll() {
+		if (expired.next == expired) {
+			return null;
+		}
+
+		final ScheduledTask task = expired.next;
+
+		unlink(task);
+
+		size--;
+
+		return task;
+	}
+
+	/**
+	 * Removes all the tasks from the wheel (flagging them as cancelled) and
+	 * rewinds the wheel to the given tick.
+	 *
+	 * @param tick
+	 *            the id of the tick to rewind the wheel to.
+	 */
+	void clear(int tick) {
+		for (int level = 0; level < LEVEL_COUNT; level++) {
+			for (int slot = 0; slot < SLOT_COUNT; slot++) {
+				clear(slots[level][slot]);
+			}
+		}
+
+		clear(expired);
+
+		size = 0;
+		currentTick = tick;
+	}
+
+	private void clear(ScheduledTask sentinel) {
+		while (sentinel.next != sentinel) {
+			final ScheduledTask task = sentinel.next;
+
+			unlink(task);
+
+			task.cancelled();
+		}
+	}
+
+	private void cascade(ScheduledTask sentinel) {
+		while (sentinel.next != sentinel) {
+			final ScheduledTask task = sentinel.next;
+
+			unlink(task);
+
+			// The task can be due right now, insert() handles this case
+			insert(task);
+		}
+	}
+
+	private static void link(ScheduledTask sentinel, ScheduledTask task) {
+		task.previous = sentinel.previous;
+		task.next = sentinel;
+		sentinel.previous.next = task;
+		sentinel.previous = task;
+	}
+
+	private static void unlink(ScheduledTask task) {
+		task.previous.next = task.next;
+		task.next.previous = task.previous;
+		task.previous = null;
+		task.next = null;
+	}
+}
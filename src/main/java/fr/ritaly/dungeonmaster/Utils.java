@@ -19,7 +19,6 @@
 package fr.ritaly.dungeonmaster;
 
 import org.apache.commons.lang.Validate;
-import org.apache.commons.lang.math.RandomUtils;
 
 /**
  * Utility class.
@@ -42,13 +41,24 @@ public class Utils {
 		Validate.isTrue(max >= 0, String.format("The given max %d must be positive", max));
 		Validate.isTrue(min < max, String.format("The given min %d must be lesser than the max %d", min, max));
 
-		return min + RandomUtils.nextInt(max + 1 - min);
+		return random().nextInt(min, max);
 	}
 
 	public static int random(int max) {
 		return random(0, max);
 	}
 
+	/**
+	 * Returns the random stream of the current thread within the current
+	 * simulation context.
+	 *
+	 * @return a random stream. Never returns null.
+	 * @see SimulationContext#getRandom()
+	 */
+	public static RandomSource random() {
+		return SimulationContext.getCurrent().getRandom();
+	}
+
 	/**
 	 * Returns the given value within the range defined by the min and max
 	 * provided values.
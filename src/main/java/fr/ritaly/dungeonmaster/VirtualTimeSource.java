@@ -0,0 +1,78 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * A {@link TimeSource} whose time only elapses when one waits for it. Sleeping
+ * returns immediately after advancing the time so that a {@link Clock} paced
+ * by this source executes its ticks back to back as fast as the CPU allows.
+ * Useful for simulating hours of game time in a few seconds (typically for
+ * tests).
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ */
+public class VirtualTimeSource implements TimeSource {
+
+	/**
+	 * The current virtual time (in milliseconds).
+	 */
+	private long time;
+
+	public VirtualTimeSource() {
+		this(0);
+	}
+
+	public VirtualTimeSource(long time) {
+		this.time = time;
+	}
+
+	@Override
+	public synchronized long currentTimeMillis() {
+		return time;
+	}
+
+	@Override
+	public void sleep(long duration) throws InterruptedException {
+		if (Thread.interrupted()) {
+			throw new InterruptedException();
+		}
+
+		advance(duration);
+	}
+
+	/**
+	 * Advances the virtual time by the given duration.
+	 *
+	 * @param duration
+	 *            the duration (in milliseconds) to advance the time by. Must be
+	 *            positive or zero.
+	 */
+	public synchronized void advance(long duration) {
+		Validate.isTrue(duration >= 0, String.format("The given duration %d must be positive or zero", duration));
+
+		time += duration;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[time=" + currentTimeMillis() + "]";
+	}
+}
@@ -19,7 +19,7 @@
 package fr.ritaly.dungeonmaster.ai;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -31,12 +31,16 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import fr.ritaly.dungeonmaster.Clock;
-import fr.ritaly.dungeonmaster.ClockListener;
 import fr.ritaly.dungeonmaster.Direction;
 import fr.ritaly.dungeonmaster.HasDirection;
+import fr.ritaly.dungeonmaster.HasLevel;
+import fr.ritaly.dungeonmaster.PhasedClockListener;
 import fr.ritaly.dungeonmaster.Position;
+import fr.ritaly.dungeonmaster.ScheduledTask;
+import fr.ritaly.dungeonmaster.SimulationContext;
 import fr.ritaly.dungeonmaster.Utils;
-import fr.ritaly.dungeonmaster.ai.astar.PathFinder;
+import fr.ritaly.dungeonmaster.ai.astar.DungeonRouter;
+import fr.ritaly.dungeonmaster.ai.astar.FlowField;
 import fr.ritaly.dungeonmaster.audio.AudioClip;
 import fr.ritaly.dungeonmaster.champion.Champion;
 import fr.ritaly.dungeonmaster.champion.Party;
@@ -45,6 +49,7 @@ import fr.ritaly.dungeonmaster.event.ChangeListener;
 import fr.ritaly.dungeonmaster.item.Action;
 import fr.ritaly.dungeonmaster.item.Item;
 import fr.ritaly.dungeonmaster.magic.Spell;
+import fr.ritaly.dungeonmaster.map.Dungeon;
 import fr.ritaly.dungeonmaster.map.Element;
 import fr.ritaly.dungeonmaster.stat.Stat;
 
@@ -56,7 +61,7 @@ import fr.ritaly.dungeonmaster.stat.Stat;
  *
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
  */
-public class Creature implements ChangeListener, ClockListener, HasDirection {
+public class Creature implements ChangeListener, PhasedClockListener, HasDirection, HasLevel {
 
 	private final Log log = LogFactory.getLog(this.getClass());
 
@@ -378,14 +383,13 @@ public class Creature implements ChangeListener, ClockListener, HasDirection {
 		 * @return a list of attack spells. Never returns null.
 		 */
 		public Set<Spell.Type> getAttackSpells() {
-			final Set<Spell.Type> spells = getSpells();
+			final Set<Spell.Type> spells = EnumSet.noneOf(Spell.Type.class);
 
-			// Remove the possible non-attack spells (like OPEN_DOOR)
-			for (final Iterator<Spell.Type> it = spells.iterator(); it.hasNext();) {
-				final Spell.Type type = (Spell.Type) it.next();
-
-				if (!type.isAttackSpell()) {
-					it.remove();
+			// Skip the possible non-attack spells (like OPEN_DOOR). The set
+			// of the definition is shared and can't be modified
+			for (Spell.Type type : getSpells()) {
+				if (type.isAttackSpell()) {
+					spells.add(type);
 				}
 			}
 
@@ -597,9 +601,7 @@ public class Creature implements ChangeListener, ClockListener, HasDirection {
 		GIANT;
 	}
 
-	private static final AtomicInteger SEQUENCE = new AtomicInteger();
-
-	private final int id = SEQUENCE.incrementAndGet();
+	private final int id = SimulationContext.getCurrent().nextCreatureId();
 
 	/**
 	 * The creature's type.
@@ -648,6 +650,77 @@ public class Creature implements ChangeListener, ClockListener, HasDirection {
 	 */
 	private final AtomicInteger attackTimer = new AtomicInteger();
 
+	/**
+	 * The number of clock ticks between 2 checks of a dormant creature.
+	 */
+	private static final int DORMANCY_PERIOD = Clock.ONE_SECOND;
+
+	/**
+	 * The task periodically checking whether the dormant creature must wake
+	 * up or null if the creature is active.
+	 */
+	private ScheduledTask dormancyTask;
+
+	/**
+	 * The id of the last tick taken into account by the timers of the dormant
+	 * creature.
+	 */
+	private int dormantSince;
+
+	/**
+	 * The number of clock ticks during which a creature stays awake after
+	 * being hit.
+	 */
+	private static final int HIT_AWAKE_DURATION = 5 * Clock.ONE_SECOND;
+
+	/**
+	 * The id of the tick when the creature was last hit or -1 if it's never
+	 * been hit. Creatures can be hit from any level partition (projectiles)
+	 * hence the volatile.
+	 */
+	private volatile int hitTick = -1;
+
+	/**
+	 * Listener scheduled while the creature is dormant. Catches up the
+	 * creature's timers and wakes it up when the party comes near.
+	 */
+	private final class DormancyCheck implements PhasedClockListener, HasLevel {
+
+		@Override
+		public Clock.Phase getPhase() {
+			return Clock.Phase.AI;
+		}
+
+		@Override
+		public int getLevelNumber() {
+			return Creature.this.getLevelNumber();
+		}
+
+		@Override
+		public boolean clockTicked() {
+			if (isDead()) {
+				dormancyTask = null;
+
+				return false;
+			}
+
+			if (!canSleep()) {
+				wakeUp();
+
+				return false;
+			}
+
+			catchUp();
+
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "DormancyCheck[" + Creature.this + "]";
+		}
+	}
+
 	// The parameter 'multiplier' can denote a health multiplier or a
 	// "level experience multiplier"
 	public Creature(Type type, int multiplier, Direction direction) {
@@ -909,6 +982,12 @@ public class Creature implements ChangeListener, ClockListener, HasDirection {
 
 		this.health.dec(damage);
 
+		// The creature stays awake for a while, even if the attack came from
+		// beyond the activity radius
+		hitTick = Clock.getInstance().getTickId();
+
+		wakeUp();
+
 		// The difference could be lesser than the damage variable if the
 		// creature just died (the health can't be negative)
 		return backup - health.value();
@@ -1090,23 +1169,10 @@ public class Creature implements ChangeListener, ClockListener, HasDirection {
 			return false;
 		}
 
-		// FIXME Consider the transparency of doors and the possible elements between the 2 positions
-
-		// What are the positions visible from the creature ?
-		final List<Position> visiblePositions = currentPosition.getVisiblePositions(direction);
-
-		// Convert the positions into elements
-		final List<Element> visibleElements = getElement().getLevel().getElements(visiblePositions);
-
-		for (Element element : visibleElements) {
-			if (targetPosition.equals(element.getPosition())) {
-				// The creature can see the position
-				return true;
-			}
-		}
-
-		// The creature can't see the position
-		return false;
+		// The walls and the closed doors between the 2 positions block the
+		// sight
+		return FieldOfView.isVisible(getElement().getLevel(), currentPosition.x, currentPosition.y, direction,
+				getSightRange(), targetPosition.x, targetPosition.y);
 	}
 
 	/**
@@ -1134,24 +1200,11 @@ public class Creature implements ChangeListener, ClockListener, HasDirection {
 			return false;
 		}
 
-		// FIXME Take into account the possible obstacles between the 2 positions !!
-
-		// What are the positions that the creature can hear ? There are within
-		// a range defined by the creature's awareness
-		final List<Position> audiblePositions = currentPosition.getSurroundingPositions(getType().getAwareness());
-
-		// Convert the positions into elements
-		final List<Element> audibleElements = getElement().getLevel().getElements(audiblePositions);
-
-		for (Element element : audibleElements) {
-			if (targetPosition.equals(element.getPosition())) {
-				// The position can be heard
-				return true;
-			}
-		}
-
-		// The creature can't hear a sound from this position
-		return false;
+		// The noise emitted from the target position is propagated once and
+		// shared by all the creatures of the level. The walls and the closed
+		// doors stop the noise
+		return getElement().getLevel().getNoiseField().canHear(targetPosition.x, targetPosition.y,
+				currentPosition.x, currentPosition.y, getType().getAwareness());
 	}
 
 	/**
@@ -1211,8 +1264,117 @@ public class Creature implements ChangeListener, ClockListener, HasDirection {
 		attackTimer.set(getType().getAttackDuration());
 	}
 
+	@Override
+	public Clock.Phase getPhase() {
+		return Clock.Phase.AI;
+	}
+
+	/**
+	 * Tells whether the creature is dormant. A creature becomes dormant when
+	 * the party is on another level or further than the dungeon's activity
+	 * radius (see {@link Dungeon#getActivityRadius()}). A dormant creature
+	 * isn't notified of every clock tick: it's checked every second and wakes
+	 * up as soon as the party comes within the radius. Its move and attack
+	 * timers are caught up meanwhile. A creature tracking or attacking the
+	 * party doesn't become dormant, nor does a creature hit recently (a hit
+	 * also wakes up a dormant creature).
+	 *
+	 * @return whether the creature is dormant.
+	 */
+	public boolean isDormant() {
+		return (dormancyTask != null);
+	}
+
+	/**
+	 * Tells whether the creature can become (or stay) dormant.
+	 */
+	private boolean canSleep() {
+		if ((element == null) || (element.getLevel() == null)) {
+			// Necessary for the unit tests
+			return false;
+		}
+
+		final Dungeon dungeon = element.getLevel().getDungeon();
+		final Party party = (dungeon != null) ? dungeon.getParty() : null;
+
+		if ((party == null) || (party.getPosition() == null)) {
+			// Nobody to watch the creatures, don't change their behavior
+			return false;
+		}
+		if (State.TRACKING.equals(getState()) || State.ATTACKING.equals(getState())) {
+			// The creature follows or fights the party
+			return false;
+		}
+		if ((hitTick >= 0) && (Clock.getInstance().getTickId() - hitTick < HIT_AWAKE_DURATION)) {
+			// The creature was hit recently
+			return false;
+		}
+
+		final Position position = element.getPosition();
+		final Position partyPosition = party.getPosition();
+
+		if (position.z != partyPosition.z) {
+			return true;
+		}
+
+		final int distance = Math.max(Math.abs(position.x - partyPosition.x),
+				Math.abs(position.y - partyPosition.y));
+
+		return distance > dungeon.getActivityRadius();
+	}
+
+	/**
+	 * Wakes up the creature if it's dormant. The creature's timers are caught
+	 * up and it's notified of every clock tick again from the next tick.
+	 */
+	private synchronized void wakeUp() {
+		if (dormancyTask == null) {
+			// The creature is already awake
+			return;
+		}
+
+		catchUp();
+
+		dormancyTask.cancel();
+		dormancyTask = null;
+
+		Clock.getInstance().register(this);
+
+		if (log.isDebugEnabled()) {
+			log.debug(this + " woke up");
+		}
+	}
+
+	/**
+	 * Updates the timers of the dormant creature with the number of ticks
+	 * elapsed since the last update.
+	 */
+	private void catchUp() {
+		final int tickId = Clock.getInstance().getTickId();
+		final int elapsed = tickId - dormantSince;
+
+		dormantSince = tickId;
+
+		moveTimer.set(Math.max(0, moveTimer.get() - elapsed));
+		attackTimer.set(Math.max(0, attackTimer.get() - elapsed));
+	}
+
 	@Override
 	public boolean clockTicked() {
+		if (canSleep()) {
+			// The party is far away, fall asleep. The creature is unregistered
+			// from the clock and only checked periodically. The timers haven't
+			// been updated for the current tick yet
+			dormantSince = Clock.getInstance().getTickId() - 1;
+			dormancyTask = Clock.getInstance().scheduleEvery(new DormancyCheck(), DORMANCY_PERIOD);
+
+			if (log.isDebugEnabled()) {
+				log.debug(this + " fell asleep");
+			}
+
+			return false;
+		}
+
 		// Make the ZYTAZ "blink"
 		this.materializer.clockTicked();
 
@@ -1289,6 +1451,13 @@ public class Creature implements ChangeListener, ClockListener, HasDirection {
 					// The move can't succeed
 					return true;
 				}
+			} else if ((party != null) && State.TRACKING.equals(getState())
+					&& (party.getPosition().z != getElement().getPosition().z)) {
+
+				// The tracked party left the level, follow it
+				if (followTo(party.getPosition())) {
+					return true;
+				}
 			}
 
 			// No party to attack, the creature wanders
@@ -1325,26 +1494,81 @@ public class Creature implements ChangeListener, ClockListener, HasDirection {
 		// The creature's start position
 		final Position startPosition = element.getPosition();
 
-		// Find a path to reach the given target position
-		final PathFinder pathFinder = new PathFinder(element.getLevel(), isMaterial() ? Materiality.MATERIAL : Materiality.IMMATERIAL);
-		final List<Element> path = pathFinder.findBestPath(x, y, startPosition.x, startPosition.y);
+		// Find the next step towards the given target position. The flow
+		// field is shared by all the creatures of the level
+		final FlowField flowField = element.getLevel().getFlowField(
+				isMaterial() ? Materiality.MATERIAL : Materiality.IMMATERIAL);
+		final Element node = flowField.getNextStep(startPosition.x, startPosition.y, x, y);
+
+		if (node == null) {
+			// Unable to reach the target position (or already there), return
+			return false;
+		}
+
+		moveTo(node);
+
+		return true;
+	}
+
+	/**
+	 * Moves the creature towards the given target position which can be
+	 * located on another level. The creature can only take the stairs,
+	 * teleporters or pits it's allowed to use.
+	 *
+	 * @param target
+	 *            the target position. Can't be null.
+	 * @return whether the creature moved.
+	 */
+	private boolean followTo(Position target) {
+		if (!getType().canMove()) {
+			// The creature can't move
+			return false;
+		}
+
+		final Element element = getElement();
+
+		if (element == null) {
+			// The creature isn't inside a dungeon
+			return false;
+		}
+
+		final Set<DungeonRouter.PortalType> portalTypes = EnumSet.noneOf(DungeonRouter.PortalType.class);
 
-		if (path == null) {
-			// Unable to reach the target position, return
+		if (canTakeStairs()) {
+			portalTypes.add(DungeonRouter.PortalType.STAIRS);
+		}
+		if (canTeleport()) {
+			portalTypes.add(DungeonRouter.PortalType.TELEPORTER);
+		}
+		if (!getType().levitates()) {
+			portalTypes.add(DungeonRouter.PortalType.PIT);
+		}
+
+		final Element node = element.getLevel().getDungeon().getRouter().getNextStep(
+				isMaterial() ? Materiality.MATERIAL : Materiality.IMMATERIAL, portalTypes, element.getPosition(),
+				target);
+
+		if (node == null) {
+			// Unable to reach the target position (or already there), return
 			return false;
 		}
 
+		moveTo(node);
+
+		return true;
+	}
+
+	private void moveTo(final Element node) {
 		if (log.isDebugEnabled()) {
-			log.debug("Found path: " + path);
+			log.debug("Next step: " + node);
 		}
 
-		// Move to the next position (the second element in the returned path)
-		final Element node = path.get(1);
+		final Element element = getElement();
 
 		// The creature moves and changes its direction to reach the target
-		// position
-		final Direction directionTowardsTarget = getElement().getPosition().getDirectionTowards(
-				new Position(node.getPosition().x, node.getPosition().y, startPosition.z));
+		// position (unless it's taking a portal)
+		final Direction directionTowardsTarget = (node.getLevel() == element.getLevel()) ? element.getPosition()
+				.getDirectionTowards(node.getPosition()) : null;
 
 		// The creature leaves the current position
 		element.removeCreature(this);
@@ -1356,18 +1580,25 @@ public class Creature implements ChangeListener, ClockListener, HasDirection {
 			}
 		}
 
-		final Element targetElement = element.getLevel().getElement(node.getPosition().x, node.getPosition().y);
-
-		// The creature arrives on the target position
-		targetElement.addCreature(this);
+		if (node.getLevel() == element.getLevel()) {
+			// The creature arrives on the target position
+			node.addCreature(this);
+		} else {
+			// The creature arrives on the portal's destination. The other
+			// level may be ticking concurrently
+			Clock.getInstance().defer(new Runnable() {
+				@Override
+				public void run() {
+					node.addCreature(Creature.this);
+				}
+			});
+		}
 
 		// The creature can't move for a given number of clock ticks
 		resetMoveTimer();
 
 		// Switch to the TRACKING state
 		setState(State.TRACKING);
-
-		return true;
 	}
 
 	private void patrol() {
@@ -1442,10 +1673,8 @@ public class Creature implements ChangeListener, ClockListener, HasDirection {
 		}
 
 		// Toss a random position
-		Collections.shuffle(surroundingElements);
-
 		final Element startElement = getElement();
-		final Element endElement = surroundingElements.iterator().next();
+		final Element endElement = Utils.random().pick(surroundingElements);
 
 		// Identify the direction when moving from the start to the end element
 		final Direction directionTowardsTarget = getElement().getPosition().getDirectionTowards(endElement.getPosition());
@@ -1487,6 +1716,11 @@ public class Creature implements ChangeListener, ClockListener, HasDirection {
 		return element;
 	}
 
+	@Override
+	public int getLevelNumber() {
+		return (element != null) ? element.getLevelNumber() : NO_LEVEL;
+	}
+
 	public void setElement(Element element) {
 		// The element can be null
 
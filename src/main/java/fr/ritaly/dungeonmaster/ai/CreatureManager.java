@@ -29,7 +29,6 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang.Validate;
-import org.apache.commons.lang.math.RandomUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -37,6 +36,7 @@ import fr.ritaly.dungeonmaster.Direction;
 import fr.ritaly.dungeonmaster.Place;
 import fr.ritaly.dungeonmaster.Position;
 import fr.ritaly.dungeonmaster.Sector;
+import fr.ritaly.dungeonmaster.Utils;
 import fr.ritaly.dungeonmaster.map.Element;
 
 /**
@@ -193,14 +193,12 @@ public class CreatureManager {
 				if (directions.size() == 1) {
 					return EnumSet.of(directions.iterator().next());
 				} else {
-					Collections.shuffle(directions);
-
-					return EnumSet.of(directions.iterator().next());
+					return EnumSet.of(Utils.random().pick(directions));
 				}
 			case 4:
 				// 2 are free
 				// Choose a random pair of directions
-				if (RandomUtils.nextBoolean()) {
+				if (Utils.random().nextBoolean()) {
 					return EnumSet.of(Direction.EAST, Direction.WEST);
 				} else {
 					return EnumSet.of(Direction.NORTH, Direction.SOUTH);
@@ -211,7 +209,7 @@ public class CreatureManager {
 		}
 
 		// Choose a random pair of directions
-		if (RandomUtils.nextBoolean()) {
+		if (Utils.random().nextBoolean()) {
 			return EnumSet.of(Direction.EAST, Direction.WEST);
 		} else {
 			return EnumSet.of(Direction.NORTH, Direction.SOUTH);
@@ -594,24 +592,14 @@ public class CreatureManager {
 		switch (creature.getSize()) {
 		case ONE:
 			final List<Sector> sectors = new ArrayList<Sector>(getFreeSectors());
-
-			if (sectors.size() > 1) {
-				Collections.shuffle(sectors);
-			}
-
-			final Sector sector = sectors.iterator().next();
+			final Sector sector = Utils.random().pick(sectors);
 
 			addCreature(creature, sector);
 
 			return sector;
 		case TWO:
 			final List<Direction> directions = new ArrayList<Direction>(getFreeDirections());
-
-			if (directions.size() > 1) {
-				Collections.shuffle(directions);
-			}
-
-			final Direction direction = directions.iterator().next();
+			final Direction direction = Utils.random().pick(directions);
 
 			addCreature(creature, direction);
 
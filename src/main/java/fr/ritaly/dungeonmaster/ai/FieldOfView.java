@@ -0,0 +1,286 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.ai;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang.Validate;
+
+import fr.ritaly.dungeonmaster.Direction;
+import fr.ritaly.dungeonmaster.map.Door;
+import fr.ritaly.dungeonmaster.map.Element;
+import fr.ritaly.dungeonmaster.map.Level;
+import fr.ritaly.dungeonmaster.map.RetractableWall;
+
+/**
+ * Computes what a creature can see. The field of view is the cone described
+ * by {@link fr.ritaly.dungeonmaster.Position#getVisiblePositions(Direction)}
+ * (3 cells wide at 1 and 2 cells of distance, 5 cells wide at 3 cells of
+ * distance) and a cell of this cone is visible only if the cells between the
+ * viewer and this cell don't block the sight (walls, closed doors, etc).<br>
+ * <br>
+ * The offsets of the cells of the cone and the cells to traverse to reach
+ * each of them are computed once per direction when the class is loaded so
+ * that answering whether a position is visible doesn't allocate any object.
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ */
+public final class FieldOfView {
+
+	/**
+	 * The maximum distance (in number of cells) a creature can see at.
+	 */
+	public static final int MAX_DEPTH = 3;
+
+	/**
+	 * The half width of the cone at each distance (index 0 is the viewer's
+	 * position).
+	 */
+	private static final int[] HALF_WIDTHS = { 0, 1, 1, 2 };
+
+	/**
+	 * The maximum half width of the cone.
+	 */
+	private static final int MAX_HALF_WIDTH = 2;
+
+	/**
+	 * The number of cells in the cone.
+	 */
+	private static final int CELL_COUNT;
+
+	/**
+	 * The index of each cell of the cone indexed by distance and lateral
+	 * offset (+ {@link #MAX_HALF_WIDTH}). -1 if the cell isn't inside the cone.
+	 */
+	private static final int[][] INDICES = new int[MAX_DEPTH + 1][2 * MAX_HALF_WIDTH + 1];
+
+	/**
+	 * The x offset of each cell of the cone indexed by direction.
+	 */
+	private static final int[][] OFFSETS_X = new int[4][];
+
+	/**
+	 * The y offset of each cell of the cone indexed by direction.
+	 */
+	private static final int[][] OFFSETS_Y = new int[4][];
+
+	/**
+	 * The indices of the cells to traverse to see each cell of the cone. A
+	 * cell has 2 possible rays when the line of sight passes exactly between 2
+	 * cells: the cell is visible if one of the rays is clear.
+	 */
+	private static final int[][][] RAYS;
+
+	static {
+		int count = 0;
+
+		for (int depth = 0; depth <= MAX_DEPTH; depth++) {
+			for (int lateral = -MAX_HALF_WIDTH; lateral <= MAX_HALF_WIDTH; lateral++) {
+				final boolean inside = (depth > 0) && (Math.abs(lateral) <= HALF_WIDTHS[depth]);
+
+				INDICES[depth][lateral + MAX_HALF_WIDTH] = inside ? count++ : -1;
+			}
+		}
+
+		CELL_COUNT = count;
+
+		final int[] depths = new int[CELL_COUNT];
+		final int[] laterals = new int[CELL_COUNT];
+
+		for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+			for (int lateral = -HALF_WIDTHS[depth]; lateral <= HALF_WIDTHS[depth]; lateral++) {
+				final int index = INDICES[depth][lateral + MAX_HALF_WIDTH];
+
+				depths[index] = depth;
+				laterals[index] = lateral;
+			}
+		}
+
+		RAYS = new int[CELL_COUNT][2][];
+
+		for (int i = 0; i < CELL_COUNT; i++) {
+			final int depth = depths[i], lateral = laterals[i];
+
+			for (int r = 0; r < 2; r++) {
+				final int[] ray = new int[depth - 1];
+
+				for (int step = 1; step < depth; step++) {
+					// The lateral offset of the line of sight at this distance.
+					// On a tie, the first ray rounds towards the axis of the
+					// cone and the second one away from it
+					final int numerator = Math.abs(lateral) * step;
+					final int offset = (2 * numerator + ((r == 0) ? depth - 1 : depth)) / (2 * depth);
+
+					ray[step - 1] = INDICES[step][Integer.signum(lateral) * offset + MAX_HALF_WIDTH];
+				}
+
+				RAYS[i][r] = ray;
+			}
+
+			if (Arrays.equals(RAYS[i][0], RAYS[i][1])) {
+				// No tie, share the ray
+				RAYS[i][1] = RAYS[i][0];
+			}
+		}
+
+		for (Direction direction : new Direction[] { Direction.NORTH, Direction.EAST, Direction.SOUTH, Direction.WEST }) {
+			// The unit vectors towards the front and the right of the viewer
+			final int frontX = getFrontX(direction), frontY = getFrontY(direction);
+			final int rightX = -frontY, rightY = frontX;
+
+			final int[] offsetsX = new int[CELL_COUNT];
+			final int[] offsetsY = new int[CELL_COUNT];
+
+			for (int i = 0; i < CELL_COUNT; i++) {
+				offsetsX[i] = depths[i] * frontX + laterals[i] * rightX;
+				offsetsY[i] = depths[i] * frontY + laterals[i] * rightY;
+			}
+
+			OFFSETS_X[direction.ordinal()] = offsetsX;
+			OFFSETS_Y[direction.ordinal()] = offsetsY;
+		}
+	}
+
+	private FieldOfView() {
+	}
+
+	private static int getFrontX(Direction direction) {
+		switch (direction) {
+		case EAST:
+			return 1;
+		case WEST:
+			return -1;
+		default:
+			return 0;
+		}
+	}
+
+	private static int getFrontY(Direction direction) {
+		switch (direction) {
+		case NORTH:
+			return -1;
+		case SOUTH:
+			return 1;
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * Tells whether the given position can be seen from the given viewer's
+	 * position.
+	 *
+	 * @param level
+	 *            the level where the viewer and the target are. Can't be null.
+	 * @param x
+	 *            the x coordinate of the viewer.
+	 * @param y
+	 *            the y coordinate of the viewer.
+	 * @param direction
+	 *            the direction the viewer looks towards. Must be one of NORTH,
+	 *            EAST, SOUTH or WEST.
+	 * @param sightRange
+	 *            the sight range of the viewer (in number of cells). Capped to
+	 *            {@link #MAX_DEPTH}.
+	 * @param targetX
+	 *            the x coordinate of the target.
+	 * @param targetY
+	 *            the y coordinate of the target.
+	 * @return whether the target position is visible.
+	 */
+	public static boolean isVisible(Level level, int x, int y, Direction direction, int sightRange, int targetX,
+			int targetY) {
+
+		Validate.notNull(level, "The given level is null");
+		Validate.notNull(direction, "The given direction is null");
+
+		if (direction.ordinal() > Direction.WEST.ordinal()) {
+			throw new IllegalArgumentException("The given direction <" + direction + "> isn't horizontal");
+		}
+
+		if ((targetX < 0) || (targetX >= level.getWidth()) || (targetY < 0) || (targetY >= level.getHeight())) {
+			return false;
+		}
+
+		final int dx = targetX - x, dy = targetY - y;
+		final int frontX = getFrontX(direction), frontY = getFrontY(direction);
+
+		// Project the target onto the axes of the cone
+		final int depth = dx * frontX + dy * frontY;
+		final int lateral = -dx * frontY + dy * frontX;
+
+		if ((depth < 1) || (depth > Math.min(sightRange, MAX_DEPTH)) || (Math.abs(lateral) > HALF_WIDTHS[depth])) {
+			return false;
+		}
+
+		final int[][] rays = RAYS[INDICES[depth][lateral + MAX_HALF_WIDTH]];
+
+		if (isClear(level, x, y, direction, rays[0])) {
+			return true;
+		}
+
+		return (rays[1] != rays[0]) && isClear(level, x, y, direction, rays[1]);
+	}
+
+	private static boolean isClear(Level level, int x, int y, Direction direction, int[] ray) {
+		final int[] offsetsX = OFFSETS_X[direction.ordinal()];
+		final int[] offsetsY = OFFSETS_Y[direction.ordinal()];
+
+		for (int i = 0; i < ray.length; i++) {
+			final int cx = x + offsetsX[ray[i]], cy = y + offsetsY[ray[i]];
+
+			if ((cx < 0) || (cx >= level.getWidth()) || (cy < 0) || (cy >= level.getHeight())) {
+				return false;
+			}
+			if (!isTransparent(level.getElement(cx, cy))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Tells whether the sight can go through the given element.
+	 *
+	 * @param element
+	 *            the element to test.
+	 * @return whether the sight can go through the given element.
+	 */
+	public static boolean isTransparent(Element element) {
+		if (element == null) {
+			return false;
+		}
+
+		switch (element.getType()) {
+		case DOOR:
+			final Door door = (Door) element;
+
+			// Grates and doors with holes never block the sight
+			return door.creaturesCanSeeThrough() || door.getState().isTraversableByProjectile();
+		case RETRACTABLE_WALL:
+			return ((RetractableWall) element).isOpen();
+		case FAKE_WALL:
+			// A fake wall looks like a wall
+			return false;
+		default:
+			return !element.isConcrete();
+		}
+	}
+}
@@ -0,0 +1,290 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.ai;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.lang.Validate;
+
+import fr.ritaly.dungeonmaster.map.Door;
+import fr.ritaly.dungeonmaster.map.Element;
+import fr.ritaly.dungeonmaster.map.Level;
+import fr.ritaly.dungeonmaster.map.RetractableWall;
+
+/**
+ * Propagation of the noises emitted on a {@link Level}. The propagation of a
+ * noise is computed once by a breadth-first search from the noise's source
+ * (each step, orthogonal or diagonal, attenuates the noise by one) and shared
+ * by all the creatures listening to it. Walls and closed doors stop the noise.
+ * The last propagations computed are cached until the layout of the level
+ * changes (see {@link Level#getModificationCount()}).<br>
+ * <br>
+ * On an open level, a creature with an awareness of N hears the noises
+ * emitted within the same radius as
+ * {@link fr.ritaly.dungeonmaster.Position#getSurroundingPositions(int)}.
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ * @see Level#getNoiseField()
+ */
+public class NoiseField {
+
+	/**
+	 * The attenuation of the cells a noise doesn't reach.
+	 */
+	public static final int SILENT = -1;
+
+	/**
+	 * The maximum awareness supported. The noises aren't propagated beyond
+	 * this radius.
+	 */
+	public static final int MAX_AWARENESS = 10;
+
+	/**
+	 * The default maximum number of propagations cached.
+	 */
+	public static final int DEFAULT_CAPACITY = 8;
+
+	/**
+	 * The x offsets to the 8 neighbours of a cell (the 4 orthogonal ones first
+	 * then the 4 diagonal ones).
+	 */
+	private static final int[] DX = { 0, 1, 0, -1, 1, 1, -1, -1 };
+
+	/**
+	 * The y offsets to the 8 neighbours of a cell (the 4 orthogonal ones first
+	 * then the 4 diagonal ones).
+	 */
+	private static final int[] DY = { -1, 0, 1, 0, -1, 1, 1, -1 };
+
+	private final Level level;
+
+	private final int width;
+
+	private final int height;
+
+	/**
+	 * The attenuations computed for the last noises indexed by source cell.
+	 */
+	private final Map<Integer, int[]> propagations;
+
+	/**
+	 * The queue of cell indices used by the propagation.
+	 */
+	private final int[] queue;
+
+	/**
+	 * The modification count of the level when the cached propagations were
+	 * computed.
+	 */
+	private int modificationCount;
+
+	private int propagationCount;
+
+	public NoiseField(Level level) {
+		this(level, DEFAULT_CAPACITY);
+	}
+
+	public NoiseField(Level level, final int capacity) {
+		Validate.notNull(level, "The given level is null");
+		Validate.isTrue(capacity > 0, "The given capacity <" + capacity + "> must be positive");
+
+		this.level = level;
+		this.width = level.getWidth();
+		this.height = level.getHeight();
+		this.queue = new int[width * height];
+		this.propagations = new LinkedHashMap<Integer, int[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Emits a noise from the given position. Computes the propagation of the
+	 * noise unless already cached.
+	 *
+	 * @param x
+	 *            the x coordinate of the noise's source.
+	 * @param y
+	 *            the y coordinate of the noise's source.
+	 */
+	public synchronized void emit(int x, int y) {
+		getPropagation(x, y);
+	}
+
+	/**
+	 * Returns the attenuation of a noise emitted from the source position when
+	 * heard from the listener position.
+	 *
+	 * @param sourceX
+	 *            the x coordinate of the noise's source.
+	 * @param sourceY
+	 *            the y coordinate of the noise's source.
+	 * @param x
+	 *            the x coordinate of the listener.
+	 * @param y
+	 *            the y coordinate of the listener.
+	 * @return a positive or zero attenuation or {@link #SILENT} if the noise
+	 *         doesn't reach the listener.
+	 */
+	public synchronized int getAttenuation(int sourceX, int sourceY, int x, int y) {
+		// Validate the coordinates
+		level.getElement(x, y);
+
+		return getPropagation(sourceX, sourceY)[x + y * width];
+	}
+
+	/**
+	 * Tells whether a listener with the given awareness can hear a noise
+	 * emitted from the source position.
+	 *
+	 * @param sourceX
+	 *            the x coordinate of the noise's source.
+	 * @param sourceY
+	 *            the y coordinate of the noise's source.
+	 * @param x
+	 *            the x coordinate of the listener.
+	 * @param y
+	 *            the y coordinate of the listener.
+	 * @param awareness
+	 *            the awareness of the listener.
+	 * @return whether the listener can hear the noise.
+	 */
+	public boolean canHear(int sourceX, int sourceY, int x, int y, int awareness) {
+		final int attenuation = getAttenuation(sourceX, sourceY, x, y);
+
+		if ((attenuation == SILENT) || (attenuation > awareness)) {
+			return false;
+		}
+
+		// The listener must also be within the radius of the noise
+		final int dx = x - sourceX, dy = y - sourceY;
+
+		return 4 * (dx * dx + dy * dy) <= (2 * awareness + 1) * (2 * awareness + 1);
+	}
+
+	/**
+	 * Returns the number of propagations computed so far. Exposed for testing
+	 * the cache.
+	 *
+	 * @return a positive or zero integer.
+	 */
+	public synchronized int getPropagationCount() {
+		return propagationCount;
+	}
+
+	private int[] getPropagation(int x, int y) {
+		// Validate the coordinates
+		level.getElement(x, y);
+
+		if (modificationCount != level.getModificationCount()) {
+			// The layout changed, the cached propagations may be wrong
+			propagations.clear();
+
+			modificationCount = level.getModificationCount();
+		}
+
+		final Integer source = Integer.valueOf(x + y * width);
+
+		int[] attenuations = propagations.get(source);
+
+		if (attenuations == null) {
+			attenuations = propagate(x, y);
+
+			propagations.put(source, attenuations);
+		}
+
+		return attenuations;
+	}
+
+	private int[] propagate(int x, int y) {
+		propagationCount++;
+
+		final int[] attenuations = new int[width * height];
+
+		Arrays.fill(attenuations, SILENT);
+
+		int head = 0, tail = 0;
+
+		final int source = x + y * width;
+
+		attenuations[source] = 0;
+		queue[tail++] = source;
+
+		while (head < tail) {
+			final int current = queue[head++];
+			final int cx = current % width, cy = current / width;
+			final int attenuation = attenuations[current] + 1;
+
+			if (attenuation > MAX_AWARENESS) {
+				// The noise is too weak to go further
+				continue;
+			}
+
+			for (int i = 0; i < DX.length; i++) {
+				final int nx = cx + DX[i], ny = cy + DY[i];
+
+				if ((nx < 0) || (nx >= width) || (ny < 0) || (ny >= height)) {
+					continue;
+				}
+
+				final int neighbour = nx + ny * width;
+
+				if (attenuations[neighbour] != SILENT) {
+					continue;
+				}
+				if ((i >= 4) && !conducts(nx, cy) && !conducts(cx, ny)) {
+					// The noise can't go around the corner
+					continue;
+				}
+				if (!conducts(nx, ny)) {
+					continue;
+				}
+
+				attenuations[neighbour] = attenuation;
+				queue[tail++] = neighbour;
+			}
+		}
+
+		return attenuations;
+	}
+
+	/**
+	 * Tells whether a noise can go through the element at the given position.
+	 */
+	private boolean conducts(int x, int y) {
+		final Element element = level.getElement(x, y);
+
+		switch (element.getType()) {
+		case DOOR:
+			final Door door = (Door) element;
+
+			return door.creaturesCanSeeThrough() || door.getState().isTraversableByProjectile();
+		case RETRACTABLE_WALL:
+			return ((RetractableWall) element).isOpen();
+		default:
+			return !element.isConcrete();
+		}
+	}
+}
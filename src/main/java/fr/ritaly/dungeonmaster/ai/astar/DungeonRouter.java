@@ -0,0 +1,725 @@
+package fr.ritaly.dungeonmaster.ai.astar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.apache.commons.lang.Validate;
+
+import fr.ritaly.dungeonmaster.Clock;
+import fr.ritaly.dungeonmaster.Direction;
+import fr.ritaly.dungeonmaster.PhasedClockListener;
+import fr.ritaly.dungeonmaster.Position;
+import fr.ritaly.dungeonmaster.ai.Materiality;
+import fr.ritaly.dungeonmaster.map.Dungeon;
+import fr.ritaly.dungeonmaster.map.Element;
+import fr.ritaly.dungeonmaster.map.Level;
+import fr.ritaly.dungeonmaster.map.Pit;
+import fr.ritaly.dungeonmaster.map.Stairs;
+import fr.ritaly.dungeonmaster.map.Teleporter;
+
+/**
+ * Finds routes spanning several levels of a {@link Dungeon}. This is a
+ * hierarchical path finder: each {@link Level} is abstracted as a set of
+ * regions (the connected areas of traversable cells) and of portals (the
+ * {@link Stairs}, {@link Teleporter}s and open {@link Pit}s leading to another
+ * position). The distances from each portal to the cells of its level are
+ * computed once per level and reused until the level's layout changes so that
+ * a route query only explores the (small) graph of portals instead of running
+ * a search over every level.<br>
+ * <br>
+ * The levels may be ticked in parallel (see
+ * {@link Clock#setExecutor(java.util.concurrent.ExecutorService)}) so the
+ * queries made while notifying the listeners bound to a level (see
+ * {@link Clock#isNotifyingLevel()}) are answered from a snapshot of the
+ * graphs taken by the router at the beginning of the {@link Clock.Phase#AI}
+ * phase and never read the other levels. The other queries rebuild the graphs
+ * of the levels which changed on the fly.
+ *
+ * @see Dungeon#getRouter()
+ */
+public class DungeonRouter implements PhasedClockListener {
+
+	/**
+	 * Enumerates the types of portals a route can go through.
+	 */
+	public static enum PortalType {
+		STAIRS,
+		TELEPORTER,
+		PIT;
+	}
+
+	private static final int UNREACHABLE = -1;
+
+	/**
+	 * The x offsets to the 4 neighbours of a cell (north, east, south & west).
+	 */
+	private static final int[] DX = { 0, 1, 0, -1 };
+
+	/**
+	 * The y offsets to the 4 neighbours of a cell (north, east, south & west).
+	 */
+	private static final int[] DY = { -1, 0, 1, 0 };
+
+	/**
+	 * An element moving the entities stepping on it to another position.
+	 */
+	private static final class Portal {
+
+		private final PortalType type;
+
+		private final Element element;
+
+		private final Position destination;
+
+		/**
+		 * The number of steps from each cell of the portal's level to the
+		 * portal.
+		 */
+		private final int[] distances;
+
+		/**
+		 * The regions adjoining the portal.
+		 */
+		private final BitSet regions = new BitSet();
+
+		/**
+		 * Whether the portal was active when the graph was last refreshed.
+		 */
+		private boolean active;
+
+		/**
+		 * The element at the portal's destination when the graph was last
+		 * refreshed or null if there is none.
+		 */
+		private Element target;
+
+		private Portal(PortalType type, Element element, Position destination, int[] distances) {
+			this.type = type;
+			this.element = element;
+			this.destination = destination;
+			this.distances = distances;
+		}
+
+		private void refresh() {
+			final Level level = element.getLevel().getDungeon().getLevel(destination.z);
+
+			this.active = isActive();
+			this.target = ((level != null) && level.contains(destination)) ? level.getElement(destination.x,
+					destination.y) : null;
+		}
+
+		private boolean isActive() {
+			switch (type) {
+			case STAIRS:
+				return true;
+			case TELEPORTER:
+				return ((Teleporter) element).isEnabled();
+			case PIT:
+				return ((Pit) element).isOpen();
+
+			default:
+				throw new UnsupportedOperationException("Unsupported portal type " + type);
+			}
+		}
+	}
+
+	/**
+	 * The abstraction of a level used for finding routes.
+	 */
+	private static final class LevelGraph {
+
+		private final Level level;
+
+		private final Materiality materiality;
+
+		private final int width;
+
+		private final int height;
+
+		/**
+		 * The modification count of the level when the graph was built.
+		 */
+		private final int modificationCount;
+
+		/**
+		 * The region of each cell or {@link DungeonRouter#UNREACHABLE} for the
+		 * cells which can't be traversed.
+		 */
+		private final int[] regions;
+
+		/**
+		 * The cells which could be traversed when the graph was built.
+		 */
+		private final BitSet traversable;
+
+		private final BitSet portalCells;
+
+		private final List<Portal> portals = new ArrayList<Portal>();
+
+		private final int[] queue;
+
+		/**
+		 * The index of the cell whose distances were last computed by
+		 * {@link #getDistancesTo(int)}.
+		 */
+		private int lastTarget = -1;
+
+		private int[] lastDistances;
+
+		private LevelGraph(Level level, Materiality materiality) {
+			this.level = level;
+			this.materiality = materiality;
+			this.width = level.getWidth();
+			this.height = level.getHeight();
+			this.modificationCount = level.getModificationCount();
+			this.traversable = level.getTraversabilityMap().getTraversableCells(materiality);
+			this.regions = new int[width * height];
+			this.portalCells = new BitSet(width * height);
+			this.queue = new int[width * height];
+
+			final List<Element> portalElements = new ArrayList<Element>();
+
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					final Element element = level.getElement(x, y);
+
+					if (element == null) {
+						continue;
+					}
+
+					switch (element.getType()) {
+					case STAIRS:
+					case TELEPORTER:
+						portalElements.add(element);
+						portalCells.set(x + y * width);
+						break;
+					case PIT:
+						if (((Pit) element).isReal()) {
+							portalElements.add(element);
+							portalCells.set(x + y * width);
+						}
+						break;
+
+					default:
+						break;
+					}
+				}
+			}
+
+			labelRegions();
+
+			for (Element element : portalElements) {
+				final Position position = element.getPosition();
+				final PortalType type;
+				final Position destination;
+
+				switch (element.getType()) {
+				case STAIRS:
+					type = PortalType.STAIRS;
+					destination = ((Stairs) element).getDestination();
+					break;
+				case TELEPORTER:
+					type = PortalType.TELEPORTER;
+					destination = ((Teleporter) element).getDestination();
+					break;
+				case PIT:
+					type = PortalType.PIT;
+					destination = position.towards(Direction.DOWN);
+					break;
+
+				default:
+					throw new UnsupportedOperationException("Unsupported element type " + element.getType());
+				}
+
+				if (destination == null) {
+					// This teleporter doesn't teleport
+					continue;
+				}
+
+				final Portal portal = new Portal(type, element, destination, computeDistances(position.x
+						+ position.y * width));
+
+				for (int i = 0; i < DX.length; i++) {
+					final int nx = position.x + DX[i], ny = position.y + DY[i];
+
+					if (contains(nx, ny) && (regions[nx + ny * width] != UNREACHABLE)) {
+						portal.regions.set(regions[nx + ny * width]);
+					}
+				}
+
+				portal.refresh();
+
+				portals.add(portal);
+			}
+		}
+
+		/**
+		 * Updates the state of the portals which can change without changing
+		 * the level's layout (teleporters, the destinations on other levels).
+		 */
+		private void refreshPortals() {
+			for (Portal portal : portals) {
+				portal.refresh();
+			}
+		}
+
+		private boolean contains(int x, int y) {
+			return (x >= 0) && (x < width) && (y >= 0) && (y < height);
+		}
+
+		/**
+		 * Tells whether the cell with given index can be traversed. The portal
+		 * cells can be reached but not traversed.
+		 */
+		private boolean isTraversable(int index) {
+			if (portalCells.get(index)) {
+				return false;
+			}
+
+			return traversable.get(index);
+		}
+
+		private void labelRegions() {
+			int region = 0;
+
+			for (int index = 0; index < regions.length; index++) {
+				regions[index] = isTraversable(index) ? Integer.MAX_VALUE : UNREACHABLE;
+			}
+
+			for (int index = 0; index < regions.length; index++) {
+				if (regions[index] != Integer.MAX_VALUE) {
+					// Already labelled or not traversable
+					continue;
+				}
+
+				int head = 0, tail = 0;
+
+				regions[index] = region;
+				queue[tail++] = index;
+
+				while (head < tail) {
+					final int current = queue[head++];
+					final int x = current % width, y = current / width;
+
+					for (int i = 0; i < DX.length; i++) {
+						final int nx = x + DX[i], ny = y + DY[i];
+
+						if (contains(nx, ny) && (regions[nx + ny * width] == Integer.MAX_VALUE)) {
+							regions[nx + ny * width] = region;
+							queue[tail++] = nx + ny * width;
+						}
+					}
+				}
+
+				region++;
+			}
+		}
+
+		/**
+		 * Computes the number of steps from each cell to the given one.
+		 */
+		private int[] computeDistances(int target) {
+			final int[] distances = new int[width * height];
+
+			Arrays.fill(distances, UNREACHABLE);
+
+			int head = 0, tail = 0;
+
+			distances[target] = 0;
+			queue[tail++] = target;
+
+			while (head < tail) {
+				final int current = queue[head++];
+
+				if ((current != target) && portalCells.get(current)) {
+					// A portal can be reached but not traversed
+					continue;
+				}
+
+				final int x = current % width, y = current / width;
+
+				for (int i = 0; i < DX.length; i++) {
+					final int nx = x + DX[i], ny = y + DY[i];
+
+					if (!contains(nx, ny)) {
+						continue;
+					}
+
+					final int neighbour = nx + ny * width;
+
+					if ((distances[neighbour] != UNREACHABLE)
+							|| (!isTraversable(neighbour) && !portalCells.get(neighbour))) {
+						continue;
+					}
+
+					distances[neighbour] = distances[current] + 1;
+					queue[tail++] = neighbour;
+				}
+			}
+
+			return distances;
+		}
+
+		private int[] getDistancesTo(int target) {
+			if (target != lastTarget) {
+				lastDistances = computeDistances(target);
+				lastTarget = target;
+			}
+
+			return lastDistances;
+		}
+	}
+
+	/**
+	 * A route being explored: the position reached, its cost and how it was
+	 * reached.
+	 */
+	private static final class Step implements Comparable<Step> {
+
+		private final Position position;
+
+		private final int cost;
+
+		private final Step previous;
+
+		/**
+		 * The portal taken from the previous step to reach this one. Null for
+		 * the first and the last steps.
+		 */
+		private final Portal portal;
+
+		private Step(Position position, int cost, Step previous, Portal portal) {
+			this.position = position;
+			this.cost = cost;
+			this.previous = previous;
+			this.portal = portal;
+		}
+
+		@Override
+		public int compareTo(Step other) {
+			return (cost < other.cost) ? -1 : ((cost == other.cost) ? 0 : 1);
+		}
+	}
+
+	private final Dungeon dungeon;
+
+	private final Map<Materiality, Map<Integer, LevelGraph>> graphs = new EnumMap<Materiality, Map<Integer, LevelGraph>>(
+			Materiality.class);
+
+	/**
+	 * The materialities for which routes were requested. The graphs of all
+	 * the levels are refreshed for those materialities.
+	 */
+	private final Set<Materiality> materialities = EnumSet.noneOf(Materiality.class);
+
+	public DungeonRouter(Dungeon dungeon) {
+		Validate.notNull(dungeon, "The given dungeon is null");
+
+		this.dungeon = dungeon;
+	}
+
+	/**
+	 * Tells whether the graphs can be rebuilt from the current state of the
+	 * levels. That's not the case when a level may be ticking concurrently.
+	 */
+	private boolean isLive() {
+		return !dungeon.getContext().getClock().isNotifyingLevel();
+	}
+
+	/**
+	 * Returns the graph of the level with given number. When live, the graph
+	 * is rebuilt if the level changed, otherwise the snapshot taken at the
+	 * last refresh is returned.
+	 */
+	private LevelGraph getGraph(Materiality materiality, int number, boolean live) {
+		materialities.add(materiality);
+
+		Map<Integer, LevelGraph> map = graphs.get(materiality);
+
+		if (map == null) {
+			graphs.put(materiality, map = new HashMap<Integer, LevelGraph>());
+		}
+
+		if (!live) {
+			// The graph will be built at the next refresh if missing
+			return map.get(number);
+		}
+
+		final Level level = dungeon.getLevel(number);
+
+		if (level == null) {
+			map.remove(number);
+
+			return null;
+		}
+
+		LevelGraph graph = map.get(number);
+
+		if ((graph == null) || (graph.level != level) || (graph.modificationCount != level.getModificationCount())) {
+			// The level changed, rebuild its graph
+			map.put(number, graph = new LevelGraph(level, materiality));
+		} else {
+			graph.refreshPortals();
+		}
+
+		return graph;
+	}
+
+	/**
+	 * Rebuilds the graphs of the levels which changed since the last refresh
+	 * so that the queries made while the levels are ticking see a consistent
+	 * snapshot.
+	 */
+	public synchronized void refresh() {
+		for (Materiality materiality : materialities) {
+			for (Level level : dungeon.getLevels()) {
+				getGraph(materiality, level.getNumber(), true);
+			}
+		}
+	}
+
+	@Override
+	public Clock.Phase getPhase() {
+		return Clock.Phase.AI;
+	}
+
+	@Override
+	public boolean clockTicked() {
+		// Not bound to a level: runs before the levels are ticked
+		refresh();
+
+		return true;
+	}
+
+	/**
+	 * Returns the region containing the given position. Two positions on the
+	 * same level are connected without taking a portal if and only if they're
+	 * in the same region.
+	 *
+	 * @param materiality
+	 *            the materiality of the entity moving. Can't be null.
+	 * @param position
+	 *            a position. Can't be null.
+	 * @return a positive or zero region identifier or -1 if the position
+	 *         can't be traversed.
+	 */
+	public synchronized int getRegion(Materiality materiality, Position position) {
+		Validate.notNull(materiality, "The given materiality is null");
+		Validate.notNull(position, "The given position is null");
+
+		final LevelGraph graph = getGraph(materiality, position.z, isLive());
+
+		if ((graph == null) || !graph.contains(position.x, position.y)) {
+			return UNREACHABLE;
+		}
+
+		return graph.regions[position.x + position.y * graph.width];
+	}
+
+	private Step search(Materiality materiality, Set<PortalType> portalTypes, Position start, Position goal,
+			boolean live) {
+		Validate.notNull(materiality, "The given materiality is null");
+		Validate.notNull(portalTypes, "The given set of portal types is null");
+		Validate.notNull(start, "The given start position is null");
+		Validate.notNull(goal, "The given goal position is null");
+
+		final LevelGraph goalGraph = getGraph(materiality, goal.z, live);
+
+		if ((goalGraph == null) || !goalGraph.contains(goal.x, goal.y)) {
+			return null;
+		}
+
+		final int[] goalDistances = goalGraph.getDistancesTo(goal.x + goal.y * goalGraph.width);
+
+		// Dijkstra on the graph of portals
+		final PriorityQueue<Step> queue = new PriorityQueue<Step>();
+		final Map<Position, Integer> costs = new HashMap<Position, Integer>();
+
+		queue.add(new Step(start, 0, null, null));
+		costs.put(start, 0);
+
+		while (!queue.isEmpty()) {
+			final Step step = queue.poll();
+
+			if (step.cost > costs.get(step.position)) {
+				// Obsolete step
+				continue;
+			}
+			if (step.position.equals(goal)) {
+				return step;
+			}
+
+			final LevelGraph graph = getGraph(materiality, step.position.z, live);
+
+			if ((graph == null) || !graph.contains(step.position.x, step.position.y)) {
+				continue;
+			}
+
+			final int index = step.position.x + step.position.y * graph.width;
+			final int region = graph.regions[index];
+
+			if (graph == goalGraph) {
+				final int distance = goalDistances[index];
+
+				if (distance != UNREACHABLE) {
+					relax(queue, costs, new Step(goal, step.cost + distance, step, null));
+				}
+			}
+
+			for (Portal portal : graph.portals) {
+				if (!portalTypes.contains(portal.type) || !portal.active) {
+					continue;
+				}
+				if ((region != UNREACHABLE) && !portal.regions.get(region)) {
+					// The portal can't be reached from this region
+					continue;
+				}
+
+				final int distance = portal.distances[index];
+
+				if ((distance == UNREACHABLE) || (portal.target == null)
+						|| (getGraph(materiality, portal.destination.z, live) == null)) {
+					continue;
+				}
+
+				// Reach the portal then take it
+				final Step entry = new Step(portal.element.getPosition(), step.cost + distance, step, null);
+
+				relax(queue, costs, new Step(portal.destination, entry.cost + 1, entry, portal));
+			}
+		}
+
+		return null;
+	}
+
+	private void relax(PriorityQueue<Step> queue, Map<Position, Integer> costs, Step step) {
+		final Integer cost = costs.get(step.position);
+
+		if ((cost == null) || (step.cost < cost.intValue())) {
+			costs.put(step.position, step.cost);
+			queue.add(step);
+		}
+	}
+
+	/**
+	 * Finds a route from the start position to the goal position, possibly
+	 * through other levels.
+	 *
+	 * @param materiality
+	 *            the materiality of the entity moving. Can't be null.
+	 * @param portalTypes
+	 *            the types of portals the entity can take. Can't be null.
+	 * @param start
+	 *            the start position. Can't be null.
+	 * @param goal
+	 *            the goal position. Can't be null.
+	 * @return a list of positions starting with the start position and ending
+	 *         with the goal position. Each portal taken appears as 2
+	 *         consecutive positions (the portal and its destination). Returns
+	 *         null if the goal can't be reached.
+	 */
+	public synchronized List<Position> findRoute(Materiality materiality, Set<PortalType> portalTypes,
+			Position start, Position goal) {
+
+		Step step = search(materiality, portalTypes, start, goal, isLive());
+
+		if (step == null) {
+			return null;
+		}
+
+		final List<Position> route = new ArrayList<Position>();
+
+		for (; step != null; step = step.previous) {
+			if (!route.isEmpty() && route.get(route.size() - 1).equals(step.position)) {
+				// Already at this position (start on a portal)
+				continue;
+			}
+
+			route.add(step.position);
+		}
+
+		Collections.reverse(route);
+
+		return route;
+	}
+
+	/**
+	 * Returns the element to move to from the given position to get closer to
+	 * the goal position, possibly through other levels.
+	 *
+	 * @param materiality
+	 *            the materiality of the entity moving. Can't be null.
+	 * @param portalTypes
+	 *            the types of portals the entity can take. Can't be null.
+	 * @param from
+	 *            the current position. Can't be null.
+	 * @param goal
+	 *            the goal position. Can't be null.
+	 * @return the next element which is either adjacent to the current
+	 *         position or the destination of the portal at the current
+	 *         position. Returns null if the goal can't be reached or if the
+	 *         current position is the goal one.
+	 */
+	public synchronized Element getNextStep(Materiality materiality, Set<PortalType> portalTypes, Position from,
+			Position goal) {
+
+		if (from.equals(goal)) {
+			return null;
+		}
+
+		final boolean live = isLive();
+
+		Step step = search(materiality, portalTypes, from, goal, live);
+
+		if (step == null) {
+			return null;
+		}
+
+		// Find the first leg of the route
+		Step next = step;
+
+		while ((step.previous != null) && (step.previous.previous != null)) {
+			next = step;
+			step = step.previous;
+		}
+
+		// Here step is the first step after the start position
+		if ((next.portal != null) && step.position.equals(from)) {
+			// The current position is the portal to take
+			return next.portal.target;
+		}
+
+		final LevelGraph graph = getGraph(materiality, from.z, live);
+		final int[] distances;
+
+		if (next.portal != null) {
+			// Head towards the portal
+			distances = next.portal.distances;
+		} else {
+			// Head towards the goal on this level
+			distances = graph.getDistancesTo(goal.x + goal.y * graph.width);
+		}
+
+		final int distance = distances[from.x + from.y * graph.width];
+
+		for (int i = 0; i < DX.length; i++) {
+			final int nx = from.x + DX[i], ny = from.y + DY[i];
+
+			if (graph.contains(nx, ny) && (distances[nx + ny * graph.width] == distance - 1)) {
+				return graph.level.getElement(nx, ny);
+			}
+		}
+
+		// Shouldn't happen
+		throw new IllegalStateException("Unable to find the next step from " + from + " towards " + goal);
+	}
+}
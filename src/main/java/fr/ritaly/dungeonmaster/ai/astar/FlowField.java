@@ -0,0 +1,210 @@
+package fr.ritaly.dungeonmaster.ai.astar;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang.Validate;
+
+import fr.ritaly.dungeonmaster.ai.Materiality;
+import fr.ritaly.dungeonmaster.map.Element;
+import fr.ritaly.dungeonmaster.map.Level;
+
+/**
+ * Distance map from every cell of a {@link Level} to a target position (the
+ * party's position typically). The map is computed once by a breadth-first
+ * search from the target (Dijkstra with a uniform step cost) and shared by all
+ * the creatures tracking this target so that each of them finds its next step
+ * with a constant-time lookup. The map is rebuilt lazily when the target moves
+ * or when the level is modified.
+ *
+ * @see Level#getFlowField(Materiality)
+ */
+public class FlowField {
+
+	/**
+	 * The distance of the cells which can't reach the target.
+	 */
+	public static final int UNREACHABLE = -1;
+
+	/**
+	 * The x offsets to the 4 neighbours of a cell (north, east, south & west).
+	 */
+	private static final int[] DX = { 0, 1, 0, -1 };
+
+	/**
+	 * The y offsets to the 4 neighbours of a cell (north, east, south & west).
+	 */
+	private static final int[] DY = { -1, 0, 1, 0 };
+
+	private final Level level;
+
+	private final Materiality materiality;
+
+	private final int width;
+
+	private final int height;
+
+	/**
+	 * The number of steps from each cell to the target or
+	 * {@link #UNREACHABLE}.
+	 */
+	private final int[] distances;
+
+	/**
+	 * The queue of cell indices used by the breadth-first search.
+	 */
+	private final int[] queue;
+
+	private int targetX = -1, targetY = -1;
+
+	/**
+	 * The modification count of the level when the map was last built. -1 if
+	 * the map has never been built.
+	 */
+	private int modificationCount = -1;
+
+	public FlowField(Level level, Materiality materiality) {
+		Validate.notNull(level, "The given level is null");
+		Validate.notNull(materiality, "The given materiality is null");
+
+		this.level = level;
+		this.materiality = materiality;
+		this.width = level.getWidth();
+		this.height = level.getHeight();
+		this.distances = new int[width * height];
+		this.queue = new int[width * height];
+	}
+
+	public Level getLevel() {
+		return level;
+	}
+
+	public Materiality getMateriality() {
+		return materiality;
+	}
+
+	/**
+	 * Updates the distance map for the given target position. Only rebuilds
+	 * the map if the target changed or if the level was modified since the
+	 * last build.
+	 *
+	 * @param x
+	 *            the x coordinate of the target position.
+	 * @param y
+	 *            the y coordinate of the target position.
+	 */
+	public synchronized void update(int x, int y) {
+		// Validate the coordinates
+		level.getElement(x, y);
+
+		if ((x == targetX) && (y == targetY) && (modificationCount == level.getModificationCount())) {
+			// The map is up-to-date
+			return;
+		}
+
+		this.targetX = x;
+		this.targetY = y;
+		this.modificationCount = level.getModificationCount();
+
+		Arrays.fill(distances, UNREACHABLE);
+
+		int head = 0, tail = 0;
+
+		final int target = x + y * width;
+
+		distances[target] = 0;
+		queue[tail++] = target;
+
+		while (head < tail) {
+			final int current = queue[head++];
+			final int cx = current % width, cy = current / width;
+			final int distance = distances[current] + 1;
+
+			for (int i = 0; i < DX.length; i++) {
+				final int nx = cx + DX[i], ny = cy + DY[i];
+
+				if ((nx < 0) || (nx >= width) || (ny < 0) || (ny >= height)) {
+					continue;
+				}
+
+				final int neighbour = nx + ny * width;
+
+				if ((distances[neighbour] != UNREACHABLE) || !isTraversable(nx, ny)) {
+					continue;
+				}
+
+				distances[neighbour] = distance;
+				queue[tail++] = neighbour;
+			}
+		}
+	}
+
+	private boolean isTraversable(int x, int y) {
+		// Read the level's bitboards rather than the elements (cheaper to scan)
+		return level.getTraversabilityMap().isTraversable(materiality, x + y * width);
+	}
+
+	/**
+	 * Returns the number of steps from the given position to the target as
+	 * computed by the last update.
+	 *
+	 * @param x
+	 *            the x coordinate of the position.
+	 * @param y
+	 *            the y coordinate of the position.
+	 * @return a positive or zero number of steps or {@link #UNREACHABLE}.
+	 */
+	public synchronized int getDistance(int x, int y) {
+		// Validate the coordinates
+		level.getElement(x, y);
+
+		if (modificationCount == -1) {
+			return UNREACHABLE;
+		}
+
+		return distances[x + y * width];
+	}
+
+	/**
+	 * Returns the element to move to from the given position to get closer to
+	 * the given target position.
+	 *
+	 * @param x
+	 *            the x coordinate of the current position.
+	 * @param y
+	 *            the y coordinate of the current position.
+	 * @param targetX
+	 *            the x coordinate of the target position.
+	 * @param targetY
+	 *            the y coordinate of the target position.
+	 * @return the element adjacent to the current position or null if the
+	 *         target can't be reached or if the current position is the target
+	 *         one.
+	 */
+	public synchronized Element getNextStep(int x, int y, int targetX, int targetY) {
+		update(targetX, targetY);
+
+		// Validate the coordinates
+		level.getElement(x, y);
+
+		final int distance = distances[x + y * width];
+
+		if ((distance == UNREACHABLE) || (distance == 0)) {
+			return null;
+		}
+
+		for (int i = 0; i < DX.length; i++) {
+			final int nx = x + DX[i], ny = y + DY[i];
+
+			if ((nx < 0) || (nx >= width) || (ny < 0) || (ny >= height)) {
+				continue;
+			}
+
+			if (distances[nx + ny * width] == distance - 1) {
+				return level.getElement(nx, ny);
+			}
+		}
+
+		// Shouldn't happen
+		throw new IllegalStateException("Unable to find the next step from (" + x + "," + y + ")");
+	}
+}
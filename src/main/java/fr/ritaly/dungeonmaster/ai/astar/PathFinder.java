@@ -1,134 +1,186 @@
 package fr.ritaly.dungeonmaster.ai.astar;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Random;
 
 import org.apache.commons.lang.Validate;
 
 import fr.ritaly.dungeonmaster.ai.Materiality;
-import fr.ritaly.dungeonmaster.map.Dungeon;
 import fr.ritaly.dungeonmaster.map.Element;
-import fr.ritaly.dungeonmaster.map.Floor;
 import fr.ritaly.dungeonmaster.map.Level;
 
 /**
- * See http://memoization.com/2008/11/30/a-star-algorithm-in-java/ for the web
- * page where the original source code comes from. The code was refactored so as
- * to make the maze stateless.
+ * A* path finder working on the grid of a {@link Level}. The cells of the
+ * level are identified by an integer index (x + y * width), the open set is a
+ * binary heap of indices and the closed set a {@link BitSet}. The scratch
+ * buffers are allocated once and reused from a search to another so a
+ * {@link PathFinder} is meant to be reused (see
+ * {@link Level#getPathFinder(Materiality)}).
  */
 public class PathFinder {
 
+	/**
+	 * The x offsets to the 4 neighbours of a cell (north, east, south & west).
+	 */
+	private static final int[] DX = { 0, 1, 0, -1 };
+
+	/**
+	 * The y offsets to the 4 neighbours of a cell (north, east, south & west).
+	 */
+	private static final int[] DY = { -1, 0, 1, 0 };
+
 	private final Level level;
 
 	private final Materiality materiality;
 
-	private final List<Element> opened = new ArrayList<Element>();
+	private final int width;
+
+	private final int height;
+
+	/**
+	 * The cost of the best path found so far from the start to each cell.
+	 * Only meaningful for the cells whose stamp is the current one.
+	 */
+	private final int[] costs;
+
+	/**
+	 * The index of the cell preceding each cell in the best path found so far.
+	 */
+	private final int[] parents;
+
+	/**
+	 * The id of the last search which visited each cell. Saves from clearing
+	 * the other arrays before each search.
+	 */
+	private final int[] stamps;
+
+	/**
+	 * The cells already expanded by the current search.
+	 */
+	private final BitSet closed;
 
-	private final List<Element> closed = new ArrayList<Element>();
+	/**
+	 * The open set as a binary min-heap of cell indices ordered by estimated
+	 * total cost.
+	 */
+	private final int[] heap;
 
-	private final List<Element> bestList = new ArrayList<Element>();
+	/**
+	 * The position of each cell in the heap (-1 if not in the heap).
+	 */
+	private final int[] heapIndices;
 
-	private final Map<Element, Element> parents = new LinkedHashMap<Element, Element>();
+	private int heapSize;
+
+	/**
+	 * The id of the current search.
+	 */
+	private int stamp;
+
+	private int goalX, goalY;
 
 	public PathFinder(Level level, Materiality materiality) {
-		Validate.notNull(level);
-		Validate.notNull(materiality);
+		Validate.notNull(level, "The given level is null");
+		Validate.notNull(materiality, "The given materiality is null");
 
 		this.level = level;
 		this.materiality = materiality;
-	}
+		this.width = level.getWidth();
+		this.height = level.getHeight();
 
-	public List<Element> findBestPath(int startX, int startY, int endX, int endY) {
-		final Element start = level.getElement(startX, startY);
-		final Element goal = level.getElement(endX, endY);
-
-		System.out.println("Calculating best path...");
+		final int size = width * height;
 
-		for (Element adjacency : start.getAdjacentElements()) {
-			if (Materiality.IMMATERIAL.equals(materiality)) {
-				// All nodes can be traversed
-			} else {
-				// Only non-concrete nodes can be traversed
-				if (adjacency.isConcrete()) {
-					// Ignore this node
-					continue;
-				}
-			}
+		this.costs = new int[size];
+		this.parents = new int[size];
+		this.stamps = new int[size];
+		this.closed = new BitSet(size);
+		this.heap = new int[size];
+		this.heapIndices = new int[size];
+	}
 
-			parents.put(adjacency, start);
+	public Level getLevel() {
+		return level;
+	}
 
-			if (!((adjacency.getPosition().x == startX) && (adjacency.getPosition().y == startY))) {
-				opened.add(adjacency);
-			}
-		}
+	public Materiality getMateriality() {
+		return materiality;
+	}
 
-		while (opened.size() > 0) {
-			final Element best = findBestPassThrough(goal, startX, startY);
+	/**
+	 * Finds the shortest path from the start position to the goal position.
+	 *
+	 * @param startX
+	 *            the x coordinate of the start position.
+	 * @param startY
+	 *            the y coordinate of the start position.
+	 * @param endX
+	 *            the x coordinate of the goal position.
+	 * @param endY
+	 *            the y coordinate of the goal position.
+	 * @return a new list of elements starting with the start element and ending
+	 *         with the goal element (both inclusive) or null if the goal can't
+	 *         be reached.
+	 */
+	public synchronized List<Element> findBestPath(int startX, int startY, int endX, int endY) {
+		final Element start = level.getElement(startX, startY);
+		final Element goal = level.getElement(endX, endY);
 
-			opened.remove(best);
-			closed.add(best);
+		if (start == goal) {
+			final List<Element> path = new ArrayList<Element>(1);
+			path.add(start);
 
-			if ((best.getPosition().x == endX) && (best.getPosition().y == endY)) {
-				System.out.println("Found Goal");
-				populateBestList(goal, startX, startY);
+			return path;
+		}
+		if (!isTraversable(endX, endY)) {
+			return null;
+		}
 
-				// Add the start position to the solution
-				bestList.add(start);
+		final int startIndex = startX + startY * width;
+		final int goalIndex = endX + endY * width;
 
-				// Reverse the traversed node to list from the start position
-				// to the goal
-				Collections.reverse(bestList);
+		this.goalX = endX;
+		this.goalY = endY;
 
-				System.out.println(level.draw(bestList));
+		reset();
 
-				return bestList;
-			} else {
-				final List<Element> neighbors = best.getAdjacentElements();
+		visit(startIndex, 0, startIndex);
+		push(startIndex);
 
-				for (Element neighbor : neighbors) {
-					if (Materiality.IMMATERIAL.equals(materiality)) {
-						// All nodes can be traversed
-					} else {
-						// Only non-concrete nodes can be traversed
-						if (neighbor.isConcrete()) {
-							// Ignore this node
-							continue;
-						}
-					}
+		while (heapSize > 0) {
+			final int current = pop();
 
-					if (opened.contains(neighbor)) {
-						final Floor temp = new Floor();
-						temp.setPosition(neighbor.getPosition());
-						temp.setLevel(level);
+			if (current == goalIndex) {
+				return buildPath(startIndex, goalIndex);
+			}
 
-						parents.put(temp, best);
+			closed.set(current);
 
-						if (getPassThrough(temp, goal, startX, startY) >= getPassThrough(neighbor, goal, startX, startY)) {
-							continue;
-						}
-					}
+			final int x = current % width, y = current / width;
+			final int cost = costs[current] + 1;
 
-					if (closed.contains(neighbor)) {
-						final Floor temp = new Floor();
-						temp.setPosition(neighbor.getPosition());
-						temp.setLevel(level);
+			for (int i = 0; i < DX.length; i++) {
+				final int nx = x + DX[i], ny = y + DY[i];
 
-						parents.put(temp, best);
+				if ((nx < 0) || (nx >= width) || (ny < 0) || (ny >= height)) {
+					continue;
+				}
 
-						if (getPassThrough(temp, goal, startX, startY) >= getPassThrough(neighbor, goal, startX, startY)) {
-							continue;
-						}
-					}
+				final int neighbour = nx + ny * width;
 
-					parents.put(neighbor, best);
+				if (closed.get(neighbour) || !isTraversable(nx, ny)) {
+					continue;
+				}
 
-					opened.remove(neighbor);
-					closed.remove(neighbor);
-					opened.add(0, neighbor);
+				if (stamps[neighbour] != stamp) {
+					visit(neighbour, cost, current);
+					push(neighbour);
+				} else if (cost < costs[neighbour]) {
+					// Better path to an opened cell
+					visit(neighbour, cost, current);
+					siftUp(heapIndices[neighbour]);
 				}
 			}
 		}
@@ -136,74 +188,124 @@ public class PathFinder {
 		return null;
 	}
 
-	private Element findBestPassThrough(Element goal, int startX, int startY) {
-		Element best = null;
+	private boolean isTraversable(int x, int y) {
+		// Read the level's bitboards rather than the elements (cheaper to scan)
+		return level.getTraversabilityMap().isTraversable(materiality, x + y * width);
+	}
 
-		for (Element square : opened) {
-			if (best == null || getPassThrough(square, goal, startX, startY) < getPassThrough(best, goal, startX, startY)) {
-				best = square;
-			}
+	private void reset() {
+		if (++stamp == 0) {
+			// The stamps wrapped, clear them to avoid false positives
+			Arrays.fill(stamps, 0);
+
+			stamp = 1;
 		}
 
-		return best;
+		closed.clear();
+		heapSize = 0;
+	}
+
+	private void visit(int index, int cost, int parent) {
+		stamps[index] = stamp;
+		costs[index] = cost;
+		parents[index] = parent;
 	}
 
-	private void populateBestList(Element square, int startX, int startY) {
-		bestList.add(square);
+	private List<Element> buildPath(int startIndex, int goalIndex) {
+		final List<Element> path = new ArrayList<Element>();
 
-		final Element parent = parents.get(square);
+		for (int index = goalIndex; ; index = parents[index]) {
+			path.add(level.getElement(index % width, index / width));
 
-		if (!((parent.getPosition().x == startX) && (parent.getPosition().y == startY))) {
-			populateBestList(parents.get(square), startX, startY);
+			if (index == startIndex) {
+				break;
+			}
 		}
+
+		// List the elements from the start to the goal
+		Collections.reverse(path);
+
+		return path;
 	}
 
-	private double getPassThrough(Element square, Element goal, int x, int y) {
-		if ((square.getPosition().x == x) && (square.getPosition().y == y)) {
-			return 0.0;
-		}
+	private int getEstimatedCost(int index) {
+		// Manhattan distance to the goal
+		return costs[index] + Math.abs((index % width) - goalX) + Math.abs((index / width) - goalY);
+	}
+
+	/**
+	 * Tells whether the cell with the first index must be expanded before the
+	 * second one. On equal estimates, the deepest cell comes first.
+	 */
+	private boolean before(int index1, int index2) {
+		final int estimate1 = getEstimatedCost(index1), estimate2 = getEstimatedCost(index2);
 
-		return getLocalCost(square, goal, x, y) + getParentCost(square, x, y);
+		return (estimate1 < estimate2) || ((estimate1 == estimate2) && (costs[index1] > costs[index2]));
 	}
 
-	private double getLocalCost(Element square, Element goal, int x, int y) {
-		if ((square.getPosition().x == x) && (square.getPosition().y == y)) {
-			return 0.0;
-		}
+	private void push(int index) {
+		heap[heapSize] = index;
+		heapIndices[index] = heapSize;
 
-		// cost of getting from this square to goal
-		return 1.0 * (Math.abs(x - goal.getPosition().x) + Math.abs(y - goal.getPosition().y));
+		siftUp(heapSize++);
 	}
 
-	private double getParentCost(Element square, int x, int y) {
-		if ((square.getPosition().x == x) && (square.getPosition().y == y)) {
-			return 0.0;
+	private int pop() {
+		final int result = heap[0];
+
+		heapIndices[result] = -1;
+
+		if (--heapSize > 0) {
+			heap[0] = heap[heapSize];
+			heapIndices[heap[0]] = 0;
+
+			siftDown(0);
 		}
 
-		return 1.0 + .5 * (getParentCost(parents.get(square), x, y) - 1.0);
+		return result;
 	}
 
-	public static void main(String[] args) {
-		int startX = 0, startY = 0;
-		int goalX = 0, goalY = 0;
+	private void siftUp(int position) {
+		final int index = heap[position];
 
-		List<Element> path = null;
+		while (position > 0) {
+			final int parent = (position - 1) >>> 1;
 
-		do {
-			Dungeon dungeon = new Dungeon();
-			Level level = new Level(dungeon, 1, 10, 10);
+			if (!before(index, heap[parent])) {
+				break;
+			}
 
-			Random random = new Random();
+			heap[position] = heap[parent];
+			heapIndices[heap[position]] = position;
+			position = parent;
+		}
+
+		heap[position] = index;
+		heapIndices[index] = position;
+	}
 
-			startX = random.nextInt(10);
-			startY = random.nextInt(10);
+	private void siftDown(int position) {
+		final int index = heap[position];
 
-			do {
-				goalX = random.nextInt(10);
-				goalY = random.nextInt(10);
-			} while (goalX == startX && goalY == startY);
+		while (true) {
+			int child = (position << 1) + 1;
+
+			if (child >= heapSize) {
+				break;
+			}
+			if ((child + 1 < heapSize) && before(heap[child + 1], heap[child])) {
+				child++;
+			}
+			if (!before(heap[child], index)) {
+				break;
+			}
+
+			heap[position] = heap[child];
+			heapIndices[heap[position]] = position;
+			position = child;
+		}
 
-			path = new PathFinder(level, Materiality.MATERIAL).findBestPath(startX, startY, goalX, goalY);
-		} while (path == null);
+		heap[position] = index;
+		heapIndices[index] = position;
 	}
-}
\ No newline at end of file
+}
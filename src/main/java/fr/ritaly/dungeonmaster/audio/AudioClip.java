@@ -25,76 +25,87 @@ public enum AudioClip {
 	/**
 	 * Son des pas quand le groupe se d�place
 	 */
-	STEP("step.wav"),
+	STEP("step.wav", 0),
 
 	/**
 	 * Son quand une porte est d�truite
 	 */
-	DOOR_BROKEN("doorbreak.wav"),
+	DOOR_BROKEN("doorbreak.wav", 2),
 
 	/**
 	 * Son quand on boit une boisson
 	 */
-	GLOUPS("gulp.wav"),
+	GLOUPS("gulp.wav", 1),
 
 	/**
 	 * Cri quand un champion mort
 	 */
-	CHAMPION_DIED("scream.wav"),
+	CHAMPION_DIED("scream.wav", 3),
 
 	/**
 	 * Son quand on frappe sur une porte mais qu'elle ne c�de pas
 	 */
-	CLONK("thunk.wav"),
+	CLONK("thunk.wav", 1),
 
 	/**
 	 * Son d'un coup port� dans le vide
 	 */
-	SWING("swing.wav"),
+	SWING("swing.wav", 1),
 
 	/**
 	 * Son quand le groupe se cogne dans un mur
 	 */
-	BONG("bump.wav"),
+	BONG("bump.wav", 1),
 
 	/**
 	 * Son quand on remplit une outre, une fiole
 	 */
-	REFILL(null),
+	REFILL(null, 1),
 
 	/**
 	 * Son de la t�l�portation
 	 */
-	TELEPORT("teleport.wav"),
+	TELEPORT("teleport.wav", 2),
 
 	/**
 	 * Son d'une serrure que l'on ouvre
 	 */
-	LOCK(null),
+	LOCK(null, 1),
 
 	/**
 	 * Son d'une boule de feu en vol
 	 */
-	FIRE_BALL("fball.wav"),
+	FIRE_BALL("fball.wav", 2),
 
 	/**
 	 * Son d'une boule de feu qui explose;
 	 */
-	FIRE_BURST("burn.wav"),
+	FIRE_BURST("burn.wav", 2),
 	
-	SWITCH("switch.wav"),
+	SWITCH("switch.wav", 1),
 	
-	ALTAR("altar.wav"),
+	ALTAR("altar.wav", 2),
 	
-	SHOUT(null);
+	SHOUT(null, 2);
 	
 	private final String sound;
 	
-	private AudioClip(String sound) {
+	/**
+	 * The priority of the clip when all the voices are busy. The higher, the
+	 * more important.
+	 */
+	private final int priority;
+	
+	private AudioClip(String sound, int priority) {
 		this.sound = sound;
+		this.priority = priority;
 	}
 
 	public String getSound() {
 		return sound;
 	}
+
+	public int getPriority() {
+		return priority;
+	}
 }
\ No newline at end of file
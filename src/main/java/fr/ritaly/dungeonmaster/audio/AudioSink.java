@@ -0,0 +1,50 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.LineUnavailableException;
+
+/**
+ * The output where the {@link VoiceManager} writes the mixed sounds.
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ * @see LineSink
+ * @see NullSink
+ */
+public interface AudioSink {
+
+	/**
+	 * Opens the sink for writing data with the given format.
+	 *
+	 * @param format
+	 *            the format of the data written. Can't be null.
+	 * @throws LineUnavailableException
+	 *             if the sink can't be opened.
+	 */
+	void open(AudioFormat format) throws LineUnavailableException;
+
+	/**
+	 * Writes the given data. This method blocks until the sink is ready for
+	 * more data hence paces the mixer.
+	 */
+	void write(byte[] buffer, int offset, int length);
+
+	void close();
+}
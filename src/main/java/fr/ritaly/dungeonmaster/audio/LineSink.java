@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * {@link AudioSink} writing to the default {@link SourceDataLine} of the
+ * sound device.
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ */
+public class LineSink implements AudioSink {
+
+	private SourceDataLine line;
+
+	@Override
+	public synchronized void open(AudioFormat format) throws LineUnavailableException {
+		Validate.notNull(format, "The given audio format is null");
+
+		if (line != null) {
+			throw new IllegalStateException("The sink is already open");
+		}
+
+		final SourceDataLine line = AudioSystem.getSourceDataLine(format);
+
+		line.open(format);
+		line.start();
+
+		this.line = line;
+	}
+
+	@Override
+	public void write(byte[] buffer, int offset, int length) {
+		final SourceDataLine line;
+
+		synchronized (this) {
+			if (this.line == null) {
+				throw new IllegalStateException("The sink isn't open");
+			}
+
+			line = this.line;
+		}
+
+		// Blocks until the line has room for the data
+		line.write(buffer, offset, length);
+	}
+
+	@Override
+	public synchronized void close() {
+		if (line != null) {
+			line.stop();
+			line.close();
+
+			line = null;
+		}
+	}
+}
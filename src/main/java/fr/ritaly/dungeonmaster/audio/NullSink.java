@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.audio;
+
+import javax.sound.sampled.AudioFormat;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * {@link AudioSink} discarding the data written. Used when no sound device is
+ * available (headless servers, tests). The sink sleeps for the duration of
+ * the data written so that the mixer runs at the same pace as with a real
+ * device.
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ */
+public class NullSink implements AudioSink {
+
+	private AudioFormat format;
+
+	private long byteCount;
+
+	@Override
+	public synchronized void open(AudioFormat format) {
+		Validate.notNull(format, "The given audio format is null");
+
+		if (this.format != null) {
+			throw new IllegalStateException("The sink is already open");
+		}
+
+		this.format = format;
+	}
+
+	@Override
+	public void write(byte[] buffer, int offset, int length) {
+		final AudioFormat format;
+
+		synchronized (this) {
+			if (this.format == null) {
+				throw new IllegalStateException("The sink isn't open");
+			}
+
+			format = this.format;
+			byteCount += length;
+		}
+
+		final long millis = (long) ((length / format.getFrameSize()) * 1000 / format.getFrameRate());
+
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns the number of bytes written so far.
+	 *
+	 * @return a positive or zero long.
+	 */
+	public synchronized long getByteCount() {
+		return byteCount;
+	}
+
+	@Override
+	public synchronized void close() {
+		format = null;
+	}
+}
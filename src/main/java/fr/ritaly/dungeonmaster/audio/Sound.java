@@ -18,6 +18,8 @@
  */
 package fr.ritaly.dungeonmaster.audio;
 
+import java.nio.ByteBuffer;
+
 import javax.sound.sampled.AudioFormat;
 
 import org.apache.commons.lang.Validate;
@@ -27,23 +29,126 @@ import org.apache.commons.lang.Validate;
  */
 public class Sound {
 
-	private final byte[] data;
+	/**
+	 * The PCM data. Either wraps an array or maps a file (see
+	 * {@link SoundBank}).
+	 */
+	private final ByteBuffer data;
 	
 	private final AudioFormat audioFormat;
 	
+	/**
+	 * The data decoded as 16-bit mono samples. Lazily initialized.
+	 */
+	private volatile short[] samples;
+	
 	public Sound(byte[] data, AudioFormat audioFormat) {
+		this(ByteBuffer.wrap(data), audioFormat);
+	}
+	
+	public Sound(ByteBuffer data, AudioFormat audioFormat) {
 		Validate.isTrue(data != null);
 		Validate.isTrue(audioFormat != null);
 		
-		this.data = data;
+		this.data = data.slice();
 		this.audioFormat = audioFormat;
 	}
 
+	/**
+	 * Returns the PCM data of this sound. If the data is mapped from a file,
+	 * the method returns a new copy of the data at each call.
+	 *
+	 * @return an array of bytes. Never returns null.
+	 */
 	public byte[] getData() {
-		return data;
+		if (data.hasArray() && (data.arrayOffset() == 0)
+				&& (data.capacity() == data.array().length)) {
+			return data.array();
+		}
+
+		final byte[] result = new byte[data.capacity()];
+
+		data.duplicate().get(result);
+
+		return result;
+	}
+
+	/**
+	 * Returns the size of the PCM data in bytes.
+	 *
+	 * @return a positive or zero integer.
+	 */
+	public int getSize() {
+		return data.capacity();
 	}
 
 	public AudioFormat getAudioFormat() {
 		return audioFormat;
 	}
+
+	/**
+	 * Returns the sound's data decoded as signed 16-bit mono samples (the
+	 * channels are averaged) at the sound's sample rate.
+	 *
+	 * @return an array of samples. Never returns null.
+	 */
+	public short[] getSamples() {
+		short[] result = samples;
+
+		if (result == null) {
+			samples = result = decode();
+		}
+
+		return result;
+	}
+
+	private short[] decode() {
+		final boolean signed;
+
+		if (AudioFormat.Encoding.PCM_SIGNED.equals(audioFormat.getEncoding())) {
+			signed = true;
+		} else if (AudioFormat.Encoding.PCM_UNSIGNED.equals(audioFormat.getEncoding())) {
+			signed = false;
+		} else {
+			throw new UnsupportedOperationException("Unsupported encoding " + audioFormat.getEncoding());
+		}
+
+		final int bits = audioFormat.getSampleSizeInBits();
+
+		if ((bits != 8) && (bits != 16)) {
+			throw new UnsupportedOperationException("Unsupported sample size " + bits);
+		}
+
+		final int channels = audioFormat.getChannels();
+		final int bytes = bits / 8;
+		final int frameSize = channels * bytes;
+		final short[] result = new short[data.capacity() / frameSize];
+
+		for (int i = 0, offset = 0; i < result.length; i++) {
+			int sum = 0;
+
+			for (int c = 0; c < channels; c++, offset += bytes) {
+				int sample;
+
+				if (bits == 8) {
+					sample = signed ? data.get(offset) : (data.get(offset) & 0xFF) - 128;
+					sample <<= 8;
+				} else if (audioFormat.isBigEndian()) {
+					sample = (data.get(offset) << 8) | (data.get(offset + 1) & 0xFF);
+				} else {
+					sample = (data.get(offset + 1) << 8) | (data.get(offset) & 0xFF);
+				}
+
+				if (!signed && (bits == 16)) {
+					sample = (sample & 0xFFFF) - 32768;
+				}
+
+				sum += sample;
+			}
+
+			result[i] = (short) (sum / channels);
+		}
+
+		return result;
+	}
 }
@@ -0,0 +1,326 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.audio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import org.apache.commons.lang.Validate;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * The sounds stored in a directory. The directory is only indexed when the
+ * bank is created: a sound is loaded on first use by memory-mapping the PCM
+ * data of its WAV file (the other files are decoded with {@link AudioSystem}).
+ * The sounds loaded are cached until the size of their data exceeds the
+ * bank's capacity, the least recently used sounds being evicted first. The
+ * sounds can also be loaded in the background with
+ * {@link #preload(Executor, Collection)}. This class is thread-safe.
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ */
+public class SoundBank {
+
+	/**
+	 * The default maximum size (in bytes) of the PCM data cached.
+	 */
+	public static final long DEFAULT_CAPACITY = 4 * 1024 * 1024;
+
+	// The chunk identifiers read as little-endian integers
+	private static final int RIFF = 0x46464952;
+
+	private static final int WAVE = 0x45564157;
+
+	private static final int FMT = 0x20746D66;
+
+	private static final int DATA = 0x61746164;
+
+	private static final int PCM = 1;
+
+	private static final Log log = LogFactory.getLog(SoundBank.class);
+
+	/**
+	 * The files of the directory indexed by name.
+	 */
+	private final Map<String, File> files = new HashMap<String, File>();
+
+	/**
+	 * The sounds loaded in access order.
+	 */
+	private final LinkedHashMap<String, Sound> cache = new LinkedHashMap<String, Sound>(16, 0.75f, true);
+
+	private final long capacity;
+
+	/**
+	 * The size of the PCM data cached.
+	 */
+	private long size;
+
+	private int loadCount;
+
+	public SoundBank(File directory) {
+		this(directory, DEFAULT_CAPACITY);
+	}
+
+	public SoundBank(File directory, long capacity) {
+		Validate.isTrue(directory != null, "The given directory is null");
+		Validate.isTrue(directory.isDirectory(), "The given path <" + directory.getAbsolutePath()
+				+ "> doesn't denote a directory");
+		Validate.isTrue(capacity > 0, "The given capacity <" + capacity + "> must be positive");
+
+		this.capacity = capacity;
+
+		for (File file : directory.listFiles()) {
+			if (file.isFile()) {
+				files.put(file.getName(), file);
+			}
+		}
+	}
+
+	/**
+	 * Returns the names of the sounds in this bank.
+	 *
+	 * @return a set of file names. Never returns null.
+	 */
+	public Set<String> getNames() {
+		return Collections.unmodifiableSet(files.keySet());
+	}
+
+	/**
+	 * Returns the sound with the given name, loading it if necessary.
+	 *
+	 * @param name
+	 *            the name of the sound's file. Can't be null.
+	 * @return the sound or null if there's no such sound.
+	 * @throws IllegalStateException
+	 *             if the sound can't be loaded.
+	 */
+	public Sound getSound(String name) {
+		Validate.notNull(name, "The given name is null");
+
+		final File file = files.get(name);
+
+		if (file == null) {
+			return null;
+		}
+
+		synchronized (this) {
+			final Sound sound = cache.get(name);
+
+			if (sound != null) {
+				return sound;
+			}
+		}
+
+		// Load the sound outside the lock. Two threads may load the same sound
+		// concurrently, only the first one is cached
+		final Sound sound;
+
+		try {
+			sound = load(file);
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to load sound <" + name + ">", e);
+		} catch (UnsupportedAudioFileException e) {
+			throw new IllegalStateException("Unable to load sound <" + name + ">", e);
+		}
+
+		synchronized (this) {
+			final Sound cached = cache.get(name);
+
+			if (cached != null) {
+				return cached;
+			}
+
+			loadCount++;
+
+			cache.put(name, sound);
+			size += sound.getSize();
+
+			// Evict the least recently used sounds (but the new one)
+			for (Iterator<Sound> it = cache.values().iterator(); (size > capacity) && (cache.size() > 1);) {
+				size -= it.next().getSize();
+				it.remove();
+			}
+		}
+
+		return sound;
+	}
+
+	/**
+	 * Loads and decodes the sounds with the given names with the given
+	 * executor.
+	 *
+	 * @param executor
+	 *            the executor loading the sounds. Can't be null.
+	 * @param names
+	 *            the names of the sounds to load. Can't be null.
+	 */
+	public void preload(Executor executor, Collection<String> names) {
+		Validate.notNull(executor, "The given executor is null");
+		Validate.notNull(names, "The given collection is null");
+
+		for (final String name : names) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						final Sound sound = getSound(name);
+
+						if (sound != null) {
+							// Decode the samples up front for the mixer
+							sound.getSamples();
+						}
+					} catch (RuntimeException e) {
+						log.error("Unable to preload sound <" + name + ">", e);
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Returns the number of sounds loaded so far (including the ones loaded
+	 * again after being evicted).
+	 *
+	 * @return a positive or zero integer.
+	 */
+	public synchronized int getLoadCount() {
+		return loadCount;
+	}
+
+	/**
+	 * Returns the size in bytes of the PCM data cached.
+	 *
+	 * @return a positive or zero long.
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+
+	private static Sound load(File file) throws IOException, UnsupportedAudioFileException {
+		final Sound sound = map(file);
+
+		if (sound != null) {
+			return sound;
+		}
+
+		if (log.isDebugEnabled()) {
+			log.debug("Decoding " + file.getName() + " ...");
+		}
+
+		final AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(file);
+
+		try {
+			final ByteArrayOutputStream outputStream = new ByteArrayOutputStream((int) file.length());
+			final byte[] buffer = new byte[4096];
+
+			int count = -1;
+
+			while ((count = audioInputStream.read(buffer)) > 0) {
+				outputStream.write(buffer, 0, count);
+			}
+
+			return new Sound(outputStream.toByteArray(), audioInputStream.getFormat());
+		} finally {
+			audioInputStream.close();
+		}
+	}
+
+	/**
+	 * Maps the PCM data of the given WAV file.
+	 *
+	 * @return the sound or null if the file isn't a PCM WAV file.
+	 */
+	private static Sound map(File file) throws IOException {
+		final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+
+		try {
+			final MappedByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0,
+					randomAccessFile.length());
+
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+			if ((buffer.limit() < 12) || (buffer.getInt(0) != RIFF) || (buffer.getInt(8) != WAVE)) {
+				return null;
+			}
+
+			AudioFormat format = null;
+
+			for (int offset = 12; offset + 8 <= buffer.limit();) {
+				final int id = buffer.getInt(offset);
+				final int length = Math.min(buffer.getInt(offset + 4), buffer.limit() - offset - 8);
+
+				offset += 8;
+
+				if (length < 0) {
+					return null;
+				}
+
+				if ((id == FMT) && (length >= 16)) {
+					if (buffer.getShort(offset) != PCM) {
+						return null;
+					}
+
+					final int channels = buffer.getShort(offset + 2);
+					final int sampleRate = buffer.getInt(offset + 4);
+					final int bits = buffer.getShort(offset + 14);
+
+					// The 8-bit samples are unsigned
+					format = new AudioFormat(sampleRate, bits, channels, bits > 8, false);
+				} else if ((id == DATA) && (format != null)) {
+					buffer.position(offset);
+					buffer.limit(offset + length);
+
+					if (log.isDebugEnabled()) {
+						log.debug("Mapped " + file.getName() + " (" + length + " bytes)");
+					}
+
+					return new Sound(buffer, format);
+				}
+
+				// The chunks are word-aligned
+				offset += length + (length & 1);
+			}
+
+			return null;
+		} finally {
+			// The mapping remains valid once the file is closed
+			randomAccessFile.close();
+		}
+	}
+}
@@ -18,25 +18,19 @@
  */
 package fr.ritaly.dungeonmaster.audio;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.text.DecimalFormat;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadFactory;
 
-import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
 import javax.sound.sampled.DataLine;
-import javax.sound.sampled.FloatControl;
-import javax.sound.sampled.LineEvent;
-import javax.sound.sampled.LineListener;
 import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
 import org.apache.commons.lang.Validate;
@@ -45,6 +39,7 @@ import org.apache.commons.logging.LogFactory;
 
 import fr.ritaly.dungeonmaster.Direction;
 import fr.ritaly.dungeonmaster.Position;
+import fr.ritaly.dungeonmaster.SimulationContext;
 import fr.ritaly.dungeonmaster.Utils;
 
 /**
@@ -54,9 +49,7 @@ public class SoundSystem {
 
 	private static final Log log = LogFactory.getLog(SoundSystem.class);
 
-	private static final SoundSystem INSTANCE = new SoundSystem();
-
-	private ExecutorService executorService;
+	private VoiceManager voices;
 
 	private AudioListener listener = new AudioListener() {
 
@@ -71,19 +64,28 @@ public class SoundSystem {
 
 		@Override
 		public Position getPosition() {
-			return new Position(0, 0, 0);
+			return Position.valueOf(0, 0, 0);
 		}
 	};
 
 	private boolean initialized;
 
-	private final Map<String, Sound> sounds = new HashMap<String, Sound>();
+	private SoundBank bank;
 
-	private SoundSystem() {
+	/**
+	 * Creates a new sound system. Use {@link #getInstance()} to get the sound
+	 * system of the current context.
+	 */
+	public SoundSystem() {
 	}
 
+	/**
+	 * Returns the sound system of the current {@link SimulationContext}.
+	 *
+	 * @return the sound system of the current context. Never returns null.
+	 */
 	public static final SoundSystem getInstance() {
-		return INSTANCE;
+		return SimulationContext.getCurrent().getSoundSystem();
 	}
 
 	public synchronized boolean isInitialized() {
@@ -95,14 +97,7 @@ public class SoundSystem {
 			log.debug("Disposing sound system ...");
 		}
 
-		executorService.shutdownNow();
-
-		try {
-			executorService.awaitTermination(5, TimeUnit.SECONDS);
-			executorService = null;
-		} catch (InterruptedException e) {
-			// Pas grave
-		}
+		voices.close();
 
 		if (log.isDebugEnabled()) {
 			log.debug("Sound system disposed");
@@ -114,6 +109,23 @@ public class SoundSystem {
 	public synchronized void init(final File directory) throws IOException,
 			UnsupportedAudioFileException, LineUnavailableException {
 
+		init(directory, null);
+	}
+
+	/**
+	 * Initializes the sound system with the sounds from the given directory.
+	 *
+	 * @param directory
+	 *            the directory where the sounds are stored. Can't be null.
+	 * @param sink
+	 *            the sink where the sounds are mixed. If null, the sounds are
+	 *            played on the sound device or discarded if there's no such
+	 *            device.
+	 */
+	public synchronized void init(final File directory, AudioSink sink)
+			throws IOException, UnsupportedAudioFileException,
+			LineUnavailableException {
+
 		Validate.isTrue(directory != null, "The given directory is null");
 		Validate.isTrue(directory.exists(), "The given directory <"
 				+ directory.getAbsolutePath() + "> doesn't exist");
@@ -129,33 +141,50 @@ public class SoundSystem {
 			log.debug("Initializing sound system ...");
 		}
 
-		// Lister les fichiers du r�pertoire
-		File[] files = directory.listFiles();
+		// Only index the directory, the sounds are loaded on first use
+		this.bank = new SoundBank(directory);
 
-		for (File file : files) {
-			final AudioInputStream audioInputStream = AudioSystem
-					.getAudioInputStream(file);
+		// ... but the game's clips are preloaded in the background
+		final Set<String> names = new HashSet<String>();
 
-			final AudioFormat format = audioInputStream.getFormat();
+		for (AudioClip clip : AudioClip.values()) {
+			if ((clip.getSound() != null)
+					&& bank.getNames().contains(clip.getSound())) {
+				names.add(clip.getSound());
+			}
+		}
 
-			final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(
-					(int) file.length());
+		final ExecutorService executorService = Executors.newFixedThreadPool(
+				Runtime.getRuntime().availableProcessors(),
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable runnable) {
+						final Thread thread = new Thread(runnable,
+								"Sound loader");
+						thread.setDaemon(true);
 
-			final byte[] buffer = new byte[4096];
+						return thread;
+					}
+				});
 
-			int count = -1;
+		bank.preload(executorService, names);
 
-			while ((count = audioInputStream.read(buffer)) > 0) {
-				outputStream.write(buffer, 0, count);
-			}
+		// The threads terminate once the sounds are loaded
+		executorService.shutdown();
 
-			final Sound sound = new Sound(outputStream.toByteArray(), format);
+		if (sink == null) {
+			if (AudioSystem.isLineSupported(new DataLine.Info(
+					SourceDataLine.class, VoiceManager.FORMAT))) {
+				sink = new LineSink();
+			} else {
+				log.warn("No sound device available, the sounds won't be heard");
 
-			sounds.put(file.getName(), sound);
+				sink = new NullSink();
+			}
 		}
 
-		// On peut jouer au maximum 4 sons en m�me temps
-		this.executorService = Executors.newFixedThreadPool(4);
+		this.voices = new VoiceManager(sink);
+		this.voices.start();
 
 		if (log.isInfoEnabled()) {
 			log.info("Sound system initialized");
@@ -214,92 +243,35 @@ public class SoundSystem {
 			return;
 		}
 
-		if (log.isDebugEnabled()) {
-			log.debug("Submitting new task ...");
+		if (clip.getSound() == null) {
+			// No sound recorded for this clip yet
+			return;
 		}
 
-		executorService.execute(new Runnable() {
-			@Override
-			public void run() {
-				final Sound sound = sounds.get(clip.getSound());
-
-				if (sound == null) {
-					throw new IllegalArgumentException("Unsupported sound <"
-							+ clip + ">");
-				}
-
-				try {
-					final Clip clip2 = (Clip) AudioSystem
-							.getLine(new DataLine.Info(Clip.class, sound
-									.getAudioFormat()));
-
-					clip2.addLineListener(new LineListener() {
-						@Override
-						public void update(LineEvent event) {
-							if (event.getType().equals(LineEvent.Type.STOP)) {
-								clip2.close();
-							}
-						}
-					});
-					clip2.open(sound.getAudioFormat(), sound.getData(), 0,
-							sound.getData().length);
-
-					final DecimalFormat decimalFormat = new DecimalFormat(
-							"###.#");
-
-					// Pan dans [-1, +1]
-					final FloatControl pan = (FloatControl) clip2
-							.getControl(FloatControl.Type.PAN);
-
-					if (!Double.isNaN(angle)) {
-
-						final float p = (float) Math.sin(angle);
-
-						if ((0 <= angle) && (angle <= Math.PI)) {
-							// Son sur la gauche, pan positif
-							pan.setValue(p);
-						} else {
-							// Son sur la droite, pan n�gatif
-							pan.setValue(p);
-						}
-
-						if (log.isDebugEnabled()) {
-							log.debug("Angle = "
-									+ decimalFormat
-											.format((angle / Math.PI) * 180)
-									+ "� / Pan = "
-									+ decimalFormat.format(p * 100));
-						}
-					} else {
-						pan.setValue(0);
-					}
-
-					final double attenuation = Utils.attenuation(distance);
-
-					if (log.isDebugEnabled()) {
-						log.debug("Distance = " + distance
-								+ " / Attenuation = "
-								+ decimalFormat.format((attenuation * 100))
-								+ "%");
-					}
-
-					if (distance != 0) {
-						// Gain dans [-30, 0]
-						final FloatControl gain = (FloatControl) clip2
-								.getControl(FloatControl.Type.MASTER_GAIN);
+		final Sound sound = bank.getSound(clip.getSound());
 
-						gain.setValue((float) attenuation * -30);
-					}
+		if (sound == null) {
+			throw new IllegalArgumentException("Unsupported sound <" + clip
+					+ ">");
+		}
 
-					clip2.loop(0);
-				} catch (LineUnavailableException e) {
-					throw new RuntimeException(e);
-				}
-			}
-		});
+		// Pan dans [-1, +1]
+		final float pan = Double.isNaN(angle) ? 0 : (float) Math.sin(angle);
 
 		if (log.isDebugEnabled()) {
-			log.debug("Task submitted");
+			final DecimalFormat decimalFormat = new DecimalFormat("###.#");
+
+			log.debug("Angle = "
+					+ decimalFormat.format((angle / Math.PI) * 180)
+					+ "� / Pan = " + decimalFormat.format(pan * 100)
+					+ " / Distance = " + distance + " / Attenuation = "
+					+ decimalFormat.format(Utils.attenuation(distance) * 100)
+					+ "%");
+		}
+
+		if (!voices.play(sound, clip.getPriority(), distance, pan)
+				&& log.isDebugEnabled()) {
+			log.debug("Sound " + clip + " dropped");
 		}
 	}
 
@@ -18,17 +18,12 @@
  */
 package fr.ritaly.dungeonmaster.audio;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
-import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.DataLine;
 import javax.sound.sampled.LineUnavailableException;
@@ -36,12 +31,12 @@ import javax.sound.sampled.SourceDataLine;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
 import org.apache.commons.lang.Validate;
-import org.apache.commons.lang.math.RandomUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import fr.ritaly.dungeonmaster.HasPosition;
 import fr.ritaly.dungeonmaster.Position;
+import fr.ritaly.dungeonmaster.Utils;
 
 /**
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
@@ -57,13 +52,13 @@ public class SoundSystemV1 {
 	private HasPosition listener = new HasPosition() {
 		@Override
 		public Position getPosition() {
-			return new Position(0, 0, 0);
+			return Position.valueOf(0, 0, 0);
 		}
 	};
 
 	private boolean initialized;
 
-	private final Map<String, Sound> sounds = new HashMap<String, Sound>();
+	private SoundBank bank;
 
 	private SoundSystemV1() {
 	}
@@ -115,30 +110,8 @@ public class SoundSystemV1 {
 			log.debug("Initializing sound system ...");
 		}
 
-		// Lister les fichiers du r�pertoire
-		File[] files = directory.listFiles();
-
-		for (File file : files) {
-			final AudioInputStream audioInputStream = AudioSystem
-					.getAudioInputStream(file);
-
-			final AudioFormat format = audioInputStream.getFormat();
-
-			final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(
-					(int) file.length());
-
-			final byte[] buffer = new byte[4096];
-
-			int count = -1;
-
-			while ((count = audioInputStream.read(buffer)) > 0) {
-				outputStream.write(buffer, 0, count);
-			}
-
-			final Sound sound = new Sound(outputStream.toByteArray(), format);
-
-			sounds.put(file.getName(), sound);
-		}
+		// The sounds are loaded on first use
+		this.bank = new SoundBank(directory);
 
 		this.executorService = Executors.newFixedThreadPool(4);
 
@@ -167,7 +140,7 @@ public class SoundSystemV1 {
 		executorService.execute(new Runnable() {
 			@Override
 			public void run() {
-				final Sound sound = sounds.get(clip.getSound());
+				final Sound sound = bank.getSound(clip.getSound());
 
 				if (sound == null) {
 					throw new IllegalArgumentException("Unsupported sound <"
@@ -183,7 +156,9 @@ public class SoundSystemV1 {
 
 					line.open(sound.getAudioFormat());
 					line.start();
-					line.write(sound.getData(), 0, sound.getData().length);
+					final byte[] data = sound.getData();
+
+					line.write(data, 0, data.length);
 					line.drain();
 					line.close();
 				} catch (LineUnavailableException e) {
@@ -222,7 +197,7 @@ public class SoundSystemV1 {
 								"c:\\Users\\Francois\\workspace\\Dungeon Master\\sound"));
 
 		for (int i = 0; i < 10; i++) {
-			switch (RandomUtils.nextInt(4)) {
+			switch (Utils.random().nextInt(4)) {
 			case 0:
 				SoundSystemV1.getInstance().play(AudioClip.DOOR_BROKEN);
 				break;
@@ -0,0 +1,401 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.LineUnavailableException;
+
+import org.apache.commons.lang.Validate;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import fr.ritaly.dungeonmaster.Utils;
+
+/**
+ * Mixes the sounds played into a single {@link AudioSink} from a dedicated
+ * thread. The sounds are played on a fixed budget of voices: when all the
+ * voices are busy, a new sound steals the voice playing the sound with the
+ * lowest priority (then the quietest one) or is dropped if it's not more
+ * important than any of them. The sounds too far to be heard are dropped
+ * up front.<br>
+ * <br>
+ * The gain and pan of each voice are applied by the mixer and the sounds are
+ * resampled to the output's {@link #FORMAT} on the fly. The mixer works on
+ * fixed-size buffers and doesn't allocate any memory once started.
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ */
+public class VoiceManager implements Runnable {
+
+	/**
+	 * The volume below which a sound is considered inaudible.
+	 */
+	public static final double MIN_VOLUME = 1.0 / 32;
+
+	/**
+	 * The default number of sounds which can be played at the same time.
+	 */
+	public static final int DEFAULT_VOICE_COUNT = 8;
+
+	/**
+	 * The format of the data written to the sink: 44.1 kHz, 16-bit signed
+	 * little-endian stereo.
+	 */
+	public static final AudioFormat FORMAT = new AudioFormat(44100, 16, 2, true, false);
+
+	/**
+	 * The number of frames mixed at a time (about 23 ms).
+	 */
+	public static final int BUFFER_FRAMES = 1024;
+
+	/**
+	 * The number of bytes mixed at a time.
+	 */
+	public static final int BUFFER_SIZE = BUFFER_FRAMES * 4;
+
+	/**
+	 * The number of fractional bits of the fixed-point values (gains &
+	 * positions).
+	 */
+	private static final int FRACTION_BITS = 15;
+
+	private static final int ONE = 1 << FRACTION_BITS;
+
+	private static final Log log = LogFactory.getLog(VoiceManager.class);
+
+	private final AudioSink sink;
+
+	/**
+	 * The voices. All allocated up front and recycled.
+	 */
+	private final Voice[] voices;
+
+	/**
+	 * The buffer where the voices are summed.
+	 */
+	private final int[] accumulator = new int[BUFFER_FRAMES * 2];
+
+	/**
+	 * The buffer written to the sink by the mixer's thread.
+	 */
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+
+	private Thread thread;
+
+	private int stolenCount;
+
+	private int droppedCount;
+
+	private boolean closed;
+
+	/**
+	 * A voice playing a sound.
+	 */
+	private static final class Voice {
+
+		private boolean active;
+
+		private short[] samples;
+
+		private int priority;
+
+		private double volume;
+
+		/**
+		 * The gains of the left and right channels (fixed-point).
+		 */
+		private int left, right;
+
+		/**
+		 * The position in the samples (fixed-point).
+		 */
+		private long position;
+
+		/**
+		 * The increment of the position for each frame mixed (fixed-point).
+		 */
+		private long step;
+
+		/**
+		 * Tells whether this voice is less important than a sound with the
+		 * given priority and volume.
+		 */
+		private boolean isLessImportantThan(int priority, double volume) {
+			if (this.priority != priority) {
+				return this.priority < priority;
+			}
+
+			return this.volume < volume;
+		}
+	}
+
+	public VoiceManager(AudioSink sink) {
+		this(DEFAULT_VOICE_COUNT, sink);
+	}
+
+	public VoiceManager(int voiceCount, AudioSink sink) {
+		Validate.isTrue(voiceCount > 0, "The given voice count <" + voiceCount + "> must be positive");
+		Validate.notNull(sink, "The given sink is null");
+
+		this.sink = sink;
+		this.voices = new Voice[voiceCount];
+
+		for (int i = 0; i < voices.length; i++) {
+			voices[i] = new Voice();
+		}
+	}
+
+	/**
+	 * Opens the sink and starts the mixer's thread.
+	 *
+	 * @throws LineUnavailableException
+	 *             if the sink can't be opened.
+	 */
+	public synchronized void start() throws LineUnavailableException {
+		if (thread != null) {
+			throw new IllegalStateException("The mixer is already started");
+		}
+		if (closed) {
+			throw new IllegalStateException("The mixer is closed");
+		}
+
+		sink.open(FORMAT);
+
+		thread = new Thread(this, "Audio mixer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	@Override
+	public void run() {
+		if (log.isDebugEnabled()) {
+			log.debug("Mixer started");
+		}
+
+		while (!Thread.currentThread().isInterrupted()) {
+			// The sink paces the mixer
+			sink.write(buffer, 0, mix(buffer));
+		}
+
+		if (log.isDebugEnabled()) {
+			log.debug("Mixer stopped");
+		}
+	}
+
+	/**
+	 * Plays the given sound unless it's inaudible or all the voices are
+	 * playing more important sounds.
+	 *
+	 * @param sound
+	 *            the sound to play. Can't be null.
+	 * @param priority
+	 *            the priority of the sound. The higher, the more important.
+	 * @param distance
+	 *            the distance between the sound and the listener.
+	 * @param pan
+	 *            the pan of the sound within [-1 (left), +1 (right)].
+	 * @return whether the sound is played.
+	 */
+	public boolean play(Sound sound, int priority, double distance, float pan) {
+		Validate.notNull(sound, "The given sound is null");
+
+		final double volume = 1 - Utils.attenuation(distance);
+
+		if (volume < MIN_VOLUME) {
+			synchronized (this) {
+				droppedCount++;
+			}
+
+			return false;
+		}
+
+		// Decode the sound outside the lock
+		final short[] samples = sound.getSamples();
+
+		// Constant power panning
+		final double angle = (Math.max(-1, Math.min(1, pan)) + 1) * Math.PI / 4;
+
+		synchronized (this) {
+			if (closed) {
+				return false;
+			}
+
+			Voice voice = null;
+
+			for (Voice candidate : voices) {
+				if (!candidate.active) {
+					voice = candidate;
+					break;
+				}
+				if ((voice == null) || candidate.isLessImportantThan(voice.priority, voice.volume)) {
+					voice = candidate;
+				}
+			}
+
+			if (voice.active) {
+				if (!voice.isLessImportantThan(priority, volume)) {
+					// All the voices play more important sounds
+					droppedCount++;
+
+					return false;
+				}
+
+				stolenCount++;
+			}
+
+			voice.active = true;
+			voice.samples = samples;
+			voice.priority = priority;
+			voice.volume = volume;
+			voice.left = (int) (volume * Math.cos(angle) * ONE);
+			voice.right = (int) (volume * Math.sin(angle) * ONE);
+			voice.position = 0;
+			voice.step = ((long) sound.getAudioFormat().getSampleRate() << FRACTION_BITS)
+					/ (long) FORMAT.getSampleRate();
+		}
+
+		return true;
+	}
+
+	/**
+	 * Mixes the next {@link #BUFFER_FRAMES} frames of the active voices into
+	 * the given buffer.
+	 *
+	 * @param buffer
+	 *            the buffer to fill. Its length must be at least
+	 *            {@link #BUFFER_SIZE}.
+	 * @return the number of bytes written into the buffer.
+	 */
+	public synchronized int mix(byte[] buffer) {
+		Validate.isTrue(buffer.length >= BUFFER_SIZE, "The given buffer is too small");
+
+		final int[] accumulator = this.accumulator;
+
+		for (int i = 0; i < accumulator.length; i++) {
+			accumulator[i] = 0;
+		}
+
+		for (Voice voice : voices) {
+			if (!voice.active) {
+				continue;
+			}
+
+			final short[] samples = voice.samples;
+			final long end = (long) samples.length << FRACTION_BITS;
+
+			long position = voice.position;
+
+			for (int i = 0; (i < accumulator.length) && (position < end); i += 2) {
+				final int sample = samples[(int) (position >> FRACTION_BITS)];
+
+				accumulator[i] += (sample * voice.left) >> FRACTION_BITS;
+				accumulator[i + 1] += (sample * voice.right) >> FRACTION_BITS;
+
+				position += voice.step;
+			}
+
+			voice.position = position;
+
+			if (position >= end) {
+				// The sound is over
+				voice.active = false;
+				voice.samples = null;
+			}
+		}
+
+		for (int i = 0, offset = 0; i < accumulator.length; i++, offset += 2) {
+			final int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, accumulator[i]));
+
+			// 16-bit little-endian
+			buffer[offset] = (byte) sample;
+			buffer[offset + 1] = (byte) (sample >> 8);
+		}
+
+		return BUFFER_SIZE;
+	}
+
+	/**
+	 * Returns the number of voices currently playing a sound.
+	 *
+	 * @return a positive or zero integer.
+	 */
+	public synchronized int getActiveCount() {
+		int count = 0;
+
+		for (Voice voice : voices) {
+			if (voice.active) {
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Returns the number of voices stolen so far.
+	 *
+	 * @return a positive or zero integer.
+	 */
+	public synchronized int getStolenCount() {
+		return stolenCount;
+	}
+
+	/**
+	 * Returns the number of sounds dropped so far because inaudible or less
+	 * important than the sounds playing.
+	 *
+	 * @return a positive or zero integer.
+	 */
+	public synchronized int getDroppedCount() {
+		return droppedCount;
+	}
+
+	/**
+	 * Stops the voices and the mixer's thread then closes the sink.
+	 */
+	public void close() {
+		final Thread thread;
+
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+
+			closed = true;
+			thread = this.thread;
+
+			for (Voice voice : voices) {
+				voice.active = false;
+				voice.samples = null;
+			}
+		}
+
+		if (thread != null) {
+			thread.interrupt();
+
+			try {
+				thread.join(1000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+
+			sink.close();
+		}
+	}
+}
@@ -28,20 +28,19 @@ import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.Validate;
-import org.apache.commons.lang.math.RandomUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import fr.ritaly.dungeonmaster.Clock;
-import fr.ritaly.dungeonmaster.ClockListener;
 import fr.ritaly.dungeonmaster.Constants;
 import fr.ritaly.dungeonmaster.Direction;
 import fr.ritaly.dungeonmaster.Location;
+import fr.ritaly.dungeonmaster.PeriodicClockListener;
+import fr.ritaly.dungeonmaster.PhasedClockListener;
 import fr.ritaly.dungeonmaster.Poison;
 import fr.ritaly.dungeonmaster.Sector;
 import fr.ritaly.dungeonmaster.Skill;
 import fr.ritaly.dungeonmaster.Speed;
-import fr.ritaly.dungeonmaster.Temporizer;
 import fr.ritaly.dungeonmaster.Utils;
 import fr.ritaly.dungeonmaster.audio.AudioClip;
 import fr.ritaly.dungeonmaster.audio.SoundSystem;
@@ -51,7 +50,6 @@ import fr.ritaly.dungeonmaster.champion.inventory.BackPack;
 import fr.ritaly.dungeonmaster.champion.inventory.Inventory;
 import fr.ritaly.dungeonmaster.champion.inventory.Pouch;
 import fr.ritaly.dungeonmaster.champion.inventory.Quiver;
-import fr.ritaly.dungeonmaster.event.ChangeEvent;
 import fr.ritaly.dungeonmaster.event.ChangeEventSource;
 import fr.ritaly.dungeonmaster.event.ChangeEventSupport;
 import fr.ritaly.dungeonmaster.event.ChangeListener;
@@ -81,7 +79,7 @@ import fr.ritaly.dungeonmaster.stat.Stats;
  *
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
  */
-public class Champion implements ChangeEventSource, PropertyChangeListener, ClockListener {
+public class Champion implements ChangeEventSource, PropertyChangeListener, PeriodicClockListener, PhasedClockListener {
 
 	private final Log log = LogFactory.getLog(Champion.class);
 
@@ -638,9 +636,10 @@ public class Champion implements ChangeEventSource, PropertyChangeListener, Cloc
 	private final ChampionSpells spells;
 
 	/**
-	 * The temporizer used to update the champion's spells, stats, etc.
+	 * The number of clock ticks between 2 updates of the champion's spells,
+	 * stats, etc.
 	 */
-	private final Temporizer temporizer;
+	static final int UPDATE_PERIOD = 5;
 
 	// TODO Enforce the below rule with a development time aspect
 	// This constructor is only meant to be invoked from the ChampionFactory
@@ -662,9 +661,6 @@ public class Champion implements ChangeEventSource, PropertyChangeListener, Cloc
 
 		this.spells = new ChampionSpells(this);
 
-		// Trigger every 5 clock ticks
-		this.temporizer = new Temporizer(name, 5);
-
 		// Initialize the champion's skills to NONE
 		final Map<Skill, Experience> map = new HashMap<Skill, Experience>();
 
@@ -1012,8 +1008,7 @@ public class Champion implements ChangeEventSource, PropertyChangeListener, Cloc
 				log.debug(getName() + " joined the party");
 			}
 
-			// Register this champion
-			Clock.getInstance().register(this);
+			// The champion is ticked by the party's vitals engine
 		}
 	}
 
@@ -1263,7 +1258,7 @@ public class Champion implements ChangeEventSource, PropertyChangeListener, Cloc
 	}
 
 	protected void fireChangeEvent() {
-		eventSupport.fireChangeEvent(new ChangeEvent(this));
+		eventSupport.fireChangeEvent(this);
 	}
 
 	private void kill() {
@@ -1349,24 +1344,29 @@ public class Champion implements ChangeEventSource, PropertyChangeListener, Cloc
 		}
 
 		if (Stats.PROPERTY_HEALTH.equals(event.getPropertyName())) {
-			final int oldHealth = ((Integer) event.getOldValue()).intValue();
-			final int newHealth = ((Integer) event.getNewValue()).intValue();
-
-			if ((oldHealth > 0) && (newHealth == 0)) {
-				// Le h�ros vient de mourir
-				if (log.isDebugEnabled()) {
-					log.debug(name + " is dying ...");
-				}
+			healthChanged(((Integer) event.getOldValue()).intValue(), ((Integer) event.getNewValue()).intValue());
+		} else if (Stats.PROPERTY_VITALS.equals(event.getPropertyName())) {
+			// The vitals were updated together
+			healthChanged(((int[]) event.getOldValue())[Stats.VITAL_HEALTH],
+					((int[]) event.getNewValue())[Stats.VITAL_HEALTH]);
+		}
+	}
 
-				kill();
-			} else if ((oldHealth == 0) && (newHealth > 0)) {
-				if (log.isInfoEnabled()) {
-					// Le h�ros vient de ressusciter
-					log.info(name + " has been resurrected ...");
-				}
+	private void healthChanged(int oldHealth, int newHealth) {
+		if ((oldHealth > 0) && (newHealth == 0)) {
+			// Le h�ros vient de mourir
+			if (log.isDebugEnabled()) {
+				log.debug(name + " is dying ...");
+			}
 
-				// Inutile de le r�int�grer au groupe, il y est d�j� !
+			kill();
+		} else if ((oldHealth == 0) && (newHealth > 0)) {
+			if (log.isInfoEnabled()) {
+				// Le h�ros vient de ressusciter
+				log.info(name + " has been resurrected ...");
 			}
+
+			// Inutile de le r�int�grer au groupe, il y est d�j� !
 		}
 	}
 
@@ -1429,17 +1429,23 @@ public class Champion implements ChangeEventSource, PropertyChangeListener, Cloc
 	}
 
 	@Override
-	public boolean clockTicked() {
-		if (temporizer.trigger()) {
-			// Dispatcher l'appel aux stats
-			stats.clockTicked();
+	public int getPeriod() {
+		return UPDATE_PERIOD;
+	}
+
+	@Override
+	public Clock.Phase getPhase() {
+		return Clock.Phase.CHAMPIONS;
+	}
 
-			// ... et aux sorts du champion
-			spells.clockTicked();
+	@Override
+	public boolean clockTicked() {
+		// Les stats sont mises  jour par le groupe (cf. PartyVitals).
+		// Dispatcher l'appel aux sorts du champion
+		spells.clockTicked();
 
-			// ... et au poison
-			poison.clockTicked();
-		}
+		// ... et au poison
+		poison.clockTicked();
 
 		// Continuer � animer le champion tant qu'il est dans le groupe et qu'il
 		// est vivant
@@ -1594,13 +1600,13 @@ public class Champion implements ChangeEventSource, PropertyChangeListener, Cloc
 				String.format("The given luck %d must be within [0, 100]", luckNeeded));
 
 		// See Character.cpp for the source of this algorithm
-		if (RandomUtils.nextBoolean() && (RandomUtils.nextInt(100) > luckNeeded)) {
+		if (Utils.random().nextBoolean() && (Utils.random().nextInt(100) > luckNeeded)) {
 			return true;
 		}
 
 		final int luck = getStats().getLuck().value();
 
-		final int randomLuck = (luck == 0) ? 0 : RandomUtils.nextInt(luck);
+		final int randomLuck = (luck == 0) ? 0 : Utils.random().nextInt(luck);
 
 		final boolean lucky = (randomLuck > luckNeeded);
 
@@ -20,9 +20,9 @@ package fr.ritaly.dungeonmaster.champion;
 
 import org.apache.commons.lang.Validate;
 
-import fr.ritaly.dungeonmaster.ClockListener;
+import fr.ritaly.dungeonmaster.Clock;
+import fr.ritaly.dungeonmaster.PhasedClockListener;
 import fr.ritaly.dungeonmaster.Temporizer;
-import fr.ritaly.dungeonmaster.event.ChangeEvent;
 import fr.ritaly.dungeonmaster.event.ChangeEventSource;
 import fr.ritaly.dungeonmaster.event.ChangeEventSupport;
 import fr.ritaly.dungeonmaster.event.ChangeListener;
@@ -33,7 +33,7 @@ import fr.ritaly.dungeonmaster.stat.Stat;
  *
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
  */
-public class ChampionSpells implements ClockListener, ChangeEventSource {
+public class ChampionSpells implements PhasedClockListener, ChangeEventSource {
 
 	private final ChangeEventSupport eventSupport = new ChangeEventSupport();
 
@@ -72,6 +72,11 @@ public class ChampionSpells implements ClockListener, ChangeEventSource {
 		return light;
 	}
 
+	@Override
+	public Clock.Phase getPhase() {
+		return Clock.Phase.CHAMPIONS;
+	}
+
 	@Override
 	public boolean clockTicked() {
 		if (temporizer.trigger()) {
@@ -107,6 +112,6 @@ public class ChampionSpells implements ClockListener, ChangeEventSource {
 	}
 
 	private void fireChangeEvent() {
-		eventSupport.fireChangeEvent(new ChangeEvent(this));
+		eventSupport.fireChangeEvent(this);
 	}
 }
\ No newline at end of file
@@ -24,7 +24,6 @@ import org.apache.commons.logging.LogFactory;
 
 import fr.ritaly.dungeonmaster.Skill;
 import fr.ritaly.dungeonmaster.champion.Champion.Level;
-import fr.ritaly.dungeonmaster.event.ChangeEvent;
 import fr.ritaly.dungeonmaster.event.ChangeEventSource;
 import fr.ritaly.dungeonmaster.event.ChangeEventSupport;
 import fr.ritaly.dungeonmaster.event.ChangeListener;
@@ -178,7 +177,7 @@ public class Experience implements ChangeEventSource {
 	}
 
 	private void fireChangeEvent() {
-		eventSupport.fireChangeEvent(new ChangeEvent(this));
+		eventSupport.fireChangeEvent(this);
 	}
 
 	/**
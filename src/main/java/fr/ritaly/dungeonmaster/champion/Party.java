@@ -28,16 +28,16 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang.Validate;
-import org.apache.commons.lang.math.RandomUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import fr.ritaly.dungeonmaster.Clock;
-import fr.ritaly.dungeonmaster.ClockListener;
 import fr.ritaly.dungeonmaster.Constants;
 import fr.ritaly.dungeonmaster.Direction;
 import fr.ritaly.dungeonmaster.Location;
 import fr.ritaly.dungeonmaster.Move;
+import fr.ritaly.dungeonmaster.PeriodicClockListener;
+import fr.ritaly.dungeonmaster.PhasedClockListener;
 import fr.ritaly.dungeonmaster.Position;
 import fr.ritaly.dungeonmaster.Side;
 import fr.ritaly.dungeonmaster.Speed;
@@ -61,7 +61,7 @@ import fr.ritaly.dungeonmaster.map.Element;
  *
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
  */
-public class Party implements ChangeEventSource, ClockListener, AudioListener, ChangeListener {
+public class Party implements ChangeEventSource, PeriodicClockListener, PhasedClockListener, AudioListener, ChangeListener {
 
 	/**
 	 * The possible states of a party. TODO Elaborate on why this is needed
@@ -131,6 +131,11 @@ public class Party implements ChangeEventSource, ClockListener, AudioListener, C
 	 */
 	private final PartySpells spells = new PartySpells(this);
 
+	/**
+	 * The engine updating the champions' vitals.
+	 */
+	private final PartyVitals vitals = new PartyVitals(this);
+
 	// FIXME Implement serialization
 
 	/**
@@ -354,6 +359,9 @@ public class Party implements ChangeEventSource, ClockListener, AudioListener, C
 		champion.setColor(color);
 		champion.setParty(this);
 
+		// Start updating the champion's vitals
+		vitals.start();
+
 		if (wasEmpty) {
 			// This champion become the new leader
 			setLeader(champion);
@@ -520,7 +528,7 @@ public class Party implements ChangeEventSource, ClockListener, AudioListener, C
 	}
 
 	private void fireChangeEvent() {
-		eventSupport.fireChangeEvent(new ChangeEvent(this));
+		eventSupport.fireChangeEvent(this);
 	}
 
 	@Override
@@ -760,7 +768,7 @@ public class Party implements ChangeEventSource, ClockListener, AudioListener, C
 		}
 
 		// Randomly chose a new leader
-		final Champion newLeader = candidates.get(RandomUtils.nextInt(candidates.size()));
+		final Champion newLeader = Utils.random().pick(candidates);
 
 		setLeader(newLeader);
 
@@ -904,10 +912,21 @@ public class Party implements ChangeEventSource, ClockListener, AudioListener, C
 		return removed;
 	}
 
+	@Override
+	public int getPeriod() {
+		// The party's spells decay every 4 clock ticks
+		return 4;
+	}
+
+	@Override
+	public Clock.Phase getPhase() {
+		return Clock.Phase.CHAMPIONS;
+	}
+
 	@Override
 	public boolean clockTicked() {
 		// No need to dispatch the call to the champions as they're already
-		// listening to clock ticks on their own
+		// updated by the party's vitals engine
 
 		// Propagate the call to the party's spells
 		spells.clockTicked();
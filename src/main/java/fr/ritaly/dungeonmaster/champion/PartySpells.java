@@ -22,9 +22,8 @@ import org.apache.commons.lang.Validate;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import fr.ritaly.dungeonmaster.ClockListener;
-import fr.ritaly.dungeonmaster.Temporizer;
-import fr.ritaly.dungeonmaster.event.ChangeEvent;
+import fr.ritaly.dungeonmaster.Clock;
+import fr.ritaly.dungeonmaster.PhasedClockListener;
 import fr.ritaly.dungeonmaster.event.ChangeEventSource;
 import fr.ritaly.dungeonmaster.event.ChangeEventSupport;
 import fr.ritaly.dungeonmaster.event.ChangeListener;
@@ -35,7 +34,7 @@ import fr.ritaly.dungeonmaster.stat.Stat;
  *
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
  */
-public class PartySpells implements ClockListener, ChangeEventSource {
+public class PartySpells implements PhasedClockListener, ChangeEventSource {
 
 	private final Log log = LogFactory.getLog(this.getClass());
 
@@ -71,11 +70,6 @@ public class PartySpells implements ClockListener, ChangeEventSource {
 	 */
 	private final Stat seeThroughWalls;
 
-	/**
-	 * The temporizer used to manage the decay of those spells over time.
-	 */
-	private final Temporizer temporizer = new Temporizer("Party.Spells", 4);
-
 	public PartySpells(Party party) {
 		Validate.notNull(party, "The given party is null");
 
@@ -87,57 +81,60 @@ public class PartySpells implements ClockListener, ChangeEventSource {
 		this.seeThroughWalls = new Stat("Party.Spells", "SeeThroughWalls");
 	}
 
+	@Override
+	public Clock.Phase getPhase() {
+		return Clock.Phase.CHAMPIONS;
+	}
+
 	@Override
 	public boolean clockTicked() {
-		if (temporizer.trigger()) {
-			if (invisibility.value() > 0) {
-				if (invisibility.dec(1) == 0) {
-					// Notify the change of state
-					fireChangeEvent();
-
-					if (log.isDebugEnabled()) {
-						log.debug("Party.Spells.Invisibility is now inactive");
-					}
+		if (invisibility.value() > 0) {
+			if (invisibility.dec(1) == 0) {
+				// Notify the change of state
+				fireChangeEvent();
+
+				if (log.isDebugEnabled()) {
+					log.debug("Party.Spells.Invisibility is now inactive");
 				}
 			}
-			if (antiMagic.value() > 0) {
-				if (antiMagic.dec(1) == 0) {
-					// Notify the change of state
-					fireChangeEvent();
-
-					if (log.isDebugEnabled()) {
-						log.debug("Party.Spells.AntiMagic is now inactive");
-					}
+		}
+		if (antiMagic.value() > 0) {
+			if (antiMagic.dec(1) == 0) {
+				// Notify the change of state
+				fireChangeEvent();
+
+				if (log.isDebugEnabled()) {
+					log.debug("Party.Spells.AntiMagic is now inactive");
 				}
 			}
-			if (shield.value() > 0) {
-				if (shield.dec(1) == 0) {
-					// Notify the change of state
-					fireChangeEvent();
-
-					if (log.isDebugEnabled()) {
-						log.debug("Party.Spells.Shield is now inactive");
-					}
+		}
+		if (shield.value() > 0) {
+			if (shield.dec(1) == 0) {
+				// Notify the change of state
+				fireChangeEvent();
+
+				if (log.isDebugEnabled()) {
+					log.debug("Party.Spells.Shield is now inactive");
 				}
 			}
-			if (dispellIllusion.value() > 0) {
-				if (dispellIllusion.dec(1) == 0) {
-					// Notify the change of state
-					fireChangeEvent();
-
-					if (log.isDebugEnabled()) {
-						log.debug("Party.Spells.DispellIllusion is now inactive");
-					}
+		}
+		if (dispellIllusion.value() > 0) {
+			if (dispellIllusion.dec(1) == 0) {
+				// Notify the change of state
+				fireChangeEvent();
+
+				if (log.isDebugEnabled()) {
+					log.debug("Party.Spells.DispellIllusion is now inactive");
 				}
 			}
-			if (seeThroughWalls.value() > 0) {
-				if (seeThroughWalls.dec(1) == 0) {
-					// Notify the change of state
-					fireChangeEvent();
-
-					if (log.isDebugEnabled()) {
-						log.debug("Party.Spells.SeeThroughWalls is now inactive");
-					}
+		}
+		if (seeThroughWalls.value() > 0) {
+			if (seeThroughWalls.dec(1) == 0) {
+				// Notify the change of state
+				fireChangeEvent();
+
+				if (log.isDebugEnabled()) {
+					log.debug("Party.Spells.SeeThroughWalls is now inactive");
 				}
 			}
 		}
@@ -207,6 +204,6 @@ public class PartySpells implements ClockListener, ChangeEventSource {
 	}
 
 	private void fireChangeEvent() {
-		eventSupport.fireChangeEvent(new ChangeEvent(this));
+		eventSupport.fireChangeEvent(this);
 	}
 }
\ No newline at end of file
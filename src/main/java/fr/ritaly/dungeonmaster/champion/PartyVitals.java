@@ -0,0 +1,206 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.champion;
+
+import org.apache.commons.lang.Validate;
+
+import fr.ritaly.dungeonmaster.Clock;
+import fr.ritaly.dungeonmaster.Location;
+import fr.ritaly.dungeonmaster.PeriodicClockListener;
+import fr.ritaly.dungeonmaster.PhasedClockListener;
+import fr.ritaly.dungeonmaster.Temporizer;
+import fr.ritaly.dungeonmaster.Utils;
+import fr.ritaly.dungeonmaster.stat.Stat;
+import fr.ritaly.dungeonmaster.stat.Stats;
+
+/**
+ * Updates the vitals (food, water, health, stamina, mana), the spells and the
+ * poison of all the champions of a {@link Party} with a single clock listener.
+ * The champions are processed in batch: the vitals of all the champions are
+ * copied into primitive arrays indexed by location, regenerated / depleted in
+ * a single loop and written back to the {@link Stat}s once, then the spells
+ * and poison are updated with the change events suspended. Finally each
+ * champion whose vitals changed fires a single {@link Stats#PROPERTY_VITALS}
+ * event.
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ */
+final class PartyVitals implements PeriodicClockListener, PhasedClockListener {
+
+	private static final Location[] LOCATIONS = Location.values();
+
+	private final Party party;
+
+	/**
+	 * The champions updated by the current pass indexed by location ordinal.
+	 */
+	private final Champion[] champions = new Champion[LOCATIONS.length];
+
+	/**
+	 * The vitals of the champions before the current pass indexed by location
+	 * ordinal then by VITAL_XXX constant. Reused as the old values of the
+	 * {@link Stats#PROPERTY_VITALS} events.
+	 */
+	private final int[][] oldVitals = new int[LOCATIONS.length][Stats.VITAL_COUNT];
+
+	/**
+	 * The vitals of the champions computed by the current pass. Reused as the
+	 * new values of the {@link Stats#PROPERTY_VITALS} events.
+	 */
+	private final int[][] newVitals = new int[LOCATIONS.length][Stats.VITAL_COUNT];
+
+	/**
+	 * The base max values of the vitals of the champions.
+	 */
+	private final int[][] maxVitals = new int[LOCATIONS.length][Stats.VITAL_COUNT];
+
+	/**
+	 * The vitals regenerate / deplete every 5 seconds.
+	 */
+	private final Temporizer temporizer = new Temporizer("Party.Vitals", 5 * Clock.ONE_SECOND);
+
+	PartyVitals(Party party) {
+		Validate.notNull(party, "The given party is null");
+
+		this.party = party;
+	}
+
+	/**
+	 * Starts updating the champions (if not already started). Called when a
+	 * champion joins the party.
+	 */
+	void start() {
+		final Clock clock = Clock.getInstance();
+
+		if (!clock.isRegistered(this)) {
+			clock.register(this);
+		}
+	}
+
+	@Override
+	public int getPeriod() {
+		return Champion.UPDATE_PERIOD;
+	}
+
+	@Override
+	public Clock.Phase getPhase() {
+		return Clock.Phase.CHAMPIONS;
+	}
+
+	@Override
+	public boolean clockTicked() {
+		final boolean regenerate = temporizer.trigger();
+
+		for (int i = 0; i < LOCATIONS.length; i++) {
+			final Champion champion = party.getChampion(LOCATIONS[i]);
+
+			if ((champion == null) || champion.isDead()) {
+				champions[i] = null;
+
+				continue;
+			}
+
+			champions[i] = champion;
+
+			final Stats stats = champion.getStats();
+
+			stats.copyVitals(oldVitals[i], 0);
+			stats.beginUpdate();
+
+			if (regenerate) {
+				stats.copyVitals(newVitals[i], 0);
+				stats.copyMaxVitals(maxVitals[i], 0);
+			}
+		}
+
+		try {
+			if (regenerate) {
+				regenerate();
+
+				for (int i = 0; i < champions.length; i++) {
+					if (champions[i] != null) {
+						champions[i].getStats().storeVitals(newVitals[i], 0);
+					}
+				}
+			}
+
+			for (Champion champion : champions) {
+				if (champion != null) {
+					champion.clockTicked();
+				}
+			}
+		} finally {
+			// Notify the changes once all the champions are updated
+			for (int i = 0; i < champions.length; i++) {
+				if (champions[i] != null) {
+					champions[i].getStats().endUpdate(oldVitals[i], newVitals[i]);
+
+					champions[i] = null;
+				}
+			}
+		}
+
+		// Keep listening as long as the party has champions
+		return (party.getSize(true) > 0);
+	}
+
+	/**
+	 * Regenerates / depletes the vitals stored in {@link #newVitals} for all
+	 * the champions of the current pass.
+	 */
+	private void regenerate() {
+		// TODO When the party is sleeping, make time elapse faster (speed factor ?)
+
+		// TODO Update the stats (dexterity, strength, vitality, wisdom)
+		for (int i = 0; i < champions.length; i++) {
+			if (champions[i] == null) {
+				continue;
+			}
+
+			final int[] vitals = newVitals[i];
+			final int[] max = maxVitals[i];
+
+			// TODO Mana regenerates over time
+			vitals[Stats.VITAL_MANA] = Utils.bind(vitals[Stats.VITAL_MANA] + 3, 0, max[Stats.VITAL_MANA]);
+
+			if (Stat.isLow(vitals[Stats.VITAL_STAMINA], max[Stats.VITAL_STAMINA])
+					|| Stat.isLow(vitals[Stats.VITAL_FOOD], max[Stats.VITAL_FOOD])
+					|| Stat.isLow(vitals[Stats.VITAL_WATER], max[Stats.VITAL_WATER])) {
+
+				// If stamina, food or water is low, the health gets hit
+				vitals[Stats.VITAL_HEALTH] = Utils.bind(vitals[Stats.VITAL_HEALTH] - 5, 0, max[Stats.VITAL_HEALTH]);
+			} else {
+				// The health regenerates over time
+				vitals[Stats.VITAL_HEALTH] = Utils.bind(vitals[Stats.VITAL_HEALTH] + 3, 0, max[Stats.VITAL_HEALTH]);
+			}
+
+			if (vitals[Stats.VITAL_HEALTH] == 0) {
+				// The champion just died
+				continue;
+			}
+
+			// TODO The stamina decreases over time (and the load too)
+			vitals[Stats.VITAL_STAMINA] = Utils.bind(vitals[Stats.VITAL_STAMINA] - 3, 0, max[Stats.VITAL_STAMINA]);
+
+			// Food and water decrease linearly over time
+			vitals[Stats.VITAL_FOOD] = Utils.bind(vitals[Stats.VITAL_FOOD] - 5, 0, max[Stats.VITAL_FOOD]);
+			vitals[Stats.VITAL_WATER] = Utils.bind(vitals[Stats.VITAL_WATER] - 5, 0, max[Stats.VITAL_WATER]);
+		}
+	}
+}
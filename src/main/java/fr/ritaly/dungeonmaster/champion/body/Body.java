@@ -19,16 +19,15 @@
 package fr.ritaly.dungeonmaster.champion.body;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 
 import org.apache.commons.lang.Validate;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import fr.ritaly.dungeonmaster.Utils;
 import fr.ritaly.dungeonmaster.champion.Champion;
 import fr.ritaly.dungeonmaster.champion.body.BodyPart.Type;
 import fr.ritaly.dungeonmaster.item.Item;
@@ -61,7 +60,6 @@ public class Body {
 	 */
 	private final Map<BodyPart.Type, BodyPart> parts = new EnumMap<BodyPart.Type, BodyPart>(BodyPart.Type.class);
 
-	private final Random random = new Random();
 
 	public Body(Champion champion) {
 		Validate.notNull(champion, "The given champion is null");
@@ -212,7 +210,7 @@ public class Body {
 
 		if (!bodyParts.isEmpty()) {
 			// Randomly wound one of the non-wounded body parts
-			Collections.shuffle(bodyParts);
+			Utils.random().shuffle(bodyParts);
 
 			boolean wounded = false;
 
@@ -241,7 +239,7 @@ public class Body {
 
 		if (!bodyParts.isEmpty()) {
 			// Randomly heal one of the wounded body parts
-			final BodyPart bodyPart = bodyParts.get(random.nextInt(bodyParts.size()));
+			final BodyPart bodyPart = Utils.random().pick(bodyParts);
 
 			bodyPart.heal();
 
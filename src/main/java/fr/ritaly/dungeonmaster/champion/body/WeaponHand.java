@@ -23,7 +23,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import fr.ritaly.dungeonmaster.Clock;
-import fr.ritaly.dungeonmaster.ClockListener;
+import fr.ritaly.dungeonmaster.PhasedClockListener;
 import fr.ritaly.dungeonmaster.Temporizer;
 import fr.ritaly.dungeonmaster.item.CarryLocation;
 
@@ -34,7 +34,7 @@ import fr.ritaly.dungeonmaster.item.CarryLocation;
  *
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
  */
-public class WeaponHand extends Hand implements ClockListener {
+public class WeaponHand extends Hand implements PhasedClockListener {
 
 	private final Log log = LogFactory.getLog(WeaponHand.class);
 
@@ -121,6 +121,11 @@ public class WeaponHand extends Hand implements ClockListener {
 		}
 	}
 
+	@Override
+	public Clock.Phase getPhase() {
+		return Clock.Phase.CHAMPIONS;
+	}
+
 	@Override
 	public boolean clockTicked() {
 		if (temporizer != null) {
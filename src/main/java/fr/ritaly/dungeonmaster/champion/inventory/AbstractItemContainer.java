@@ -20,14 +20,13 @@ package fr.ritaly.dungeonmaster.champion.inventory;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 import org.apache.commons.lang.Validate;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import fr.ritaly.dungeonmaster.Utils;
 import fr.ritaly.dungeonmaster.champion.Champion;
-import fr.ritaly.dungeonmaster.event.ChangeEvent;
 import fr.ritaly.dungeonmaster.event.ChangeEventSource;
 import fr.ritaly.dungeonmaster.event.ChangeEventSupport;
 import fr.ritaly.dungeonmaster.event.ChangeListener;
@@ -134,7 +133,7 @@ public abstract class AbstractItemContainer implements ChangeEventSource,
 	}
 
 	protected void fireChangeEvent() {
-		eventSupport.fireChangeEvent(new ChangeEvent(this));
+		eventSupport.fireChangeEvent(this);
 	}
 
 	@Override
@@ -145,7 +144,7 @@ public abstract class AbstractItemContainer implements ChangeEventSource,
 			return null;
 		}
 
-		return list.get(new Random().nextInt(list.size()));
+		return Utils.random().pick(list);
 	}
 
 	@Override
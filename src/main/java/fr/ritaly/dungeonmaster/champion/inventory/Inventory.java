@@ -177,7 +177,7 @@ public class Inventory implements ChangeEventSource, ChangeListener {
 	}
 
 	protected void fireChangeEvent() {
-		eventSupport.fireChangeEvent(new ChangeEvent(this));
+		eventSupport.fireChangeEvent(this);
 	}
 
 	@Override
@@ -18,47 +18,77 @@
  */
 package fr.ritaly.dungeonmaster.event;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import org.apache.commons.lang.Validate;
 
 /**
- * Helper class used for simplifying the notification of change events.
+ * Helper class used for simplifying the notification of change events. The
+ * listeners are stored in a copy-on-write array: the array is only copied when
+ * a listener is added or removed, never when an event is fired, so that the
+ * listeners can (un)register themselves while being notified.
  *
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
  */
 public class ChangeEventSupport implements ChangeEventSource {
 
+	private static final ChangeListener[] NO_LISTENERS = new ChangeListener[0];
+
+	/**
+	 * The listeners to be notified of change events. Never modified once
+	 * assigned.
+	 */
+	private ChangeListener[] listeners = NO_LISTENERS;
+
 	/**
-	 * Lists the listeners to be notified of change events.
+	 * The last event fired by {@link #fireChangeEvent(Object)}. Change events
+	 * are stateless hence the event can be reused as long as the source
+	 * doesn't change.
 	 */
-	private List<ChangeListener> listeners;
+	private ChangeEvent event;
 
 	@Override
 	public void addChangeListener(ChangeListener listener) {
 		if (listener != null) {
-			if (listeners == null) {
-				// Create the list only when strictly necessary
-				listeners = new ArrayList<ChangeListener>();
-			}
+			final ChangeListener[] array = Arrays.copyOf(listeners, listeners.length + 1);
+
+			array[listeners.length] = listener;
 
-			listeners.add(listener);
+			listeners = array;
 		}
 	}
 
 	@Override
 	public void removeChangeListener(ChangeListener listener) {
 		if (listener != null) {
-			listeners.remove(listener);
+			for (int i = 0; i < listeners.length; i++) {
+				if (listener.equals(listeners[i])) {
+					if (listeners.length == 1) {
+						listeners = NO_LISTENERS;
+					} else {
+						final ChangeListener[] array = new ChangeListener[listeners.length - 1];
+
+						System.arraycopy(listeners, 0, array, 0, i);
+						System.arraycopy(listeners, i + 1, array, i, array.length - i);
 
-			if (listeners.isEmpty()) {
-				// Get rid of the unnecessary list
-				listeners = null;
+						listeners = array;
+					}
+
+					return;
+				}
 			}
 		}
 	}
 
+	/**
+	 * Tells whether some listeners are registered.
+	 *
+	 * @return whether some listeners are registered.
+	 */
+	public boolean hasListeners() {
+		return (listeners.length > 0);
+	}
+
 	/**
 	 * Notifies the registered listeners of the given change event.
 	 *
@@ -69,11 +99,37 @@ public class ChangeEventSupport implements ChangeEventSource {
 	public void fireChangeEvent(final ChangeEvent event) {
 		Validate.notNull(event, "The given change event is null");
 
-		if (listeners != null) {
-			// Clone the list to avoid concurrent modifications
-			for (ChangeListener listener : new ArrayList<ChangeListener>(listeners)) {
-				listener.onChangeEvent(event);
-			}
+		// The array is never modified, no need to clone it
+		for (ChangeListener listener : listeners) {
+			listener.onChangeEvent(event);
+		}
+	}
+
+	/**
+	 * Notifies the registered listeners that the given source changed. The
+	 * change event is only created if some listeners are registered and is
+	 * then reused for the next notifications.
+	 *
+	 * @param source
+	 *            the object whose state changed. Can't be null.
+	 */
+	public void fireChangeEvent(final Object source) {
+		Validate.notNull(source, "The given source is null");
+
+		final ChangeListener[] listeners = this.listeners;
+
+		if (listeners.length == 0) {
+			return;
+		}
+
+		ChangeEvent event = this.event;
+
+		if ((event == null) || (event.getSource() != source)) {
+			this.event = event = new ChangeEvent(source);
+		}
+
+		for (ChangeListener listener : listeners) {
+			listener.onChangeEvent(event);
 		}
 	}
 }
@@ -18,47 +18,70 @@
  */
 package fr.ritaly.dungeonmaster.event;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import org.apache.commons.lang.Validate;
 
 /**
- * Helper class used for simplifying the notification of item events.
+ * Helper class used for simplifying the notification of item events. The
+ * listeners are stored in a copy-on-write array: the array is only copied when
+ * a listener is added or removed, never when an event is fired.
  *
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
  */
 public class ItemEventSupport implements ItemEventSource {
 
+	private static final ItemListener[] NO_LISTENERS = new ItemListener[0];
+
 	/**
-	 * Lists the listeners to be notified of item events.
+	 * The listeners to be notified of item events. Never modified once
+	 * assigned.
 	 */
-	private List<ItemListener> listeners;
+	private ItemListener[] listeners = NO_LISTENERS;
 
 	@Override
 	public void addItemListener(ItemListener listener) {
 		if (listener != null) {
-			if (listeners == null) {
-				// Create the list only when strictly necessary
-				listeners = new ArrayList<ItemListener>();
-			}
+			final ItemListener[] array = Arrays.copyOf(listeners, listeners.length + 1);
+
+			array[listeners.length] = listener;
 
-			listeners.add(listener);
+			listeners = array;
 		}
 	}
 
 	@Override
 	public void removeItemListener(ItemListener listener) {
 		if (listener != null) {
-			listeners.remove(listener);
+			for (int i = 0; i < listeners.length; i++) {
+				if (listener.equals(listeners[i])) {
+					if (listeners.length == 1) {
+						listeners = NO_LISTENERS;
+					} else {
+						final ItemListener[] array = new ItemListener[listeners.length - 1];
 
-			if (listeners.isEmpty()) {
-				// Get rid of the unnecessary list
-				listeners = null;
+						System.arraycopy(listeners, 0, array, 0, i);
+						System.arraycopy(listeners, i + 1, array, i, array.length - i);
+
+						listeners = array;
+					}
+
+					return;
+				}
 			}
 		}
 	}
 
+	/**
+	 * Tells whether some listeners are registered. Allows the callers to skip
+	 * creating the events nobody listens to.
+	 *
+	 * @return whether some listeners are registered.
+	 */
+	public boolean hasListeners() {
+		return (listeners.length > 0);
+	}
+
 	/**
 	 * Notifies the registered listeners of the given item event.
 	 *
@@ -69,11 +92,9 @@ public class ItemEventSupport implements ItemEventSource {
 	public void fireItemRemovedEvent(final ItemEvent event) {
 		Validate.notNull(event, "The given item event is null");
 
-		if (listeners != null) {
-			// Clone the list to avoid concurrent modifications
-			for (ItemListener listener : new ArrayList<ItemListener>(listeners)) {
-				listener.onItemRemoved(event);
-			}
+		// The array is never modified, no need to clone it
+		for (ItemListener listener : listeners) {
+			listener.onItemRemoved(event);
 		}
 	}
 
@@ -87,11 +108,9 @@ public class ItemEventSupport implements ItemEventSource {
 	public void fireItemAddedEvent(final ItemEvent event) {
 		Validate.notNull(event, "The given item event is null");
 
-		if (listeners != null) {
-			// Clone the list to avoid concurrent modifications
-			for (ItemListener listener : new ArrayList<ItemListener>(listeners)) {
-				listener.onItemAdded(event);
-			}
+		// The array is never modified, no need to clone it
+		for (ItemListener listener : listeners) {
+			listener.onItemAdded(event);
 		}
 	}
 }
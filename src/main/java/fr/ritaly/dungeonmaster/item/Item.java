@@ -24,15 +24,14 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang.Validate;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import fr.ritaly.dungeonmaster.SimulationContext;
 import fr.ritaly.dungeonmaster.champion.Champion;
 import fr.ritaly.dungeonmaster.champion.body.BodyPart;
-import fr.ritaly.dungeonmaster.event.ChangeEvent;
 import fr.ritaly.dungeonmaster.event.ChangeEventSource;
 import fr.ritaly.dungeonmaster.event.ChangeEventSupport;
 import fr.ritaly.dungeonmaster.event.ChangeListener;
@@ -55,11 +54,6 @@ public abstract class Item implements ChangeEventSource {
 
 	private final Log log = LogFactory.getLog(this.getClass());
 
-	/**
-	 * Sequence used for assigning unique ids to items upon creation.
-	 */
-	private static final AtomicInteger SEQUENCE = new AtomicInteger();
-
 	/**
 	 * Enumerates the possible item types.<br>
 	 * <br>
@@ -559,7 +553,7 @@ public abstract class Item implements ChangeEventSource {
 	/**
 	 * Sequence used for generating unique ids for items.
 	 */
-	private final int id = SEQUENCE.incrementAndGet();
+	private final int id = SimulationContext.getCurrent().nextItemId();
 
 	/**
 	 * Map storing the remaining charges per action. Set to null if no charges
@@ -773,7 +767,7 @@ public abstract class Item implements ChangeEventSource {
 	}
 
 	protected final void fireChangeEvent() {
-		eventSupport.fireChangeEvent(new ChangeEvent(this));
+		eventSupport.fireChangeEvent(this);
 	}
 
 	/**
@@ -30,6 +30,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import fr.ritaly.dungeonmaster.Sector;
+import fr.ritaly.dungeonmaster.Utils;
 import fr.ritaly.dungeonmaster.event.ItemEvent;
 import fr.ritaly.dungeonmaster.event.ItemEventSource;
 import fr.ritaly.dungeonmaster.event.ItemEventSupport;
@@ -68,11 +69,15 @@ public class ItemManager implements ItemEventSource, HasItems<Sector> {
 	}
 
 	private void fireItemRemovedEvent(Item item, Sector sector) {
-		eventSupport.fireItemRemovedEvent(new ItemEvent(this, item, sector));
+		if (eventSupport.hasListeners()) {
+			eventSupport.fireItemRemovedEvent(new ItemEvent(this, item, sector));
+		}
 	}
 
 	private void fireItemAddedEvent(Item item, Sector sector) {
-		eventSupport.fireItemAddedEvent(new ItemEvent(this, item, sector));
+		if (eventSupport.hasListeners()) {
+			eventSupport.fireItemAddedEvent(new ItemEvent(this, item, sector));
+		}
 	}
 
 	@Override
@@ -146,9 +151,7 @@ public class ItemManager implements ItemEventSource, HasItems<Sector> {
 			return null;
 		}
 
-		Collections.shuffle(sectors);
-
-		return removeItem(sectors.iterator().next());
+		return removeItem(Utils.random().pick(sectors));
 	}
 
 	@Override
@@ -259,8 +262,6 @@ public class ItemManager implements ItemEventSource, HasItems<Sector> {
 			return null;
 		}
 
-		Collections.shuffle(sectors);
-
-		return sectors.iterator().next();
+		return Utils.random().pick(sectors);
 	}
 }
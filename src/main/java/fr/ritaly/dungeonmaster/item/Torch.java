@@ -22,16 +22,16 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import fr.ritaly.dungeonmaster.Clock;
-import fr.ritaly.dungeonmaster.ClockListener;
 import fr.ritaly.dungeonmaster.Constants;
-import fr.ritaly.dungeonmaster.Temporizer;
+import fr.ritaly.dungeonmaster.PeriodicClockListener;
+import fr.ritaly.dungeonmaster.PhasedClockListener;
 
 /**
  * A torch. The torch is useful for providing light. The torch decays over time.
  *
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
  */
-public class Torch extends Item implements ClockListener {
+public class Torch extends Item implements PeriodicClockListener, PhasedClockListener {
 
 	private final Log log = LogFactory.getLog(Torch.class);
 
@@ -52,9 +52,9 @@ public class Torch extends Item implements ClockListener {
 	private String owner;
 
 	/**
-	 * The temporizer managing the decay of this torch.
+	 * The number of clock ticks between 2 decays of this torch.
 	 */
-	private final Temporizer temporizer = new Temporizer("Torch", 4);
+	private static final int DECAY_PERIOD = 4;
 
 	/**
 	 * Creates a new torch.
@@ -64,20 +64,28 @@ public class Torch extends Item implements ClockListener {
 	}
 
 	@Override
-	public boolean clockTicked() {
-		if (temporizer.trigger()) {
-			if (isBurning()) {
-				final int oldLight = light;
+	public int getPeriod() {
+		return DECAY_PERIOD;
+	}
 
-				light--;
+	@Override
+	public Clock.Phase getPhase() {
+		return Clock.Phase.CHAMPIONS;
+	}
 
-				if (log.isDebugEnabled()) {
-					log.debug(String.format("%s.%s.Light: %d -> %d", owner, this, oldLight, light));
-				}
+	@Override
+	public boolean clockTicked() {
+		if (isBurning()) {
+			final int oldLight = light;
+
+			light--;
 
-				// TODO Limit the events raised (there are only 7 states possible for a torch)
-				fireChangeEvent();
+			if (log.isDebugEnabled()) {
+				log.debug(String.format("%s.%s.Light: %d -> %d", owner, this, oldLight, light));
 			}
+
+			// TODO Limit the events raised (there are only 7 states possible for a torch)
+			fireChangeEvent();
 		}
 
 		// Listen as long as the torch isn't depleted
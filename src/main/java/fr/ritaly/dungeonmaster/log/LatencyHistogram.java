@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.log;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * Histogram of latencies (in nanoseconds) with log-linear buckets: each power
+ * of two is split into {@link #SUB_BUCKETS} buckets of equal width hence the
+ * relative error of the values returned by
+ * {@link #getValueAtPercentile(double)} is bounded (about 25%) whatever the
+ * latency. Recording a value is allocation-free. This class isn't
+ * thread-safe: each thread records into its own histograms which are merged
+ * when reporting (see {@link #add(LatencyHistogram)}).
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ */
+public final class LatencyHistogram {
+
+	/**
+	 * The number of bits used for splitting each power of two.
+	 */
+	private static final int SUB_BUCKET_BITS = 2;
+
+	public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	private final long[] counts = new long[BUCKET_COUNT];
+
+	private long count;
+
+	private long totalNanos;
+
+	private long maxNanos;
+
+	/**
+	 * Returns the index of the bucket where the given value is counted.
+	 */
+	static int indexOf(long value) {
+		if (value < SUB_BUCKETS) {
+			// The small values are counted exactly
+			return (int) Math.max(0, value);
+		}
+
+		final int exponent = 63 - Long.numberOfLeadingZeros(value);
+		final int shift = exponent - SUB_BUCKET_BITS;
+
+		// The SUB_BUCKET_BITS bits following the most significant bit
+		final int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+
+		return (shift + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * Returns the lowest value counted in the bucket with the given index.
+	 */
+	static long lowestValueOf(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+
+		final int shift = (index / SUB_BUCKETS) - 1;
+		final long subBucket = index % SUB_BUCKETS;
+
+		return (SUB_BUCKETS + subBucket) << shift;
+	}
+
+	/**
+	 * Records the given latency.
+	 *
+	 * @param nanos
+	 *            a duration in nanoseconds.
+	 */
+	public void record(long nanos) {
+		counts[indexOf(nanos)]++;
+		count++;
+		totalNanos += nanos;
+
+		if (nanos > maxNanos) {
+			maxNanos = nanos;
+		}
+	}
+
+	/**
+	 * Adds the values recorded by the given histogram to this one.
+	 *
+	 * @param histogram
+	 *            the histogram to add. Can't be null.
+	 */
+	public void add(LatencyHistogram histogram) {
+		Validate.notNull(histogram, "The given histogram is null");
+
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += histogram.counts[i];
+		}
+
+		count += histogram.count;
+		totalNanos += histogram.totalNanos;
+		maxNanos = Math.max(maxNanos, histogram.maxNanos);
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+
+	public long getMeanNanos() {
+		return (count > 0) ? totalNanos / count : 0;
+	}
+
+	/**
+	 * Returns the (approximate) latency below which the given percentage of
+	 * the values recorded fall.
+	 *
+	 * @param percentile
+	 *            a percentage within [0, 100].
+	 * @return a duration in nanoseconds.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		Validate.isTrue((percentile >= 0) && (percentile <= 100), "The given percentile " + percentile
+				+ " must be within [0, 100]");
+
+		if (count == 0) {
+			return 0;
+		}
+
+		final long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+
+		long cumulated = 0;
+
+		for (int i = 0; i < counts.length; i++) {
+			cumulated += counts[i];
+
+			if (cumulated >= rank) {
+				// Never return more than the max value recorded
+				return Math.min(lowestValueOf(i), maxNanos);
+			}
+		}
+
+		return maxNanos;
+	}
+
+	public void reset() {
+		Arrays.fill(counts, 0);
+
+		count = 0;
+		totalNanos = 0;
+		maxNanos = 0;
+	}
+}
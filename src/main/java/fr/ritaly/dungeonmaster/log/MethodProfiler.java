@@ -0,0 +1,360 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.log;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * Profiler of the methods woven by {@link MethodProfilingAspect}. The aspects
+ * are only woven when building with -Pprofile. The profiler is disabled by
+ * default and can be enabled at runtime with {@link #setEnabled(boolean)}.
+ * When enabled, each thread records the calls into its own structures (no
+ * lock is taken): the call count and a {@link LatencyHistogram} per method and
+ * a call tree whose nodes cumulate the time spent on each call path. The
+ * structures of all the threads are merged when reporting: see
+ * {@link #writeReport(Writer)} for a flat report and
+ * {@link #writeCollapsedStacks(Writer)} for the collapsed-stack format read by
+ * the flame graph tools. The reports are approximate while the profiled
+ * threads are running.
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ */
+public final class MethodProfiler {
+
+	/**
+	 * Read by the aspect before every call hence volatile and static.
+	 */
+	private static volatile boolean enabled;
+
+	/**
+	 * The profiles of all the threads profiled so far.
+	 */
+	private static final List<ThreadProfile> PROFILES = Collections.synchronizedList(new ArrayList<ThreadProfile>());
+
+	private static final ThreadLocal<ThreadProfile> PROFILE = new ThreadLocal<ThreadProfile>() {
+		@Override
+		protected ThreadProfile initialValue() {
+			final ThreadProfile profile = new ThreadProfile();
+
+			PROFILES.add(profile);
+
+			return profile;
+		}
+	};
+
+	/**
+	 * A node of the call tree of a thread: a call path and the time spent on
+	 * it.
+	 */
+	private static final class Node {
+
+		private final Object site;
+
+		private final Node parent;
+
+		/**
+		 * The histogram of the site's method in the thread's profile.
+		 */
+		private final LatencyHistogram histogram;
+
+		private final ConcurrentMap<Object, Node> children = new ConcurrentHashMap<Object, Node>(4);
+
+		private long totalNanos;
+
+		private Node(Object site, Node parent, LatencyHistogram histogram) {
+			this.site = site;
+			this.parent = parent;
+			this.histogram = histogram;
+		}
+	}
+
+	/**
+	 * The profile of a thread. Only modified by its thread.
+	 */
+	public static final class ThreadProfile {
+
+		/**
+		 * The histograms of the methods called indexed by site.
+		 */
+		private final ConcurrentMap<Object, LatencyHistogram> histograms = new ConcurrentHashMap<Object, LatencyHistogram>();
+
+		private final Node root = new Node(null, null, null);
+
+		/**
+		 * The node of the call in progress.
+		 */
+		private Node current = root;
+
+		/**
+		 * The start times of the calls in progress indexed by depth.
+		 */
+		private long[] starts = new long[64];
+
+		private int depth;
+
+		private ThreadProfile() {
+		}
+
+		/**
+		 * Records the start of a call to the given site.
+		 *
+		 * @param site
+		 *            the method or constructor called (typically the
+		 *            signature of the join point). Can't be null.
+		 */
+		public void enter(Object site) {
+			Node node = current.children.get(site);
+
+			if (node == null) {
+				LatencyHistogram histogram = histograms.get(site);
+
+				if (histogram == null) {
+					histograms.put(site, histogram = new LatencyHistogram());
+				}
+
+				current.children.put(site, node = new Node(site, current, histogram));
+			}
+
+			if (depth == starts.length) {
+				starts = Arrays.copyOf(starts, 2 * depth);
+			}
+
+			starts[depth++] = System.nanoTime();
+			current = node;
+		}
+
+		/**
+		 * Records the end of the last call started.
+		 */
+		public void exit() {
+			if (depth == 0) {
+				// Unbalanced call, not supposed to happen
+				return;
+			}
+
+			final long nanos = System.nanoTime() - starts[--depth];
+			final Node node = current;
+
+			node.totalNanos += nanos;
+			node.histogram.record(nanos);
+
+			current = node.parent;
+		}
+	}
+
+	private MethodProfiler() {
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enables or disables the profiling. The calls in progress when the
+	 * profiling is enabled aren't profiled.
+	 *
+	 * @param enabled
+	 *            whether the calls are to be profiled.
+	 */
+	public static void setEnabled(boolean enabled) {
+		MethodProfiler.enabled = enabled;
+	}
+
+	/**
+	 * Records the start of a call to the given site on the current thread and
+	 * returns the thread's profile to record the end of the call.
+	 *
+	 * @param site
+	 *            the method or constructor called. Can't be null.
+	 * @return the profile of the current thread. Never returns null.
+	 */
+	public static ThreadProfile enter(Object site) {
+		final ThreadProfile profile = PROFILE.get();
+
+		profile.enter(site);
+
+		return profile;
+	}
+
+	/**
+	 * Returns the histograms of the methods called by all the threads, merged
+	 * and indexed by method.
+	 *
+	 * @return a new map. Never returns null.
+	 */
+	public static Map<String, LatencyHistogram> getHistograms() {
+		final Map<String, LatencyHistogram> result = new LinkedHashMap<String, LatencyHistogram>();
+
+		for (ThreadProfile profile : getProfiles()) {
+			for (Map.Entry<Object, LatencyHistogram> entry : profile.histograms.entrySet()) {
+				final String method = String.valueOf(entry.getKey());
+
+				LatencyHistogram histogram = result.get(method);
+
+				if (histogram == null) {
+					result.put(method, histogram = new LatencyHistogram());
+				}
+
+				histogram.add(entry.getValue());
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the time (in nanoseconds) spent in each call path by all the
+	 * threads, excluding the time spent in the callees. The call paths are
+	 * the methods called separated by semicolons, from the outermost.
+	 *
+	 * @return a new map. Never returns null.
+	 */
+	public static Map<String, Long> getCollapsedStacks() {
+		final Map<String, Long> result = new LinkedHashMap<String, Long>();
+
+		for (ThreadProfile profile : getProfiles()) {
+			for (Node child : profile.root.children.values()) {
+				collapse(child, String.valueOf(child.site), result);
+			}
+		}
+
+		return result;
+	}
+
+	private static void collapse(Node node, String path, Map<String, Long> result) {
+		long selfNanos = node.totalNanos;
+
+		for (Node child : node.children.values()) {
+			selfNanos -= child.totalNanos;
+
+			collapse(child, path + ";" + child.site, result);
+		}
+
+		final Long previous = result.get(path);
+
+		result.put(path, ((previous != null) ? previous.longValue() : 0) + Math.max(0, selfNanos));
+	}
+
+	private static List<ThreadProfile> getProfiles() {
+		synchronized (PROFILES) {
+			return new ArrayList<ThreadProfile>(PROFILES);
+		}
+	}
+
+	/**
+	 * Writes a flat report of the methods called sorted by decreasing total
+	 * time: the call count, total, mean, median, 99th percentile and maximum
+	 * durations (in microseconds) of each method.
+	 *
+	 * @param writer
+	 *            the writer where to write the report. Can't be null.
+	 * @throws IOException
+	 *             if an error occurs while writing.
+	 */
+	public static void writeReport(Writer writer) throws IOException {
+		Validate.notNull(writer, "The given writer is null");
+
+		final List<Map.Entry<String, LatencyHistogram>> entries = new ArrayList<Map.Entry<String, LatencyHistogram>>(
+				getHistograms().entrySet());
+
+		Collections.sort(entries, new Comparator<Map.Entry<String, LatencyHistogram>>() {
+			@Override
+			public int compare(Map.Entry<String, LatencyHistogram> o1, Map.Entry<String, LatencyHistogram> o2) {
+				final long total1 = o1.getValue().getTotalNanos(), total2 = o2.getValue().getTotalNanos();
+
+				return (total1 < total2) ? 1 : ((total1 == total2) ? 0 : -1);
+			}
+		});
+
+		final PrintWriter printWriter = new PrintWriter(writer);
+
+		printWriter.println("count\ttotal(us)\tmean(us)\tp50(us)\tp99(us)\tmax(us)\tmethod");
+
+		for (Map.Entry<String, LatencyHistogram> entry : entries) {
+			final LatencyHistogram histogram = entry.getValue();
+
+			printWriter.println(String.format("%d\t%d\t%d\t%d\t%d\t%d\t%s", histogram.getCount(),
+					histogram.getTotalNanos() / 1000, histogram.getMeanNanos() / 1000,
+					histogram.getValueAtPercentile(50) / 1000, histogram.getValueAtPercentile(99) / 1000,
+					histogram.getMaxNanos() / 1000, entry.getKey()));
+		}
+
+		flush(printWriter);
+	}
+
+	/**
+	 * Writes the call paths and the time (in microseconds) spent in each of
+	 * them in the collapsed-stack format ("a;b;c 123" per line) read by the
+	 * flame graph tools.
+	 *
+	 * @param writer
+	 *            the writer where to write the stacks. Can't be null.
+	 * @throws IOException
+	 *             if an error occurs while writing.
+	 */
+	public static void writeCollapsedStacks(Writer writer) throws IOException {
+		Validate.notNull(writer, "The given writer is null");
+
+		final PrintWriter printWriter = new PrintWriter(writer);
+
+		for (Map.Entry<String, Long> entry : getCollapsedStacks().entrySet()) {
+			final long micros = entry.getValue().longValue() / 1000;
+
+			if (micros > 0) {
+				printWriter.println(entry.getKey() + " " + micros);
+			}
+		}
+
+		flush(printWriter);
+	}
+
+	private static void flush(PrintWriter printWriter) throws IOException {
+		printWriter.flush();
+
+		if (printWriter.checkError()) {
+			throw new IOException("Error while writing the profile");
+		}
+	}
+
+	/**
+	 * Discards the profiles of all the threads. Must be called while the
+	 * profiled threads are idle.
+	 */
+	public static void reset() {
+		synchronized (PROFILES) {
+			for (ThreadProfile profile : PROFILES) {
+				profile.histograms.clear();
+				profile.root.children.clear();
+			}
+		}
+	}
+}
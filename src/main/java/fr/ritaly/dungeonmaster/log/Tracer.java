@@ -0,0 +1,434 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.log;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang.Validate;
+import org.apache.log4j.MDC;
+
+/**
+ * Low-overhead call tracing driven by {@link MappedDiagnosticContextAspect}.
+ * The tracing is disabled by default and can be enabled at runtime with
+ * {@link #setEnabled(boolean)}. When disabled, the aspect's advice isn't even
+ * run (the aspect tests a static flag first). When enabled, each thread keeps
+ * its call depth in a primitive counter, publishes it in the log4j MDC under
+ * the key "depth" and records the calls (spans) of the sampled call trees into
+ * a ring buffer (see {@link #setSampleRate(int)}).
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ */
+public final class Tracer {
+
+	/**
+	 * The default number of spans recorded per thread.
+	 */
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	/**
+	 * The key of the depth marker in the log4j MDC.
+	 */
+	public static final String MDC_KEY = "depth";
+
+	/**
+	 * The depth markers published in the MDC indexed by call depth.
+	 */
+	private static final String[] MARKERS = new String[64];
+
+	static {
+		String marker = ">";
+
+		for (int i = 0; i < MARKERS.length; i++) {
+			MARKERS[i] = marker;
+			marker = "-" + marker;
+		}
+	}
+
+	/**
+	 * Read by the aspect before every call hence volatile and static.
+	 */
+	private static volatile boolean enabled;
+
+	private static volatile int sampleRate = 1;
+
+	private static volatile int capacity = DEFAULT_CAPACITY;
+
+	/**
+	 * The recorders of all the threads traced so far.
+	 */
+	private static final List<Recorder> RECORDERS = Collections.synchronizedList(new ArrayList<Recorder>());
+
+	private static final ThreadLocal<Recorder> RECORDER = new ThreadLocal<Recorder>() {
+		@Override
+		protected Recorder initialValue() {
+			final Recorder recorder = new Recorder(Thread.currentThread().getName(), capacity);
+
+			RECORDERS.add(recorder);
+
+			return recorder;
+		}
+	};
+
+	/**
+	 * A call recorded by the tracer.
+	 */
+	public static final class Span {
+
+		private final Object site;
+
+		private final int depth;
+
+		private final long start;
+
+		private final long duration;
+
+		private Span(Object site, int depth, long start, long duration) {
+			this.site = site;
+			this.depth = depth;
+			this.start = start;
+			this.duration = duration;
+		}
+
+		/**
+		 * Returns a description of the method or constructor called.
+		 */
+		public String getSite() {
+			return String.valueOf(site);
+		}
+
+		/**
+		 * Returns the depth of the call (0 for the root of a call tree).
+		 */
+		public int getDepth() {
+			return depth;
+		}
+
+		/**
+		 * Returns the time (in nanoseconds as returned by
+		 * {@link System#nanoTime()}) when the call started.
+		 */
+		public long getStart() {
+			return start;
+		}
+
+		/**
+		 * Returns the duration of the call in nanoseconds.
+		 */
+		public long getDuration() {
+			return duration;
+		}
+
+		@Override
+		public String toString() {
+			return getSite() + " " + duration + " ns";
+		}
+	}
+
+	/**
+	 * The tracing state of a thread. Only accessed by its thread except when
+	 * the spans are read.
+	 */
+	public static final class Recorder {
+
+		private final String threadName;
+
+		/**
+		 * The current call depth.
+		 */
+		private int depth;
+
+		/**
+		 * Whether the current call tree is sampled.
+		 */
+		private boolean sampled;
+
+		/**
+		 * The number of call trees started so far.
+		 */
+		private long trees;
+
+		/**
+		 * The sites and start times of the calls in progress indexed by depth.
+		 */
+		private Object[] siteStack = new Object[64];
+
+		private long[] startStack = new long[64];
+
+		// The ring buffer of the spans recorded
+		private final Object[] sites;
+
+		private final int[] depths;
+
+		private final long[] starts;
+
+		private final long[] durations;
+
+		/**
+		 * The total number of spans recorded so far.
+		 */
+		private long count;
+
+		private Recorder(String threadName, int capacity) {
+			this.threadName = threadName;
+			this.sites = new Object[capacity];
+			this.depths = new int[capacity];
+			this.starts = new long[capacity];
+			this.durations = new long[capacity];
+		}
+
+		/**
+		 * Records the start of a call to the given site.
+		 *
+		 * @param site
+		 *            the method or constructor called (typically the static
+		 *            part of the join point). Can't be null.
+		 */
+		public void enter(Object site) {
+			if (depth == 0) {
+				// A new call tree starts, is it sampled ?
+				sampled = (trees++ % sampleRate) == 0;
+			}
+
+			if (sampled) {
+				if (depth == siteStack.length) {
+					siteStack = Arrays.copyOf(siteStack, 2 * depth);
+					startStack = Arrays.copyOf(startStack, 2 * depth);
+				}
+
+				siteStack[depth] = site;
+				startStack[depth] = System.nanoTime();
+			}
+
+			depth++;
+
+			MDC.put(MDC_KEY, marker(depth));
+		}
+
+		/**
+		 * Records the end of the last call started.
+		 */
+		public void exit() {
+			if (depth == 0) {
+				// Unbalanced call, not supposed to happen
+				return;
+			}
+
+			depth--;
+
+			if (sampled) {
+				final long end = System.nanoTime();
+
+				synchronized (this) {
+					final int index = (int) (count++ % sites.length);
+
+					sites[index] = siteStack[depth];
+					depths[index] = depth;
+					starts[index] = startStack[depth];
+					durations[index] = end - startStack[depth];
+				}
+
+				siteStack[depth] = null;
+			}
+
+			MDC.put(MDC_KEY, marker(depth));
+		}
+
+		/**
+		 * Returns the current call depth.
+		 */
+		public int getDepth() {
+			return depth;
+		}
+
+		/**
+		 * Returns the name of the thread traced.
+		 */
+		public String getThreadName() {
+			return threadName;
+		}
+
+		/**
+		 * Returns the spans recorded (the oldest first). Only the last spans
+		 * are kept when the ring buffer is full.
+		 *
+		 * @return a new list of spans. Never returns null.
+		 */
+		public synchronized List<Span> getSpans() {
+			final int size = (int) Math.min(count, sites.length);
+			final List<Span> spans = new ArrayList<Span>(size);
+
+			for (long i = count - size; i < count; i++) {
+				final int index = (int) (i % sites.length);
+
+				spans.add(new Span(sites[index], depths[index], starts[index], durations[index]));
+			}
+
+			return spans;
+		}
+
+		private synchronized void clear() {
+			Arrays.fill(sites, null);
+
+			count = 0;
+			trees = 0;
+		}
+	}
+
+	private Tracer() {
+	}
+
+	private static String marker(int depth) {
+		if (depth < MARKERS.length) {
+			return MARKERS[depth];
+		}
+
+		final StringBuilder builder = new StringBuilder(depth + 1);
+
+		for (int i = 0; i < depth; i++) {
+			builder.append('-');
+		}
+
+		return builder.append('>').toString();
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enables or disables the tracing. The calls in progress when the tracing
+	 * is enabled aren't traced.
+	 *
+	 * @param enabled
+	 *            whether the calls are to be traced.
+	 */
+	public static void setEnabled(boolean enabled) {
+		Tracer.enabled = enabled;
+	}
+
+	public static int getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * Sets the sampling rate of the call trees: only one call tree out of the
+	 * given number is timed and recorded. The call depth is tracked for all
+	 * of them.
+	 *
+	 * @param sampleRate
+	 *            the sampling rate. Must be positive. 1 means all the call
+	 *            trees are recorded.
+	 */
+	public static void setSampleRate(int sampleRate) {
+		Validate.isTrue(sampleRate > 0, String.format("The given sample rate %d must be positive", sampleRate));
+
+		Tracer.sampleRate = sampleRate;
+	}
+
+	/**
+	 * Sets the number of spans recorded per thread. Only applies to the
+	 * threads not traced yet.
+	 *
+	 * @param capacity
+	 *            a number of spans. Must be positive.
+	 */
+	public static void setCapacity(int capacity) {
+		Validate.isTrue(capacity > 0, String.format("The given capacity %d must be positive", capacity));
+
+		Tracer.capacity = capacity;
+	}
+
+	/**
+	 * Returns the recorder of the current thread.
+	 *
+	 * @return a recorder. Never returns null.
+	 */
+	public static Recorder getRecorder() {
+		return RECORDER.get();
+	}
+
+	/**
+	 * Records the start of a call to the given site on the current thread and
+	 * returns the thread's recorder to record the end of the call.
+	 *
+	 * @param site
+	 *            the method or constructor called. Can't be null.
+	 * @return the recorder of the current thread. Never returns null.
+	 */
+	public static Recorder enter(Object site) {
+		final Recorder recorder = RECORDER.get();
+
+		recorder.enter(site);
+
+		return recorder;
+	}
+
+	/**
+	 * Clears the spans recorded by all the threads and restarts their
+	 * sampling.
+	 */
+	public static void clear() {
+		synchronized (RECORDERS) {
+			for (Recorder recorder : RECORDERS) {
+				recorder.clear();
+			}
+		}
+	}
+
+	/**
+	 * Writes the spans recorded by all the threads to the given writer, each
+	 * span indented by its call depth.
+	 *
+	 * @param writer
+	 *            the writer where to dump the spans. Can't be null.
+	 * @throws IOException
+	 *             if an error occurs while writing.
+	 */
+	public static void dump(Writer writer) throws IOException {
+		Validate.notNull(writer, "The given writer is null");
+
+		final List<Recorder> recorders;
+
+		synchronized (RECORDERS) {
+			recorders = new ArrayList<Recorder>(RECORDERS);
+		}
+
+		final PrintWriter printWriter = new PrintWriter(writer);
+
+		for (Recorder recorder : recorders) {
+			printWriter.println("Thread " + recorder.getThreadName());
+
+			for (Span span : recorder.getSpans()) {
+				printWriter.println(marker(span.getDepth()) + " " + span);
+			}
+		}
+
+		printWriter.flush();
+
+		if (printWriter.checkError()) {
+			throw new IOException("Error while dumping the spans");
+		}
+	}
+}
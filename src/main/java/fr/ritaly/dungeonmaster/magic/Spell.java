@@ -41,7 +41,6 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.commons.lang.Validate;
-import org.apache.commons.lang.math.RandomUtils;
 
 import fr.ritaly.dungeonmaster.Clock;
 import fr.ritaly.dungeonmaster.Skill;
@@ -797,7 +796,7 @@ public class Spell {
 
 			// TODO Refine the following formulas
 			if (difficulty > 0) {
-				return 5 + RandomUtils.nextInt(difficulty);
+				return 5 + Utils.random().nextInt(difficulty);
 			}
 
 			return 5;
@@ -26,15 +26,15 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import fr.ritaly.dungeonmaster.Clock;
-import fr.ritaly.dungeonmaster.ClockListener;
 import fr.ritaly.dungeonmaster.Direction;
 import fr.ritaly.dungeonmaster.Orientation;
+import fr.ritaly.dungeonmaster.PeriodicClockListener;
 import fr.ritaly.dungeonmaster.Position;
-import fr.ritaly.dungeonmaster.Temporizer;
 import fr.ritaly.dungeonmaster.actuator.TriggerAction;
 import fr.ritaly.dungeonmaster.actuator.Triggerable;
 import fr.ritaly.dungeonmaster.ai.Creature;
 import fr.ritaly.dungeonmaster.ai.Creature.Height;
+import fr.ritaly.dungeonmaster.ai.Materiality;
 import fr.ritaly.dungeonmaster.audio.AudioClip;
 import fr.ritaly.dungeonmaster.audio.SoundSystem;
 import fr.ritaly.dungeonmaster.champion.Party;
@@ -43,11 +43,14 @@ import fr.ritaly.dungeonmaster.champion.Party;
 /**
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
  */
-public final class Door extends FloorTile implements ClockListener, Triggerable {
+public final class Door extends FloorTile implements PeriodicClockListener, Triggerable {
 
 	private final Log log = LogFactory.getLog(Door.class);
 
-	private final Temporizer temporizer = new Temporizer("Temporizer.Door", 4);
+	/**
+	 * The number of clock ticks between 2 steps of the door animation.
+	 */
+	private static final int ANIMATION_PERIOD = 4;
 
 	private final Orientation orientation;
 
@@ -172,6 +175,31 @@ public final class Door extends FloorTile implements ClockListener, Triggerable
 			return equals(OPEN) || equals(THREE_FOURTH_OPEN) || equals(BROKEN);
 		}
 
+		/**
+		 * Tells whether the material creatures with the given height can pass
+		 * under the door.
+		 *
+		 * @param height
+		 *            the height of the creatures. Can't be null.
+		 * @return whether the creatures can pass under the door.
+		 */
+		public boolean isTraversable(Height height) {
+			Validate.notNull(height, "The given height is null");
+
+			switch (this) {
+			case OPEN:
+			case BROKEN:
+				return true;
+			case THREE_FOURTH_OPEN:
+				return Height.MEDIUM.equals(height) || Height.SMALL.equals(height);
+			case HALF_OPEN:
+				return Height.SMALL.equals(height);
+
+			default:
+				return false;
+			}
+		}
+
 		private State nextOpeningState() {
 			switch (this) {
 			case OPEN:
@@ -254,6 +282,24 @@ public final class Door extends FloorTile implements ClockListener, Triggerable
 		this.state = state;
 	}
 
+	private void setState(State state) {
+		final State previous = this.state;
+
+		this.state = state;
+
+		boolean changed = (previous.isTraversableByProjectile() != state.isTraversableByProjectile());
+
+		for (Height height : Height.values()) {
+			changed |= (previous.isTraversable(height) != state.isTraversable(height));
+		}
+
+		if (changed) {
+			// The door now lets through (or stops) the party, the projectiles
+			// or some creatures
+			fireTraversabilityChanged();
+		}
+	}
+
 	public Orientation getOrientation() {
 		return orientation;
 	}
@@ -302,7 +348,7 @@ public final class Door extends FloorTile implements ClockListener, Triggerable
 				SoundSystem.getInstance().play(getPosition(),
 						AudioClip.DOOR_BROKEN);
 
-				state = State.BROKEN;
+				setState(State.BROKEN);
 
 				if (log.isDebugEnabled()) {
 					log.debug("Door successfully broken");
@@ -355,146 +401,149 @@ public final class Door extends FloorTile implements ClockListener, Triggerable
 		}
 	}
 
+	@Override
+	public int getPeriod() {
+		return ANIMATION_PERIOD;
+	}
+
 	@Override
 	public boolean clockTicked() {
-		if (temporizer.trigger()) {
-			if (State.BROKEN.equals(state)) {
-				return false;
-			}
-			if (Motion.IDLE.equals(motion)) {
-				return false;
+		if (State.BROKEN.equals(state)) {
+			return false;
+		}
+		if (Motion.IDLE.equals(motion)) {
+			return false;
+		}
+		if (Motion.OPENING.equals(motion)) {
+			// Transition d'�tat
+			final State oldState = state;
+
+			setState(state.next(motion));
+
+			if (log.isDebugEnabled()) {
+				log.debug("Door.State: " + oldState + " -> " + state);
 			}
-			if (Motion.OPENING.equals(motion)) {
-				// Transition d'�tat
-				final State oldState = state;
 
-				state = state.next(motion);
+			final boolean open = State.OPEN.equals(state);
 
+			if (open) {
 				if (log.isDebugEnabled()) {
-					log.debug("Door.State: " + oldState + " -> " + state);
+					log.debug("Door is open");
 				}
 
-				final boolean open = State.OPEN.equals(state);
+				motion = Motion.IDLE;
+			}
 
-				if (open) {
-					if (log.isDebugEnabled()) {
-						log.debug("Door is open");
-					}
+			return !open;
+		}
+		if (Motion.CLOSING.equals(motion)) {
+			// Transition d'�tat
+			final State oldState = state;
 
-					motion = Motion.IDLE;
-				}
+			setState(state.next(motion));
 
-				return !open;
+			if (log.isDebugEnabled()) {
+				log.debug("Door.State: " + oldState + " -> " + state);
 			}
-			if (Motion.CLOSING.equals(motion)) {
-				// Transition d'�tat
-				final State oldState = state;
 
-				state = state.next(motion);
-
-				if (log.isDebugEnabled()) {
-					log.debug("Door.State: " + oldState + " -> " + state);
+			if (hasParty()) {
+				if (!State.THREE_FOURTH_OPEN.equals(state)) {
+					// On v�rifie que l'�tat de la porte est coh�rent
+					throw new IllegalStateException("Unexpected state <"
+							+ state + ">. Should be "
+							+ State.THREE_FOURTH_OPEN);
 				}
 
-				if (hasParty()) {
-					if (!State.THREE_FOURTH_OPEN.equals(state)) {
-						// On v�rifie que l'�tat de la porte est coh�rent
-						throw new IllegalStateException("Unexpected state <"
-								+ state + ">. Should be "
-								+ State.THREE_FOURTH_OPEN);
-					}
+				// TODO Cogner la t�te des h�ros si pr�sents dessous (+
+				// d�g�ts visibles) + si casque d�g�ts r�duits
 
-					// TODO Cogner la t�te des h�ros si pr�sents dessous (+
-					// d�g�ts visibles) + si casque d�g�ts r�duits
+				SoundSystem.getInstance().play(AudioClip.BONG);
 
-					SoundSystem.getInstance().play(AudioClip.BONG);
-
-					// La porte rebondit
-					motion = Motion.OPENING_AFTER_REBOUND;
-				} else if (hasCreatures()) {
-					// Frapper les monstres. On d�termine la hauteur de la plus
-					// grande des cr�atures
-					final Creature.Height height = getCreatureManager()
-							.getTallestCreatureHeight();
+				// La porte rebondit
+				motion = Motion.OPENING_AFTER_REBOUND;
+			} else if (hasCreatures()) {
+				// Frapper les monstres. On d�termine la hauteur de la plus
+				// grande des cr�atures
+				final Creature.Height height = getCreatureManager()
+						.getTallestCreatureHeight();
 
-					if ((height != null)
-							&& !Creature.Height.UNDEFINED.equals(height)) {
+				if ((height != null)
+						&& !Creature.Height.UNDEFINED.equals(height)) {
 
-						// Hauteur d�finie, la porte rebondit si la hauteur
-						// "matche" avec celle de la cr�ature la plus grande
-						if (State.THREE_FOURTH_OPEN.equals(state)
-								&& Creature.Height.GIANT.equals(height)) {
+					// Hauteur d�finie, la porte rebondit si la hauteur
+					// "matche" avec celle de la cr�ature la plus grande
+					if (State.THREE_FOURTH_OPEN.equals(state)
+							&& Creature.Height.GIANT.equals(height)) {
 
-							// FIXME Blesser les monstres
+						// FIXME Blesser les monstres
 
-							// Jouer le son
-							SoundSystem.getInstance().play(getPartyPosition(),
-									AudioClip.BONG);
+						// Jouer le son
+						SoundSystem.getInstance().play(getPartyPosition(),
+								AudioClip.BONG);
 
-							// La porte rebondit
-							motion = Motion.OPENING_AFTER_REBOUND;
+						// La porte rebondit
+						motion = Motion.OPENING_AFTER_REBOUND;
 
-						} else if (State.HALF_OPEN.equals(state)
-								&& Creature.Height.MEDIUM.equals(height)) {
+					} else if (State.HALF_OPEN.equals(state)
+							&& Creature.Height.MEDIUM.equals(height)) {
 
-							// FIXME Blesser les monstres
+						// FIXME Blesser les monstres
 
-							// Jouer le son
-							SoundSystem.getInstance().play(getPartyPosition(),
-									AudioClip.BONG);
+						// Jouer le son
+						SoundSystem.getInstance().play(getPartyPosition(),
+								AudioClip.BONG);
 
-							// La porte rebondit
-							motion = Motion.OPENING_AFTER_REBOUND;
+						// La porte rebondit
+						motion = Motion.OPENING_AFTER_REBOUND;
 
-						} else if (State.ONE_FOURTH_OPEN.equals(state)
-								&& Creature.Height.SMALL.equals(height)) {
+					} else if (State.ONE_FOURTH_OPEN.equals(state)
+							&& Creature.Height.SMALL.equals(height)) {
 
-							// FIXME Blesser les monstres
+						// FIXME Blesser les monstres
 
-							// Jouer le son
-							SoundSystem.getInstance().play(getPartyPosition(),
-									AudioClip.BONG);
+						// Jouer le son
+						SoundSystem.getInstance().play(getPartyPosition(),
+								AudioClip.BONG);
 
-							// La porte rebondit
-							motion = Motion.OPENING_AFTER_REBOUND;
-						} else {
-							// La porte se ferme simplement et rebondira au tour
-							// d'apr�s
-						}
+						// La porte rebondit
+						motion = Motion.OPENING_AFTER_REBOUND;
 					} else {
-						// Pas de hauteur d�termin�e. Survient pour les
-						// cr�atures immat�rielles
+						// La porte se ferme simplement et rebondira au tour
+						// d'apr�s
 					}
+				} else {
+					// Pas de hauteur d�termin�e. Survient pour les
+					// cr�atures immat�rielles
 				}
+			}
 
-				final boolean closed = State.CLOSED.equals(state);
+			final boolean closed = State.CLOSED.equals(state);
 
-				if (closed) {
-					if (log.isDebugEnabled()) {
-						log.debug("Door is closed");
-					}
-
-					motion = Motion.IDLE;
+			if (closed) {
+				if (log.isDebugEnabled()) {
+					log.debug("Door is closed");
 				}
 
-				return !closed;
+				motion = Motion.IDLE;
 			}
-			if (Motion.OPENING_AFTER_REBOUND.equals(motion)) {
-				// Transition d'�tat
-				final State oldState = state;
 
-				// La porte rebondit
-				state = state.next(motion);
-
-				if (log.isDebugEnabled()) {
-					log.debug("Door.State: " + oldState + " -> " + state);
-				}
+			return !closed;
+		}
+		if (Motion.OPENING_AFTER_REBOUND.equals(motion)) {
+			// Transition d'�tat
+			final State oldState = state;
 
-				// La porte retombe au tour d'apr�s
-				motion = Motion.CLOSING;
+			// La porte rebondit
+			setState(state.next(motion));
 
-				return true;
+			if (log.isDebugEnabled()) {
+				log.debug("Door.State: " + oldState + " -> " + state);
 			}
+
+			// La porte retombe au tour d'apr�s
+			motion = Motion.CLOSING;
+
+			return true;
 		}
 
 		// Animer tant que la porte n'est pas au repos
@@ -553,31 +602,29 @@ public final class Door extends FloorTile implements ClockListener, Triggerable
 	public boolean isTraversable(Creature creature) {
 		Validate.notNull(creature, "The given creature is null");
 
-		final State state = getState();
-
-		if (state.equals(State.OPEN)) {
+		if (getState().isTraversable(creature.getHeight())) {
 			return true;
 		}
-		if (state.equals(State.BROKEN)) {
+
+		if (creature.isImmaterial() && !Style.RA.equals(getStyle())) {
+			// Les cr�ature immat�rielles ne peuvent passer les portes RA !!!
 			return true;
 		}
 
-		final boolean medium = Height.MEDIUM.equals(creature.getHeight());
-		final boolean small = Height.SMALL.equals(creature.getHeight());
+		return false;
+	}
 
-		if (state.equals(State.THREE_FOURTH_OPEN) && (medium || small)) {
-			return true;
-		}
-		if (state.equals(State.HALF_OPEN) && small) {
-			return true;
-		}
+	@Override
+	public boolean isTraversable(Materiality materiality) {
+		Validate.notNull(materiality, "The given materiality is null");
 
-		if (creature.isImmaterial() && !Style.RA.equals(getStyle())) {
-			// Les cr�ature immat�rielles ne peuvent passer les portes RA !!!
+		if (state.isTraversableByProjectile()) {
+			// Open enough for the party
 			return true;
 		}
 
-		return false;
+		// The immaterial creatures can't pass through the RA doors
+		return Materiality.IMMATERIAL.equals(materiality) && !Style.RA.equals(getStyle());
 	}
 
 	public boolean isBreakable() {
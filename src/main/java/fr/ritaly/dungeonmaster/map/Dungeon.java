@@ -32,16 +32,17 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import fr.ritaly.dungeonmaster.Clock;
-import fr.ritaly.dungeonmaster.ClockListener;
 import fr.ritaly.dungeonmaster.DeferredCommand;
 import fr.ritaly.dungeonmaster.Direction;
 import fr.ritaly.dungeonmaster.Move;
+import fr.ritaly.dungeonmaster.PhasedClockListener;
 import fr.ritaly.dungeonmaster.Position;
 import fr.ritaly.dungeonmaster.Side;
+import fr.ritaly.dungeonmaster.SimulationContext;
 import fr.ritaly.dungeonmaster.Teleport;
 import fr.ritaly.dungeonmaster.Utils;
+import fr.ritaly.dungeonmaster.ai.astar.DungeonRouter;
 import fr.ritaly.dungeonmaster.audio.AudioClip;
-import fr.ritaly.dungeonmaster.audio.SoundSystem;
 import fr.ritaly.dungeonmaster.champion.Champion;
 import fr.ritaly.dungeonmaster.champion.Party;
 
@@ -50,15 +51,46 @@ import fr.ritaly.dungeonmaster.champion.Party;
  *
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
  */
-public class Dungeon implements ClockListener {
+public class Dungeon implements PhasedClockListener {
 
 	/**
-	 * Creates a new empty dungeon.
+	 * The default distance to the party (in cells) beyond which the creatures
+	 * become dormant. Greater than the distance at which a creature can see or
+	 * hear the party so that the creatures wake up before detecting it.
+	 */
+	public static final int DEFAULT_ACTIVITY_RADIUS = 12;
+
+	/**
+	 * Creates a new empty dungeon within the current context.
+	 *
+	 * @see SimulationContext#getCurrent()
 	 */
 	public Dungeon() {
-		Clock.getInstance().register(this);
+		this(SimulationContext.getCurrent());
+	}
+
+	/**
+	 * Creates a new empty dungeon within the given context. The objects the
+	 * dungeon is populated with must be created within the same context (see
+	 * {@link SimulationContext#run(Runnable)}).
+	 *
+	 * @param context
+	 *            the context of the game session. Can't be null.
+	 */
+	public Dungeon(SimulationContext context) {
+		Validate.notNull(context, "The given context is null");
+
+		this.context = context;
+
+		context.getClock().register(this);
+		context.getClock().register(router);
 	}
 
+	/**
+	 * The context of the game session this dungeon belongs to.
+	 */
+	private final SimulationContext context;
+
 	private final Log log = LogFactory.getLog(Dungeon.class);
 
 	/**
@@ -73,6 +105,57 @@ public class Dungeon implements ClockListener {
 
 	private final LinkedList<DeferredCommand> partyMoves = new LinkedList<DeferredCommand>();
 
+	/**
+	 * The router used for finding routes spanning several levels.
+	 */
+	private final DungeonRouter router = new DungeonRouter(this);
+
+	/**
+	 * The distance to the party (in cells) beyond which the creatures become
+	 * dormant.
+	 */
+	private int activityRadius = DEFAULT_ACTIVITY_RADIUS;
+
+	public SimulationContext getContext() {
+		return context;
+	}
+
+	/**
+	 * Returns the distance to the party (in cells) beyond which the creatures
+	 * become dormant. The creatures on the other levels are always dormant
+	 * (unless tracking the party).
+	 *
+	 * @return a positive integer.
+	 * @see fr.ritaly.dungeonmaster.ai.Creature#isDormant()
+	 */
+	public int getActivityRadius() {
+		return activityRadius;
+	}
+
+	/**
+	 * Sets the distance to the party (in cells) beyond which the creatures
+	 * become dormant. Pass {@link Integer#MAX_VALUE} to keep the creatures of
+	 * the party's level active.
+	 *
+	 * @param radius
+	 *            a positive integer.
+	 */
+	public void setActivityRadius(int radius) {
+		Validate.isTrue(radius > 0, String.format("The given radius %d must be positive", radius));
+
+		this.activityRadius = radius;
+	}
+
+	/**
+	 * Returns the router used for finding routes spanning several levels of
+	 * this dungeon.
+	 *
+	 * @return a {@link DungeonRouter}. Never returns null.
+	 */
+	public DungeonRouter getRouter() {
+		return router;
+	}
+
 	/**
 	 * Returns the number of levels composing this dungeon.
 	 *
@@ -166,7 +249,7 @@ public class Dungeon implements ClockListener {
 		}
 		Validate.notNull(party, "The given party is null");
 
-		final Position position = new Position(x, y, z);
+		final Position position = Position.valueOf(x, y, z);
 
 		if (log.isDebugEnabled()) {
 			log.debug("Installing party at " + position + " ...");
@@ -187,7 +270,7 @@ public class Dungeon implements ClockListener {
 		this.party.setDungeon(this);
 
 		// Initialiser le listener audio
-		SoundSystem.getInstance().setListener(party);
+		context.getSoundSystem().setListener(party);
 
 		// "Placer" le groupe sur l'endroit cible (le faire marcher dessus)
 		element.setParty(party);
@@ -269,6 +352,11 @@ public class Dungeon implements ClockListener {
 		levels.put(number, level);
 	}
 
+	@Override
+	public Clock.Phase getPhase() {
+		return Clock.Phase.INPUT;
+	}
+
 	@Override
 	public boolean clockTicked() {
 		if (!partyMoves.isEmpty()) {
@@ -402,7 +490,7 @@ public class Dungeon implements ClockListener {
 		if (!destinationElement.isTraversable(party)) {
 			// Le groupe se cogne dans le mur
 
-			SoundSystem.getInstance().play(AudioClip.BONG);
+			context.getSoundSystem().play(AudioClip.BONG);
 
 			// Appliquer des d�g�ts aux champions. Champions concern�s ?
 			final Set<Champion> champions;
@@ -460,7 +548,7 @@ public class Dungeon implements ClockListener {
 		party.setPosition(teleport.getPosition());
 
 		// Jouer le son demand�
-		SoundSystem.getInstance().play(clip);
+		context.getSoundSystem().play(clip);
 
 		// Occuper la position cible
 		destinationElement.setParty(party);
@@ -538,7 +626,7 @@ public class Dungeon implements ClockListener {
 
 		if (!silent) {
 			// Jouer le son demand�
-			SoundSystem.getInstance().play(AudioClip.TELEPORT);
+			context.getSoundSystem().play(AudioClip.TELEPORT);
 		}
 
 		// Occuper la position cible
@@ -32,6 +32,7 @@ import org.apache.commons.logging.LogFactory;
 
 import fr.ritaly.dungeonmaster.Clock;
 import fr.ritaly.dungeonmaster.Direction;
+import fr.ritaly.dungeonmaster.HasLevel;
 import fr.ritaly.dungeonmaster.HasPosition;
 import fr.ritaly.dungeonmaster.Place;
 import fr.ritaly.dungeonmaster.Position;
@@ -39,6 +40,7 @@ import fr.ritaly.dungeonmaster.Sector;
 import fr.ritaly.dungeonmaster.Teleport;
 import fr.ritaly.dungeonmaster.ai.Creature;
 import fr.ritaly.dungeonmaster.ai.CreatureManager;
+import fr.ritaly.dungeonmaster.ai.Materiality;
 import fr.ritaly.dungeonmaster.champion.HasParty;
 import fr.ritaly.dungeonmaster.champion.Party;
 import fr.ritaly.dungeonmaster.event.ChangeEvent;
@@ -56,7 +58,7 @@ import fr.ritaly.dungeonmaster.projectile.Projectile;
  *
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
  */
-public abstract class Element implements ChangeEventSource, HasPosition, HasParty, HasItems<Sector> {
+public abstract class Element implements ChangeEventSource, HasPosition, HasLevel, HasParty, HasItems<Sector> {
 
 	protected final Log log = LogFactory.getLog(this.getClass());
 
@@ -311,11 +313,11 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 	 */
 	private Party party;
 
-	// FIXME Only instantiate a creature manager if the element can be occupied by creatures
 	/**
-	 * The object responsible for managing the presence of creatures on this element.
+	 * The object responsible for managing the presence of creatures on this
+	 * element. Lazily created when the first creature steps on the element.
 	 */
-	private final CreatureManager creatureManager = new CreatureManager(this);
+	private CreatureManager creatureManager;
 
 	/**
 	 * The possible projectiles currently on this element. Can be null.
@@ -334,14 +336,16 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 	private FluxCage fluxCage;
 
 	/**
-	 * Stores the items for this element.
+	 * Stores the items for this element. Lazily created when the first item
+	 * is dropped on the element.
 	 */
-	private final ItemManager itemManager = new ItemManager();
+	private ItemManager itemManager;
 
 	/**
-	 * Support class used for firing change events.
+	 * Support class used for firing change events. Lazily created when the
+	 * first listener registers.
 	 */
-	private final ChangeEventSupport eventSupport = new ChangeEventSupport();
+	private ChangeEventSupport eventSupport;
 
 	protected Element(Type type) {
 		Validate.notNull(type, "The given type is null");
@@ -349,9 +353,17 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 		this.type = type;
 	}
 
+	private ItemManager getItemManager() {
+		if (itemManager == null) {
+			itemManager = new ItemManager();
+		}
+
+		return itemManager;
+	}
+
 	@Override
 	public void addItem(Item item, Sector sector) {
-		itemManager.addItem(item, sector);
+		getItemManager().addItem(item, sector);
 
 		if (log.isDebugEnabled()) {
 			log.debug(String.format("%s dropped on %s at %s", item, getId(), sector));
@@ -367,14 +379,14 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 		final Sector sector = getPlace(item);
 
 		if (sector != null) {
-			return itemManager.removeItem(item);
+			return getItemManager().removeItem(item);
 		}
 
 		return false;
 	}
 
 	public Item removeItem(Sector sector) {
-		final Item item = itemManager.removeItem(sector);
+		final Item item = getItemManager().removeItem(sector);
 
 		if (log.isDebugEnabled()) {
 			log.debug(String.format("%s picked from %s at %s", item, getId(), sector));
@@ -395,6 +407,27 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 		return level;
 	}
 
+	/**
+	 * Notifies the parent level (if any) that the traversability of this
+	 * element changed so that the paths computed for this level are
+	 * invalidated.
+	 */
+	protected final void fireTraversabilityChanged() {
+		if ((level != null) && (position != null)) {
+			level.traversabilityChanged(position.x, position.y);
+		}
+	}
+
+	/**
+	 * Notifies the parent level (if any) that a creature or the party stepped
+	 * on or off this element.
+	 */
+	private void fireOccupancyChanged() {
+		if ((level != null) && (position != null)) {
+			level.occupancyChanged(position.x, position.y);
+		}
+	}
+
 	// FIXME Protect the call of this method with an aspect
 	// This method should only be called from the Level class. However we can't
 	// declare it package protected because we need to call it from the A*
@@ -410,6 +443,11 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 		return position;
 	}
 
+	@Override
+	public int getLevelNumber() {
+		return (position != null) ? position.z : NO_LEVEL;
+	}
+
 	// FIXME Protect the call of this method with an aspect
 	// This method should only be called from the Level class. However we can't
 	// declare it package protected because we need to call it from the A*
@@ -448,6 +486,33 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 	 */
 	public abstract boolean isTraversable(Creature creature);
 
+	/**
+	 * Tells whether this element can be traversed in its current state by the
+	 * entities with the given materiality: the party and the material
+	 * creatures for {@link Materiality#MATERIAL}, the immaterial creatures for
+	 * {@link Materiality#IMMATERIAL}. Unlike {@link #isTraversable(Creature)},
+	 * the height and the skills of the creatures aren't taken into account.
+	 * This is the traversability stored by the level's bitboards (see
+	 * {@link TraversabilityMap}) hence the elements whose result changes with
+	 * their state must call {@link #fireTraversabilityChanged()}. By default,
+	 * only the elements which aren't concrete can be traversed by the
+	 * material entities and all the elements can be traversed by the
+	 * immaterial ones.
+	 *
+	 * @param materiality
+	 *            the materiality of the entities. Can't be null.
+	 * @return whether this element can be traversed.
+	 */
+	public boolean isTraversable(Materiality materiality) {
+		Validate.notNull(materiality, "The given materiality is null");
+
+		if (Materiality.IMMATERIAL.equals(materiality)) {
+			return true;
+		}
+
+		return !isConcrete();
+	}
+
 	/**
 	 * Tells whether this element can be traversed projectiles.
 	 *
@@ -559,11 +624,23 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 	}
 
 	public final Sector getSector(Creature creature) {
+		if (creatureManager == null) {
+			Validate.notNull(creature, "The given creature is null");
+
+			return null;
+		}
+
 		return creatureManager.getSector(creature);
 	}
 
 	@Override
 	public final Sector getPlace(Item item) {
+		if (itemManager == null) {
+			Validate.notNull(item, "The given item is null");
+
+			return null;
+		}
+
 		return itemManager.getPlace(item);
 	}
 
@@ -584,6 +661,8 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 		// M�moriser la r�f�rence
 		this.party = party;
 
+		fireOccupancyChanged();
+
 		afterPartySteppedOn();
 	}
 
@@ -624,6 +703,8 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 		final Party backup = this.party;
 		this.party = null;
 
+		fireOccupancyChanged();
+
 		if (log.isDebugEnabled()) {
 			log.debug("Party stepped off " + getId());
 		}
@@ -642,7 +723,7 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 	 * @return si l'�l�ment est occup� par au moins une cr�ature.
 	 */
 	public boolean hasCreatures() {
-		return creatureManager.hasCreatures();
+		return (creatureManager != null) && creatureManager.hasCreatures();
 	}
 
 	/**
@@ -688,6 +769,10 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 	public final Map<Sector, Creature> getCreatureMap() {
 		// Ne pas utiliser en dehors des tests unitaires (acc�s trop bas niveau)
 		// Utiliser getCreatures() � la place
+		if (creatureManager == null) {
+			return Collections.emptyMap();
+		}
+
 		return creatureManager.getCreatureMap();
 	}
 
@@ -697,6 +782,10 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 	 * @return une Set&lt;Creature&gt. Cette m�thode ne retourne jamais null.
 	 */
 	public final Set<Creature> getCreatures() {
+		if (creatureManager == null) {
+			return Collections.emptySet();
+		}
+
 		return creatureManager.getCreatures();
 	}
 
@@ -718,21 +807,38 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 	 *         cet emplacement.
 	 */
 	public final Creature getCreature(Sector sector) {
+		if (creatureManager == null) {
+			Validate.notNull(sector, "The given sector is null");
+
+			return null;
+		}
+
 		return creatureManager.getCreature(sector);
 	}
 
 	@Override
 	public final void addChangeListener(ChangeListener listener) {
+		if (eventSupport == null) {
+			eventSupport = new ChangeEventSupport();
+		}
+
 		eventSupport.addChangeListener(listener);
 	}
 
 	@Override
 	public final void removeChangeListener(ChangeListener listener) {
-		eventSupport.addChangeListener(listener);
+		if (eventSupport != null) {
+			eventSupport.removeChangeListener(listener);
+		}
 	}
 
 	protected final void fireChangeEvent() {
-		eventSupport.fireChangeEvent(new ChangeEvent(this));
+		if (eventSupport == null) {
+			// No listener to notify
+			return;
+		}
+
+		eventSupport.fireChangeEvent(this);
 	}
 
 	/**
@@ -764,31 +870,47 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 
 	@Override
 	public final List<Item> getItems() {
+		if (itemManager == null) {
+			return Collections.emptyList();
+		}
+
 		return itemManager.getItems();
 	}
 
 	@Override
 	public final int getItemCount() {
-		return itemManager.getItemCount();
+		return (itemManager != null) ? itemManager.getItemCount() : 0;
 	}
 
 	public final int getCreatureCount() {
-		return creatureManager.getCreatureCount();
+		return (creatureManager != null) ? creatureManager.getCreatureCount() : 0;
 	}
 
 	@Override
 	public final int getItemCount(Sector sector) {
+		if (itemManager == null) {
+			Validate.notNull(sector, "The given sector is null");
+
+			return 0;
+		}
+
 		return itemManager.getItemCount(sector);
 	}
 
 	@Override
 	public List<Item> getItems(Sector sector) {
+		if (itemManager == null) {
+			Validate.notNull(sector, "The given sector is null");
+
+			return Collections.emptyList();
+		}
+
 		return itemManager.getItems(sector);
 	}
 
 	@Override
 	public boolean hasItems() {
-		return itemManager.hasItems();
+		return (itemManager != null) && itemManager.hasItems();
 	}
 
 	/**
@@ -855,7 +977,7 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 	 *         {@link Sector}s libres.
 	 */
 	public int getFreeRoom() {
-		return creatureManager.getFreeSectors().size();
+		return getFreeSectors().size();
 	}
 
 	/**
@@ -865,6 +987,10 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 	 * @return un EnumSet&lt;Sector&gt;. Ne retourne jamais null.
 	 */
 	public EnumSet<Sector> getOccupiedSectors() {
+		if (creatureManager == null) {
+			return EnumSet.noneOf(Sector.class);
+		}
+
 		return creatureManager.getOccupiedSectors();
 	}
 
@@ -874,6 +1000,10 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 	 * @return un EnumSet&lt;Sector&gt;. Ne retourne jamais null.
 	 */
 	public Set<Sector> getFreeSectors() {
+		if (creatureManager == null) {
+			return EnumSet.allOf(Sector.class);
+		}
+
 		return creatureManager.getFreeSectors();
 	}
 
@@ -887,7 +1017,7 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 	 *         compte tenu de sa taille et de la place restante.
 	 */
 	public boolean canHost(Creature creature) {
-		return creatureManager.canHost(creature);
+		return getCreatureManager().canHost(creature);
 	}
 
 	public abstract void validate() throws ValidationException;
@@ -913,44 +1043,62 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 	}
 
 	public boolean hasCreature(Creature creature) {
+		if (creatureManager == null) {
+			Validate.notNull(creature, "The given creature is null");
+
+			return false;
+		}
+
 		return creatureManager.hasCreature(creature);
 	}
 
 	protected final CreatureManager getCreatureManager() {
+		if (creatureManager == null) {
+			creatureManager = new CreatureManager(this);
+		}
+
 		return creatureManager;
 	}
 
 	public Place removeCreature(Creature creature) {
-		final Place place = creatureManager.removeCreature(creature);
+		final Place place = getCreatureManager().removeCreature(creature);
 
 		creature.setElement(null);
 
+		fireOccupancyChanged();
+
 		afterCreatureSteppedOff(creature);
 
 		return place;
 	}
 
 	public void removeCreature(Creature creature, Place place) {
-		creatureManager.removeCreature(creature, place);
+		getCreatureManager().removeCreature(creature, place);
 
 		creature.setElement(null);
 
+		fireOccupancyChanged();
+
 		afterCreatureSteppedOff(creature);
 	}
 
 	public void addCreature(Creature creature, Place place) {
-		creatureManager.addCreature(creature, place);
+		getCreatureManager().addCreature(creature, place);
 
 		creature.setElement(this);
 
+		fireOccupancyChanged();
+
 		afterCreatureSteppedOn(creature);
 	}
 
 	public void addCreature(Creature creature) {
-		creatureManager.addCreature(creature);
+		getCreatureManager().addCreature(creature);
 
 		creature.setElement(this);
 
+		fireOccupancyChanged();
+
 		afterCreatureSteppedOn(creature);
 	}
 
@@ -1083,7 +1231,7 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 
 	@Override
 	public Sector addItem(Item item) {
-		final Sector sector = itemManager.addItem(item);
+		final Sector sector = getItemManager().addItem(item);
 
 		if (log.isDebugEnabled()) {
 			log.debug(String.format("%s dropped on %s at %s", item, getId(), sector));
@@ -1110,7 +1258,7 @@ public abstract class Element implements ChangeEventSource, HasPosition, HasPart
 
 	@Override
 	public Sector getRandomPlace() {
-		return itemManager.getRandomPlace();
+		return (itemManager != null) ? itemManager.getRandomPlace() : null;
 	}
 
 	/**
@@ -23,9 +23,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import fr.ritaly.dungeonmaster.Clock;
-import fr.ritaly.dungeonmaster.ClockListener;
-import fr.ritaly.dungeonmaster.Temporizer;
-import fr.ritaly.dungeonmaster.event.ChangeEvent;
+import fr.ritaly.dungeonmaster.PeriodicClockListener;
 import fr.ritaly.dungeonmaster.event.ChangeEventSource;
 import fr.ritaly.dungeonmaster.event.ChangeEventSupport;
 import fr.ritaly.dungeonmaster.event.ChangeListener;
@@ -33,7 +31,7 @@ import fr.ritaly.dungeonmaster.event.ChangeListener;
 /**
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
  */
-public class FluxCage implements ClockListener, ChangeEventSource {
+public class FluxCage implements PeriodicClockListener, ChangeEventSource {
 
 	private final Log log = LogFactory.getLog(FluxCage.class);
 
@@ -42,8 +40,6 @@ public class FluxCage implements ClockListener, ChangeEventSource {
 	 */
 	private final Element element;
 
-	private final Temporizer temporizer;
-
 	private final ChangeEventSupport eventSupport = new ChangeEventSupport();
 
 	/**
@@ -55,7 +51,6 @@ public class FluxCage implements ClockListener, ChangeEventSource {
 		Validate.notNull(element, "The given element is null");
 
 		this.element = element;
-		this.temporizer = new Temporizer("FluxCage" + element.getPosition(), Clock.ONE_SECOND);
 	}
 
 	@Override
@@ -69,25 +64,28 @@ public class FluxCage implements ClockListener, ChangeEventSource {
 	}
 
 	private void fireChangeEvent() {
-		eventSupport.fireChangeEvent(new ChangeEvent(this));
+		eventSupport.fireChangeEvent(this);
+	}
+
+	@Override
+	public int getPeriod() {
+		return Clock.ONE_SECOND;
 	}
 
 	@Override
 	public boolean clockTicked() {
-		if (temporizer.trigger()) {
-			// The life time diminishes
-			final int backup = lifeTime;
+		// The life time diminishes
+		final int backup = lifeTime;
 
-			final boolean again = --lifeTime > 0;
+		final boolean again = --lifeTime > 0;
 
-			if (log.isDebugEnabled()) {
-				log.debug(this + ".LifeTime: " + backup + " -> " + lifeTime + " [-1]");
-			}
+		if (log.isDebugEnabled()) {
+			log.debug(this + ".LifeTime: " + backup + " -> " + lifeTime + " [-1]");
+		}
 
-			if (!again) {
-				// Notify the end of the flux cage
-				fireChangeEvent();
-			}
+		if (!again) {
+			// Notify the end of the flux cage
+			fireChangeEvent();
 		}
 
 		return (lifeTime > 0);
@@ -23,8 +23,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import fr.ritaly.dungeonmaster.Clock;
-import fr.ritaly.dungeonmaster.ClockListener;
-import fr.ritaly.dungeonmaster.Temporizer;
+import fr.ritaly.dungeonmaster.PeriodicClockListener;
 import fr.ritaly.dungeonmaster.Utils;
 import fr.ritaly.dungeonmaster.ai.Creature;
 import fr.ritaly.dungeonmaster.champion.Party;
@@ -35,16 +34,13 @@ import fr.ritaly.dungeonmaster.champion.Party;
  *
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
  */
-public final class Generator extends FloorTile implements ClockListener {
+public final class Generator extends FloorTile implements
+		PeriodicClockListener {
 
 	public static final int PERIOD = Clock.ONE_MINUTE;
 
 	private final Log log = LogFactory.getLog(this.getClass());
 
-	// D�clenchement toutes les minutes (60 secondes)
-	private final Temporizer temporizer = new Temporizer(
-			"Generator.Temporizer", PERIOD);
-
 	// FIXME Garder une r�f�rence sur les cr�atures cr��es pour les reg�n�rer
 	// quand elles se font tuer
 
@@ -55,8 +51,7 @@ public final class Generator extends FloorTile implements ClockListener {
 	 * g�n�ration des cr�atures n'a pu avoir lieu. Quand cette propri�t� vaut
 	 * true, la g�n�ration est retard�e tant que les conditions ne sont pas
 	 * favorables et a lieu d�s qu'elles le deviennent. De plus, le
-	 * {@link Temporizer} associ� au {@link Generator} ne voit plus le temps
-	 * passer.
+	 * {@link Generator} est alors sollicit� � chaque tic d'horloge.
 	 */
 	private boolean delayed;
 
@@ -98,67 +93,71 @@ public final class Generator extends FloorTile implements ClockListener {
 	}
 
 	@Override
-	public boolean clockTicked() {
-		// Attention � l'ordre d'�valuation ici ! delayed est prioritaire !
-		if (delayed || temporizer.trigger()) {
-			if (!hasParty() && !hasCreatures()) {
-				// L'emplacement est libre (pas de champion ou de monstre)
-
-				// Combien doit-on g�n�rer de monstres ? Cela d�pend de la
-				// taille de la cr�ature � g�n�rer !!
-				final int count;
-
-				switch (creatureType.getSize()) {
-				case ONE:
-					count = Utils.random(2, 4);
-					break;
-				case TWO:
-					count = Utils.random(1, 2);
-					break;
-				case FOUR:
-					count = 1;
-					break;
-				default:
-					throw new RuntimeException("Unexpected creature size "
-							+ creatureType.getSize());
-				}
-
-				if (log.isDebugEnabled()) {
-					log.debug(this + " is generating " + count + " "
-							+ creatureType + " creatures ...");
-				}
+	public int getPeriod() {
+		// Triggered every minute (60 seconds) unless the generation has been
+		// delayed
+		return delayed ? 1 : PERIOD;
+	}
 
-				for (int i = 0; i < count; i++) {
-					final int multiplier;
+	@Override
+	public boolean clockTicked() {
+		if (!hasParty() && !hasCreatures()) {
+			// L'emplacement est libre (pas de champion ou de monstre)
+
+			// Combien doit-on g�n�rer de monstres ? Cela d�pend de la
+			// taille de la cr�ature � g�n�rer !!
+			final int count;
+
+			switch (creatureType.getSize()) {
+			case ONE:
+				count = Utils.random(2, 4);
+				break;
+			case TWO:
+				count = Utils.random(1, 2);
+				break;
+			case FOUR:
+				count = 1;
+				break;
+			default:
+				throw new RuntimeException("Unexpected creature size "
+						+ creatureType.getSize());
+			}
 
-					// cf Technical Documentation - Dungeon Master and Chaos
-					// Strikes Back Creature Generators
-					if (healthMultiplier == 0) {
-						// Prendre le multiplicateur d'exp�rience du niveau !
-						multiplier = getLevel().getExperienceMultiplier();
-					} else {
-						multiplier = healthMultiplier;
-					}
+			if (log.isDebugEnabled()) {
+				log.debug(this + " is generating " + count + " "
+						+ creatureType + " creatures ...");
+			}
 
-					// Cr�er la cr�ature
-					final Creature creature = new Creature(creatureType,
-							multiplier);
+			for (int i = 0; i < count; i++) {
+				final int multiplier;
 
-					// Ajouter la cr�ature � un emplacement tir� au hasard
-					addCreature(creature);
+				// cf Technical Documentation - Dungeon Master and Chaos
+				// Strikes Back Creature Generators
+				if (healthMultiplier == 0) {
+					// Prendre le multiplicateur d'exp�rience du niveau !
+					multiplier = getLevel().getExperienceMultiplier();
+				} else {
+					multiplier = healthMultiplier;
 				}
 
-				delayed = false;
-			} else {
-				// On m�morise qu'on n'a pas pu g�n�rer les monstres, cela aura
-				// lieu au "tour" d'apr�s
-				if (log.isDebugEnabled()) {
-					log.debug("Delaying creature generation for " + this
-							+ " is occupied ...");
-				}
+				// Cr�er la cr�ature
+				final Creature creature = new Creature(creatureType,
+						multiplier);
 
-				delayed = true;
+				// Ajouter la cr�ature � un emplacement tir� au hasard
+				addCreature(creature);
 			}
+
+			delayed = false;
+		} else {
+			// On m�morise qu'on n'a pas pu g�n�rer les monstres, cela aura
+			// lieu au "tour" d'apr�s
+			if (log.isDebugEnabled()) {
+				log.debug("Delaying creature generation for " + this
+						+ " is occupied ...");
+			}
+
+			delayed = true;
 		}
 
 		// Un g�n�rateur est toujours actif !
@@ -21,6 +21,7 @@ package fr.ritaly.dungeonmaster.map;
 import org.apache.commons.lang.Validate;
 
 import fr.ritaly.dungeonmaster.ai.Creature;
+import fr.ritaly.dungeonmaster.ai.Materiality;
 import fr.ritaly.dungeonmaster.champion.Party;
 
 /**
@@ -44,6 +45,13 @@ public final class InvisibleWall extends FloorTile {
 		return creature.isImmaterial();
 	}
 
+	@Override
+	public boolean isTraversable(Materiality materiality) {
+		Validate.notNull(materiality, "The given materiality is null");
+
+		return Materiality.IMMATERIAL.equals(materiality);
+	}
+
 	@Override
 	public boolean isTraversableByProjectile() {
 		return false;
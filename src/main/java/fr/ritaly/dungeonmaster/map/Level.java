@@ -19,7 +19,10 @@
 package fr.ritaly.dungeonmaster.map;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang.Validate;
 import org.apache.commons.logging.Log;
@@ -29,7 +32,12 @@ import fr.ritaly.dungeonmaster.Clock;
 import fr.ritaly.dungeonmaster.ClockListener;
 import fr.ritaly.dungeonmaster.Constants;
 import fr.ritaly.dungeonmaster.Position;
+import fr.ritaly.dungeonmaster.PositionTable;
 import fr.ritaly.dungeonmaster.ai.Creature;
+import fr.ritaly.dungeonmaster.ai.Materiality;
+import fr.ritaly.dungeonmaster.ai.NoiseField;
+import fr.ritaly.dungeonmaster.ai.astar.FlowField;
+import fr.ritaly.dungeonmaster.ai.astar.PathFinder;
 import fr.ritaly.dungeonmaster.map.Element.Type;
 import fr.ritaly.dungeonmaster.projectile.Projectile;
 
@@ -56,9 +64,40 @@ public class Level {
 	private final int height;
 
 	/**
-	 * The elements inside this level.
+	 * The elements inside this level indexed by x + y * width.
 	 */
-	private final Element[][] elements;
+	private final Element[] elements;
+
+	/**
+	 * The ordinal of the type of each element indexed by x + y * width (or
+	 * {@link #NO_TYPE} if the element isn't set). Allows scanning the layout
+	 * of the level without dereferencing the elements.
+	 */
+	private final byte[] types;
+
+	/**
+	 * The interned positions of this level. Backs
+	 * {@link Position#valueOf(int, int, int)} for the level's number.
+	 */
+	private final PositionTable positions;
+
+	/**
+	 * The value stored in {@link #types} for the elements not set.
+	 */
+	private static final byte NO_TYPE = -1;
+
+	private static final Type[] TYPES = Type.values();
+
+	/**
+	 * Whether each element type is concrete indexed by ordinal.
+	 */
+	private static final boolean[] CONCRETE = new boolean[TYPES.length];
+
+	static {
+		for (Type type : TYPES) {
+			CONCRETE[type.ordinal()] = type.isConcrete();
+		}
+	}
 
 	/**
 	 * The dungeon this level is bound to.
@@ -77,6 +116,34 @@ public class Level {
 	 */
 	private int ambientLight;
 
+	/**
+	 * The path finders bound to this level (one per materiality). Lazily
+	 * created and reused to avoid reallocating their buffers.
+	 */
+	private final Map<Materiality, PathFinder> pathFinders = new EnumMap<Materiality, PathFinder>(Materiality.class);
+
+	/**
+	 * The flow fields bound to this level (one per materiality). Lazily
+	 * created and shared by the creatures of this level.
+	 */
+	private final Map<Materiality, FlowField> flowFields = new EnumMap<Materiality, FlowField>(Materiality.class);
+
+	/**
+	 * The propagation of the noises emitted on this level.
+	 */
+	private final NoiseField noiseField;
+
+	/**
+	 * The traversability of the cells of this level as bitboards.
+	 */
+	private final TraversabilityMap traversabilityMap;
+
+	/**
+	 * The number of times the layout of this level was modified. Used for
+	 * invalidating the data computed from the level's layout.
+	 */
+	private volatile int modificationCount;
+
 	public Level(Dungeon dungeon, int number, int height, int width) {
 		Validate.notNull(dungeon, "The given dungeon is null");
 		Validate.isTrue(number > 0, String.format("The given level number %d must be positive", number));
@@ -87,7 +154,16 @@ public class Level {
 		this.number = number;
 		this.height = height;
 		this.width = width;
-		this.elements = new Element[width][height];
+		this.elements = new Element[width * height];
+		this.types = new byte[width * height];
+		this.positions = new PositionTable(number, width, height);
+
+		// The positions of the level are interned by the level's table
+		Position.register(positions);
+
+		Arrays.fill(types, NO_TYPE);
+		this.noiseField = new NoiseField(this);
+		this.traversabilityMap = new TraversabilityMap(this);
 
 		init();
 	}
@@ -112,17 +188,22 @@ public class Level {
 	public void clear() {
 		for (int x = 0; x < width; x++) {
 			for (int y = 0; y < height; y++) {
-				final Element removed = elements[x][y];
+				final Element removed = elements[x + y * width];
 
 				if (removed != null) {
 					// Detach the element from its parent level
 					removed.setLevel(null);
 					removed.setPosition(null);
 
-					elements[x][y] = null;
+					elements[x + y * width] = null;
+					types[x + y * width] = NO_TYPE;
+
+					traversabilityMap.update(x, y);
 				}
 			}
 		}
+
+		layoutChanged();
 	}
 
 	/**
@@ -205,21 +286,76 @@ public class Level {
 		return getElement(x, y, true);
 	}
 
+	/**
+	 * Returns the interned position with coordinates (x,y) on this level.
+	 *
+	 * @param x
+	 *            the x coordinate.
+	 * @param y
+	 *            the y coordinate.
+	 * @return a position. Never returns null.
+	 */
+	public Position getPosition(int x, int y) {
+		checkX(x);
+		checkY(y);
+
+		return positions.get(x, y);
+	}
+
 	private Element getElement(int x, int y, boolean fail) {
 		if (fail) {
 			checkX(x);
 			checkY(y);
 
-			return elements[x][y];
+			return elements[x + y * width];
 		} else {
 			if ((x >= 0) && (x <= width - 1) && (y >= 0) && (y <= height - 1)) {
-				return elements[x][y];
+				return elements[x + y * width];
 			}
 
 			return null;
 		}
 	}
 
+	/**
+	 * Returns the type of the element at the given position without
+	 * dereferencing the element.
+	 *
+	 * @param x
+	 *            the x coordinate of the element.
+	 * @param y
+	 *            the y coordinate of the element.
+	 * @return the type of the element or null if the element isn't set.
+	 */
+	public Type getType(int x, int y) {
+		checkX(x);
+		checkY(y);
+
+		final byte type = types[x + y * width];
+
+		return (type != NO_TYPE) ? TYPES[type] : null;
+	}
+
+	/**
+	 * Tells whether the element at the given position is concrete (see
+	 * {@link Element#isConcrete()}) without dereferencing the element.
+	 *
+	 * @param x
+	 *            the x coordinate of the element.
+	 * @param y
+	 *            the y coordinate of the element.
+	 * @return whether the element is concrete. Returns false if the element
+	 *         isn't set.
+	 */
+	public boolean isConcrete(int x, int y) {
+		checkX(x);
+		checkY(y);
+
+		final byte type = types[x + y * width];
+
+		return (type != NO_TYPE) && CONCRETE[type];
+	}
+
 	public int getNumber() {
 		return number;
 	}
@@ -237,14 +373,14 @@ public class Level {
 		checkY(y);
 		Validate.notNull(element, "The given element is null");
 
-		final Element removed = elements[x][y];
+		final Element removed = elements[x + y * width];
 
 		if (removed != null) {
 			// Detach the element from its parent level
 			removed.setLevel(null);
 			removed.setPosition(null);
 
-			elements[x][y] = null;
+			elements[x + y * width] = null;
 
 			if (removed instanceof ClockListener) {
 				Clock.getInstance().unregister((ClockListener) element);
@@ -253,10 +389,15 @@ public class Level {
 
 		// Attach the new element to this level
 		element.setLevel(this);
-		element.setPosition(new Position(x, y, number));
+		element.setPosition(positions.get(x, y));
 
 		// Swap the elements
-		elements[x][y] = element;
+		elements[x + y * width] = element;
+		types[x + y * width] = (byte) element.getType().ordinal();
+
+		traversabilityMap.update(x, y);
+
+		layoutChanged();
 
 		if (element instanceof ClockListener) {
 			Clock.getInstance().register((ClockListener) element);
@@ -290,6 +431,105 @@ public class Level {
 		this.experienceMultiplier = experienceMultiplier;
 	}
 
+	/**
+	 * Returns the path finder to use for finding paths on this level for the
+	 * given materiality.
+	 *
+	 * @param materiality
+	 *            the materiality of the entity moving. Can't be null.
+	 * @return a {@link PathFinder}. Never returns null.
+	 */
+	public PathFinder getPathFinder(Materiality materiality) {
+		Validate.notNull(materiality, "The given materiality is null");
+
+		synchronized (pathFinders) {
+			PathFinder pathFinder = pathFinders.get(materiality);
+
+			if (pathFinder == null) {
+				pathFinders.put(materiality, pathFinder = new PathFinder(this, materiality));
+			}
+
+			return pathFinder;
+		}
+	}
+
+	/**
+	 * Returns the flow field to use for tracking a target on this level for
+	 * the given materiality.
+	 *
+	 * @param materiality
+	 *            the materiality of the entities tracking the target. Can't be
+	 *            null.
+	 * @return a {@link FlowField}. Never returns null.
+	 */
+	public FlowField getFlowField(Materiality materiality) {
+		Validate.notNull(materiality, "The given materiality is null");
+
+		synchronized (flowFields) {
+			FlowField flowField = flowFields.get(materiality);
+
+			if (flowField == null) {
+				flowFields.put(materiality, flowField = new FlowField(this, materiality));
+			}
+
+			return flowField;
+		}
+	}
+
+	/**
+	 * Returns the propagation of the noises emitted on this level.
+	 *
+	 * @return a {@link NoiseField}. Never returns null.
+	 */
+	public NoiseField getNoiseField() {
+		return noiseField;
+	}
+
+	/**
+	 * Returns the number of times the layout of this level was modified. This
+	 * number changes every time an element is set, the level is cleared or the
+	 * traversability of an element changes (door, pit, etc).
+	 *
+	 * @return an integer.
+	 */
+	public int getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Returns the traversability of the cells of this level as bitboards.
+	 *
+	 * @return a {@link TraversabilityMap}. Never returns null.
+	 */
+	public TraversabilityMap getTraversabilityMap() {
+		return traversabilityMap;
+	}
+
+	/**
+	 * Notifies this level that its layout changed.
+	 */
+	void layoutChanged() {
+		modificationCount++;
+	}
+
+	/**
+	 * Notifies this level that the traversability of the element at the given
+	 * position changed.
+	 */
+	void traversabilityChanged(int x, int y) {
+		traversabilityMap.update(x, y);
+
+		layoutChanged();
+	}
+
+	/**
+	 * Notifies this level that a creature or the party stepped on or off the
+	 * element at the given position. Doesn't change the layout.
+	 */
+	void occupancyChanged(int x, int y) {
+		traversabilityMap.updateOccupancy(x, y);
+	}
+
 	/**
 	 * Tells whether this level contains the given position.
 	 *
@@ -328,7 +568,7 @@ public class Level {
 			for (int y = 0; y < height; y++) {
 				final boolean borderY = (y == 0) || (y == height - 1);
 
-				final Element element = elements[x][y];
+				final Element element = elements[x + y * width];
 
 				if (element == null) {
 					// All elements should be set
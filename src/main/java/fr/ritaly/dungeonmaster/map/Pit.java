@@ -20,6 +20,7 @@ package fr.ritaly.dungeonmaster.map;
 
 import org.apache.commons.lang.Validate;
 
+import fr.ritaly.dungeonmaster.Clock;
 import fr.ritaly.dungeonmaster.Direction;
 import fr.ritaly.dungeonmaster.Move;
 import fr.ritaly.dungeonmaster.Place;
@@ -220,6 +221,8 @@ public class Pit extends FloorTile implements Triggerable {
 
 			this.open = true;
 
+			fireTraversabilityChanged();
+
 			if (log.isDebugEnabled()) {
 				log.debug(this + " is open");
 			}
@@ -257,6 +260,8 @@ public class Pit extends FloorTile implements Triggerable {
 
 			this.open = false;
 
+			fireTraversabilityChanged();
+
 			if (log.isDebugEnabled()) {
 				log.debug(this + " is closed");
 			}
@@ -302,7 +307,7 @@ public class Pit extends FloorTile implements Triggerable {
 			// Corresponding element ?
 			final Element targetElement = getLevel().getDungeon().getElement(targetPosition);
 
-			for (Creature creature : getCreatures()) {
+			for (final Creature creature : getCreatures()) {
 				if (creature.getType().levitates()) {
 					// The creature levitates and therefore can't fall
 					continue;
@@ -315,8 +320,14 @@ public class Pit extends FloorTile implements Triggerable {
 				// The creature leaves the start position
 				final Place place = removeCreature(creature);
 
-				// The creature arrives on the end position
-				targetElement.addCreature(creature, place);
+				// The creature arrives on the end position. The lower level may
+				// be ticking concurrently
+				Clock.getInstance().defer(new Runnable() {
+					@Override
+					public void run() {
+						targetElement.addCreature(creature, place);
+					}
+				});
 			}
 		}
 	}
@@ -324,7 +335,7 @@ public class Pit extends FloorTile implements Triggerable {
 	private void dropItems() {
 		if (isReal()) {
 			// Let the items fall onto the lower level
-			for (Item item : getItems()) {
+			for (final Item item : getItems()) {
 				if (log.isDebugEnabled()) {
 					log.debug(item + " is falling through " + this);
 				}
@@ -345,8 +356,14 @@ public class Pit extends FloorTile implements Triggerable {
 				// Corresponding element ?
 				final Element targetElement = getLevel().getDungeon().getElement(targetPosition);
 
-				// The item arrives onto the lower level
-				targetElement.addItem(item, sector);
+				// The item arrives onto the lower level. The lower level may be
+				// ticking concurrently
+				Clock.getInstance().defer(new Runnable() {
+					@Override
+					public void run() {
+						targetElement.addItem(item, sector);
+					}
+				});
 			}
 		}
 	}
@@ -26,12 +26,10 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import fr.ritaly.dungeonmaster.Clock;
-import fr.ritaly.dungeonmaster.ClockListener;
-import fr.ritaly.dungeonmaster.Temporizer;
+import fr.ritaly.dungeonmaster.PeriodicClockListener;
 import fr.ritaly.dungeonmaster.Utils;
 import fr.ritaly.dungeonmaster.ai.Creature;
 import fr.ritaly.dungeonmaster.champion.Champion;
-import fr.ritaly.dungeonmaster.event.ChangeEvent;
 import fr.ritaly.dungeonmaster.event.ChangeEventSource;
 import fr.ritaly.dungeonmaster.event.ChangeEventSupport;
 import fr.ritaly.dungeonmaster.event.ChangeListener;
@@ -39,7 +37,7 @@ import fr.ritaly.dungeonmaster.event.ChangeListener;
 /**
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
  */
-public class PoisonCloud implements ClockListener, ChangeEventSource {
+public class PoisonCloud implements PeriodicClockListener, ChangeEventSource {
 
 	private final Log log = LogFactory.getLog(PoisonCloud.class);
 
@@ -48,8 +46,6 @@ public class PoisonCloud implements ClockListener, ChangeEventSource {
 	 */
 	private final Element element;
 
-	private final Temporizer temporizer;
-
 	private final ChangeEventSupport eventSupport = new ChangeEventSupport();
 
 	// TODO Handle the strengthening of a poison cloud
@@ -65,7 +61,6 @@ public class PoisonCloud implements ClockListener, ChangeEventSource {
 		Validate.notNull(element, "The given element is null");
 
 		this.element = element;
-		this.temporizer = new Temporizer("PoisonCloud" + element.getPosition(), Clock.ONE_SECOND);
 	}
 
 	@Override
@@ -79,44 +74,47 @@ public class PoisonCloud implements ClockListener, ChangeEventSource {
 	}
 
 	private void fireChangeEvent() {
-		eventSupport.fireChangeEvent(new ChangeEvent(this));
+		eventSupport.fireChangeEvent(this);
+	}
+
+	@Override
+	public int getPeriod() {
+		return Clock.ONE_SECOND;
 	}
 
 	@Override
 	public boolean clockTicked() {
-		if (temporizer.trigger()) {
-			// The poison cloud attacks the champions and creatures inside
-			if (element.hasParty()) {
-				// Get all living champions
-				final List<Champion> champions = element.getParty().getChampions(false);
-
-				for (Champion champion : champions) {
-					// TODO Pass as a parameter the damage type
-					// TODO Take into account the strength of the poison
-					champion.hit(Utils.random(5, 20));
-				}
-			} else if (element.hasCreatures()) {
-				final Set<Creature> creatures = element.getCreatures();
-
-				for (Creature creature : creatures) {
-					// TODO Attack the creature
-					// TODO Pass as a parameter the damage type
-					// TODO Take into account the strength of the poison
-				}
+		// The poison cloud attacks the champions and creatures inside
+		if (element.hasParty()) {
+			// Get all living champions
+			final List<Champion> champions = element.getParty().getChampions(false);
+
+			for (Champion champion : champions) {
+				// TODO Pass as a parameter the damage type
+				// TODO Take into account the strength of the poison
+				champion.hit(Utils.random(5, 20));
+			}
+		} else if (element.hasCreatures()) {
+			final Set<Creature> creatures = element.getCreatures();
+
+			for (Creature creature : creatures) {
+				// TODO Attack the creature
+				// TODO Pass as a parameter the damage type
+				// TODO Take into account the strength of the poison
 			}
+		}
 
-			final int backup = lifeTime;
+		final int backup = lifeTime;
 
-			final boolean again = --lifeTime > 0;
+		final boolean again = --lifeTime > 0;
 
-			if (log.isDebugEnabled()) {
-				log.debug(this + ".LifeTime: " + backup + " -> " + lifeTime + " [-1]");
-			}
+		if (log.isDebugEnabled()) {
+			log.debug(this + ".LifeTime: " + backup + " -> " + lifeTime + " [-1]");
+		}
 
-			if (!again) {
-				// Notify the end of the poison cloud
-				fireChangeEvent();
-			}
+		if (!again) {
+			// Notify the end of the poison cloud
+			fireChangeEvent();
 		}
 
 		return (lifeTime > 0);
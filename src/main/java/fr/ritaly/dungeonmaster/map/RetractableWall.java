@@ -25,6 +25,7 @@ import org.apache.commons.logging.LogFactory;
 import fr.ritaly.dungeonmaster.actuator.TriggerAction;
 import fr.ritaly.dungeonmaster.actuator.Triggerable;
 import fr.ritaly.dungeonmaster.ai.Creature;
+import fr.ritaly.dungeonmaster.ai.Materiality;
 import fr.ritaly.dungeonmaster.champion.Party;
 
 /**
@@ -58,6 +59,8 @@ public class RetractableWall extends FloorTile implements Triggerable {
 
 			this.open = true;
 
+			fireTraversabilityChanged();
+
 			if (log.isDebugEnabled()) {
 				log.debug(this + " open");
 			}
@@ -76,6 +79,8 @@ public class RetractableWall extends FloorTile implements Triggerable {
 
 			this.open = false;
 
+			fireTraversabilityChanged();
+
 			if (log.isDebugEnabled()) {
 				log.debug(this + " closed");
 			}
@@ -132,6 +137,13 @@ public class RetractableWall extends FloorTile implements Triggerable {
 		return isOpen() || creature.isImmaterial();
 	}
 
+	@Override
+	public boolean isTraversable(Materiality materiality) {
+		Validate.notNull(materiality, "The given materiality is null");
+
+		return isOpen() || Materiality.IMMATERIAL.equals(materiality);
+	}
+
 	@Override
 	public boolean isTraversableByProjectile() {
 		return isOpen();
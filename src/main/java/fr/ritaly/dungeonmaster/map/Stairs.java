@@ -26,6 +26,7 @@ import fr.ritaly.dungeonmaster.Direction;
 import fr.ritaly.dungeonmaster.Position;
 import fr.ritaly.dungeonmaster.Teleport;
 import fr.ritaly.dungeonmaster.ai.Creature;
+import fr.ritaly.dungeonmaster.ai.Materiality;
 import fr.ritaly.dungeonmaster.champion.Party;
 
 /**
@@ -71,6 +72,14 @@ public final class Stairs extends DirectedElement {
 		return creature.canTakeStairs();
 	}
 
+	@Override
+	public boolean isTraversable(Materiality materiality) {
+		Validate.notNull(materiality, "The given materiality is null");
+
+		// The stairs are taken (see DungeonRouter), not traversed
+		return false;
+	}
+
 	@Override
 	protected final void afterPartySteppedOn() {
 		super.afterPartySteppedOn();
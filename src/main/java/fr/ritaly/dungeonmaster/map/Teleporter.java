@@ -21,10 +21,9 @@ package fr.ritaly.dungeonmaster.map;
 import org.apache.commons.lang.Validate;
 
 import fr.ritaly.dungeonmaster.Clock;
-import fr.ritaly.dungeonmaster.ClockListener;
 import fr.ritaly.dungeonmaster.DirectionTransform;
+import fr.ritaly.dungeonmaster.PeriodicClockListener;
 import fr.ritaly.dungeonmaster.Position;
-import fr.ritaly.dungeonmaster.Temporizer;
 import fr.ritaly.dungeonmaster.actuator.TriggerAction;
 import fr.ritaly.dungeonmaster.actuator.Triggerable;
 import fr.ritaly.dungeonmaster.ai.Creature;
@@ -34,7 +33,7 @@ import fr.ritaly.dungeonmaster.projectile.Projectile;
 /**
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
  */
-public final class Teleporter extends FloorTile implements ClockListener,
+public final class Teleporter extends FloorTile implements PeriodicClockListener,
 		Triggerable {
 
 	public static enum State {
@@ -53,8 +52,7 @@ public final class Teleporter extends FloorTile implements ClockListener,
 	private boolean mirrored;
 
 	// Animation toutes les secondes
-	private final Temporizer temporizer = new Temporizer("Teleporter.Animator",
-			Clock.ONE_SECOND);
+	private static final int ANIMATION_PERIOD = Clock.ONE_SECOND;
 
 	/**
 	 * Indique si le t�l�porteur est silencieux. Permet de t�l�porter un groupe
@@ -253,6 +251,11 @@ public final class Teleporter extends FloorTile implements ClockListener,
 		return silent;
 	}
 
+	@Override
+	public int getPeriod() {
+		return ANIMATION_PERIOD;
+	}
+
 	@Override
 	public boolean clockTicked() {
 		if (isSilent()) {
@@ -260,10 +263,8 @@ public final class Teleporter extends FloorTile implements ClockListener,
 			return false;
 		}
 
-		if (temporizer.trigger()) {
-			// On inverse l'image du t�l�porteur
-			mirrored = !mirrored;
-		}
+		// On inverse l'image du t�l�porteur
+		mirrored = !mirrored;
 
 		// Un t�l�porteur visible a tout le temps besoin d'�tre anim�
 		return true;
@@ -0,0 +1,238 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.map;
+
+import java.util.BitSet;
+
+import org.apache.commons.lang.Validate;
+
+import fr.ritaly.dungeonmaster.ai.Materiality;
+
+/**
+ * Bitboards storing the traversability of the cells of a {@link Level}. The
+ * cells are indexed by x + y * width. The bitboards are updated incrementally
+ * by the level when an element is set and by the elements when their state
+ * changes (doors, pits, retractable walls) or when creatures or the party step
+ * on or off them. Queries on a whole level can then be answered with bitwise
+ * operations on the returned {@link BitSet}s. Like {@link Level}, this class
+ * is meant to be modified from the clock's thread only.
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ * @see Level#getTraversabilityMap()
+ */
+public class TraversabilityMap {
+
+	private final Level level;
+
+	private final int width;
+
+	/**
+	 * The cells which can be traversed by material entities (see
+	 * {@link Element#isTraversable(Materiality)}).
+	 */
+	private final BitSet material;
+
+	/**
+	 * The cells which can be traversed by immaterial entities (see
+	 * {@link Element#isTraversable(Materiality)}).
+	 */
+	private final BitSet immaterial;
+
+	/**
+	 * The cells which can be traversed by projectiles.
+	 */
+	private final BitSet projectile;
+
+	/**
+	 * The cells occupied by the party or by creatures.
+	 */
+	private final BitSet occupied;
+
+	TraversabilityMap(Level level) {
+		Validate.notNull(level, "The given level is null");
+
+		this.level = level;
+		this.width = level.getWidth();
+
+		final int size = width * level.getHeight();
+
+		this.material = new BitSet(size);
+		this.immaterial = new BitSet(size);
+		this.projectile = new BitSet(size);
+		this.occupied = new BitSet(size);
+	}
+
+	/**
+	 * Updates the bits of the cell at the given position from the element
+	 * currently there.
+	 */
+	void update(int x, int y) {
+		final Element element = level.getElement(x, y);
+		final int index = x + y * width;
+
+		if (element == null) {
+			material.clear(index);
+			immaterial.clear(index);
+			projectile.clear(index);
+			occupied.clear(index);
+		} else {
+			material.set(index, element.isTraversable(Materiality.MATERIAL));
+			immaterial.set(index, element.isTraversable(Materiality.IMMATERIAL));
+			projectile.set(index, element.isTraversableByProjectile());
+			occupied.set(index, element.hasParty() || element.hasCreatures());
+		}
+	}
+
+	/**
+	 * Updates the occupancy bit of the cell at the given position from the
+	 * element currently there.
+	 */
+	void updateOccupancy(int x, int y) {
+		final Element element = level.getElement(x, y);
+
+		occupied.set(x + y * width, (element != null) && (element.hasParty() || element.hasCreatures()));
+	}
+
+	public Level getLevel() {
+		return level;
+	}
+
+	private BitSet getCells(Materiality materiality) {
+		Validate.notNull(materiality, "The given materiality is null");
+
+		return Materiality.MATERIAL.equals(materiality) ? material : immaterial;
+	}
+
+	/**
+	 * Tells whether the cell with the given index can be traversed by an
+	 * entity with the given materiality.
+	 *
+	 * @param materiality
+	 *            the materiality of the entity. Can't be null.
+	 * @param index
+	 *            the index of the cell (x + y * width).
+	 * @return whether the cell can be traversed.
+	 */
+	public boolean isTraversable(Materiality materiality, int index) {
+		return getCells(materiality).get(index);
+	}
+
+	/**
+	 * Tells whether the cell at the given position can be traversed by an
+	 * entity with the given materiality.
+	 *
+	 * @param materiality
+	 *            the materiality of the entity. Can't be null.
+	 * @param x
+	 *            the x coordinate of the cell.
+	 * @param y
+	 *            the y coordinate of the cell.
+	 * @return whether the cell can be traversed.
+	 */
+	public boolean isTraversable(Materiality materiality, int x, int y) {
+		// Validate the coordinates
+		level.getElement(x, y);
+
+		return isTraversable(materiality, x + y * width);
+	}
+
+	/**
+	 * Tells whether the cell at the given position can be traversed by
+	 * projectiles.
+	 *
+	 * @param x
+	 *            the x coordinate of the cell.
+	 * @param y
+	 *            the y coordinate of the cell.
+	 * @return whether the cell can be traversed by projectiles.
+	 */
+	public boolean isTraversableByProjectile(int x, int y) {
+		// Validate the coordinates
+		level.getElement(x, y);
+
+		return projectile.get(x + y * width);
+	}
+
+	/**
+	 * Tells whether the cell at the given position is occupied by the party or
+	 * by creatures.
+	 *
+	 * @param x
+	 *            the x coordinate of the cell.
+	 * @param y
+	 *            the y coordinate of the cell.
+	 * @return whether the cell is occupied.
+	 */
+	public boolean isOccupied(int x, int y) {
+		// Validate the coordinates
+		level.getElement(x, y);
+
+		return occupied.get(x + y * width);
+	}
+
+	/**
+	 * Returns the cells which can be traversed by an entity with the given
+	 * materiality.
+	 *
+	 * @param materiality
+	 *            the materiality of the entity. Can't be null.
+	 * @return a new {@link BitSet} indexed by x + y * width. Never returns
+	 *         null.
+	 */
+	public BitSet getTraversableCells(Materiality materiality) {
+		return (BitSet) getCells(materiality).clone();
+	}
+
+	/**
+	 * Returns the cells which can be traversed by projectiles.
+	 *
+	 * @return a new {@link BitSet} indexed by x + y * width. Never returns
+	 *         null.
+	 */
+	public BitSet getProjectileTraversableCells() {
+		return (BitSet) projectile.clone();
+	}
+
+	/**
+	 * Returns the cells occupied by the party or by creatures.
+	 *
+	 * @return a new {@link BitSet} indexed by x + y * width. Never returns
+	 *         null.
+	 */
+	public BitSet getOccupiedCells() {
+		return (BitSet) occupied.clone();
+	}
+
+	/**
+	 * Returns the cells which can be traversed by an entity with the given
+	 * materiality and aren't occupied.
+	 *
+	 * @param materiality
+	 *            the materiality of the entity. Can't be null.
+	 * @return a new {@link BitSet} indexed by x + y * width. Never returns
+	 *         null.
+	 */
+	public BitSet getFreeCells(Materiality materiality) {
+		final BitSet cells = (BitSet) getCells(materiality).clone();
+
+		cells.andNot(occupied);
+
+		return cells;
+	}
+}
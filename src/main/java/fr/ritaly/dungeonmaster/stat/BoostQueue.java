@@ -0,0 +1,230 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.stat;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang.Validate;
+
+import fr.ritaly.dungeonmaster.Clock;
+import fr.ritaly.dungeonmaster.PhasedClockListener;
+import fr.ritaly.dungeonmaster.ScheduledTask;
+
+/**
+ * Queue of the timed boosts applied to some {@link Stat}s. The boosts are
+ * stored in a min-heap sorted by expiry tick and a single task is scheduled on
+ * the clock for the earliest expiry. Hence a timed boost costs nothing until
+ * the tick it expires, however many boosts are pending. The stats of a
+ * champion share the same queue (see {@link Stats}).
+ *
+ * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
+ */
+final class BoostQueue implements PhasedClockListener {
+
+	/**
+	 * The name of the queue's owner. Meant for debugging.
+	 */
+	private final String owner;
+
+	/**
+	 * The ids of the ticks when the boosts expire. The boost at index 0
+	 * expires first.
+	 */
+	private int[] expiries = new int[8];
+
+	/**
+	 * The stats boosted.
+	 */
+	private Stat[] stats = new Stat[8];
+
+	/**
+	 * The values to add to the stats' boosts when the boosts expire.
+	 */
+	private int[] deltas = new int[8];
+
+	private int size;
+
+	/**
+	 * The task scheduled for the earliest expiry. Null if no task is
+	 * scheduled.
+	 */
+	private ScheduledTask task;
+
+	BoostQueue(String owner) {
+		this.owner = owner;
+	}
+
+	/**
+	 * Adds a boost which expires after the given duration.
+	 *
+	 * @param stat
+	 *            the stat boosted. Can't be null.
+	 * @param delta
+	 *            the value to add to the stat's boost when the boost expires
+	 *            (that is, the opposite of the boost).
+	 * @param duration
+	 *            the duration of the boost as a number of clock ticks. Must be
+	 *            positive.
+	 */
+	synchronized void add(Stat stat, int delta, int duration) {
+		Validate.notNull(stat, "The given stat is null");
+		Validate.isTrue(duration > 0, String.format("The given duration %d must be positive", duration));
+
+		final Clock clock = Clock.getInstance();
+		final int expiry = clock.getDueTick(duration);
+
+		if (size == expiries.length) {
+			expiries = Arrays.copyOf(expiries, 2 * size);
+			stats = Arrays.copyOf(stats, 2 * size);
+			deltas = Arrays.copyOf(deltas, 2 * size);
+		}
+
+		// Sift the new boost up
+		int index = size++;
+
+		while (index > 0) {
+			final int parent = (index - 1) >>> 1;
+
+			if (expiries[parent] <= expiry) {
+				break;
+			}
+
+			move(parent, index);
+
+			index = parent;
+		}
+
+		expiries[index] = expiry;
+		stats[index] = stat;
+		deltas[index] = delta;
+
+		if ((task == null) || !task.isScheduled() || (expiry < task.getDueTick())) {
+			// The new boost expires first
+			if (task != null) {
+				task.cancel();
+			}
+
+			task = clock.scheduleAt(this, expiry);
+		}
+	}
+
+	/**
+	 * Returns the number of boosts pending.
+	 *
+	 * @return a positive or zero integer.
+	 */
+	synchronized int size() {
+		return size;
+	}
+
+	private void move(int from, int to) {
+		expiries[to] = expiries[from];
+		stats[to] = stats[from];
+		deltas[to] = deltas[from];
+	}
+
+	/**
+	 * Removes the boost expiring first from the heap.
+	 */
+	private void poll() {
+		final int last = --size;
+		final int expiry = expiries[last];
+		final Stat stat = stats[last];
+		final int delta = deltas[last];
+
+		stats[last] = null;
+
+		if (last == 0) {
+			return;
+		}
+
+		// Sift the last boost down from the root
+		int index = 0;
+
+		while (true) {
+			int child = 2 * index + 1;
+
+			if (child >= last) {
+				break;
+			}
+			if ((child + 1 < last) && (expiries[child + 1] < expiries[child])) {
+				child++;
+			}
+			if (expiry <= expiries[child]) {
+				break;
+			}
+
+			move(child, index);
+
+			index = child;
+		}
+
+		expiries[index] = expiry;
+		stats[index] = stat;
+		deltas[index] = delta;
+	}
+
+	@Override
+	public Clock.Phase getPhase() {
+		return Clock.Phase.CHAMPIONS;
+	}
+
+	@Override
+	public boolean clockTicked() {
+		final int now;
+
+		synchronized (this) {
+			now = task.getDueTick();
+			task = null;
+		}
+
+		while (true) {
+			final Stat stat;
+			final int delta;
+
+			synchronized (this) {
+				if ((size == 0) || (expiries[0] > now)) {
+					break;
+				}
+
+				stat = stats[0];
+				delta = deltas[0];
+
+				poll();
+			}
+
+			// Remove the boost outside the lock as the stat fires an event
+			stat.incBoost(delta);
+		}
+
+		synchronized (this) {
+			if ((size > 0) && (task == null)) {
+				task = Clock.getInstance().scheduleAt(this, expiries[0]);
+			}
+		}
+
+		// The value returned is ignored (the listener is scheduled)
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return owner + ".Boosts";
+	}
+}
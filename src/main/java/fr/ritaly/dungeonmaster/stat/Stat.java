@@ -23,9 +23,6 @@ import org.apache.commons.lang.Validate;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import fr.ritaly.dungeonmaster.Clock;
-import fr.ritaly.dungeonmaster.DeferredCommand;
-import fr.ritaly.dungeonmaster.event.ChangeEvent;
 import fr.ritaly.dungeonmaster.event.ChangeEventSource;
 import fr.ritaly.dungeonmaster.event.ChangeEventSupport;
 import fr.ritaly.dungeonmaster.event.ChangeListener;
@@ -91,6 +88,12 @@ public final class Stat implements ChangeEventSource {
 	 */
 	private final String owner;
 
+	/**
+	 * The queue where the timed boosts of this stat expire. Shared by the
+	 * stats of a champion. Created lazily for a standalone stat.
+	 */
+	private BoostQueue boosts;
+
 	public Stat(String owner, String name) {
 		Validate.isTrue(!StringUtils.isBlank(name), String.format("The given name '%s' is blank", name));
 
@@ -153,7 +156,7 @@ public final class Stat implements ChangeEventSource {
 	}
 
 	private void fireChangeEvent() {
-		eventSupport.fireChangeEvent(new ChangeEvent(this));
+		eventSupport.fireChangeEvent(this);
 	}
 
 	/**
@@ -284,20 +287,8 @@ public final class Stat implements ChangeEventSource {
 		log(name + ".Boost", oldValue, newValue, n);
 
 		if (duration > 0) {
-			// Create a DeferredCommand to reset the boost after the given
-			// duration
-			Clock.getInstance().register(new DeferredCommand(name + ".Boost.DeferredCommand", duration) {
-
-				@Override
-				protected void run() {
-					decBoost(n);
-				}
-
-				@Override
-				public String toString() {
-					return name + ".Boost.DeferredCommand";
-				}
-			});
+			// Remove the boost after the given duration
+			getBoostQueue().add(this, -n, duration);
 		}
 
 		fireChangeEvent();
@@ -305,6 +296,20 @@ public final class Stat implements ChangeEventSource {
 		return boostValue();
 	}
 
+	private BoostQueue getBoostQueue() {
+		if (boosts == null) {
+			boosts = new BoostQueue((owner != null) ? owner + "." + name : name);
+		}
+
+		return boosts;
+	}
+
+	void setBoostQueue(BoostQueue boosts) {
+		Validate.notNull(boosts, "The given boost queue is null");
+
+		this.boosts = boosts;
+	}
+
 	/**
 	 * Increments the base value by the given amount and returns the updated
 	 * base value.
@@ -403,19 +408,8 @@ public final class Stat implements ChangeEventSource {
 		log(name + ".Boost", oldValue, newValue, -n);
 
 		if (duration > 0) {
-			// Create a DeferredCommand to reset the boost after the given
-			// duration
-			Clock.getInstance().register(new DeferredCommand(name + ".Boost.DeferredCommand", duration) {
-				@Override
-				protected void run() {
-					incBoost(n);
-				}
-
-				@Override
-				public String toString() {
-					return name + ".Boost.DeferredCommand";
-				}
-			});
+			// Restore the boost after the given duration
+			getBoostQueue().add(this, n, duration);
 		}
 
 		fireChangeEvent();
@@ -555,6 +549,25 @@ public final class Stat implements ChangeEventSource {
 		return getPercent() <= 0.1f;
 	}
 
+	/**
+	 * Tells whether the given base value of a stat is low (see
+	 * {@link #isLow()}).
+	 *
+	 * @param value
+	 *            the stat's base value.
+	 * @param max
+	 *            the stat's base max value.
+	 * @return whether the given value is low.
+	 */
+	public static boolean isLow(int value, int max) {
+		// Only relevant if a max value is defined
+		if (max == Integer.MAX_VALUE) {
+			return false;
+		}
+
+		return ((float) value / max) <= 0.1f;
+	}
+
 	/**
 	 * Tells whether the stat's actual value is boosted (positively or negatively !).
 	 *
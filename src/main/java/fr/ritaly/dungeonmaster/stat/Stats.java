@@ -23,11 +23,7 @@ import java.beans.PropertyChangeSupport;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.Validate;
-import org.apache.commons.lang.math.RandomUtils;
 
-import fr.ritaly.dungeonmaster.Clock;
-import fr.ritaly.dungeonmaster.ClockListener;
-import fr.ritaly.dungeonmaster.Temporizer;
 import fr.ritaly.dungeonmaster.Utils;
 import fr.ritaly.dungeonmaster.champion.Champion;
 import fr.ritaly.dungeonmaster.event.ChangeEvent;
@@ -41,7 +37,7 @@ import fr.ritaly.dungeonmaster.event.ChangeListener;
  *
  * @author <a href="mailto:francois.ritaly@gmail.com">Francois RITALY</a>
  */
-public final class Stats implements ChangeListener, ClockListener {
+public final class Stats implements ChangeListener {
 
 	public static final String PROPERTY_WATER = "Water";
 
@@ -71,6 +67,30 @@ public final class Stats implements ChangeListener, ClockListener {
 
 	public static final String PROPERTY_MAX_LOAD_BOOST = "MaxLoadBoost";
 
+	/**
+	 * The name of the property change event fired once when several vitals
+	 * changed during an update (see {@link #endUpdate(int[], int[])}). The
+	 * old and new values of the event are arrays of {@link #VITAL_COUNT}
+	 * integers indexed by the VITAL_XXX constants. Those arrays are reused by
+	 * the next updates: the listeners must copy them to keep the values.
+	 */
+	public static final String PROPERTY_VITALS = "Vitals";
+
+	public static final int VITAL_FOOD = 0;
+
+	public static final int VITAL_WATER = 1;
+
+	public static final int VITAL_HEALTH = 2;
+
+	public static final int VITAL_STAMINA = 3;
+
+	public static final int VITAL_MANA = 4;
+
+	/**
+	 * The number of vitals (food, water, health, stamina and mana).
+	 */
+	public static final int VITAL_COUNT = 5;
+
 	private final Champion champion;
 
 	/**
@@ -169,7 +189,11 @@ public final class Stats implements ChangeListener, ClockListener {
 
 	private final PropertyChangeSupport changeSupport = new PropertyChangeSupport(this);
 
-	private final Temporizer temporizer;
+	/**
+	 * Whether the vitals are being updated. The changes of the vitals are then
+	 * notified once at the end of the update.
+	 */
+	private boolean updating;
 
 	public Stats(Champion champion) {
 		Validate.notNull(champion, "The given champion is null");
@@ -207,8 +231,14 @@ public final class Stats implements ChangeListener, ClockListener {
 		maxLoadBoost.addChangeListener(this);
 		shield.addChangeListener(this);
 
-		// Stats are updated every 5 seconds
-		temporizer = new Temporizer(champion.getName() + ".Stats", 5 * Clock.ONE_SECOND);
+		// The timed boosts of all the stats expire in the same queue
+		final BoostQueue boosts = new BoostQueue(champion.getName());
+
+		for (Stat stat : new Stat[] { food, water, health, strength, stamina, mana, dexterity, wisdom, vitality,
+				antiFire, antiMagic, luck, maxLoadBoost, shield }) {
+
+			stat.setBoostQueue(boosts);
+		}
 	}
 
 	private void assertInitialized() {
@@ -241,10 +271,124 @@ public final class Stats implements ChangeListener, ClockListener {
 
 	@Override
 	public void onChangeEvent(ChangeEvent event) {
+		if (updating && isVital(event.getSource())) {
+			// The change will be notified at the end of the update
+			return;
+		}
+
 		// Propagate the event as a property change event
 		firePropertyChangeEvent(event.getSource());
 	}
 
+	private boolean isVital(Object stat) {
+		return (stat == food) || (stat == water) || (stat == health) || (stat == stamina) || (stat == mana);
+	}
+
+	/**
+	 * Copies the base values of the vitals into the given array.
+	 *
+	 * @param vitals
+	 *            the array where to copy the values. Can't be null.
+	 * @param offset
+	 *            the index where to copy the first value. The values are
+	 *            copied in the order defined by the VITAL_XXX constants.
+	 */
+	public void copyVitals(int[] vitals, int offset) {
+		Validate.notNull(vitals, "The given array is null");
+
+		vitals[offset + VITAL_FOOD] = food.baseValue();
+		vitals[offset + VITAL_WATER] = water.baseValue();
+		vitals[offset + VITAL_HEALTH] = health.baseValue();
+		vitals[offset + VITAL_STAMINA] = stamina.baseValue();
+		vitals[offset + VITAL_MANA] = mana.baseValue();
+	}
+
+	/**
+	 * Copies the base max values of the vitals into the given array.
+	 *
+	 * @param maxVitals
+	 *            the array where to copy the values. Can't be null.
+	 * @param offset
+	 *            the index where to copy the first value. The values are
+	 *            copied in the order defined by the VITAL_XXX constants.
+	 */
+	public void copyMaxVitals(int[] maxVitals, int offset) {
+		Validate.notNull(maxVitals, "The given array is null");
+
+		maxVitals[offset + VITAL_FOOD] = food.baseMaxValue();
+		maxVitals[offset + VITAL_WATER] = water.baseMaxValue();
+		maxVitals[offset + VITAL_HEALTH] = health.baseMaxValue();
+		maxVitals[offset + VITAL_STAMINA] = stamina.baseMaxValue();
+		maxVitals[offset + VITAL_MANA] = mana.baseMaxValue();
+	}
+
+	/**
+	 * Sets the base values of the vitals from the given array. The values are
+	 * bound to the range of each vital.
+	 *
+	 * @param vitals
+	 *            the array containing the values. Can't be null.
+	 * @param offset
+	 *            the index of the first value. The values are read in the
+	 *            order defined by the VITAL_XXX constants.
+	 */
+	public void storeVitals(int[] vitals, int offset) {
+		Validate.notNull(vitals, "The given array is null");
+
+		food.baseValue(vitals[offset + VITAL_FOOD]);
+		water.baseValue(vitals[offset + VITAL_WATER]);
+		health.baseValue(vitals[offset + VITAL_HEALTH]);
+		stamina.baseValue(vitals[offset + VITAL_STAMINA]);
+		mana.baseValue(vitals[offset + VITAL_MANA]);
+	}
+
+	/**
+	 * Starts an update of the vitals. Until the update ends, the changes of
+	 * the vitals aren't notified.
+	 *
+	 * @see #endUpdate(int[], int[])
+	 */
+	public void beginUpdate() {
+		if (updating) {
+			throw new IllegalStateException("The vitals are already being updated");
+		}
+
+		updating = true;
+	}
+
+	/**
+	 * Ends the update of the vitals and fires a single
+	 * {@link #PROPERTY_VITALS} event if they changed since the update
+	 * started.
+	 *
+	 * @param oldVitals
+	 *            the array where the vitals were copied before the update (see
+	 *            {@link #copyVitals(int[], int)}). Can't be null.
+	 * @param newVitals
+	 *            the array where to copy the current vitals. Can't be null.
+	 *            Both arrays are passed as is to the listeners.
+	 */
+	public void endUpdate(int[] oldVitals, int[] newVitals) {
+		Validate.notNull(oldVitals, "The given array of old vitals is null");
+		Validate.notNull(newVitals, "The given array of new vitals is null");
+
+		if (!updating) {
+			throw new IllegalStateException("The vitals aren't being updated");
+		}
+
+		updating = false;
+
+		copyVitals(newVitals, 0);
+
+		for (int i = 0; i < VITAL_COUNT; i++) {
+			if (newVitals[i] != oldVitals[i]) {
+				changeSupport.firePropertyChange(PROPERTY_VITALS, oldVitals, newVitals);
+
+				return;
+			}
+		}
+	}
+
 	public void addPropertyChangeListener(PropertyChangeListener listener) {
 		changeSupport.addPropertyChangeListener(listener);
 	}
@@ -347,47 +491,6 @@ public final class Stats implements ChangeListener, ClockListener {
 		return vitality;
 	}
 
-	@Override
-	public boolean clockTicked() {
-		assertInitialized();
-
-		if (temporizer.trigger()) {
-			// TODO When the party is sleeping, make time elapse faster (speed factor ?)
-
-			// TODO Update the stats
-			// dexterity.inc(3);
-			// strength.inc(3);
-			// vitality.inc(3);
-			// wisdom.inc(3);
-
-			// TODO Mana regenerates over time
-			mana.inc(3);
-
-			if (stamina.isLow() || food.isLow() || water.isLow()) {
-				// If stamina, food or water is low, the health gets hit
-				health.dec(5);
-			} else {
-				// The health regenerates over time
-				health.inc(3);
-			}
-
-			if (health.value() == 0) {
-				// The champion just died, stop listening to clock ticks
-				return false;
-			}
-
-			// TODO The stamina decreases over time (and the load too)
-			stamina.dec(3);
-
-			// Food and water decrease linearly over time
-			food.dec(5);
-			water.dec(5);
-		}
-
-		// Keep on listening to clock ticks until the champion dies
-		return true;
-	}
-
 	public Stat getAntiMagic() {
 		assertInitialized();
 
@@ -481,7 +584,7 @@ public final class Stats implements ChangeListener, ClockListener {
 	 */
 	public int getQuickness() {
 		// See Character.cpp (TAG016610)
-		float quickness = dexterity.value() + RandomUtils.nextInt(8);
+		float quickness = dexterity.value() + Utils.random().nextInt(8);
 
 		final float d0l = (quickness / 2) * champion.getLoad();
 		final float d1l = champion.getMaxLoad();
@@ -494,8 +597,8 @@ public final class Stats implements ChangeListener, ClockListener {
 
 		quickness /= 2;
 
-		final int min = 1 + RandomUtils.nextInt(8);
-		final int max = 100 - RandomUtils.nextInt(8);
+		final int min = 1 + Utils.random().nextInt(8);
+		final int max = 100 - Utils.random().nextInt(8);
 
 		return Utils.bind((int) quickness, min, max);
 	}
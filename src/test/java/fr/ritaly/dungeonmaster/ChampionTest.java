@@ -18,6 +18,9 @@
  */
 package fr.ritaly.dungeonmaster;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
 import java.util.List;
 
 import junit.framework.TestCase;
@@ -39,6 +42,7 @@ import fr.ritaly.dungeonmaster.magic.SkillTooLowException;
 import fr.ritaly.dungeonmaster.magic.Spell;
 import fr.ritaly.dungeonmaster.map.Dungeon;
 import fr.ritaly.dungeonmaster.map.Element;
+import fr.ritaly.dungeonmaster.stat.Stats;
 
 public class ChampionTest extends TestCase {
 
@@ -270,6 +274,66 @@ public class ChampionTest extends TestCase {
 		assertTrue(tiggy.isPoisoned());
 	}
 
+	public void testVitalsAreNotifiedOncePerUpdate() {
+		final Champion tiggy = ChampionFactory.getFactory().newChampion(Name.TIGGY);
+		final Champion wuuf = ChampionFactory.getFactory().newChampion(Name.WUUF);
+
+		final Party party = new Party();
+		party.addChampion(tiggy);
+		party.addChampion(wuuf);
+
+		final List<PropertyChangeEvent> events = new ArrayList<PropertyChangeEvent>();
+
+		tiggy.getStats().addPropertyChangeListener(new PropertyChangeListener() {
+			@Override
+			public void propertyChange(PropertyChangeEvent event) {
+				events.add(event);
+			}
+		});
+
+		final int food = tiggy.getStats().getFood().baseValue();
+		final int wuufFood = wuuf.getStats().getFood().baseValue();
+
+		// The champions are updated every 5 ticks, their stats every 5 seconds
+		Clock.getInstance().tick(5 * 5 * Clock.ONE_SECOND);
+
+		assertEquals(food - 5, tiggy.getStats().getFood().baseValue());
+		assertEquals(wuufFood - 5, wuuf.getStats().getFood().baseValue());
+
+		// A single event notifies all the vitals changed
+		assertEquals(1, events.size());
+		assertEquals(Stats.PROPERTY_VITALS, events.get(0).getPropertyName());
+		assertEquals(food, ((int[]) events.get(0).getOldValue())[Stats.VITAL_FOOD]);
+		assertEquals(food - 5, ((int[]) events.get(0).getNewValue())[Stats.VITAL_FOOD]);
+
+		// The changes outside an update are notified individually
+		tiggy.getStats().getFood().dec(10);
+
+		assertEquals(2, events.size());
+		assertEquals(Stats.PROPERTY_FOOD, events.get(1).getPropertyName());
+	}
+
+	public void testVitalsAreUpdatedAfterClockReset() {
+		final Champion tiggy = ChampionFactory.getFactory().newChampion(Name.TIGGY);
+		final Champion wuuf = ChampionFactory.getFactory().newChampion(Name.WUUF);
+
+		final Party party = new Party();
+		party.addChampion(tiggy);
+
+		// The party is reused after a reset of the clock
+		Clock.getInstance().reset();
+
+		party.addChampion(wuuf);
+
+		final int food = tiggy.getStats().getFood().baseValue();
+		final int wuufFood = wuuf.getStats().getFood().baseValue();
+
+		Clock.getInstance().tick(5 * 5 * Clock.ONE_SECOND);
+
+		assertEquals(food - 5, tiggy.getStats().getFood().baseValue());
+		assertEquals(wuufFood - 5, wuuf.getStats().getFood().baseValue());
+	}
+
 	@Override
 	protected void setUp() throws Exception {
 		// On nettoie l'horloge entre deux tests
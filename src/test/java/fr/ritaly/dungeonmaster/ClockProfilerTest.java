@@ -0,0 +1,170 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster;
+
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import javax.management.ObjectName;
+
+import junit.framework.TestCase;
+
+public class ClockProfilerTest extends TestCase {
+
+	private static class FastListener implements ClockListener {
+		@Override
+		public boolean clockTicked() {
+			return true;
+		}
+	}
+
+	private static class SlowListener implements ClockListener {
+		@Override
+		public boolean clockTicked() {
+			try {
+				Thread.sleep(2);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+
+			return true;
+		}
+	}
+
+	public ClockProfilerTest() {
+	}
+
+	public ClockProfilerTest(String name) {
+		super(name);
+	}
+
+	public void testDisabledByDefault() {
+		final Clock clock = Clock.getInstance();
+
+		clock.register(new FastListener());
+		clock.tick(5);
+
+		assertFalse(clock.getProfiler().isEnabled());
+		assertEquals(0, clock.getProfiler().getTickCount());
+		assertNull(clock.getProfiler().getProfile(FastListener.class));
+	}
+
+	public void testListenerProfiles() {
+		final Clock clock = Clock.getInstance();
+		final ClockProfiler profiler = clock.getProfiler();
+
+		profiler.setEnabled(true);
+
+		clock.register(new FastListener());
+		clock.register(new FastListener());
+		clock.register(new SlowListener());
+		clock.tick(5);
+
+		assertEquals(5, profiler.getTickCount());
+		assertEquals(10, profiler.getProfile(FastListener.class).getCount());
+		assertEquals(5, profiler.getProfile(SlowListener.class).getCount());
+		assertTrue(profiler.getProfile(SlowListener.class).getMaxNanos() >= 2000000L);
+
+		// The slowest listeners first
+		final List<ClockProfiler.ListenerProfile> slowest = profiler.getSlowestProfiles(1);
+
+		assertEquals(1, slowest.size());
+		assertEquals(SlowListener.class, slowest.get(0).getListenerClass());
+
+		// All the ticks fall into the histogram
+		long count = 0;
+
+		for (long value : profiler.getTickDurationHistogram()) {
+			count += value;
+		}
+
+		assertEquals(5, count);
+		assertTrue(profiler.getPhaseNanos()[Clock.Phase.WORLD.ordinal()] > 0);
+
+		final StringWriter writer = new StringWriter();
+
+		profiler.dump(writer);
+
+		assertTrue(writer.toString().contains(SlowListener.class.getName()));
+
+		profiler.reset();
+
+		assertEquals(0, profiler.getTickCount());
+		assertNull(profiler.getProfile(SlowListener.class));
+	}
+
+	public void testLateAndSkippedTicks() {
+		final Clock clock = Clock.getInstance();
+		final VirtualTimeSource timeSource = new VirtualTimeSource();
+
+		clock.setTimeSource(timeSource);
+		clock.setPeriod(100);
+
+		// The first tick lasts 3.5 periods, the second one 50 periods
+		clock.schedule(new ClockListener() {
+			@Override
+			public boolean clockTicked() {
+				timeSource.advance(350);
+
+				return false;
+			}
+		}, 1);
+		clock.schedule(new ClockListener() {
+			@Override
+			public boolean clockTicked() {
+				timeSource.advance(5000);
+
+				return false;
+			}
+		}, 5);
+
+		clock.run(10);
+
+		assertEquals(3, clock.getProfiler().getLateTickCount());
+		assertEquals(49, clock.getProfiler().getSkippedTickCount());
+	}
+
+	public void testMBean() throws Exception {
+		final ClockProfiler profiler = Clock.getInstance().getProfiler();
+		final ObjectName name = profiler.registerMBean();
+
+		try {
+			assertEquals(Boolean.FALSE, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Enabled"));
+
+			profiler.setEnabled(true);
+
+			assertEquals(Boolean.TRUE, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Enabled"));
+		} finally {
+			profiler.unregisterMBean();
+		}
+
+		assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		Clock.getInstance().reset();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Clock.getInstance().reset();
+	}
+}
@@ -0,0 +1,464 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+
+public class ClockTest extends TestCase {
+
+	/**
+	 * Listener recording the ids of the ticks it was notified at.
+	 */
+	private static class Recorder implements ClockListener {
+
+		final List<Integer> ticks = new ArrayList<Integer>();
+
+		private final boolean again;
+
+		private Recorder(boolean again) {
+			this.again = again;
+		}
+
+		@Override
+		public boolean clockTicked() {
+			ticks.add(Clock.getInstance().getTickId());
+
+			return again;
+		}
+	}
+
+	private static class PeriodicRecorder extends Recorder implements
+			PeriodicClockListener {
+
+		int period;
+
+		private PeriodicRecorder(int period) {
+			super(true);
+
+			this.period = period;
+		}
+
+		@Override
+		public int getPeriod() {
+			return period;
+		}
+	}
+
+	public ClockTest() {
+	}
+
+	public ClockTest(String name) {
+		super(name);
+	}
+
+	public void testScheduleOnce() {
+		final Clock clock = Clock.getInstance();
+		final Recorder recorder = new Recorder(true);
+		final int start = clock.getTickId();
+
+		final ScheduledTask task = clock.schedule(recorder, 3);
+
+		assertTrue(task.isScheduled());
+		assertEquals(1, clock.getScheduledTaskCount());
+
+		clock.tick(2);
+
+		assertTrue(recorder.ticks.isEmpty());
+
+		clock.tick(5);
+
+		// A one-shot task is notified once even if the listener returns true
+		assertEquals(1, recorder.ticks.size());
+		assertEquals(start + 2, recorder.ticks.get(0).intValue());
+		assertFalse(task.isScheduled());
+		assertFalse(task.isCancelled());
+		assertEquals(0, clock.getScheduledTaskCount());
+	}
+
+	public void testScheduleWithInvalidDelay() {
+		try {
+			Clock.getInstance().schedule(new Recorder(false), 0);
+
+			fail("A listener can't be scheduled with a delay of zero");
+		} catch (IllegalArgumentException e) {
+			// OK
+		}
+	}
+
+	public void testScheduleEvery() {
+		final Clock clock = Clock.getInstance();
+		final Recorder recorder = new Recorder(true);
+		final int start = clock.getTickId();
+
+		final ScheduledTask task = clock.scheduleEvery(recorder, 4);
+
+		clock.tick(12);
+
+		assertEquals(3, recorder.ticks.size());
+		assertEquals(start + 3, recorder.ticks.get(0).intValue());
+		assertEquals(start + 7, recorder.ticks.get(1).intValue());
+		assertEquals(start + 11, recorder.ticks.get(2).intValue());
+		assertTrue(task.isScheduled());
+
+		// The task stops as soon as the listener returns false
+		final Recorder once = new Recorder(false);
+
+		clock.scheduleEvery(once, 2);
+		clock.tick(10);
+
+		assertEquals(1, once.ticks.size());
+	}
+
+	public void testCancel() {
+		final Clock clock = Clock.getInstance();
+		final Recorder recorder = new Recorder(true);
+
+		final ScheduledTask task = clock.scheduleEvery(recorder, 2);
+
+		clock.tick(4);
+
+		assertEquals(2, recorder.ticks.size());
+		assertTrue(task.cancel());
+		assertTrue(task.isCancelled());
+		assertFalse(task.isScheduled());
+		assertEquals(0, clock.getScheduledTaskCount());
+
+		// Cancelling twice has no effect
+		assertFalse(task.cancel());
+
+		clock.tick(10);
+
+		assertEquals(2, recorder.ticks.size());
+	}
+
+	public void testLongDelays() {
+		final Clock clock = Clock.getInstance();
+		final int start = clock.getTickId();
+
+		// Those delays require cascading from the upper levels of the wheel
+		final int[] delays = new int[] { 63, 64, 65, 4095, 4096, 5000,
+				300000 };
+		final Recorder[] recorders = new Recorder[delays.length];
+
+		for (int i = 0; i < delays.length; i++) {
+			recorders[i] = new Recorder(false);
+
+			clock.schedule(recorders[i], delays[i]);
+		}
+
+		clock.tick(300000);
+
+		for (int i = 0; i < delays.length; i++) {
+			assertEquals(1, recorders[i].ticks.size());
+			assertEquals(start + delays[i] - 1, recorders[i].ticks.get(0)
+					.intValue());
+		}
+	}
+
+	public void testPeriodicClockListener() {
+		final Clock clock = Clock.getInstance();
+		final PeriodicRecorder recorder = new PeriodicRecorder(3);
+
+		clock.register(recorder);
+		clock.register(recorder);
+
+		// Registering the same listener twice doesn't schedule it twice
+		assertEquals(1, clock.getScheduledTaskCount());
+
+		clock.tick(6);
+
+		assertEquals(2, recorder.ticks.size());
+
+		// The period is read again after each notification: the next one is
+		// still due 3 ticks after the last one and the following ones every
+		// tick
+		recorder.period = 1;
+
+		clock.tick(6);
+
+		assertEquals(6, recorder.ticks.size());
+
+		clock.unregister(recorder);
+		clock.tick(6);
+
+		assertEquals(6, recorder.ticks.size());
+		assertEquals(0, clock.getScheduledTaskCount());
+	}
+
+	public void testScheduleDuringTick() {
+		final Clock clock = Clock.getInstance();
+		final Recorder recorder = new Recorder(false);
+		final int start = clock.getTickId();
+
+		// A task scheduled while the clock ticks is due at the next tick at
+		// the earliest
+		clock.register(new ClockListener() {
+			@Override
+			public boolean clockTicked() {
+				clock.schedule(recorder, 1);
+
+				return false;
+			}
+		});
+
+		clock.tick();
+
+		assertTrue(recorder.ticks.isEmpty());
+
+		clock.tick();
+
+		assertEquals(1, recorder.ticks.size());
+		assertEquals(start + 1, recorder.ticks.get(0).intValue());
+	}
+
+	public void testRunWithVirtualTime() {
+		final Clock clock = Clock.getInstance();
+		final VirtualTimeSource timeSource = new VirtualTimeSource();
+		final Recorder recorder = new Recorder(true);
+		final int start = clock.getTickId();
+
+		clock.setTimeSource(timeSource);
+		clock.register(recorder);
+
+		// One hour of game time
+		final int n = Clock.ONE_MINUTE * 60;
+
+		assertEquals(n, clock.run(n));
+		assertEquals(n, recorder.ticks.size());
+		assertEquals(start + n, clock.getTickId());
+		assertEquals(n * clock.getPeriod(), timeSource.currentTimeMillis());
+	}
+
+	public void testRunCatchesUp() {
+		final Clock clock = Clock.getInstance();
+		final int[] sleeps = new int[1];
+		final VirtualTimeSource timeSource = new VirtualTimeSource() {
+			@Override
+			public void sleep(long duration) throws InterruptedException {
+				sleeps[0]++;
+
+				super.sleep(duration);
+			}
+		};
+
+		clock.setTimeSource(timeSource);
+		clock.setPeriod(100);
+
+		// The first tick lasts 3.5 periods
+		clock.schedule(new ClockListener() {
+			@Override
+			public boolean clockTicked() {
+				timeSource.advance(350);
+
+				return false;
+			}
+		}, 1);
+
+		assertEquals(10, clock.run(10));
+
+		// The 3 late ticks are executed back to back then the clock is on time
+		assertEquals(7, sleeps[0]);
+		assertEquals(1000, timeSource.currentTimeMillis());
+	}
+
+	public void testRunResynchronizes() {
+		final Clock clock = Clock.getInstance();
+		final VirtualTimeSource timeSource = new VirtualTimeSource();
+
+		clock.setTimeSource(timeSource);
+		clock.setPeriod(100);
+
+		// The first tick lasts way too long to catch up
+		clock.schedule(new ClockListener() {
+			@Override
+			public boolean clockTicked() {
+				timeSource.advance(10000);
+
+				return false;
+			}
+		}, 1);
+
+		assertEquals(10, clock.run(10));
+
+		// The late ticks are skipped
+		assertEquals(10900, timeSource.currentTimeMillis());
+	}
+
+	/**
+	 * Listener bound to a level logging its notifications and deferring a
+	 * command logging its name.
+	 */
+	private static class LevelRecorder implements ClockListener, HasLevel {
+
+		private final String name;
+
+		private final int level;
+
+		private final List<String> log;
+
+		private LevelRecorder(String name, int level, List<String> log) {
+			this.name = name;
+			this.level = level;
+			this.log = log;
+		}
+
+		@Override
+		public int getLevelNumber() {
+			return level;
+		}
+
+		@Override
+		public boolean clockTicked() {
+			log.add(name);
+
+			Clock.getInstance().defer(new Runnable() {
+				@Override
+				public void run() {
+					log.add(name + "+");
+				}
+			});
+
+			return true;
+		}
+	}
+
+	private List<String> tickLevels(ExecutorService executor) {
+		final Clock clock = Clock.getInstance();
+		final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+
+		clock.setExecutor(executor);
+		clock.register(new LevelRecorder("a", 1, log));
+		clock.register(new LevelRecorder("g", HasLevel.NO_LEVEL, log));
+		clock.register(new LevelRecorder("b", 0, log));
+		clock.register(new LevelRecorder("c", 1, log));
+		clock.tick();
+
+		return log;
+	}
+
+	public void testLevelPartitions() {
+		// The listeners bound to no level first then level by level. The
+		// deferred commands are run last
+		assertEquals(Arrays.asList("g", "b", "a", "c", "g+", "b+", "a+", "c+"), tickLevels(null));
+	}
+
+	public void testParallelLevelPartitions() {
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+		try {
+			final List<String> log = tickLevels(executor);
+
+			assertEquals(8, log.size());
+			assertEquals("g", log.get(0));
+
+			// The listeners of a level are notified in sequence
+			assertTrue(log.indexOf("a") < log.indexOf("c"));
+
+			// The deferred commands are merged in the same order
+			assertEquals(Arrays.asList("g+", "b+", "a+", "c+"), log.subList(4, 8));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Listener logging its name during the given phase.
+	 */
+	private static class PhaseRecorder implements PhasedClockListener {
+
+		private final String name;
+
+		private final Clock.Phase phase;
+
+		private final List<String> log;
+
+		private PhaseRecorder(String name, Clock.Phase phase, List<String> log) {
+			this.name = name;
+			this.phase = phase;
+			this.log = log;
+		}
+
+		@Override
+		public Clock.Phase getPhase() {
+			return phase;
+		}
+
+		@Override
+		public boolean clockTicked() {
+			log.add(name);
+
+			return true;
+		}
+	}
+
+	public void testPhases() {
+		final Clock clock = Clock.getInstance();
+		final List<String> log = new ArrayList<String>();
+
+		clock.register(new PhaseRecorder("cleanup", Clock.Phase.CLEANUP, log));
+		clock.register(new PhaseRecorder("ai1", Clock.Phase.AI, log));
+		clock.schedule(new PhaseRecorder("input2", Clock.Phase.INPUT, log), 1);
+		clock.register(new PhaseRecorder("input1", Clock.Phase.INPUT, log));
+		clock.register(new PhaseRecorder("ai2", Clock.Phase.AI, log));
+
+		final PhaseRecorder world = new PhaseRecorder("world", Clock.Phase.WORLD, log);
+
+		clock.register(world);
+		clock.tick();
+
+		// Phase by phase, the registered listeners first then the tasks
+		assertEquals(Arrays.asList("input1", "input2", "world", "ai1", "ai2", "cleanup"), log);
+
+		log.clear();
+		clock.unregister(world);
+		clock.tick();
+
+		assertEquals(Arrays.asList("input1", "ai1", "ai2", "cleanup"), log);
+	}
+
+	public void testDeferOutsideTick() {
+		final List<String> log = new ArrayList<String>();
+
+		Clock.getInstance().defer(new Runnable() {
+			@Override
+			public void run() {
+				log.add("run");
+			}
+		});
+
+		assertEquals(Arrays.asList("run"), log);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		Clock.getInstance().reset();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Clock.getInstance().reset();
+	}
+}
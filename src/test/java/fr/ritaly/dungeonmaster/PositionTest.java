@@ -19,6 +19,8 @@
 package fr.ritaly.dungeonmaster;
 
 import junit.framework.TestCase;
+import fr.ritaly.dungeonmaster.map.Dungeon;
+import fr.ritaly.dungeonmaster.map.Level;
 
 public class PositionTest extends TestCase {
 
@@ -196,4 +198,67 @@ public class PositionTest extends TestCase {
 
 		assertEquals(136, new Position(1,1,1).getSurroundingPositions(6).size());
 	}
+
+	public void testValueOfInternsPositions() throws Exception {
+		// The positions are interned by the level they're on
+		final Level level = new Dungeon().createLevel(1, 10, 10);
+
+		final Position position = Position.valueOf(3, 4, 1);
+
+		assertSame(level.getPosition(3, 4), position);
+
+		assertEquals(new Position(3, 4, 1), position);
+		assertSame(position, Position.valueOf(3, 4, 1));
+		assertSame(position, Position.valueOf(3, 5, 1).towards(Direction.NORTH));
+		assertEquals("[1:3,4]", position.toString());
+
+		// The positions outside a level are valid but not interned
+		assertEquals(new Position(-1, 4, 1), Position.valueOf(-1, 4, 1));
+		assertNotSame(Position.valueOf(-1, 4, 1), Position.valueOf(-1, 4, 1));
+		assertNotSame(Position.valueOf(10, 4, 1), Position.valueOf(10, 4, 1));
+	}
+
+	public void testValueOfInternsPositionsOfLargeLevels() throws Exception {
+		final Level level = new Dungeon().createLevel(2, 150, 200);
+
+		assertSame(level.getPosition(199, 149), Position.valueOf(199, 149, 2));
+		assertSame(Position.valueOf(120, 100, 2), Position.valueOf(120, 100, 2));
+		assertSame(Position.valueOf(120, 99, 2), Position.valueOf(120, 100, 2).towards(Direction.NORTH));
+	}
+
+	public void testPack() throws Exception {
+		new Dungeon().createLevel(1, 10, 10);
+
+		final Position position = new Position(3, 4, 1);
+
+		assertSame(Position.valueOf(3, 4, 1), Position.valueOf(position.pack()));
+
+		final int[][] coordinates = { { 0, 0, 0 }, { -1, -2, -3 }, { 2047, -2048, 127 }, { -2048, 2047, -128 } };
+
+		for (int[] xyz : coordinates) {
+			final int packed = PackedPosition.pack(xyz[0], xyz[1], xyz[2]);
+
+			assertEquals(xyz[0], PackedPosition.getX(packed));
+			assertEquals(xyz[1], PackedPosition.getY(packed));
+			assertEquals(xyz[2], PackedPosition.getZ(packed));
+		}
+
+		final int packed = position.pack();
+
+		for (Direction direction : Direction.values()) {
+			assertEquals(position.towards(direction).pack(), PackedPosition.towards(packed, direction));
+		}
+
+		assertTrue(PackedPosition.isAlignedX(packed, PackedPosition.pack(3, 9, 1)));
+		assertFalse(PackedPosition.isAlignedX(packed, PackedPosition.pack(3, 9, 2)));
+		assertTrue(PackedPosition.isAlignedY(packed, PackedPosition.pack(9, 4, 1)));
+		assertEquals(position.toString(), PackedPosition.toString(packed));
+
+		try {
+			PackedPosition.pack(2048, 0, 0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// OK
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class RandomSourceTest extends TestCase {
+
+	public RandomSourceTest() {
+	}
+
+	public RandomSourceTest(String name) {
+		super(name);
+	}
+
+	public void testSameSeedSameSequence() {
+		final RandomSource random1 = new RandomSource(1234);
+		final RandomSource random2 = new RandomSource(1234);
+
+		for (int i = 0; i < 100; i++) {
+			assertEquals(random1.nextLong(), random2.nextLong());
+		}
+
+		assertFalse(new RandomSource(1234).nextLong() == new RandomSource(1235).nextLong());
+	}
+
+	public void testStreams() {
+		assertEquals(RandomSource.stream(1234, 1).nextLong(), RandomSource.stream(1234, 1).nextLong());
+		assertFalse(RandomSource.stream(1234, 1).nextLong() == RandomSource.stream(1234, 2).nextLong());
+	}
+
+	public void testSplit() {
+		final RandomSource random = new RandomSource(1234);
+		final RandomSource split1 = random.split();
+		final RandomSource split2 = random.split();
+
+		assertFalse(split1.nextLong() == split2.nextLong());
+
+		// Splitting is deterministic too
+		final RandomSource other = new RandomSource(1234);
+
+		assertEquals(new RandomSource(1234).split().nextLong(), other.split().nextLong());
+	}
+
+	public void testBounds() {
+		final RandomSource random = new RandomSource(1234);
+		final boolean[] drawn = new boolean[6];
+
+		for (int i = 0; i < 1000; i++) {
+			final int value = random.nextInt(5, 10);
+
+			assertTrue(value >= 5);
+			assertTrue(value <= 10);
+
+			drawn[value - 5] = true;
+
+			final double d = random.nextDouble();
+
+			assertTrue((d >= 0) && (d < 1));
+
+			final float f = random.nextFloat();
+
+			assertTrue((f >= 0) && (f < 1));
+		}
+
+		for (boolean b : drawn) {
+			assertTrue(b);
+		}
+
+		try {
+			random.nextInt(0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+	}
+
+	public void testShuffleIsAPermutation() {
+		final RandomSource random = new RandomSource(1234);
+		final List<Integer> expected = new ArrayList<Integer>();
+
+		for (int i = 0; i < 50; i++) {
+			expected.add(i);
+		}
+
+		final List<Integer> list = new ArrayList<Integer>(expected);
+		final List<Integer> linkedList = new LinkedList<Integer>(expected);
+
+		random.shuffle(list);
+		random.shuffle(linkedList);
+
+		assertFalse(expected.equals(list));
+		assertFalse(expected.equals(linkedList));
+
+		final List<Integer> sorted = new ArrayList<Integer>(linkedList);
+
+		Collections.sort(list);
+		Collections.sort(sorted);
+
+		assertEquals(expected, list);
+		assertEquals(expected, sorted);
+
+		final int[] array = { 1, 2, 3, 4, 5, 6, 7, 8 };
+
+		random.shuffle(array);
+		Arrays.sort(array);
+
+		assertTrue(Arrays.equals(new int[] { 1, 2, 3, 4, 5, 6, 7, 8 }, array));
+	}
+}
@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import fr.ritaly.dungeonmaster.ai.Creature;
+import fr.ritaly.dungeonmaster.audio.SoundSystem;
+import fr.ritaly.dungeonmaster.map.Dungeon;
+
+public class SimulationContextTest extends TestCase {
+
+	public SimulationContextTest() {
+	}
+
+	public SimulationContextTest(String name) {
+		super(name);
+	}
+
+	public void testDefaultContext() {
+		assertSame(SimulationContext.getDefault(), SimulationContext.getCurrent());
+		assertSame(SimulationContext.getDefault().getClock(), Clock.getInstance());
+		assertSame(SimulationContext.getDefault().getSoundSystem(), SoundSystem.getInstance());
+	}
+
+	public void testContextsAreIndependent() {
+		final SimulationContext context1 = new SimulationContext();
+		final SimulationContext context2 = new SimulationContext();
+
+		assertNotSame(context1.getClock(), context2.getClock());
+		assertNotSame(context1.getSoundSystem(), context2.getSoundSystem());
+
+		context1.getClock().tick(5);
+
+		assertEquals(6, context1.getClock().getTickId());
+		assertEquals(1, context2.getClock().getTickId());
+
+		// The ids are assigned per context
+		final List<Creature> creatures = new ArrayList<Creature>();
+
+		final Runnable runnable = new Runnable() {
+			@Override
+			public void run() {
+				creatures.add(new Creature(Creature.Type.MUMMY, 1));
+			}
+		};
+
+		context1.run(runnable);
+		context2.run(runnable);
+
+		assertEquals("MUMMY[1]", creatures.get(0).getId());
+		assertEquals("MUMMY[1]", creatures.get(1).getId());
+	}
+
+	public void testBind() {
+		final SimulationContext context = new SimulationContext();
+
+		context.run(new Runnable() {
+			@Override
+			public void run() {
+				assertSame(context, SimulationContext.getCurrent());
+				assertSame(context.getClock(), Clock.getInstance());
+
+				// Nested contexts are restored
+				final SimulationContext nested = new SimulationContext();
+				final SimulationContext previous = nested.bind();
+
+				assertSame(nested, SimulationContext.getCurrent());
+
+				SimulationContext.restore(previous);
+
+				assertSame(context, SimulationContext.getCurrent());
+			}
+		});
+
+		assertSame(SimulationContext.getDefault(), SimulationContext.getCurrent());
+	}
+
+	public void testClockTicksWithinItsContext() {
+		final SimulationContext context = new SimulationContext();
+		final List<SimulationContext> contexts = new ArrayList<SimulationContext>();
+
+		context.getClock().register(new ClockListener() {
+			@Override
+			public boolean clockTicked() {
+				contexts.add(SimulationContext.getCurrent());
+
+				return false;
+			}
+		});
+
+		// The clock is ticked from the default context
+		context.getClock().tick();
+
+		assertEquals(1, contexts.size());
+		assertSame(context, contexts.get(0));
+		assertSame(SimulationContext.getDefault(), SimulationContext.getCurrent());
+	}
+
+	public void testDungeonRegistersOnItsContextClock() {
+		final SimulationContext context = new SimulationContext();
+		final Dungeon dungeon = new Dungeon(context);
+
+		assertSame(context, dungeon.getContext());
+		assertSame(SimulationContext.getDefault(), new Dungeon().getContext());
+	}
+
+	private static class Roller implements ClockListener, HasLevel {
+
+		private final int level;
+
+		private final List<Integer> rolls = new ArrayList<Integer>();
+
+		private Roller(int level) {
+			this.level = level;
+		}
+
+		@Override
+		public int getLevelNumber() {
+			return level;
+		}
+
+		@Override
+		public boolean clockTicked() {
+			rolls.add(Utils.random(1, 100));
+
+			return rolls.size() < 10;
+		}
+	}
+
+	private List<Integer> roll(SimulationContext context, int... levels) {
+		final List<Roller> rollers = new ArrayList<Roller>();
+
+		for (int level : levels) {
+			final Roller roller = new Roller(level);
+
+			rollers.add(roller);
+			context.getClock().register(roller);
+		}
+
+		context.getClock().tick(10);
+
+		// Only return the rolls on the first level
+		return rollers.get(0).rolls;
+	}
+
+	public void testSeededContextsDrawTheSameNumbers() {
+		final List<Integer> rolls = roll(new SimulationContext(42), 1);
+
+		assertEquals(10, rolls.size());
+		assertEquals(rolls, roll(new SimulationContext(42), 1));
+
+		// The rolls on a level don't depend on the other levels
+		assertEquals(rolls, roll(new SimulationContext(42), 1, 2, 3));
+
+		assertFalse(rolls.equals(roll(new SimulationContext(43), 1)));
+		assertFalse(rolls.equals(roll(new SimulationContext(42), 2)));
+	}
+}
@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.ai;
+
+import junit.framework.TestCase;
+import fr.ritaly.dungeonmaster.Direction;
+import fr.ritaly.dungeonmaster.Orientation;
+import fr.ritaly.dungeonmaster.map.Door;
+import fr.ritaly.dungeonmaster.map.Dungeon;
+import fr.ritaly.dungeonmaster.map.Level;
+import fr.ritaly.dungeonmaster.map.Wall;
+
+public class FieldOfViewTest extends TestCase {
+
+	public FieldOfViewTest() {
+	}
+
+	public FieldOfViewTest(String name) {
+		super(name);
+	}
+
+	public void testConeIsTheSameInAllDirections() {
+		final Level level = new Dungeon().createLevel(1, 9, 9);
+
+		// The cone seen from (4,4) towards each direction
+		final int[][] cells = { { -1, 1 }, { 0, 1 }, { 1, 1 }, { -1, 2 }, { 0, 2 }, { 1, 2 }, { -2, 3 }, { -1, 3 },
+				{ 0, 3 }, { 1, 3 }, { 2, 3 } };
+
+		for (int[] cell : cells) {
+			final int lateral = cell[0], depth = cell[1];
+
+			assertTrue(FieldOfView.isVisible(level, 4, 4, Direction.NORTH, 3, 4 + lateral, 4 - depth));
+			assertTrue(FieldOfView.isVisible(level, 4, 4, Direction.EAST, 3, 4 + depth, 4 + lateral));
+			assertTrue(FieldOfView.isVisible(level, 4, 4, Direction.SOUTH, 3, 4 - lateral, 4 + depth));
+			assertTrue(FieldOfView.isVisible(level, 4, 4, Direction.WEST, 3, 4 - depth, 4 - lateral));
+		}
+
+		// Behind & beside the viewer
+		assertFalse(FieldOfView.isVisible(level, 4, 4, Direction.NORTH, 3, 4, 4));
+		assertFalse(FieldOfView.isVisible(level, 4, 4, Direction.NORTH, 3, 3, 4));
+		assertFalse(FieldOfView.isVisible(level, 4, 4, Direction.NORTH, 3, 4, 5));
+	}
+
+	public void testSightRange() {
+		final Level level = new Dungeon().createLevel(1, 9, 9);
+
+		assertTrue(FieldOfView.isVisible(level, 4, 7, Direction.NORTH, 1, 4, 6));
+		assertFalse(FieldOfView.isVisible(level, 4, 7, Direction.NORTH, 1, 4, 5));
+
+		// The sight range is capped
+		assertTrue(FieldOfView.isVisible(level, 4, 7, Direction.NORTH, 10, 4, 4));
+		assertFalse(FieldOfView.isVisible(level, 4, 7, Direction.NORTH, 10, 4, 3));
+	}
+
+	public void testWallBlocksSight() {
+		// +---+---+---+---+---+---+---+
+		// | W | W | W | W | W | W | W |
+		// +---+---+---+---+---+---+---+
+		// | W | . | . | . | . | . | W |
+		// +---+---+---+---+---+---+---+
+		// | W | . | . | . | . | . | W |
+		// +---+---+---+---+---+---+---+
+		// | W | . | . | W | . | . | W |
+		// +---+---+---+---+---+---+---+
+		// | W | . | . | C | . | . | W |
+		// +---+---+---+---+---+---+---+
+		// | W | W | W | W | W | W | W |
+		// +---+---+---+---+---+---+---+
+
+		final Level level = new Dungeon().createLevel(1, 7, 6);
+		level.setElement(3, 3, new Wall());
+
+		// The wall itself is visible but not what's behind
+		assertTrue(FieldOfView.isVisible(level, 3, 4, Direction.NORTH, 3, 3, 3));
+		assertFalse(FieldOfView.isVisible(level, 3, 4, Direction.NORTH, 3, 3, 2));
+		assertFalse(FieldOfView.isVisible(level, 3, 4, Direction.NORTH, 3, 3, 1));
+
+		// The diagonals aren't hidden by the wall
+		assertTrue(FieldOfView.isVisible(level, 3, 4, Direction.NORTH, 3, 2, 2));
+		assertTrue(FieldOfView.isVisible(level, 3, 4, Direction.NORTH, 3, 4, 2));
+		assertTrue(FieldOfView.isVisible(level, 3, 4, Direction.NORTH, 3, 1, 1));
+		assertTrue(FieldOfView.isVisible(level, 3, 4, Direction.NORTH, 3, 5, 1));
+	}
+
+	public void testDoorBlocksSightWhenClosed() {
+		final Level level = new Dungeon().createLevel(1, 7, 6);
+
+		level.setElement(3, 3, new Door(Door.Style.WOODEN, Orientation.NORTH_SOUTH));
+
+		assertFalse(FieldOfView.isVisible(level, 3, 4, Direction.NORTH, 3, 3, 2));
+
+		// An open door doesn't block the sight
+		level.setElement(3, 3, new Door(Door.Style.WOODEN, Orientation.NORTH_SOUTH, Door.State.OPEN));
+
+		assertTrue(FieldOfView.isVisible(level, 3, 4, Direction.NORTH, 3, 3, 2));
+
+		// A grate never blocks the sight
+		level.setElement(3, 3, new Door(Door.Style.GRATE, Orientation.NORTH_SOUTH));
+
+		assertTrue(FieldOfView.isVisible(level, 3, 4, Direction.NORTH, 3, 3, 2));
+	}
+
+	public void testCreatureCantSeeThroughWall() {
+		final Dungeon dungeon = new Dungeon();
+		final Level level = dungeon.createLevel(1, 7, 6);
+		level.setElement(3, 3, new Wall());
+
+		final Creature scorpion = new Creature(Creature.Type.GIANT_SCORPION, 1);
+		scorpion.setDirection(Direction.NORTH);
+		level.getElement(3, 4).addCreature(scorpion);
+
+		assertTrue(scorpion.canSeePosition(level.getElement(3, 3).getPosition()));
+		assertFalse(scorpion.canSeePosition(level.getElement(3, 2).getPosition()));
+		assertTrue(scorpion.canSeePosition(level.getElement(2, 2).getPosition()));
+	}
+}
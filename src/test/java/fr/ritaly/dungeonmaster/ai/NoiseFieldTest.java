@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.ai;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+import fr.ritaly.dungeonmaster.Orientation;
+import fr.ritaly.dungeonmaster.Position;
+import fr.ritaly.dungeonmaster.map.Door;
+import fr.ritaly.dungeonmaster.map.Dungeon;
+import fr.ritaly.dungeonmaster.map.Level;
+import fr.ritaly.dungeonmaster.map.Wall;
+
+public class NoiseFieldTest extends TestCase {
+
+	public NoiseFieldTest() {
+	}
+
+	public NoiseFieldTest(String name) {
+		super(name);
+	}
+
+	public void testOpenLevelMatchesSurroundingPositions() {
+		final Level level = new Dungeon().createLevel(1, 11, 11);
+		final NoiseField noiseField = level.getNoiseField();
+
+		for (int awareness = 1; awareness <= 4; awareness++) {
+			final List<Position> positions = new Position(5, 5, 1).getSurroundingPositions(awareness);
+
+			for (int x = 1; x < 10; x++) {
+				for (int y = 1; y < 10; y++) {
+					final boolean expected = positions.contains(new Position(x, y, 1));
+
+					assertEquals("Awareness " + awareness + ", position (" + x + "," + y + ")", expected,
+							noiseField.canHear(5, 5, x, y, awareness) && ((x != 5) || (y != 5)));
+				}
+			}
+		}
+	}
+
+	public void testWallsAndClosedDoorsStopNoise() {
+		// +---+---+---+---+---+---+---+
+		// | W | W | W | W | W | W | W |
+		// +---+---+---+---+---+---+---+
+		// | W | . | . | W | . | . | W |
+		// +---+---+---+---+---+---+---+
+		// | W | . | . | D | . | . | W |
+		// +---+---+---+---+---+---+---+
+		// | W | . | . | W | . | . | W |
+		// +---+---+---+---+---+---+---+
+		// | W | W | W | W | W | W | W |
+		// +---+---+---+---+---+---+---+
+
+		final Level level = new Dungeon().createLevel(1, 5, 7);
+		level.setElement(3, 1, new Wall());
+		level.setElement(3, 2, new Door(Door.Style.WOODEN, Orientation.WEST_EAST));
+		level.setElement(3, 3, new Wall());
+
+		final NoiseField noiseField = level.getNoiseField();
+
+		assertTrue(noiseField.canHear(2, 2, 1, 2, 3));
+		assertEquals(NoiseField.SILENT, noiseField.getAttenuation(2, 2, 4, 2));
+		assertFalse(noiseField.canHear(2, 2, 4, 2, 10));
+
+		// Opening the door lets the noise through
+		level.setElement(3, 2, new Door(Door.Style.WOODEN, Orientation.WEST_EAST, Door.State.OPEN));
+
+		assertEquals(2, noiseField.getAttenuation(2, 2, 4, 2));
+		assertTrue(noiseField.canHear(2, 2, 4, 2, 2));
+		assertFalse(noiseField.canHear(2, 2, 5, 2, 2));
+	}
+
+	public void testPropagationIsShared() {
+		final Level level = new Dungeon().createLevel(1, 9, 9);
+		final NoiseField noiseField = level.getNoiseField();
+
+		noiseField.emit(4, 4);
+
+		assertEquals(1, noiseField.getPropagationCount());
+
+		// All the listeners read the same propagation
+		for (int x = 1; x < 8; x++) {
+			noiseField.canHear(4, 4, x, 1, 3);
+		}
+
+		assertEquals(1, noiseField.getPropagationCount());
+
+		// A layout change invalidates the propagation
+		level.setElement(2, 2, new Wall());
+		noiseField.canHear(4, 4, 1, 1, 3);
+
+		assertEquals(2, noiseField.getPropagationCount());
+	}
+}
@@ -0,0 +1,125 @@
+package fr.ritaly.dungeonmaster.ai.astar;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import junit.framework.TestCase;
+import fr.ritaly.dungeonmaster.Direction;
+import fr.ritaly.dungeonmaster.Position;
+import fr.ritaly.dungeonmaster.ai.Materiality;
+import fr.ritaly.dungeonmaster.ai.astar.DungeonRouter.PortalType;
+import fr.ritaly.dungeonmaster.map.Dungeon;
+import fr.ritaly.dungeonmaster.map.Pit;
+import fr.ritaly.dungeonmaster.map.Stairs;
+import fr.ritaly.dungeonmaster.map.Wall;
+
+public class DungeonRouterTest extends TestCase {
+
+	public DungeonRouterTest() {
+	}
+
+	public DungeonRouterTest(String name) {
+		super(name);
+	}
+
+	private Dungeon createDungeon() {
+		// Level 1 & 2:
+		// +---+---+---+---+---+---+---+
+		// | W | W | W | W | W | W | W |
+		// +---+---+---+---+---+---+---+
+		// | W | . | . | . | . | . | W |
+		// +---+---+---+---+---+---+---+
+		// | W | . | . | . | . | S | W |
+		// +---+---+---+---+---+---+---+
+		// | W | . | . | . | . | . | W |
+		// +---+---+---+---+---+---+---+
+		// | W | W | W | W | W | W | W |
+		// +---+---+---+---+---+---+---+
+		final Dungeon dungeon = new Dungeon();
+		dungeon.createLevel(1, 5, 7);
+		dungeon.createLevel(2, 5, 7);
+
+		dungeon.setElement(5, 2, 1, new Stairs(Direction.NORTH, false, new Position(5, 2, 2)));
+		dungeon.setElement(5, 2, 2, new Stairs(Direction.NORTH, true, new Position(5, 2, 1)));
+
+		return dungeon;
+	}
+
+	public void testRouteThroughStairs() {
+		final Dungeon dungeon = createDungeon();
+		final DungeonRouter router = dungeon.getRouter();
+
+		final Position start = new Position(1, 2, 1), goal = new Position(1, 2, 2);
+
+		final List<Position> route = router.findRoute(Materiality.MATERIAL, EnumSet.of(PortalType.STAIRS), start,
+				goal);
+
+		assertEquals(Arrays.asList(start, new Position(5, 2, 1), new Position(5, 2, 2), goal), route);
+
+		// The route can't be found if the stairs can't be taken
+		assertNull(router.findRoute(Materiality.MATERIAL, EnumSet.noneOf(PortalType.class), start, goal));
+
+		// Next steps
+		assertSame(dungeon.getElement(2, 2, 1),
+				router.getNextStep(Materiality.MATERIAL, EnumSet.of(PortalType.STAIRS), start, goal));
+		assertSame(dungeon.getElement(5, 2, 2), router.getNextStep(Materiality.MATERIAL,
+				EnumSet.of(PortalType.STAIRS), new Position(5, 2, 1), goal));
+		assertSame(dungeon.getElement(4, 2, 2), router.getNextStep(Materiality.MATERIAL,
+				EnumSet.of(PortalType.STAIRS), new Position(5, 2, 2), goal));
+		assertNull(router.getNextStep(Materiality.MATERIAL, EnumSet.of(PortalType.STAIRS), goal, goal));
+	}
+
+	public void testRouteThroughPit() {
+		final Dungeon dungeon = createDungeon();
+		final DungeonRouter router = dungeon.getRouter();
+
+		final Pit pit = new Pit(false, false);
+
+		dungeon.setElement(3, 1, 1, pit);
+
+		final Position start = new Position(1, 1, 1), goal = new Position(1, 1, 2);
+		final EnumSet<PortalType> types = EnumSet.of(PortalType.PIT);
+
+		// The pit is closed
+		assertNull(router.findRoute(Materiality.MATERIAL, types, start, goal));
+
+		pit.open();
+
+		assertEquals(Arrays.asList(start, new Position(3, 1, 1), new Position(3, 1, 2), goal), router.findRoute(
+				Materiality.MATERIAL, types, start, goal));
+
+		// The stairs are farther than the pit
+		types.add(PortalType.STAIRS);
+
+		assertEquals(4, router.findRoute(Materiality.MATERIAL, types, start, goal).size());
+		assertEquals(new Position(3, 1, 1), router.findRoute(Materiality.MATERIAL, types, start, goal).get(1));
+	}
+
+	public void testRegions() {
+		final Dungeon dungeon = createDungeon();
+		final DungeonRouter router = dungeon.getRouter();
+
+		assertEquals(router.getRegion(Materiality.MATERIAL, new Position(1, 1, 1)),
+				router.getRegion(Materiality.MATERIAL, new Position(4, 3, 1)));
+		assertEquals(-1, router.getRegion(Materiality.MATERIAL, new Position(0, 0, 1)));
+
+		// Split the level in 2 regions
+		dungeon.setElement(3, 1, 1, new Wall());
+		dungeon.setElement(3, 2, 1, new Wall());
+		dungeon.setElement(3, 3, 1, new Wall());
+
+		assertFalse(router.getRegion(Materiality.MATERIAL, new Position(1, 1, 1)) == router.getRegion(
+				Materiality.MATERIAL, new Position(4, 3, 1)));
+
+		// The stairs lead back to the same region: there is no route
+		final List<Position> route = router.findRoute(Materiality.MATERIAL, EnumSet.of(PortalType.STAIRS),
+				new Position(4, 2, 1), new Position(1, 2, 1));
+
+		assertNull(route);
+
+		// Unless the creature is immaterial
+		assertNotNull(router.findRoute(Materiality.IMMATERIAL, EnumSet.of(PortalType.STAIRS), new Position(4, 2,
+				1), new Position(1, 2, 1)));
+	}
+}
@@ -0,0 +1,118 @@
+package fr.ritaly.dungeonmaster.ai.astar;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import fr.ritaly.dungeonmaster.ai.Materiality;
+import fr.ritaly.dungeonmaster.map.Dungeon;
+import fr.ritaly.dungeonmaster.map.DungeonUtils;
+import fr.ritaly.dungeonmaster.map.Element;
+import fr.ritaly.dungeonmaster.map.Level;
+import fr.ritaly.dungeonmaster.map.Wall;
+
+public class FlowFieldTest extends TestCase {
+
+	public FlowFieldTest() {
+	}
+
+	public FlowFieldTest(String name) {
+		super(name);
+	}
+
+	private Level createLevel(Dungeon dungeon) {
+		// +---+---+---+---+---+---+---+---+---+
+		// | W | W | W | W | W | W | W | W | W |
+		// +---+---+---+---+---+---+---+---+---+
+		// | W | S | W | . | . | . | W | X | W |
+		// +---+---+---+---+---+---+---+---+---+
+		// | W | . | W | . | W | . | W | . | W |
+		// +---+---+---+---+---+---+---+---+---+
+		// | W | . | W | . | W | . | W | . | W |
+		// +---+---+---+---+---+---+---+---+---+
+		// | W | . | W | . | W | . | W | . | W |
+		// +---+---+---+---+---+---+---+---+---+
+		// | W | . | W | . | W | . | W | . | W |
+		// +---+---+---+---+---+---+---+---+---+
+		// | W | . | W | . | W | . | W | . | W |
+		// +---+---+---+---+---+---+---+---+---+
+		// | W | . | . | . | W | . | . | . | W |
+		// +---+---+---+---+---+---+---+---+---+
+		// | W | W | W | W | W | W | W | W | W |
+		// +---+---+---+---+---+---+---+---+---+
+
+		final List<String> rows = new ArrayList<String>();
+		rows.add("WWWWWWWWW");
+		rows.add("W W   W W");
+		rows.add("W W W W W");
+		rows.add("W W W W W");
+		rows.add("W W W W W");
+		rows.add("W W W W W");
+		rows.add("W W W W W");
+		rows.add("W   W   W");
+		rows.add("WWWWWWWWW");
+
+		return DungeonUtils.parse(rows, dungeon, 1);
+	}
+
+	public void testDistancesWhenMaterial() {
+		final Level level1 = createLevel(new Dungeon());
+		final FlowField flowField = level1.getFlowField(Materiality.MATERIAL);
+
+		flowField.update(7, 1);
+
+		// Consistent with the path found by the path finder (31 nodes)
+		assertEquals(0, flowField.getDistance(7, 1));
+		assertEquals(30, flowField.getDistance(1, 1));
+		assertEquals(FlowField.UNREACHABLE, flowField.getDistance(2, 1));
+
+		// Following the next steps leads to the target
+		int x = 1, y = 1, steps = 0;
+
+		while ((x != 7) || (y != 1)) {
+			final Element next = flowField.getNextStep(x, y, 7, 1);
+
+			assertNotNull(next);
+			assertEquals(flowField.getDistance(x, y) - 1, flowField.getDistance(next.getPosition().x,
+					next.getPosition().y));
+
+			x = next.getPosition().x;
+			y = next.getPosition().y;
+			steps++;
+		}
+
+		assertEquals(30, steps);
+		assertNull(flowField.getNextStep(7, 1, 7, 1));
+	}
+
+	public void testDistancesWhenImmaterial() {
+		final Level level1 = createLevel(new Dungeon());
+		final FlowField flowField = level1.getFlowField(Materiality.IMMATERIAL);
+
+		flowField.update(7, 1);
+
+		assertEquals(6, flowField.getDistance(1, 1));
+		assertSame(level1.getElement(2, 1), flowField.getNextStep(1, 1, 7, 1));
+	}
+
+	public void testFlowFieldIsRebuiltWhenLevelChanges() {
+		final Level level1 = createLevel(new Dungeon());
+		final FlowField flowField = level1.getFlowField(Materiality.MATERIAL);
+
+		assertSame(flowField, level1.getFlowField(Materiality.MATERIAL));
+
+		flowField.update(7, 1);
+
+		assertEquals(30, flowField.getDistance(1, 1));
+
+		// Closing the corridor makes the target unreachable
+		level1.setElement(1, 7, new Wall());
+
+		assertNull(flowField.getNextStep(1, 1, 7, 1));
+		assertEquals(FlowField.UNREACHABLE, flowField.getDistance(1, 1));
+
+		// Changing the target rebuilds the map
+		assertSame(level1.getElement(1, 2), flowField.getNextStep(1, 1, 1, 6));
+		assertEquals(5, flowField.getDistance(1, 1));
+	}
+}
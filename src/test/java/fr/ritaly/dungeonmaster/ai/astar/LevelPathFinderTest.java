@@ -125,4 +125,49 @@ public class LevelPathFinderTest extends TestCase {
 		assertNotNull(nodes);
 		assertEquals(7, nodes.size());
 	}
-}
\ No newline at end of file
+
+	public void testFindPathWhenUnreachable() {
+		// The material creature in S can't reach target X (walled in)
+		final Dungeon dungeon = new Dungeon();
+
+		final List<String> rows = new ArrayList<String>();
+		rows.add("WWWWW");
+		rows.add("W W W");
+		rows.add("WWWWW");
+
+		final Level level1 = DungeonUtils.parse(rows, dungeon, 1);
+
+		assertNull(level1.getPathFinder(Materiality.MATERIAL).findBestPath(1, 1, 3, 1));
+		assertNull(level1.getPathFinder(Materiality.MATERIAL).findBestPath(1, 1, 2, 1));
+
+		// The immaterial creature can
+		assertEquals(3, level1.getPathFinder(Materiality.IMMATERIAL).findBestPath(1, 1, 3, 1).size());
+	}
+
+	public void testPathFinderIsReusable() {
+		final Dungeon dungeon = new Dungeon();
+		final Level level1 = dungeon.createLevel(1, 10, 10);
+
+		final PathFinder pathFinder = level1.getPathFinder(Materiality.MATERIAL);
+
+		assertSame(pathFinder, level1.getPathFinder(Materiality.MATERIAL));
+
+		for (int i = 0; i < 10; i++) {
+			final List<Element> nodes = pathFinder.findBestPath(1, 1, 8, 8);
+
+			// The path includes the start & goal positions
+			assertNotNull(nodes);
+			assertEquals(15, nodes.size());
+			assertSame(level1.getElement(1, 1), nodes.get(0));
+			assertSame(level1.getElement(8, 8), nodes.get(14));
+
+			// Each node is adjacent to the previous one
+			for (int j = 1; j < nodes.size(); j++) {
+				assertTrue(nodes.get(j - 1).getAdjacentElements().contains(nodes.get(j)));
+			}
+		}
+
+		// Start = goal
+		assertEquals(1, pathFinder.findBestPath(4, 4, 4, 4).size());
+	}
+}
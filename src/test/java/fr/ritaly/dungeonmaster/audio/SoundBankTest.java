@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.audio;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+import junit.framework.TestCase;
+
+public class SoundBankTest extends TestCase {
+
+	private File directory;
+
+	public SoundBankTest() {
+	}
+
+	public SoundBankTest(String name) {
+		super(name);
+	}
+
+	private static byte[] createData(int length) {
+		final byte[] data = new byte[length];
+
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) i;
+		}
+
+		return data;
+	}
+
+	private void write(String name, byte[] data, AudioFormat format, AudioFileFormat.Type type)
+			throws IOException {
+
+		final AudioInputStream stream = new AudioInputStream(new ByteArrayInputStream(data), format, data.length
+				/ format.getFrameSize());
+
+		AudioSystem.write(stream, type, new File(directory, name));
+	}
+
+	public void testSoundsAreLoadedOnFirstUse() throws Exception {
+		final AudioFormat format = new AudioFormat(22050, 16, 2, true, false);
+		final byte[] data = createData(4000);
+
+		write("stereo.wav", data, format, AudioFileFormat.Type.WAVE);
+		write("mono.au", data, new AudioFormat(11025, 8, 1, true, true), AudioFileFormat.Type.AU);
+
+		final SoundBank bank = new SoundBank(directory);
+
+		assertEquals(2, bank.getNames().size());
+		assertEquals(0, bank.getLoadCount());
+		assertNull(bank.getSound("unknown.wav"));
+
+		// The WAV file is mapped
+		final Sound stereo = bank.getSound("stereo.wav");
+
+		assertEquals(1, bank.getLoadCount());
+		assertTrue(Arrays.equals(data, stereo.getData()));
+		assertEquals(22050, stereo.getAudioFormat().getSampleRate(), 0);
+		assertEquals(16, stereo.getAudioFormat().getSampleSizeInBits());
+		assertEquals(2, stereo.getAudioFormat().getChannels());
+		assertEquals(1000, stereo.getSamples().length);
+		assertSame(stereo, bank.getSound("stereo.wav"));
+		assertEquals(1, bank.getLoadCount());
+
+		// The other files are decoded
+		final Sound mono = bank.getSound("mono.au");
+
+		assertTrue(Arrays.equals(data, mono.getData()));
+		assertEquals(4000, mono.getSamples().length);
+		assertEquals(2, bank.getLoadCount());
+	}
+
+	public void testEviction() throws Exception {
+		final AudioFormat format = new AudioFormat(22050, 8, 1, false, false);
+
+		write("a.wav", createData(1000), format, AudioFileFormat.Type.WAVE);
+		write("b.wav", createData(1000), format, AudioFileFormat.Type.WAVE);
+		write("c.wav", createData(1000), format, AudioFileFormat.Type.WAVE);
+
+		final SoundBank bank = new SoundBank(directory, 2000);
+
+		bank.getSound("a.wav");
+		bank.getSound("b.wav");
+		bank.getSound("a.wav");
+
+		assertEquals(2, bank.getLoadCount());
+		assertEquals(2000, bank.getSize());
+
+		// The least recently used sound (b) is evicted
+		bank.getSound("c.wav");
+		bank.getSound("a.wav");
+
+		assertEquals(3, bank.getLoadCount());
+		assertEquals(2000, bank.getSize());
+
+		bank.getSound("b.wav");
+
+		assertEquals(4, bank.getLoadCount());
+	}
+
+	public void testPreload() throws Exception {
+		write("a.wav", createData(1000), new AudioFormat(22050, 8, 1, false, false), AudioFileFormat.Type.WAVE);
+
+		final SoundBank bank = new SoundBank(directory);
+
+		bank.preload(new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				command.run();
+			}
+		}, Arrays.asList("a.wav", "unknown.wav"));
+
+		assertEquals(1, bank.getLoadCount());
+
+		bank.getSound("a.wav");
+
+		assertEquals(1, bank.getLoadCount());
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		directory = File.createTempFile("sounds", "");
+		directory.delete();
+		directory.mkdir();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (File file : directory.listFiles()) {
+			file.delete();
+		}
+
+		directory.delete();
+	}
+}
@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.audio;
+
+import java.util.Arrays;
+
+import javax.sound.sampled.AudioFormat;
+
+import junit.framework.TestCase;
+
+public class VoiceManagerTest extends TestCase {
+
+	/**
+	 * The sink is never opened since the mixers aren't started.
+	 */
+	private final NullSink sink = new NullSink();
+
+	private final Sound sound = new Sound(new byte[0], new AudioFormat(22050, 8, 1, false, false));
+
+	private static short getSample(byte[] buffer, int index) {
+		return (short) ((buffer[2 * index + 1] << 8) | (buffer[2 * index] & 0xFF));
+	}
+
+	public VoiceManagerTest() {
+	}
+
+	public VoiceManagerTest(String name) {
+		super(name);
+	}
+
+	public void testInaudibleSoundsAreDropped() {
+		final VoiceManager voices = new VoiceManager(2, sink);
+
+		assertTrue(voices.play(sound, 0, 3, 0));
+		assertFalse(voices.play(sound, 3, 100, 0));
+		assertEquals(1, voices.getActiveCount());
+		assertEquals(1, voices.getDroppedCount());
+	}
+
+	public void testVoiceStealing() {
+		final VoiceManager voices = new VoiceManager(2, sink);
+
+		assertTrue(voices.play(sound, 1, 0, 0));
+		assertTrue(voices.play(sound, 1, 3, 0));
+		assertEquals(2, voices.getActiveCount());
+
+		// A farther sound with the same priority is dropped
+		assertFalse(voices.play(sound, 1, 6, 0));
+		assertEquals(0, voices.getStolenCount());
+		assertEquals(1, voices.getDroppedCount());
+
+		// A closer one steals the voice of the farthest sound
+		assertTrue(voices.play(sound, 1, 1, 0));
+		assertEquals(1, voices.getStolenCount());
+
+		// A more important sound steals a voice whatever the distance
+		assertTrue(voices.play(sound, 3, 9, 0));
+		assertEquals(2, voices.getStolenCount());
+
+		// A less important sound never steals a voice whatever the distance
+		assertFalse(voices.play(sound, 0, 0, 0));
+		assertTrue(voices.play(sound, 3, 0, 0));
+		assertEquals(2, voices.getActiveCount());
+		assertEquals(3, voices.getStolenCount());
+	}
+
+	public void testMix() {
+		// 1.5 buffer of 8-bit unsigned mono samples at the maximum amplitude
+		final byte[] data = new byte[VoiceManager.BUFFER_FRAMES * 3 / 2];
+
+		Arrays.fill(data, (byte) 0xFF);
+
+		final AudioFormat format = new AudioFormat(44100, 8, 1, false, false);
+		final VoiceManager voices = new VoiceManager(2, sink);
+		final byte[] buffer = new byte[VoiceManager.BUFFER_SIZE];
+
+		// Panned fully to the right, at distance 0
+		assertTrue(voices.play(new Sound(data, format), 0, 0, 1));
+		assertEquals(VoiceManager.BUFFER_SIZE, voices.mix(buffer));
+
+		for (int i = 0; i < VoiceManager.BUFFER_FRAMES; i++) {
+			assertTrue(Math.abs(getSample(buffer, 2 * i)) < 4);
+			assertTrue(getSample(buffer, 2 * i + 1) > 32000);
+		}
+
+		assertEquals(1, voices.getActiveCount());
+
+		// The sound ends in the middle of the second buffer
+		voices.mix(buffer);
+
+		assertTrue(getSample(buffer, VoiceManager.BUFFER_FRAMES - 1) > 32000);
+		assertEquals(0, getSample(buffer, VoiceManager.BUFFER_FRAMES + 1));
+		assertEquals(0, voices.getActiveCount());
+
+		// The voices are summed and clipped
+		assertTrue(voices.play(new Sound(data, format), 0, 0, 1));
+		assertTrue(voices.play(new Sound(data, format), 0, 0, 1));
+
+		voices.mix(buffer);
+
+		assertEquals(Short.MAX_VALUE, getSample(buffer, 1));
+	}
+
+	public void testResampling() {
+		// 16-bit signed little-endian stereo at half the output's rate
+		final byte[] data = new byte[] { 0x00, 0x10, 0x00, 0x30, 0x00, 0x10, 0x00, 0x30 };
+		final Sound sound = new Sound(data, new AudioFormat(22050, 16, 2, true, false));
+
+		// The channels are averaged
+		assertEquals(2, sound.getSamples().length);
+		assertEquals(0x2000, sound.getSamples()[0]);
+
+		final VoiceManager voices = new VoiceManager(2, sink);
+		final byte[] buffer = new byte[VoiceManager.BUFFER_SIZE];
+
+		assertTrue(voices.play(sound, 0, 0, 0));
+
+		voices.mix(buffer);
+
+		// Each sample lasts 2 frames
+		for (int i = 0; i < 4; i++) {
+			assertTrue(getSample(buffer, 2 * i) > 0);
+		}
+
+		assertEquals(0, getSample(buffer, 8));
+	}
+
+	public void testClose() {
+		final VoiceManager voices = new VoiceManager(2, sink);
+
+		assertTrue(voices.play(sound, 0, 0, 0));
+
+		voices.close();
+
+		assertEquals(0, voices.getActiveCount());
+		assertFalse(voices.play(sound, 0, 0, 0));
+	}
+}
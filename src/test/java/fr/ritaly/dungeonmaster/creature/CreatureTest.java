@@ -19,12 +19,17 @@
 package fr.ritaly.dungeonmaster.creature;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import junit.framework.TestCase;
 import fr.ritaly.dungeonmaster.Clock;
 import fr.ritaly.dungeonmaster.Direction;
+import fr.ritaly.dungeonmaster.DirectionTransform;
 import fr.ritaly.dungeonmaster.Position;
+import fr.ritaly.dungeonmaster.SimulationContext;
 import fr.ritaly.dungeonmaster.ai.AttackType;
 import fr.ritaly.dungeonmaster.ai.Creature;
 import fr.ritaly.dungeonmaster.champion.Champion.Name;
@@ -33,6 +38,7 @@ import fr.ritaly.dungeonmaster.champion.Party;
 import fr.ritaly.dungeonmaster.map.Dungeon;
 import fr.ritaly.dungeonmaster.map.Element;
 import fr.ritaly.dungeonmaster.map.Level;
+import fr.ritaly.dungeonmaster.map.Teleporter;
 
 public class CreatureTest extends TestCase {
 
@@ -493,6 +499,144 @@ public class CreatureTest extends TestCase {
 		assertEquals(new Position(4, 4, 1), dragon.getElement().getPosition());
 	}
 
+	public void testCreaturesFarFromPartyAreDormant() {
+		final Dungeon dungeon = new Dungeon();
+		final Level level1 = dungeon.createLevel(1, 20, 20);
+		final Level level2 = dungeon.createLevel(2, 20, 20);
+
+		final Party party = new Party();
+		party.addChampion(ChampionFactory.getFactory().newChampion(Name.TIGGY));
+
+		dungeon.setParty(new Position(2, 2, 1), party);
+
+		final Creature near = new Creature(Creature.Type.MUMMY, 1);
+		final Creature far = new Creature(Creature.Type.MUMMY, 1);
+		final Creature below = new Creature(Creature.Type.MUMMY, 1);
+
+		level1.getElement(5, 5).addCreature(near);
+		level1.getElement(17, 17).addCreature(far);
+		level2.getElement(2, 2).addCreature(below);
+
+		Clock.getInstance().tick();
+
+		assertFalse(near.isDormant());
+		assertTrue(far.isDormant());
+		assertTrue(below.isDormant());
+
+		// The dormant creatures wake up within a second once the party is
+		// near
+		dungeon.setActivityRadius(Integer.MAX_VALUE);
+
+		Clock.getInstance().tick(Clock.ONE_SECOND);
+
+		assertFalse(far.isDormant());
+		assertTrue(below.isDormant());
+	}
+
+	public void testCreatureHitFromAfarIsntDormant() {
+		final Dungeon dungeon = new Dungeon();
+		final Level level1 = dungeon.createLevel(1, 20, 20);
+
+		final Party party = new Party();
+		party.addChampion(ChampionFactory.getFactory().newChampion(Name.TIGGY));
+
+		dungeon.setParty(new Position(2, 2, 1), party);
+
+		final Creature creature = new Creature(Creature.Type.MUMMY, 1);
+
+		level1.getElement(17, 17).addCreature(creature);
+
+		// The creature is hit from beyond the activity radius (by a projectile
+		// for instance)
+		assertTrue(creature.hit(AttackType.NORMAL) > 0);
+
+		Clock.getInstance().tick();
+
+		assertFalse(creature.isDormant());
+
+		// The creature falls asleep once the hit is old enough
+		Clock.getInstance().tick(10 * Clock.ONE_SECOND);
+
+		assertTrue(creature.isDormant());
+
+		// A hit wakes up the dormant creature right away
+		assertTrue(creature.hit(AttackType.NORMAL) > 0);
+		assertFalse(creature.isDormant());
+
+		Clock.getInstance().tick(Clock.ONE_SECOND);
+
+		assertFalse(creature.isDormant());
+	}
+
+	/**
+	 * Lets a creature track the party then follow it through a teleporter to
+	 * another level. Returns the final state of the creatures.
+	 */
+	private List<String> followPartyToOtherLevel(final ExecutorService executor) {
+		final List<String> states = new ArrayList<String>();
+
+		// Run within a fresh context so that both runs use the same random
+		// streams
+		new SimulationContext(42).run(new Runnable() {
+			@Override
+			public void run() {
+				final Dungeon dungeon = new Dungeon();
+				final Level level1 = dungeon.createLevel(1, 9, 9);
+				final Level level2 = dungeon.createLevel(2, 9, 9);
+
+				dungeon.setElement(6, 3, 1, new Teleporter(new Position(6, 3, 2), DirectionTransform.IDENTITY, true));
+
+				// The lord of chaos can take the teleporters. The black flame
+				// can't move but keeps the level 2 busy
+				final Creature lord = new Creature(Creature.Type.LORD_CHAOS, 1);
+				final Creature flame = new Creature(Creature.Type.BLACK_FLAME, 1);
+
+				level1.getElement(3, 4).addCreature(lord);
+				level2.getElement(7, 7).addCreature(flame);
+
+				final Party party = new Party(ChampionFactory.getFactory().newChampion(Name.WUUF));
+
+				dungeon.setParty(1, 1, 1, party);
+
+				Clock.getInstance().setExecutor(executor);
+
+				// The creature sees the party and tracks it
+				Clock.getInstance().tick(Creature.Type.LORD_CHAOS.getMoveDuration());
+
+				assertEquals(Creature.State.TRACKING, lord.getState());
+
+				// The party leaves the level, the creature follows it
+				dungeon.teleportParty(new Position(2, 6, 2), Direction.NORTH, true);
+
+				Clock.getInstance().tick(Creature.Type.LORD_CHAOS.getMoveDuration() * 8);
+
+				// The creature reached the party's level
+				assertEquals(2, lord.getElement().getLevel().getNumber());
+
+				for (Creature creature : Arrays.asList(lord, flame)) {
+					states.add(creature.getElement().getPosition() + " " + creature.getDirection() + " "
+							+ creature.getState());
+				}
+			}
+		});
+
+		return states;
+	}
+
+	public void testCreatureFollowsPartyToOtherLevelInParallel() {
+		final List<String> expected = followPartyToOtherLevel(null);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+		try {
+			// The creature ends up in the same state when the levels are
+			// ticked in parallel
+			assertEquals(expected, followPartyToOtherLevel(executor));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
 	@Override
 	protected void setUp() throws Exception {
 		// On nettoie l'horloge entre deux tests
@@ -0,0 +1,101 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class ChangeEventSupportTest extends TestCase {
+
+	public ChangeEventSupportTest() {
+	}
+
+	public ChangeEventSupportTest(String name) {
+		super(name);
+	}
+
+	private static class Recorder implements ChangeListener {
+
+		private final List<ChangeEvent> events = new ArrayList<ChangeEvent>();
+
+		@Override
+		public void onChangeEvent(ChangeEvent event) {
+			events.add(event);
+		}
+	}
+
+	public void testEventIsReused() {
+		final ChangeEventSupport support = new ChangeEventSupport();
+		final Object source = new Object();
+
+		assertFalse(support.hasListeners());
+
+		// No listener, nothing happens
+		support.fireChangeEvent(source);
+
+		final Recorder recorder = new Recorder();
+
+		support.addChangeListener(recorder);
+
+		assertTrue(support.hasListeners());
+
+		support.fireChangeEvent(source);
+		support.fireChangeEvent(source);
+
+		assertEquals(2, recorder.events.size());
+		assertSame(source, recorder.events.get(0).getSource());
+		assertSame(recorder.events.get(0), recorder.events.get(1));
+
+		// A new event is created for another source
+		final Object other = new Object();
+
+		support.fireChangeEvent(other);
+
+		assertSame(other, recorder.events.get(2).getSource());
+	}
+
+	public void testListenersCanUnregisterWhileNotified() {
+		final ChangeEventSupport support = new ChangeEventSupport();
+		final Recorder recorder = new Recorder();
+
+		support.addChangeListener(new ChangeListener() {
+			@Override
+			public void onChangeEvent(ChangeEvent event) {
+				support.removeChangeListener(this);
+			}
+		});
+		support.addChangeListener(recorder);
+
+		support.fireChangeEvent(this);
+
+		// The listener registered after the one removed was still notified
+		assertEquals(1, recorder.events.size());
+
+		support.fireChangeEvent(this);
+
+		assertEquals(2, recorder.events.size());
+
+		support.removeChangeListener(recorder);
+		support.removeChangeListener(recorder);
+
+		assertFalse(support.hasListeners());
+	}
+}
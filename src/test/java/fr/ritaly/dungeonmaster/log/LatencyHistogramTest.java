@@ -0,0 +1,73 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.log;
+
+import junit.framework.TestCase;
+
+public class LatencyHistogramTest extends TestCase {
+
+	public LatencyHistogramTest() {
+	}
+
+	public LatencyHistogramTest(String name) {
+		super(name);
+	}
+
+	public void testBuckets() {
+		for (long value = 0; value < 100000; value++) {
+			final long lowest = LatencyHistogram.lowestValueOf(LatencyHistogram.indexOf(value));
+
+			assertTrue(lowest <= value);
+
+			// The relative error is bounded
+			assertTrue(value - lowest <= value / LatencyHistogram.SUB_BUCKETS);
+		}
+
+		assertTrue(LatencyHistogram.indexOf(Long.MAX_VALUE) > LatencyHistogram.indexOf(Long.MAX_VALUE / 2));
+	}
+
+	public void testPercentiles() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+
+		assertEquals(0, histogram.getValueAtPercentile(50));
+
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i * 1000);
+		}
+
+		assertEquals(100, histogram.getCount());
+		assertEquals(100000, histogram.getMaxNanos());
+		assertEquals(50500, histogram.getMeanNanos());
+
+		final long median = histogram.getValueAtPercentile(50);
+
+		assertTrue((median > 40000) && (median <= 50000));
+		final long max = histogram.getValueAtPercentile(100);
+
+		assertTrue((max > 75000) && (max <= 100000));
+
+		final LatencyHistogram other = new LatencyHistogram();
+
+		other.record(1000000);
+		other.add(histogram);
+
+		assertEquals(101, other.getCount());
+		assertEquals(1000000, other.getMaxNanos());
+	}
+}
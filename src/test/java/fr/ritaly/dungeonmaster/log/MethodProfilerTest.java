@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.log;
+
+import java.io.StringWriter;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+public class MethodProfilerTest extends TestCase {
+
+	public MethodProfilerTest() {
+	}
+
+	public MethodProfilerTest(String name) {
+		super(name);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public void testProfile() throws Exception {
+		// tick() calls move() twice and sleeps itself
+		for (int i = 0; i < 2; i++) {
+			final MethodProfiler.ThreadProfile profile = MethodProfiler.enter("tick");
+
+			for (int j = 0; j < 2; j++) {
+				MethodProfiler.enter("move");
+				sleep(2);
+				profile.exit();
+			}
+
+			sleep(2);
+			profile.exit();
+		}
+
+		final Map<String, LatencyHistogram> histograms = MethodProfiler.getHistograms();
+
+		assertEquals(2, histograms.size());
+		assertEquals(2, histograms.get("tick").getCount());
+		assertEquals(4, histograms.get("move").getCount());
+		assertTrue(histograms.get("tick").getTotalNanos() > histograms.get("move").getTotalNanos());
+
+		final Map<String, Long> stacks = MethodProfiler.getCollapsedStacks();
+
+		assertEquals(2, stacks.size());
+		assertTrue(stacks.get("tick;move").longValue() >= 4 * 2000000L);
+		assertTrue(stacks.get("tick").longValue() >= 2 * 2000000L);
+
+		final StringWriter report = new StringWriter();
+
+		MethodProfiler.writeReport(report);
+
+		// The most expensive method first
+		assertTrue(report.toString().indexOf("tick") < report.toString().indexOf("move"));
+
+		final StringWriter collapsed = new StringWriter();
+
+		MethodProfiler.writeCollapsedStacks(collapsed);
+
+		assertTrue(collapsed.toString().contains("tick;move "));
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		MethodProfiler.reset();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		MethodProfiler.reset();
+	}
+}
@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.log;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.log4j.MDC;
+
+public class TracerTest extends TestCase {
+
+	public TracerTest() {
+	}
+
+	public TracerTest(String name) {
+		super(name);
+	}
+
+	public void testSpansAreRecorded() throws Exception {
+		final Tracer.Recorder recorder = Tracer.getRecorder();
+
+		Tracer.enter("outer");
+		Tracer.enter("inner");
+
+		assertEquals(2, recorder.getDepth());
+		assertEquals("-->", MDC.get(Tracer.MDC_KEY));
+
+		recorder.exit();
+		recorder.exit();
+
+		assertEquals(0, recorder.getDepth());
+		assertEquals(">", MDC.get(Tracer.MDC_KEY));
+
+		// The spans are recorded when the calls end
+		final List<Tracer.Span> spans = recorder.getSpans();
+
+		assertEquals(2, spans.size());
+		assertEquals("inner", spans.get(0).getSite());
+		assertEquals(1, spans.get(0).getDepth());
+		assertEquals("outer", spans.get(1).getSite());
+		assertEquals(0, spans.get(1).getDepth());
+		assertTrue(spans.get(1).getDuration() >= spans.get(0).getDuration());
+
+		final StringWriter writer = new StringWriter();
+
+		Tracer.dump(writer);
+
+		assertTrue(writer.toString().contains("-> inner"));
+	}
+
+	public void testSampling() {
+		final Tracer.Recorder recorder = Tracer.getRecorder();
+
+		Tracer.setSampleRate(3);
+
+		for (int i = 0; i < 9; i++) {
+			Tracer.enter("root");
+			Tracer.enter("child");
+
+			recorder.exit();
+			recorder.exit();
+		}
+
+		// Only one call tree out of 3 is recorded
+		assertEquals(6, recorder.getSpans().size());
+	}
+
+	public void testRingBuffer() {
+		final Tracer.Recorder recorder = Tracer.getRecorder();
+
+		for (int i = 0; i < Tracer.DEFAULT_CAPACITY + 10; i++) {
+			Tracer.enter("call" + i);
+
+			recorder.exit();
+		}
+
+		final List<Tracer.Span> spans = recorder.getSpans();
+
+		// Only the last spans are kept
+		assertEquals(Tracer.DEFAULT_CAPACITY, spans.size());
+		assertEquals("call10", spans.get(0).getSite());
+		assertEquals("call" + (Tracer.DEFAULT_CAPACITY + 9), spans.get(spans.size() - 1).getSite());
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		Tracer.setSampleRate(1);
+		Tracer.clear();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Tracer.setSampleRate(1);
+		Tracer.clear();
+	}
+}
@@ -327,7 +327,9 @@ public class SpellTest extends TestCase {
 		assertNotNull(spell);
 		assertTrue(spell.isValid());
 
-		Clock.getInstance().tick(24);
+		// The projectile explodes on the door at tick #9 and the door then
+		// needs 4 x 4 ticks to open
+		Clock.getInstance().tick(25);
 
 		assertEquals(State.OPEN, door.getState());
 	}
@@ -18,6 +18,7 @@
  */
 package fr.ritaly.dungeonmaster.map;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -26,6 +27,8 @@ import fr.ritaly.dungeonmaster.Clock;
 import fr.ritaly.dungeonmaster.Direction;
 import fr.ritaly.dungeonmaster.Sector;
 import fr.ritaly.dungeonmaster.ai.Creature;
+import fr.ritaly.dungeonmaster.event.ChangeEvent;
+import fr.ritaly.dungeonmaster.event.ChangeListener;
 
 public class ElementTest extends TestCase {
 
@@ -349,4 +352,62 @@ public class ElementTest extends TestCase {
 		// On nettoie l'horloge entre deux tests
 		Clock.getInstance().reset();
 	}
+
+	public void testEmptyElement() {
+		final Element element = new Wall();
+
+		// The element doesn't hold anything before being used
+		assertFalse(element.hasCreatures());
+		assertEquals(0, element.getCreatureCount());
+		assertTrue(element.getCreatures().isEmpty());
+		assertNull(element.getCreature(Sector.NORTH_WEST));
+		assertEquals(4, element.getFreeRoom());
+		assertTrue(element.getOccupiedSectors().isEmpty());
+		assertFalse(element.hasItems());
+		assertEquals(0, element.getItemCount());
+		assertTrue(element.getItems().isEmpty());
+		assertTrue(element.getItems(Sector.NORTH_WEST).isEmpty());
+	}
+
+	public void testRemoveChangeListener() {
+		final Dungeon dungeon = new Dungeon();
+		final Element element = dungeon.createLevel(1, 5, 5).getElement(2, 2);
+		final List<ChangeEvent> events = new ArrayList<ChangeEvent>();
+
+		final ChangeListener listener = new ChangeListener() {
+			@Override
+			public void onChangeEvent(ChangeEvent event) {
+				events.add(event);
+			}
+		};
+
+		element.addChangeListener(listener);
+		element.addCreature(new Creature(Creature.Type.MUMMY, 10));
+		element.fireChangeEvent();
+
+		assertEquals(1, events.size());
+
+		element.removeChangeListener(listener);
+		element.fireChangeEvent();
+
+		assertEquals(1, events.size());
+	}
+
+	public void testLevelTypes() {
+		final Level level = new Dungeon().createLevel(1, 5, 6);
+
+		assertEquals(Element.Type.WALL, level.getType(0, 0));
+		assertEquals(Element.Type.FLOOR, level.getType(2, 3));
+		assertTrue(level.isConcrete(0, 0));
+		assertFalse(level.isConcrete(2, 3));
+
+		level.setElement(2, 3, new Pit());
+
+		assertEquals(Element.Type.PIT, level.getType(2, 3));
+
+		level.clear();
+
+		assertNull(level.getType(2, 3));
+		assertFalse(level.isConcrete(0, 0));
+	}
 }
\ No newline at end of file
@@ -0,0 +1,185 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package fr.ritaly.dungeonmaster.map;
+
+import java.util.BitSet;
+
+import junit.framework.TestCase;
+import fr.ritaly.dungeonmaster.Clock;
+import fr.ritaly.dungeonmaster.Orientation;
+import fr.ritaly.dungeonmaster.Position;
+import fr.ritaly.dungeonmaster.ai.Creature;
+import fr.ritaly.dungeonmaster.ai.Materiality;
+import fr.ritaly.dungeonmaster.champion.Champion.Name;
+import fr.ritaly.dungeonmaster.champion.ChampionFactory;
+import fr.ritaly.dungeonmaster.champion.Party;
+
+public class TraversabilityMapTest extends TestCase {
+
+	public TraversabilityMapTest() {
+	}
+
+	public TraversabilityMapTest(String name) {
+		super(name);
+	}
+
+	public void testSetElement() {
+		final Level level = new Dungeon().createLevel(1, 5, 5);
+		final TraversabilityMap map = level.getTraversabilityMap();
+
+		// The outer walls
+		assertFalse(map.isTraversable(Materiality.MATERIAL, 0, 0));
+		assertTrue(map.isTraversable(Materiality.IMMATERIAL, 0, 0));
+		assertFalse(map.isTraversableByProjectile(0, 0));
+
+		assertTrue(map.isTraversable(Materiality.MATERIAL, 2, 2));
+		assertTrue(map.isTraversableByProjectile(2, 2));
+
+		level.setElement(2, 2, new Wall());
+
+		assertFalse(map.isTraversable(Materiality.MATERIAL, 2, 2));
+		assertTrue(map.isTraversable(Materiality.IMMATERIAL, 2, 2));
+		assertFalse(map.isTraversableByProjectile(2, 2));
+
+		// Only the 8 remaining floor cells are traversable
+		assertEquals(8, map.getTraversableCells(Materiality.MATERIAL).cardinality());
+		assertEquals(25, map.getTraversableCells(Materiality.IMMATERIAL).cardinality());
+	}
+
+	public void testElementStateChanges() {
+		final Level level = new Dungeon().createLevel(1, 5, 5);
+		final TraversabilityMap map = level.getTraversabilityMap();
+
+		final RetractableWall retractableWall = new RetractableWall();
+		level.setElement(2, 2, retractableWall);
+
+		assertFalse(map.isTraversableByProjectile(2, 2));
+
+		retractableWall.open();
+
+		assertTrue(map.isTraversableByProjectile(2, 2));
+
+		retractableWall.close();
+
+		assertFalse(map.isTraversableByProjectile(2, 2));
+
+		// A closed door stops projectiles, an open one doesn't
+		level.setElement(2, 1, new Door(Door.Style.WOODEN, Orientation.NORTH_SOUTH));
+
+		assertFalse(map.isTraversableByProjectile(2, 1));
+
+		level.setElement(2, 1, new Door(Door.Style.WOODEN, Orientation.NORTH_SOUTH, Door.State.OPEN));
+
+		assertTrue(map.isTraversableByProjectile(2, 1));
+	}
+
+	public void testDoorStateChanges() {
+		final Level level = new Dungeon().createLevel(1, 5, 5);
+		final TraversabilityMap map = level.getTraversabilityMap();
+
+		final Door door = new Door(Door.Style.WOODEN, Orientation.NORTH_SOUTH, Door.State.OPEN);
+		level.setElement(2, 1, door);
+
+		assertTrue(map.isTraversable(Materiality.MATERIAL, 2, 1));
+		assertTrue(map.isTraversable(Materiality.IMMATERIAL, 2, 1));
+
+		door.close();
+
+		// The party can still pass under a door 3/4 open but the giant
+		// creatures can't
+		final int modificationCount = level.getModificationCount();
+
+		Clock.getInstance().tick(4);
+
+		assertEquals(Door.State.THREE_FOURTH_OPEN, door.getState());
+		assertTrue(map.isTraversable(Materiality.MATERIAL, 2, 1));
+		assertTrue(level.getModificationCount() != modificationCount);
+
+		// The party can't pass under a door 1/2 open
+		Clock.getInstance().tick(4);
+
+		assertEquals(Door.State.HALF_OPEN, door.getState());
+		assertFalse(map.isTraversable(Materiality.MATERIAL, 2, 1));
+		assertTrue(map.isTraversable(Materiality.IMMATERIAL, 2, 1));
+
+		Clock.getInstance().tick(8);
+
+		assertEquals(Door.State.CLOSED, door.getState());
+		assertFalse(map.isTraversable(Materiality.MATERIAL, 2, 1));
+		assertTrue(map.isTraversable(Materiality.IMMATERIAL, 2, 1));
+
+		// The immaterial creatures can't pass through a closed RA door
+		level.setElement(2, 1, new Door(Door.Style.RA, Orientation.NORTH_SOUTH));
+
+		assertFalse(map.isTraversable(Materiality.MATERIAL, 2, 1));
+		assertFalse(map.isTraversable(Materiality.IMMATERIAL, 2, 1));
+
+		// A retractable wall can be traversed once open
+		final RetractableWall retractableWall = new RetractableWall();
+		level.setElement(2, 2, retractableWall);
+
+		assertFalse(map.isTraversable(Materiality.MATERIAL, 2, 2));
+
+		retractableWall.open();
+
+		assertTrue(map.isTraversable(Materiality.MATERIAL, 2, 2));
+	}
+
+	public void testOccupancy() {
+		final Dungeon dungeon = new Dungeon();
+		final Level level = dungeon.createLevel(1, 5, 5);
+		final TraversabilityMap map = level.getTraversabilityMap();
+
+		assertTrue(map.getOccupiedCells().isEmpty());
+		assertEquals(9, map.getFreeCells(Materiality.MATERIAL).cardinality());
+
+		final Creature mummy = new Creature(Creature.Type.MUMMY, 1);
+		level.getElement(1, 1).addCreature(mummy);
+
+		assertTrue(map.isOccupied(1, 1));
+
+		final Party party = new Party();
+		party.addChampion(ChampionFactory.getFactory().newChampion(Name.TIGGY));
+
+		dungeon.setParty(new Position(2, 2, 1), party);
+
+		assertTrue(map.isOccupied(2, 2));
+
+		final BitSet free = map.getFreeCells(Materiality.MATERIAL);
+
+		assertEquals(7, free.cardinality());
+		assertFalse(free.get(1 + 1 * 5));
+		assertFalse(free.get(2 + 2 * 5));
+
+		level.getElement(1, 1).removeCreature(mummy);
+
+		assertFalse(map.isOccupied(1, 1));
+		assertEquals(8, map.getFreeCells(Materiality.MATERIAL).cardinality());
+
+		// The returned bitsets are copies
+		map.getOccupiedCells().clear();
+
+		assertTrue(map.isOccupied(2, 2));
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		Clock.getInstance().reset();
+	}
+}
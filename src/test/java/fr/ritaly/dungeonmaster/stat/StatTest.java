@@ -191,6 +191,56 @@ public class StatTest extends TestCase {
 		assertEquals(0, stat.boostValue()); // <---
 	}
 
+	public void testBoostsExpireInOrder() {
+		final BoostQueue boosts = new BoostQueue("Test");
+		final Stat stat1 = new Stat("Test", "Stat1", 1);
+		final Stat stat2 = new Stat("Test", "Stat2", 1);
+
+		stat1.setBoostQueue(boosts);
+		stat2.setBoostQueue(boosts);
+
+		// Boosts added in any order
+		stat1.incBoost(10, 6);
+		stat2.incBoost(5, 3);
+		stat1.decBoost(2, 3);
+		stat2.incBoost(1, 9);
+
+		assertEquals(4, boosts.size());
+		assertEquals(9, stat1.value());
+		assertEquals(7, stat2.value());
+
+		Clock.getInstance().tick(2);
+
+		assertEquals(9, stat1.value());
+		assertEquals(7, stat2.value());
+
+		// The 2 boosts expiring at the same tick are removed together
+		Clock.getInstance().tick();
+
+		assertEquals(2, boosts.size());
+		assertEquals(11, stat1.value());
+		assertEquals(2, stat2.value());
+
+		Clock.getInstance().tick(3);
+
+		assertEquals(1, boosts.size());
+		assertEquals(1, stat1.value());
+		assertEquals(2, stat2.value());
+
+		// A boost expiring before the pending ones is scheduled first
+		stat1.incBoost(3, 1);
+
+		Clock.getInstance().tick();
+
+		assertEquals(1, stat1.value());
+		assertEquals(2, stat2.value());
+
+		Clock.getInstance().tick(2);
+
+		assertEquals(0, boosts.size());
+		assertEquals(1, stat2.value());
+	}
+
 	@Override
 	protected void setUp() throws Exception {
 		// On nettoie l'horloge entre deux tests